@@ -568,6 +568,11 @@ public final class JavaScriptCore extends Plugin {
 	 * @see #getDefaultOptions()
 	 */
 	public static final String COMPILER_TASK_CASE_SENSITIVE = PLUGIN_ID + ".compiler.taskCaseSensitive"; //$NON-NLS-1$
+	/**
+	 * Possible  configurable option ID.
+	 * @see #getDefaultOptions()
+	 */
+	public static final String COMPILER_SUMMARIZE_MINIFIED_FILES = PLUGIN_ID + ".compiler.summarizeMinifiedFiles"; //$NON-NLS-1$
 	/**
 	 * Possible  configurable option ID.
 	 * @see #getDefaultOptions()
@@ -2009,6 +2014,14 @@ public final class JavaScriptCore extends Plugin {
 	 *     - possible values:   { "enabled", "disabled" }
 	 *     - default:           "enabled"
 	 *
+	 * VALIDATOR / Summarizing Minified Files
+	 *    When enabled, the minified and generated files, made of a few very long lines, are only parsed for
+	 *    their top level declarations when indexed, built or reconciled: the functions they declare are
+	 *    neither parsed nor inferred, and no problem is reported in them besides syntax errors.
+	 *     - option id:         "org.eclipse.wst.jsdt.core.compiler.summarizeMinifiedFiles"
+	 *     - possible values:   { "enabled", "disabled" }
+	 *     - default:           "disabled"
+	 *
 	 * VALIDATOR / Reporting Discouraged Reference to Type with Restricted Access
 	 *    When enabled, the validator will issue an error or a warning when referring to a type with discouraged access, as defined according
 	 *    to the access rule specifications.
@@ -677,6 +677,15 @@ public class ASTParser {
      * to the requestor. If additional javaScript units are required to
      * resolve the original ones, the corresponding ASTs are <b>not</b>
      * reported to the requestor.
+     * </p>
+     * <p>
+     * When bindings are not being resolved, the javaScript units are
+     * parsed on as many threads as the compiler option
+     * <code>"org.eclipse.wst.jsdt.core.compiler.parsingThreads"</code>
+     * specifies, 1 by default. The <code>ASTRequestor.acceptAST</code>
+     * callbacks are still made by the calling thread, in the order of
+     * the given javaScript units. When bindings are being resolved, the
+     * same option only spreads the parsing of the units.
      * </p>
 	 * <p>
 	 * Note also the following parser parameters are used, regardless of what
@@ -24,6 +24,7 @@ import org.eclipse.wst.jsdt.core.JavaScriptModelException;
 import org.eclipse.wst.jsdt.core.WorkingCopyOwner;
 import org.eclipse.wst.jsdt.core.compiler.CategorizedProblem;
 import org.eclipse.wst.jsdt.core.compiler.CharOperation;
+import org.eclipse.wst.jsdt.core.infer.InferrenceManager;
 import org.eclipse.wst.jsdt.internal.compiler.CompilationResult;
 import org.eclipse.wst.jsdt.internal.compiler.Compiler;
 import org.eclipse.wst.jsdt.internal.compiler.DefaultErrorHandlingPolicies;
@@ -50,6 +51,7 @@ import org.eclipse.wst.jsdt.internal.core.BinaryMember;
 import org.eclipse.wst.jsdt.internal.core.CancelableNameEnvironment;
 import org.eclipse.wst.jsdt.internal.core.CancelableProblemFactory;
 import org.eclipse.wst.jsdt.internal.core.JavaProject;
+import org.eclipse.wst.jsdt.internal.core.LibraryUnitCache;
 import org.eclipse.wst.jsdt.internal.core.NameLookup;
 import org.eclipse.wst.jsdt.internal.core.SourceRefElement;
 import org.eclipse.wst.jsdt.internal.core.SourceTypeElementInfo;
@@ -307,6 +309,17 @@ class JavaScriptUnitResolver extends Compiler {
 	public void initializeParser() {
 		this.parser = new CommentRecorderParser(this.problemReporter, false);
 	}
+	protected Parser newConcurrentParser(ProblemReporter reporter) {
+		return new CommentRecorderParser(reporter, false);
+	}
+	private static final LibraryUnitCache.ParserFactory LIBRARY_PARSER_FACTORY = new LibraryUnitCache.ParserFactory() {
+		public Parser newParser(ProblemReporter problemReporter, CompilerOptions compilerOptions) {
+			return new CommentRecorderParser(problemReporter, false);
+		}
+	};
+	protected LibraryUnitCache.ParserFactory getLibraryParserFactory() {
+		return LIBRARY_PARSER_FACTORY;
+	}
 	public void process(CompilationUnitDeclaration unit, int i) {
 		// don't resolve a second time the same unit (this would create the same binding twice)
 		char[] fileName = unit.compilationResult.getFileName();
@@ -339,40 +352,152 @@ class JavaScriptUnitResolver extends Compiler {
 		this.hasCompilationAborted = true;
 	}
 
+	/*
+	 * Parses and converts the units on several threads, each one using its own parser. The ASTs are
+	 * handed back in the order of the units, so that they are accepted by the calling thread exactly
+	 * as they would be by a single thread. The threads parse at most twice as many units as there are
+	 * threads beyond the next one to hand back, so that a slow requestor does not keep all the ASTs alive.
+	 */
+	static class ConcurrentASTParser {
+		IJavaScriptUnit[] compilationUnits;
+		int apiLevel;
+		Map options;
+		CompilerOptions compilerOptions;
+		int flags;
+		JavaScriptUnit[] nodes;
+		Throwable[] failures;
+		boolean[] parsed;
+		Thread[] threads;
+		int nextUnit = 0;
+		/* index of the next unit whose AST is handed back */
+		int nextNode = 0;
+		boolean stopped = false;
+
+		ConcurrentASTParser(IJavaScriptUnit[] compilationUnits, int apiLevel, Map options, CompilerOptions compilerOptions, int flags) {
+			this.compilationUnits = compilationUnits;
+			this.apiLevel = apiLevel;
+			this.options = options;
+			this.compilerOptions = compilerOptions;
+			this.flags = flags;
+			int length = compilationUnits.length;
+			this.nodes = new JavaScriptUnit[length];
+			this.failures = new Throwable[length];
+			this.parsed = new boolean[length];
+		}
+		void start() {
+			// the inference providers are loaded lazily by a singleton which is not thread safe
+			InferrenceManager.getInstance().getInferenceProviders();
+
+			int threadsCount = Math.min(this.compilerOptions.parsingThreads, this.compilationUnits.length);
+			this.threads = new Thread[threadsCount];
+			for (int i = 0; i < threadsCount; i++) {
+				final Parser unitParser = newParser(this.compilerOptions);
+				this.threads[i] = new Thread("JavaScript AST Parser " + i) { //$NON-NLS-1$
+					public void run() {
+						parseUnits(unitParser);
+					}
+				};
+				this.threads[i].setDaemon(true);
+				this.threads[i].setPriority(Thread.currentThread().getPriority());
+				this.threads[i].start();
+			}
+		}
+		void parseUnits(Parser unitParser) {
+			while (true) {
+				int unitIndex;
+				synchronized (this) {
+					if (this.nextUnit >= this.compilationUnits.length) return;
+					unitIndex = this.nextUnit++;
+					while (!this.stopped && unitIndex >= this.nextNode + 2 * this.threads.length) {
+						try {
+							wait();
+						} catch (InterruptedException e) {
+							// ignore
+						}
+					}
+					if (this.stopped) return;
+				}
+				JavaScriptUnit node = null;
+				Throwable failure = null;
+				try {
+					// the monitor is only used by the calling thread
+					node = parseUnit(this.compilationUnits[unitIndex], unitParser, this.apiLevel, this.options, this.compilerOptions, this.flags, null);
+				} catch (RuntimeException e) {
+					failure = e;
+				} catch (Error e) {
+					failure = e;
+				}
+				synchronized (this) {
+					this.nodes[unitIndex] = node;
+					this.failures[unitIndex] = failure;
+					this.parsed[unitIndex] = true;
+					notifyAll();
+				}
+			}
+		}
+		/*
+		 * Answer the AST of the given unit once converted, or null if it could not be parsed, rethrowing
+		 * what interrupted its conversion if any.
+		 */
+		synchronized JavaScriptUnit node(int unitIndex) {
+			while (!this.parsed[unitIndex]) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					// ignore
+				}
+			}
+			JavaScriptUnit node = this.nodes[unitIndex];
+			Throwable failure = this.failures[unitIndex];
+			this.nodes[unitIndex] = null; // no longer hold onto the AST
+			this.failures[unitIndex] = null;
+			this.nextNode = unitIndex + 1;
+			notifyAll();
+			if (failure instanceof RuntimeException)
+				throw (RuntimeException) failure;
+			if (failure instanceof Error)
+				throw (Error) failure;
+			return node;
+		}
+		void stop() {
+			synchronized (this) {
+				this.stopped = true;
+				notifyAll();
+			}
+			for (int i = 0, length = this.threads.length; i < length; i++) {
+				try {
+					this.threads[i].join();
+				} catch (InterruptedException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
 	public static void parse(IJavaScriptUnit[] compilationUnits, ASTRequestor astRequestor, int apiLevel, Map options, int flags, IProgressMonitor monitor) {
+		CompilerOptions compilerOptions = new CompilerOptions(options);
+		int length = compilationUnits.length;
+		ConcurrentASTParser concurrentParser = null;
 		try {
-			CompilerOptions compilerOptions = new CompilerOptions(options);
-			Parser parser = new CommentRecorderParser(
-				new ProblemReporter(
-						DefaultErrorHandlingPolicies.proceedWithAllProblems(),
-						compilerOptions,
-						new DefaultProblemFactory()),
-				false);
-			int length = compilationUnits.length;
+			Parser parser = null;
+			if (compilerOptions.parsingThreads > 1 && length > 1) {
+				concurrentParser = new ConcurrentASTParser(compilationUnits, apiLevel, options, compilerOptions, flags);
+				concurrentParser.start();
+			} else {
+				parser = newParser(compilerOptions);
+			}
 			if (monitor != null) monitor.beginTask("", length); //$NON-NLS-1$
 			for (int i = 0; i < length; i++) {
-				org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit sourceUnit = (org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit) compilationUnits[i];
-				CompilationResult compilationResult = new CompilationResult(sourceUnit, 0, 0, compilerOptions.maxProblemsPerUnit);
-				CompilationUnitDeclaration compilationUnitDeclaration = parser.dietParse(sourceUnit, compilationResult);
-				parser.inferTypes(compilationUnitDeclaration, compilerOptions);
-
-				if (compilationUnitDeclaration.ignoreMethodBodies) {
-					compilationUnitDeclaration.ignoreFurtherInvestigation = true;
-					// if initial diet parse did not work, no need to dig into method bodies.
-					continue;
-				}
-
-				//fill the methods bodies in order for the code to be generated
-				//real parse of the method....
-				org.eclipse.wst.jsdt.internal.compiler.ast.TypeDeclaration[] types = compilationUnitDeclaration.types;
-				if (types != null) {
-					for (int j = types.length; --j >= 0;)
-						types[j].parseMethod(parser, compilationUnitDeclaration);
+				JavaScriptUnit node;
+				if (concurrentParser != null) {
+					if (monitor != null && monitor.isCanceled())
+						throw new OperationCanceledException();
+					node = concurrentParser.node(i);
+				} else {
+					node = parseUnit(compilationUnits[i], parser, apiLevel, options, compilerOptions, flags, monitor);
 				}
-
-				// convert AST
-				JavaScriptUnit node = convert(compilationUnitDeclaration, parser.scanner.getSource(), apiLevel, options, false/*don't resolve binding*/, null/*no owner needed*/, null/*no binding table needed*/, flags /* flags */, monitor);
-				node.setTypeRoot(compilationUnits[i]);
+				if (node == null)
+					continue;
 
 				// accept AST
 				astRequestor.acceptAST(compilationUnits[i], node);
@@ -380,10 +505,51 @@ class JavaScriptUnitResolver extends Compiler {
 				if (monitor != null) monitor.worked(1);
 			}
 		} finally {
+			if (concurrentParser != null)
+				concurrentParser.stop();
 			if (monitor != null) monitor.done();
 		}
 	}
 
+	private static Parser newParser(CompilerOptions compilerOptions) {
+		return new CommentRecorderParser(
+			new ProblemReporter(
+					DefaultErrorHandlingPolicies.proceedWithAllProblems(),
+					compilerOptions,
+					new DefaultProblemFactory()),
+			false);
+	}
+
+	/*
+	 * Parses the given unit and converts it to an AST without bindings, answers null if the unit
+	 * could not be diet parsed.
+	 */
+	static JavaScriptUnit parseUnit(IJavaScriptUnit compilationUnit, Parser parser, int apiLevel, Map options, CompilerOptions compilerOptions, int flags, IProgressMonitor monitor) {
+		org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit sourceUnit = (org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit) compilationUnit;
+		CompilationResult compilationResult = new CompilationResult(sourceUnit, 0, 0, compilerOptions.maxProblemsPerUnit);
+		CompilationUnitDeclaration compilationUnitDeclaration = parser.dietParse(sourceUnit, compilationResult);
+		parser.inferTypes(compilationUnitDeclaration, compilerOptions);
+
+		if (compilationUnitDeclaration.ignoreMethodBodies) {
+			compilationUnitDeclaration.ignoreFurtherInvestigation = true;
+			// if initial diet parse did not work, no need to dig into method bodies.
+			return null;
+		}
+
+		//fill the methods bodies in order for the code to be generated
+		//real parse of the method....
+		org.eclipse.wst.jsdt.internal.compiler.ast.TypeDeclaration[] types = compilationUnitDeclaration.types;
+		if (types != null) {
+			for (int j = types.length; --j >= 0;)
+				types[j].parseMethod(parser, compilationUnitDeclaration);
+		}
+
+		// convert AST
+		JavaScriptUnit node = convert(compilationUnitDeclaration, parser.scanner.getSource(), apiLevel, options, false/*don't resolve binding*/, null/*no owner needed*/, null/*no binding table needed*/, flags /* flags */, monitor);
+		node.setTypeRoot(compilationUnit);
+		return node;
+	}
+
 	public static CompilationUnitDeclaration parse(
 			org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit sourceUnit,
 			NodeSearcher nodeSearcher,
@@ -21,6 +21,9 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
 
@@ -31,15 +34,20 @@ import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.text.edits.TextEdit;
+import org.eclipse.wst.jsdt.core.JavaScriptCore;
 import org.eclipse.wst.jsdt.core.ToolFactory;
 import org.eclipse.wst.jsdt.internal.core.util.Util;
 
 /**
  * Implements an Eclipse Application for org.eclipse.wst.jsdt.core.JavaCodeFormatter.
  *
- * There are a couple improvments that could be made: 1. Make a list of all the
- * files first so that a file does not get formatted twice. 2. Use a text based
- * progress monitor for output.
+ * The files to format are listed first, so that a file does not get formatted
+ * twice, and are then formatted by several threads. The formatters are not
+ * thread safe, each thread has its own. In check mode, the files are not
+ * written, the files which are not formatted are reported.
+ *
+ * There is an improvment that could be made: Use a text based progress monitor
+ * for output.
  * <p>
  * This class is not intended to be instantiated or subclassed by clients.
  * </p>
@@ -78,6 +86,16 @@ public class CodeFormatterApplication implements IApplication {
 
 		public static String CommandLineStart;
 
+		public static String CommandLineStatistics;
+
+		public static String CommandLineCheckDone;
+
+		public static String CommandLineNotFormatted;
+
+		public static String CommandLineErrorThreads;
+
+		public static String CommandLineFailed;
+
 		public static String CommandLineUsage;
 
 		public static String ConfigFileReadingError;
@@ -153,14 +171,26 @@ public class CodeFormatterApplication implements IApplication {
 		}
 	}
 
+	private static final String ARG_CHECK = "-check"; //$NON-NLS-1$
+
 	private static final String ARG_CONFIG = "-config"; //$NON-NLS-1$
 
 	private static final String ARG_HELP = "-help"; //$NON-NLS-1$
 
 	private static final String ARG_QUIET = "-quiet"; //$NON-NLS-1$
 
+	private static final String ARG_THREADS = "-threads"; //$NON-NLS-1$
+
 	private static final String ARG_VERBOSE = "-verbose"; //$NON-NLS-1$
 
+	/* exit code of a check which found files which are not formatted */
+	private static final Integer EXIT_NOT_FORMATTED = new Integer(1);
+
+	/* exit code of a check which could not read or format some files */
+	private static final Integer EXIT_FAILED = new Integer(2);
+
+	private boolean check = false;
+
 	private String configName;
 
 	private Map options = null;
@@ -171,6 +201,16 @@ public class CodeFormatterApplication implements IApplication {
 
 	private boolean verbose = false;
 
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/* index of the next file to format by the threads */
+	private int nextFile;
+
+	/* files formatted, files which are not formatted in check mode, files which could not be formatted */
+	private int formattedFiles, unformattedFiles, failedFiles;
+
+	private long formattedBytes;
+
 	/**
 	 * Display the command line usage message.
 	 */
@@ -185,25 +225,95 @@ public class CodeFormatterApplication implements IApplication {
 	}
 
 	/**
-	 * Recursively format the JavaScript source code that is contained in the
+	 * Recursively collect the JavaScript source files that are contained in the
 	 * directory rooted at dir.
 	 */
-	private void formatDirTree(File dir, CodeFormatter codeFormatter) {
+	private void collectDirTree(File dir, ArrayList files, HashSet paths) {
 
-		File[] files = dir.listFiles();
-		if (files == null)
+		File[] dirFiles = dir.listFiles();
+		if (dirFiles == null)
 			return;
 
-		for (int i = 0; i < files.length; i++) {
-			File file = files[i];
-			if (file.isDirectory()) {
-				formatDirTree(file, codeFormatter);
-			} else if (Util.isJavaLikeFileName(file.getPath())) {
-				formatFile(file, codeFormatter);
+		for (int i = 0; i < dirFiles.length; i++) {
+			collectFile(dirFiles[i], files, paths);
+		}
+	}
+
+	/**
+	 * Collect the given JavaScript source file, or the ones of the given
+	 * directory, unless already collected.
+	 */
+	private void collectFile(File file, ArrayList files, HashSet paths) {
+		if (file.isDirectory()) {
+			collectDirTree(file, files, paths);
+		} else if (Util.isJavaLikeFileName(file.getPath())) {
+			String path;
+			try {
+				path = file.getCanonicalPath();
+			} catch (IOException e) {
+				path = file.getAbsolutePath();
+			}
+			if (paths.add(path)) {
+				files.add(file);
 			}
 		}
 	}
 
+	/**
+	 * Format the given JavaScript source files, with as many threads as
+	 * requested. The largest files are formatted first so that the threads
+	 * end at about the same time.
+	 */
+	private void formatFiles(final File[] files) throws InterruptedException {
+		Arrays.sort(files, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				long length1 = ((File) o1).length();
+				long length2 = ((File) o2).length();
+				return length1 > length2 ? -1 : length1 < length2 ? 1 : 0;
+			}
+		});
+		int threadsCount = Math.min(this.threads, files.length);
+		if (threadsCount <= 1) {
+			final CodeFormatter codeFormatter = ToolFactory.createCodeFormatter(this.options);
+			for (int i = 0, max = files.length; i < max; i++) {
+				formatFile(files[i], codeFormatter);
+			}
+			return;
+		}
+		Thread[] formatThreads = new Thread[threadsCount];
+		for (int i = 0; i < threadsCount; i++) {
+			formatThreads[i] = new Thread("JavaScript Code Formatter " + i) { //$NON-NLS-1$
+				public void run() {
+					final CodeFormatter codeFormatter = ToolFactory.createCodeFormatter(CodeFormatterApplication.this.options);
+					File file;
+					while ((file = nextFile(files)) != null) {
+						formatFile(file, codeFormatter);
+					}
+				}
+			};
+			formatThreads[i].start();
+		}
+		for (int i = 0; i < threadsCount; i++) {
+			formatThreads[i].join();
+		}
+	}
+
+	private synchronized File nextFile(File[] files) {
+		return this.nextFile < files.length ? files[this.nextFile++] : null;
+	}
+
+	private synchronized void formatted(long length, boolean isFormatted) {
+		this.formattedFiles++;
+		this.formattedBytes += length;
+		if (!isFormatted) {
+			this.unformattedFiles++;
+		}
+	}
+
+	private synchronized void failed() {
+		this.failedFiles++;
+	}
+
 	/**
 	 * Format the given JavaScript source file.
 	 */
@@ -214,6 +324,7 @@ public class CodeFormatterApplication implements IApplication {
 			if (this.verbose) {
 				System.out.println(Messages.bind(Messages.CommandLineFormatting, file.getAbsolutePath()));
 			}
+			long length = file.length();
 			String contents = new String(org.eclipse.wst.jsdt.internal.compiler.util.Util.getFileCharContent(file, null));
 			// format the file (the meat and potatoes)
 			doc.set(contents);
@@ -221,14 +332,27 @@ public class CodeFormatterApplication implements IApplication {
 			if (edit != null) {
 				edit.apply(doc);
 			} else {
+				failed();
 				System.err.println(Messages.bind(Messages.FormatProblem, file.getAbsolutePath()));
 				return;
 			}
+			String formattedContents = doc.get();
+			boolean isFormatted = formattedContents.equals(contents);
+			formatted(length, isFormatted);
+			if (this.check) {
+				if (!isFormatted) {
+					System.err.println(Messages.bind(Messages.CommandLineNotFormatted, file.getAbsolutePath()));
+				}
+				return;
+			}
+			if (isFormatted) {
+				return;
+			}
 
 			// write the file
 			final BufferedWriter out = new BufferedWriter(new FileWriter(file));
 			try {
-				out.write(doc.get());
+				out.write(formattedContents);
 				out.flush();
 			} finally {
 				try {
@@ -238,10 +362,12 @@ public class CodeFormatterApplication implements IApplication {
 				}
 			}
 		} catch (IOException e) {
+			failed();
 			String errorMessage = Messages.bind(Messages.CaughtException, "IOException", e.getLocalizedMessage()); //$NON-NLS-1$
 			Util.log(e, errorMessage);
 			System.err.println(Messages.bind(Messages.ExceptionSkip ,errorMessage));
 		} catch (BadLocationException e) {
+			failed();
 			String errorMessage = Messages.bind(Messages.CaughtException, "BadLocationException", e.getLocalizedMessage()); //$NON-NLS-1$
 			Util.log(e, errorMessage);
 			System.err.println(Messages.bind(Messages.ExceptionSkip ,errorMessage));
@@ -259,6 +385,7 @@ public class CodeFormatterApplication implements IApplication {
 
 		final int DEFAULT_MODE = 0;
 		final int CONFIG_MODE = 1;
+		final int THREADS_MODE = 2;
 
 		int mode = DEFAULT_MODE;
 		final int INITIAL_SIZE = 1;
@@ -290,6 +417,14 @@ public class CodeFormatterApplication implements IApplication {
 						mode = CONFIG_MODE;
 						continue loop;
 					}
+					if (ARG_CHECK.equals(currentArg)) {
+						this.check = true;
+						continue loop;
+					}
+					if (ARG_THREADS.equals(currentArg)) {
+						mode = THREADS_MODE;
+						continue loop;
+					}
 					// the current arg should be a file or a directory name
 					File file = new File(currentArg);
 					if (file.exists()) {
@@ -311,9 +446,25 @@ public class CodeFormatterApplication implements IApplication {
 					}
 					mode = DEFAULT_MODE;
 					continue loop;
+				case THREADS_MODE :
+					try {
+						this.threads = Integer.parseInt(currentArg);
+					} catch (NumberFormatException e) {
+						this.threads = 0;
+					}
+					if (this.threads < 1) {
+						displayHelp(Messages.bind(Messages.CommandLineErrorThreads, currentArg));
+						return null;
+					}
+					mode = DEFAULT_MODE;
+					continue loop;
 			}
 		}
 
+		if (mode == THREADS_MODE) {
+			displayHelp(Messages.bind(Messages.CommandLineErrorThreads, "")); //$NON-NLS-1$
+			return null;
+		}
 		if (mode == CONFIG_MODE || this.options == null) {
 			displayHelp(Messages.bind(Messages.CommandLineErrorNoConfigFile));
 			return null;
@@ -338,12 +489,16 @@ public class CodeFormatterApplication implements IApplication {
 
 	/**
 	 * Return a JavaScript Properties file representing the options that are in the
-	 * specified config file.
+	 * specified config file, or in the settings of the specified project directory.
 	 */
 	private Properties readConfig(String filename) {
 		BufferedInputStream stream = null;
 		try {
-			stream = new BufferedInputStream(new FileInputStream(new File(filename)));
+			File file = new File(filename);
+			if (file.isDirectory()) {
+				file = new File(new File(file, ".settings"), JavaScriptCore.PLUGIN_ID + ".prefs"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			stream = new BufferedInputStream(new FileInputStream(file));
 			final Properties formatterOptions = new Properties();
 			formatterOptions.load(stream);
 			return formatterOptions;
@@ -378,20 +533,39 @@ public class CodeFormatterApplication implements IApplication {
 			System.out.println(Messages.bind(Messages.CommandLineStart));
 		}
 
-		final CodeFormatter codeFormatter = ToolFactory.createCodeFormatter(this.options);
-		// format the list of files and/or directories
+		long start = System.currentTimeMillis();
+		// list the files of the files and/or directories, then format them
+		ArrayList files = new ArrayList();
+		HashSet paths = new HashSet();
 		for (int i = 0, max = filesToFormat.length; i < max; i++) {
-			final File file = filesToFormat[i];
-			if (file.isDirectory()) {
-				formatDirTree(file, codeFormatter);
-			} else if (Util.isJavaLikeFileName(file.getPath())) {
-				formatFile(file, codeFormatter);
-			}
+			collectFile(filesToFormat[i], files, paths);
 		}
+		formatFiles((File[]) files.toArray(new File[files.size()]));
+		long time = Math.max(System.currentTimeMillis() - start, 1);
+
 		if (!this.quiet) {
+			System.out.println(Messages.bind(Messages.CommandLineStatistics, new Object[] {
+				new Integer(this.formattedFiles),
+				new Long(this.formattedBytes),
+				new Long(time),
+				new Long(this.formattedFiles * 1000L / time),
+				new Long(this.formattedBytes * 1000L / time)
+			}));
+			if (this.failedFiles > 0) {
+				System.out.println(Messages.bind(Messages.CommandLineFailed, new Integer(this.failedFiles)));
+			}
+			if (this.check) {
+				System.out.println(Messages.bind(Messages.CommandLineCheckDone, new Integer(this.unformattedFiles), new Integer(this.formattedFiles)));
+			}
 			System.out.println(Messages.bind(Messages.CommandLineDone));
 		}
 
+		if (this.check && this.failedFiles > 0) {
+			return EXIT_FAILED;
+		}
+		if (this.check && this.unformattedFiles > 0) {
+			return EXIT_NOT_FORMATTED;
+		}
 		return IApplication.EXIT_OK;
 	}
 	public void stop() {
@@ -154,6 +154,7 @@ import org.eclipse.wst.jsdt.internal.core.BasicCompilationUnit;
 import org.eclipse.wst.jsdt.internal.core.BinaryTypeConverter;
 import org.eclipse.wst.jsdt.internal.core.INamingRequestor;
 import org.eclipse.wst.jsdt.internal.core.InternalNamingConventions;
+import org.eclipse.wst.jsdt.internal.core.LibraryUnitCache;
 import org.eclipse.wst.jsdt.internal.core.SearchableEnvironment;
 import org.eclipse.wst.jsdt.internal.core.SourceMethod;
 import org.eclipse.wst.jsdt.internal.core.SourceMethodElementInfo;
@@ -6389,6 +6390,11 @@ public final class CompletionEngine
 	public CompilationUnitDeclaration doParse(ICompilationUnit unit, AccessRestriction accessRestriction) {
 		CompilationResult unitResult =
 			new CompilationResult(unit, 1, 1, this.compilerOptions.maxProblemsPerUnit);
+		if (LibraryUnitCache.isCached(unit)) {
+			CompilationUnitDeclaration parsedUnit = LibraryUnitCache.getInstance().getParsedUnit(unit, false, this.compilerOptions, LibraryUnitCache.DEFAULT_PARSER_FACTORY);
+			if (parsedUnit != null)
+				return parsedUnit;
+		}
 		try {
 			Parser localParser = new Parser(this.problemReporter, this.compilerOptions.parseLiteralExpressionsAsConstants);
 			// fix for 309133
@@ -71,6 +71,7 @@ import org.eclipse.wst.jsdt.internal.compiler.problem.AbortCompilation;
 import org.eclipse.wst.jsdt.internal.compiler.problem.AbortCompilationUnit;
 import org.eclipse.wst.jsdt.internal.compiler.problem.DefaultProblemFactory;
 import org.eclipse.wst.jsdt.internal.compiler.problem.ProblemReporter;
+import org.eclipse.wst.jsdt.internal.core.LibraryUnitCache;
 import org.eclipse.wst.jsdt.internal.core.SearchableEnvironment;
 import org.eclipse.wst.jsdt.internal.core.SelectionRequestor;
 import org.eclipse.wst.jsdt.internal.core.SourceType;
@@ -1304,6 +1305,11 @@ public final class SelectionEngine extends Engine implements ISearchRequestor {
 	public CompilationUnitDeclaration doParse(ICompilationUnit unit, AccessRestriction accessRestriction) {
 		CompilationResult unitResult =
 			new CompilationResult(unit, 1, 1, this.compilerOptions.maxProblemsPerUnit);
+		if (LibraryUnitCache.isCached(unit)) {
+			CompilationUnitDeclaration parsedUnit = LibraryUnitCache.getInstance().getParsedUnit(unit, false, this.compilerOptions, LibraryUnitCache.DEFAULT_PARSER_FACTORY);
+			if (parsedUnit != null)
+				return parsedUnit;
+		}
 		try {
 			Parser localParser = new Parser(this.parser.problemReporter(), this.compilerOptions.parseLiteralExpressionsAsConstants);
 
@@ -17,6 +17,7 @@ import java.io.StringWriter;
 import org.eclipse.wst.jsdt.core.compiler.CategorizedProblem;
 import org.eclipse.wst.jsdt.core.compiler.CharOperation;
 import org.eclipse.wst.jsdt.core.compiler.IProblem;
+import org.eclipse.wst.jsdt.core.infer.InferrenceManager;
 import org.eclipse.wst.jsdt.internal.compiler.ast.ASTNode;
 import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
 import org.eclipse.wst.jsdt.internal.compiler.ast.ImportReference;
@@ -40,6 +41,7 @@ import org.eclipse.wst.jsdt.internal.compiler.problem.ProblemSeverities;
 import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfObject;
 import org.eclipse.wst.jsdt.internal.compiler.util.Messages;
 import org.eclipse.wst.jsdt.internal.compiler.util.SimpleSetOfCharArray;
+import org.eclipse.wst.jsdt.internal.core.LibraryUnitCache;
 import org.eclipse.wst.jsdt.internal.core.builder.SourceFile;
 import org.eclipse.wst.jsdt.internal.oaametadata.LibraryAPIs;
 
@@ -222,15 +224,7 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 				parsedUnits = new HashtableOfObject();
 			CompilationUnitDeclaration parsedUnit = (CompilationUnitDeclaration) parsedUnits.get(sourceUnit.getFileName());
 			if (parsedUnit == null) {
-				// diet parsing for large collection of unit
-				if (totalUnits < parseThreshold) {
-					parsedUnit = parser.parse(sourceUnit, unitResult);
-				}
-				else {
-					parsedUnit = parser.dietParse(sourceUnit, unitResult);
-				}
-				parsedUnit.bits |= ASTNode.IsImplicitUnit;
-				parser.inferTypes(parsedUnit, this.options);
+				parsedUnit = parseImplicitUnit(sourceUnit, unitResult);
 				parsedUnits.put(sourceUnit.getFileName(), parsedUnit);
 				if (sourceUnit instanceof SourceFile) {
 					// try to prevent, or at least reduce, the times the same file is processed multiple times
@@ -267,6 +261,28 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 	}
 
 
+	/*
+	 * Parses and infers a unit requested while compiling, library units are taken from the shared cache when parsed already.
+	 */
+	private CompilationUnitDeclaration parseImplicitUnit(ICompilationUnit sourceUnit, CompilationResult unitResult) {
+		// diet parsing for large collection of unit
+		boolean diet = totalUnits >= parseThreshold;
+		CompilationUnitDeclaration parsedUnit = null;
+		if (LibraryUnitCache.isCached(sourceUnit))
+			parsedUnit = LibraryUnitCache.getInstance().getParsedUnit(sourceUnit, diet, this.options, getLibraryParserFactory());
+		if (parsedUnit == null) {
+			if (diet) {
+				parsedUnit = parser.dietParse(sourceUnit, unitResult);
+			}
+			else {
+				parsedUnit = parser.parse(sourceUnit, unitResult);
+			}
+			parser.inferTypes(parsedUnit, this.options);
+		}
+		parsedUnit.bits |= ASTNode.IsImplicitUnit;
+		return parsedUnit;
+	}
+
 	public CompilationUnitDeclaration doParse(ICompilationUnit sourceUnit, AccessRestriction accessRestriction) {
 		CompilationResult unitResult =
 			new CompilationResult(sourceUnit, totalUnits, totalUnits, this.options.maxProblemsPerUnit);
@@ -543,27 +559,82 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 		this.parser.javadocParser.checkDocComment=true;
 	}
 
+	/**
+	 * Answer a new parser, of the same kind than the one created by initializeParser(),
+	 * used by one of the threads parsing the units when the parsing threads option is set.
+	 */
+	protected Parser newConcurrentParser(ProblemReporter reporter) {
+		Parser concurrentParser = new Parser(reporter, this.options.parseLiteralExpressionsAsConstants);
+		concurrentParser.javadocParser=new SourceJavadocParser(concurrentParser);
+		concurrentParser.javadocParser.checkDocComment=true;
+		return concurrentParser;
+	}
+
+	/*
+	 * Creates the parsers of the library units taken from the shared cache, of the same kind than the one
+	 * created by initializeParser().
+	 */
+	private static final LibraryUnitCache.ParserFactory LIBRARY_PARSER_FACTORY = new LibraryUnitCache.ParserFactory() {
+		public Parser newParser(ProblemReporter problemReporter, CompilerOptions compilerOptions) {
+			Parser libraryParser = new Parser(problemReporter, compilerOptions.parseLiteralExpressionsAsConstants);
+			libraryParser.javadocParser=new SourceJavadocParser(libraryParser);
+			libraryParser.javadocParser.checkDocComment=true;
+			return libraryParser;
+		}
+	};
+
+	/**
+	 * Answer the factory of the parsers of the library units taken from the shared cache, see
+	 * LibraryUnitCache#getParsedUnit(...). The subclasses which create other parsers in initializeParser()
+	 * answer another factory.
+	 */
+	protected LibraryUnitCache.ParserFactory getLibraryParserFactory() {
+		return LIBRARY_PARSER_FACTORY;
+	}
+
 	/**
 	 * Add the initial set of compilation units into the loop
 	 *  ->  build compilation unit declarations, their bindings and record their results.
 	 */
 	protected void internalBeginToCompile(ICompilationUnit[] sourceUnits, int maxUnits) {
 		SimpleSetOfCharArray allDefinedTypes = new SimpleSetOfCharArray();
-		// Switch the current policy and compilation result for this unit to the requested one.
-		for (int i = 0; i < maxUnits; i++) {
-			CompilationUnitDeclaration parsedUnit;
-			CompilationResult unitResult =
-				new CompilationResult(sourceUnits[i], i, maxUnits, this.options.maxProblemsPerUnit);
-			try {
-				if (options.verbose) {
-					this.out.println(
-						Messages.bind(Messages.compilation_request,
-						new String[] {
-							String.valueOf(i + 1),
-							String.valueOf(maxUnits),
-							new String(sourceUnits[i].getFileName())
-						}));
-				}
+		// parse and infer the units on several threads, their bindings are still built in order below
+		ConcurrentUnitParser concurrentParser = null;
+		if (this.options.parsingThreads > 1 && maxUnits > 1) {
+			concurrentParser = new ConcurrentUnitParser(sourceUnits, maxUnits);
+			concurrentParser.start();
+		}
+		try {
+			// Switch the current policy and compilation result for this unit to the requested one.
+			for (int i = 0; i < maxUnits; i++) {
+				buildUnit(sourceUnits, i, maxUnits, concurrentParser, allDefinedTypes);
+			}
+		} finally {
+			if (concurrentParser != null)
+				concurrentParser.stop();
+		}
+		// binding resolution
+		lookupEnvironment.completeTypeBindings(allDefinedTypes.values);
+	}
+
+	private void buildUnit(ICompilationUnit[] sourceUnits, int i, int maxUnits, ConcurrentUnitParser concurrentParser, SimpleSetOfCharArray allDefinedTypes) {
+		CompilationUnitDeclaration parsedUnit;
+		CompilationResult unitResult;
+		try {
+			if (options.verbose) {
+				this.out.println(
+					Messages.bind(Messages.compilation_request,
+					new String[] {
+						String.valueOf(i + 1),
+						String.valueOf(maxUnits),
+						new String(sourceUnits[i].getFileName())
+					}));
+			}
+			if (concurrentParser != null) {
+				parsedUnit = concurrentParser.parsedUnit(i);
+				unitResult = parsedUnit.compilationResult;
+			} else {
+				unitResult = new CompilationResult(sourceUnits[i], i, maxUnits, this.options.maxProblemsPerUnit);
 				// diet parsing for large collection of units
 				if (totalUnits < parseThreshold) {
 					parsedUnit = parser.parse(sourceUnits[i], unitResult);
@@ -571,29 +642,141 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 					parsedUnit = parser.dietParse(sourceUnits[i], unitResult);
 				}
 				parser.inferTypes(parsedUnit,this.options);
+			}
 
-				SimpleSetOfCharArray defined = new SimpleSetOfCharArray();
-				for (int j = 0; j < parsedUnit.numberInferredTypes; j++) {
-					if (parsedUnit.inferredTypes[j].isDefinition()) {
-						defined.add(parsedUnit.inferredTypes[j].getName());
-						allDefinedTypes.add(parsedUnit.inferredTypes[j].getName());
+			SimpleSetOfCharArray defined = new SimpleSetOfCharArray();
+			for (int j = 0; j < parsedUnit.numberInferredTypes; j++) {
+				if (parsedUnit.inferredTypes[j].isDefinition()) {
+					defined.add(parsedUnit.inferredTypes[j].getName());
+					allDefinedTypes.add(parsedUnit.inferredTypes[j].getName());
+				}
+			}
+			// initial type binding creation
+			this.addCompilationUnit(sourceUnits[i], parsedUnit);
+			lookupEnvironment.buildTypeBindings(parsedUnit, defined.values, null /*no access restriction*/);
+			ImportReference currentPackage = parsedUnit.currentPackage;
+			if (currentPackage != null) {
+				unitResult.recordPackageName(currentPackage.tokens);
+			}
+			//} catch (AbortCompilationUnit e) {
+			//	requestor.acceptResult(unitResult.tagAsAccepted());
+		} finally {
+			sourceUnits[i] = null; // no longer hold onto the unit
+		}
+	}
+
+	/*
+	 * Parses and infers the types of the initial units on several threads, each one using its own parser
+	 * and problem reporter. The units are handed back in their original order, so that the bindings
+	 * are built, resolved and accepted exactly as they would be by a single thread.
+	 */
+	class ConcurrentUnitParser {
+		ICompilationUnit[] sourceUnits;
+		int maxUnits;
+		int initialUnits; // number of units known before parsing, used to decide between full and diet parsing
+		CompilationUnitDeclaration[] parsedUnits;
+		Throwable[] failures;
+		boolean[] parsed;
+		Thread[] threads;
+		int nextUnit = 0;
+		boolean stopped = false;
+
+		ConcurrentUnitParser(ICompilationUnit[] sourceUnits, int maxUnits) {
+			this.sourceUnits = sourceUnits;
+			this.maxUnits = maxUnits;
+			this.initialUnits = Compiler.this.totalUnits;
+			this.parsedUnits = new CompilationUnitDeclaration[maxUnits];
+			this.failures = new Throwable[maxUnits];
+			this.parsed = new boolean[maxUnits];
+		}
+		void start() {
+			// the inference providers are loaded lazily by a singleton which is not thread safe
+			InferrenceManager.getInstance().getInferenceProviders();
+
+			int threadsCount = Math.min(Compiler.this.options.parsingThreads, this.maxUnits);
+			this.threads = new Thread[threadsCount];
+			for (int i = 0; i < threadsCount; i++) {
+				ProblemReporter reporter = new ProblemReporter(
+					Compiler.this.problemReporter.policy,
+					Compiler.this.options,
+					Compiler.this.problemReporter.problemFactory);
+				final Parser unitParser = newConcurrentParser(reporter);
+				unitParser.summarizeMinifiedUnits = Compiler.this.parser.summarizeMinifiedUnits;
+				this.threads[i] = new Thread("JavaScript Compiler Parser " + i) { //$NON-NLS-1$
+					public void run() {
+						parseUnits(unitParser);
 					}
+				};
+				this.threads[i].setDaemon(true);
+				this.threads[i].setPriority(Thread.currentThread().getPriority());
+				this.threads[i].start();
+			}
+		}
+		void parseUnits(Parser unitParser) {
+			while (true) {
+				int unitIndex;
+				synchronized (this) {
+					if (this.stopped || this.nextUnit >= this.maxUnits) return;
+					unitIndex = this.nextUnit++;
 				}
-				// initial type binding creation
-				this.addCompilationUnit(sourceUnits[i], parsedUnit);
-				lookupEnvironment.buildTypeBindings(parsedUnit, defined.values, null /*no access restriction*/);
-				ImportReference currentPackage = parsedUnit.currentPackage;
-				if (currentPackage != null) {
-					unitResult.recordPackageName(currentPackage.tokens);
+				CompilationUnitDeclaration parsedUnit = null;
+				Throwable failure = null;
+				try {
+					CompilationResult unitResult =
+						new CompilationResult(this.sourceUnits[unitIndex], unitIndex, this.maxUnits, Compiler.this.options.maxProblemsPerUnit);
+					// diet parsing for large collection of units
+					if (this.initialUnits + unitIndex < Compiler.this.parseThreshold) {
+						parsedUnit = unitParser.parse(this.sourceUnits[unitIndex], unitResult);
+					} else {
+						parsedUnit = unitParser.dietParse(this.sourceUnits[unitIndex], unitResult);
+					}
+					unitParser.inferTypes(parsedUnit, Compiler.this.options);
+				} catch (RuntimeException e) {
+					failure = e;
+				} catch (Error e) {
+					failure = e;
+				}
+				synchronized (this) {
+					this.parsedUnits[unitIndex] = parsedUnit;
+					this.failures[unitIndex] = failure;
+					this.parsed[unitIndex] = true;
+					notifyAll();
+				}
+			}
+		}
+		/*
+		 * Answer the given unit once parsed, rethrowing what interrupted its parsing if any.
+		 */
+		synchronized CompilationUnitDeclaration parsedUnit(int unitIndex) {
+			while (!this.parsed[unitIndex]) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					// ignore
+				}
+			}
+			CompilationUnitDeclaration parsedUnit = this.parsedUnits[unitIndex];
+			Throwable failure = this.failures[unitIndex];
+			this.parsedUnits[unitIndex] = null; // no longer hold onto the unit
+			this.failures[unitIndex] = null;
+			if (failure instanceof RuntimeException)
+				throw (RuntimeException) failure;
+			if (failure instanceof Error)
+				throw (Error) failure;
+			return parsedUnit;
+		}
+		void stop() {
+			synchronized (this) {
+				this.stopped = true;
+			}
+			for (int i = 0, length = this.threads.length; i < length; i++) {
+				try {
+					this.threads[i].join();
+				} catch (InterruptedException e) {
+					// ignore
 				}
-				//} catch (AbortCompilationUnit e) {
-				//	requestor.acceptResult(unitResult.tagAsAccepted());
-			} finally {
-				sourceUnits[i] = null; // no longer hold onto the unit
 			}
 		}
-		// binding resolution
-		lookupEnvironment.completeTypeBindings(allDefinedTypes.values);
 	}
 
 	/**
@@ -608,10 +791,13 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 		if (unit.scope != null)
 			unit.scope.faultInTypes();
 
-		// type checking
-		unit.resolve();
+		// a summarized minified source only declares its top level names, see Parser#summarizeMinifiedUnits
+		if (!unit.isSummary) {
+			// type checking
+			unit.resolve();
 
-		unit.analyseCode();
+			unit.analyseCode();
+		}
 
 
 		// reference info
@@ -660,15 +846,16 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 			}
 			this.lookupEnvironment.unitBeingCompleted = unit;
 			this.parser.getMethodBodies(unit);
+			// a summarized minified source only declares its top level names, see Parser#summarizeMinifiedUnits
 			if (unit.scope != null) {
 				// fault in fields & methods
 				unit.scope.faultInTypes();
 
 				// type checking
-				unit.resolve();
+				if (!unit.isSummary) unit.resolve();
 
 				// flow analysis
-				if (analyzeCode) unit.analyseCode();
+				if (analyzeCode && !unit.isSummary) unit.analyseCode();
 
 				// code generation
 //				if (generateCode) unit.generateCode();
@@ -735,15 +922,7 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 				parsedUnits = new HashtableOfObject();
 			CompilationUnitDeclaration parsedUnit = (CompilationUnitDeclaration) parsedUnits.get(sourceUnit.getFileName());
 			if (parsedUnit == null) {
-				// diet parsing for large collection of unit
-				if (totalUnits < parseThreshold) {
-					parsedUnit = parser.parse(sourceUnit, unitResult);
-				}
-				else {
-					parsedUnit = parser.dietParse(sourceUnit, unitResult);
-				}
-				parsedUnit.bits |= ASTNode.IsImplicitUnit;
-				parser.inferTypes(parsedUnit, this.options);
+				parsedUnit = parseImplicitUnit(sourceUnit, unitResult);
 				parsedUnits.put(sourceUnit.getFileName(), parsedUnit);
 			}
 			// initial type binding creation
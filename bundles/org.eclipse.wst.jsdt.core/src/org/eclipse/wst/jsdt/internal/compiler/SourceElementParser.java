@@ -118,6 +118,24 @@ public class SourceElementParser extends CommentRecorderParser {
 	
 	
 	public static final boolean NOTIFY_LOCALS=false;
+
+/**
+ * The unit of a version of a source, parsed so that its statements can be reused by the parse
+ * of the next version of the source, see {@link SourceElementParser#parseReusableUnit(ICompilationUnit)}.
+ */
+public static class ReusableUnit {
+	final char[] contents;
+	final CompilationUnitDeclaration unit;
+	final HashtableOfObjectToInt sourceEnds;
+	final HashMap nodesToCategories;
+
+	ReusableUnit(char[] contents, CompilationUnitDeclaration unit, HashtableOfObjectToInt sourceEnds, HashMap nodesToCategories) {
+		this.contents = contents;
+		this.unit = unit;
+		this.sourceEnds = sourceEnds;
+		this.nodesToCategories = nodesToCategories;
+	}
+}
 /**
  * An ast visitor that visits local type declarations.
  */
@@ -342,7 +360,8 @@ public SourceElementParser(
 		problemFactory) {
 		public void record(CategorizedProblem problem, CompilationResult unitResult, ReferenceContext context) {
 			unitResult.record(problem, context); // TODO (jerome) clients are trapping problems either through factory or requestor... is result storing needed?
-			SourceElementParser.this.requestor.acceptProblem(problem);
+			if (SourceElementParser.this.requestor != null) // see parseReusableUnit(ICompilationUnit)
+				SourceElementParser.this.requestor.acceptProblem(problem);
 		}
 	};
 	this.requestor = requestor;
@@ -1440,18 +1459,48 @@ public CompilationUnitDeclaration parseCompilationUnit(
 	ICompilationUnit unit,
 	boolean fullParse) {
 
+	return parseCompilationUnit(unit, fullParse, null);
+}
+/**
+ * Parses the given unit and notifies the requestor, reusing the statements of the unit of
+ * a previous version of the source which precede and follow the changed characters when
+ * given, see {@link Parser#reparse(ICompilationUnit, CompilationResult, CompilationUnitDeclaration, char[])}.
+ * The source is parsed entirely if no statement can be reused, or if the statements parsed
+ * between the reused ones have syntax errors: their recovery could depend on the statements
+ * around them. No reference is reported when statements are reused.
+ * <p>
+ * A reusable unit is reused once at most, by a parser with the same options as the one which
+ * parsed it.
+ * </p>
+ */
+public CompilationUnitDeclaration parseCompilationUnit(
+	ICompilationUnit unit,
+	boolean fullParse,
+	ReusableUnit previousUnit) {
+
 	boolean old = diet;
 
 	try {
 		diet = DO_DIET_PARSE;
 		this.reportReferenceInfo = fullParse;
-		CompilationResult compilationUnitResult = new CompilationResult(unit, 0, 0, this.options.maxProblemsPerUnit);
-		CompilationUnitDeclaration parsedUnit = parse(unit, compilationUnitResult);
+		CompilationResult compilationUnitResult = null;
+		CompilationUnitDeclaration parsedUnit = null;
+		if (previousUnit != null) {
+			compilationUnitResult = new CompilationResult(unit, 0, 0, this.options.maxProblemsPerUnit);
+			parsedUnit = reparse(unit, compilationUnitResult, previousUnit);
+		}
+		if (parsedUnit == null) {
+			compilationUnitResult = new CompilationResult(unit, 0, 0, this.options.maxProblemsPerUnit);
+			parsedUnit = parse(unit, compilationUnitResult);
+		}
 		if (scanner.recordLineSeparator) {
 			requestor.acceptLineSeparatorPositions(compilationUnitResult.getLineSeparatorPositions());
 		}
 		int initialStart = this.scanner.initialPosition;
 		int initialEnd = this.scanner.eofPosition;
+		// the bodies are not deferred as by Parser#lazyParse(...): the inference run when notifying the
+		// requestor descends into every function, so every body would be parsed anyway
+		// TODO defer the bodies once the inference parses the ones it descends into on demand
 		if (this.localDeclarationVisitor != null || fullParse){
 			diet = false;
 			this.getMethodBodies(parsedUnit);
@@ -1468,6 +1517,68 @@ public CompilationUnitDeclaration parseCompilationUnit(
 	}
 	return null;
 }
+private CompilationUnitDeclaration reparse(ICompilationUnit unit, CompilationResult compilationUnitResult, ReusableUnit previousUnit) {
+	// the problems are only reported once known that the statements can be reused
+	ISourceElementRequestor realRequestor = this.requestor;
+	boolean reportReferences = this.reportReferenceInfo;
+	CompilationUnitDeclaration parsedUnit;
+	try {
+		this.requestor = null;
+		this.reportReferenceInfo = false;
+		parsedUnit = reparse(unit, compilationUnitResult, previousUnit.unit, previousUnit.contents);
+	} finally {
+		this.requestor = realRequestor;
+		this.reportReferenceInfo = reportReferences;
+	}
+	if (parsedUnit == null) {
+		reset();
+		return null;
+	}
+	CategorizedProblem[] problems = compilationUnitResult.problems;
+	for (int i = 0, length = compilationUnitResult.problemCount; i < length; i++)
+		this.requestor.acceptProblem(problems[i]);
+	CategorizedProblem[] tasks = compilationUnitResult.tasks;
+	for (int i = 0, length = compilationUnitResult.taskCount; i < length; i++)
+		this.requestor.acceptProblem(tasks[i]);
+
+	// the source ends and categories of the reused declarations, the ones reused from the end of the source moved
+	Object[] keys = previousUnit.sourceEnds.keyTable;
+	int[] values = previousUnit.sourceEnds.valueTable;
+	int tailStart = this.reusedTailStart;
+	for (int i = 0, length = keys.length; i < length; i++) {
+		if (keys[i] != null)
+			this.sourceEnds.put(keys[i], tailStart >= 0 && values[i] >= tailStart ? values[i] + this.reusedTailShift : values[i]);
+	}
+	this.nodesToCategories.putAll(previousUnit.nodesToCategories);
+	return parsedUnit;
+}
+/**
+ * Parses the given unit so that its statements can be reused by the parse of the next
+ * version of the source. The unit is neither notified nor inferred, and the requestor of this
+ * parser may be <code>null</code>.
+ *
+ * @return the parsed unit, or <code>null</code> if the parse was aborted
+ */
+public ReusableUnit parseReusableUnit(ICompilationUnit unit) {
+	boolean old = diet;
+	try {
+		// as parseCompilationUnit(ICompilationUnit, boolean) does for a full parse, references aside
+		diet = DO_DIET_PARSE;
+		this.reportReferenceInfo = false;
+		this.recordStatementEnds = true;
+		CompilationResult compilationUnitResult = new CompilationResult(unit, 0, 0, this.options.maxProblemsPerUnit);
+		// the bodies are parsed with the statements, DO_DIET_PARSE is false
+		CompilationUnitDeclaration parsedUnit = parse(unit, compilationUnitResult);
+		return new ReusableUnit(this.scanner.source, parsedUnit, this.sourceEnds, this.nodesToCategories);
+	} catch (AbortCompilation e) {
+		// ignore this exception
+	} finally {
+		diet = old;
+		this.recordStatementEnds = false;
+		reset();
+	}
+	return null;
+}
 public void parseTypeMemberDeclarations(
 	ISourceType type,
 	ICompilationUnit sourceUnit,
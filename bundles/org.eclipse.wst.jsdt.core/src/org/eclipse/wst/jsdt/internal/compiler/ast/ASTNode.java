@@ -177,6 +177,9 @@ public abstract class ASTNode implements TypeConstants, TypeIds, IASTNode {
 	// for constructor declaration
 	public static final int IsDefaultConstructor = Bit8;
 
+	// for method declaration
+	public static final int HasLazyBody = Bit20; // body not parsed yet
+
 	// for compilation unit
 	public static final int HasAllMethodBodies = Bit5;
 	public static final int IsImplicitUnit = Bit1;
@@ -64,6 +64,16 @@ public class CompilationUnitDeclaration
 	public TypeDeclaration[] types;
 	public ProgramElement[] statements;
 	public int[][] comments;
+	// recorded when parsed with Parser#recordStatementEnds: the position following each top level statement
+	// but the first one (negative if comments preceding it were still pending), and the last token of these statements
+	public int[] statementEnds;
+	public int[] statementEndTokens;
+	// the functions whose body was jumped over by a diet parse, see Parser#getMethodBodies(CompilationUnitDeclaration)
+	public MethodDeclaration[] lazyMethods;
+	public int lazyMethodsCount = 0;
+	// a minified source only built for its top level declarations: its functions are not resolved, nor parsed
+	// when summarized by the parser, see Parser#summarizeMinifiedUnits
+	public boolean isSummary = false;
 
 
 	public InferredType [] inferredTypes = new InferredType[10];
@@ -88,6 +88,8 @@ public class CompilerOptions {
 	public static final String OPTION_Compliance = "org.eclipse.wst.jsdt.core.compiler.compliance"; //$NON-NLS-1$
 	public static final String OPTION_Encoding = "org.eclipse.wst.jsdt.core.encoding"; //$NON-NLS-1$
 	public static final String OPTION_MaxProblemPerUnit = "org.eclipse.wst.jsdt.core.compiler.maxProblemPerUnit"; //$NON-NLS-1$
+	public static final String OPTION_ParsingThreads = "org.eclipse.wst.jsdt.core.compiler.parsingThreads"; //$NON-NLS-1$
+	public static final String OPTION_SummarizeMinifiedFiles = "org.eclipse.wst.jsdt.core.compiler.summarizeMinifiedFiles"; //$NON-NLS-1$
 	public static final String OPTION_TaskTags = "org.eclipse.wst.jsdt.core.compiler.taskTags"; //$NON-NLS-1$
 	public static final String OPTION_TaskPriorities = "org.eclipse.wst.jsdt.core.compiler.taskPriorities"; //$NON-NLS-1$
 	public static final String OPTION_TaskCaseSensitive = "org.eclipse.wst.jsdt.core.compiler.taskCaseSensitive"; //$NON-NLS-1$
@@ -269,6 +271,12 @@ public class CompilerOptions {
 	// max problems per compilation unit
 	public int maxProblemsPerUnit = 100; // no more than 100 problems per default
 
+	// number of threads parsing the compilation units, they are parsed one after the other if 1
+	public int parsingThreads = 1;
+
+	// only parse the top level declarations of the minified sources, see MinifiedSource
+	public boolean summarizeMinifiedFiles = false;
+
 	// tags used to recognize tasks in comments
 	public char[][] taskTags = null;
 	public char[][] taskPriorites = null;
@@ -429,6 +437,8 @@ public class CompilerOptions {
 		optionsMap.put(OPTION_ReportUnusedParameterIncludeDocCommentReference, this.reportUnusedParameterIncludeDocCommentReference ? ENABLED : DISABLED);
 		optionsMap.put(OPTION_ReportSpecialParameterHidingField, this.reportSpecialParameterHidingField ? ENABLED : DISABLED);
 		optionsMap.put(OPTION_MaxProblemPerUnit, String.valueOf(this.maxProblemsPerUnit));
+		optionsMap.put(OPTION_ParsingThreads, String.valueOf(this.parsingThreads));
+		optionsMap.put(OPTION_SummarizeMinifiedFiles, this.summarizeMinifiedFiles ? ENABLED : DISABLED);
 		optionsMap.put(OPTION_InlineJsr, this.inlineJsrBytecode ? ENABLED : DISABLED);
 		optionsMap.put(OPTION_ReportNullReference, getSeverityString(NullReference));
 		optionsMap.put(OPTION_ReportPotentialNullReference, getSeverityString(PotentialNullReference));
@@ -762,6 +772,24 @@ public class CompilerOptions {
 				}
 			}
 		}
+		if ((optionValue = optionsMap.get(OPTION_ParsingThreads)) != null) {
+			if (optionValue instanceof String) {
+				String stringValue = (String) optionValue;
+				try {
+					int val = Integer.parseInt(stringValue);
+					if (val >= 1) this.parsingThreads = val;
+				} catch(NumberFormatException e){
+					// ignore ill-formatted number
+				}
+			}
+		}
+		if ((optionValue = optionsMap.get(OPTION_SummarizeMinifiedFiles)) != null) {
+			if (ENABLED.equals(optionValue)) {
+				this.summarizeMinifiedFiles = true;
+			} else if (DISABLED.equals(optionValue)) {
+				this.summarizeMinifiedFiles = false;
+			}
+		}
 		if ((optionValue = optionsMap.get(OPTION_TaskTags)) != null) {
 			if (optionValue instanceof String) {
 				String stringValue = (String) optionValue;
@@ -1023,6 +1051,8 @@ public class CompilerOptions {
 		buf.append("\n\t- verbose : ").append(this.verbose ? "ON" : "OFF"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		buf.append("\n\t- produce reference info : ").append(this.produceReferenceInfo ? "ON" : "OFF"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		buf.append("\n\t- parse literal expressions as constants : ").append(this.parseLiteralExpressionsAsConstants ? "ON" : "OFF"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		buf.append("\n\t- parsing threads : ").append(this.parsingThreads); //$NON-NLS-1$
+		buf.append("\n\t- summarize minified files : ").append(this.summarizeMinifiedFiles ? ENABLED : DISABLED); //$NON-NLS-1$
 		buf.append("\n\t- encoding : ").append(this.defaultEncoding == null ? "<default>" : this.defaultEncoding); //$NON-NLS-1$ //$NON-NLS-2$
 		buf.append("\n\t- task tags: ").append(this.taskTags == null ? Util.EMPTY_STRING : new String(CharOperation.concatWith(this.taskTags,',')));  //$NON-NLS-1$
 		buf.append("\n\t- task priorities : ").append(this.taskPriorites == null ? Util.EMPTY_STRING : new String(CharOperation.concatWith(this.taskPriorites,','))); //$NON-NLS-1$
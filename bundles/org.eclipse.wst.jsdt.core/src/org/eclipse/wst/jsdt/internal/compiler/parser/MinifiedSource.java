@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.compiler.parser;
+
+import org.eclipse.wst.jsdt.core.compiler.CharOperation;
+
+/**
+ * Recognizes the minified and generated sources, whose units are only parsed for their top level
+ * declarations by the parsers which summarize them, see {@link Parser#summarizeMinifiedUnits}.
+ * <p>
+ * A source is minified if it is long enough for its parse to matter, and if its name ends with
+ * <code>.min.js</code> or its lines are very long on average. The units summarized are counted
+ * for the whole process.
+ * </p>
+ */
+public class MinifiedSource {
+	/* number of characters below which a source is never summarized */
+	public static int MIN_LENGTH = Integer.getInteger("org.eclipse.wst.jsdt.core.minifiedSource.minLength", 10000).intValue(); //$NON-NLS-1$
+	/* average number of characters per line from which a source is minified */
+	public static int MIN_AVERAGE_LINE_LENGTH = Integer.getInteger("org.eclipse.wst.jsdt.core.minifiedSource.averageLineLength", 300).intValue(); //$NON-NLS-1$
+
+	public static boolean VERBOSE = false;
+
+	private static final char[] MIN_SUFFIX = ".min.js".toCharArray(); //$NON-NLS-1$
+
+	private static int summarizedUnits;
+	private static long summarizedLength;
+
+	private MinifiedSource() {
+		// not instantiable
+	}
+
+	/**
+	 * Answers whether the given source is minified or generated.
+	 *
+	 * @param fileName the name of the source, may be <code>null</code>
+	 * @param contents the source
+	 */
+	public static boolean isMinified(char[] fileName, char[] contents) {
+		int length = contents.length;
+		if (length < MIN_LENGTH)
+			return false;
+		if (fileName != null && CharOperation.endsWith(fileName, MIN_SUFFIX))
+			return true;
+		// stops as soon as there are too many lines, after a small part of a handwritten source
+		int maxLines = length / MIN_AVERAGE_LINE_LENGTH;
+		int lines = 1;
+		for (int i = 0; i < length; i++) {
+			char c = contents[i];
+			if (c == '\n' || (c == '\r' && (i + 1 == length || contents[i + 1] != '\n'))) {
+				if (++lines > maxLines)
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Records that the unit of the given source was summarized.
+	 */
+	public static void summarized(char[] fileName, char[] contents) {
+		synchronized (MinifiedSource.class) {
+			summarizedUnits++;
+			summarizedLength += contents.length;
+		}
+		if (VERBOSE)
+			System.out.println("MinifiedSource summarized " + (fileName == null ? "<unknown>" : new String(fileName)) + " (" + getStatistics() + ')'); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	/**
+	 * Answers the number of units summarized since the process started.
+	 */
+	public static synchronized int getSummarizedUnits() {
+		return summarizedUnits;
+	}
+
+	/**
+	 * Answers the number of characters of source of the units summarized since the process started.
+	 */
+	public static synchronized long getSummarizedLength() {
+		return summarizedLength;
+	}
+
+	public static synchronized String getStatistics() {
+		return "units: " + summarizedUnits + ", characters: " + summarizedLength; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -33,7 +33,9 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.wst.jsdt.core.JavaScriptCore;
 import org.eclipse.wst.jsdt.core.ast.IDoStatement;
+import org.eclipse.wst.jsdt.core.compiler.CategorizedProblem;
 import org.eclipse.wst.jsdt.core.compiler.CharOperation;
+import org.eclipse.wst.jsdt.core.compiler.IProblem;
 import org.eclipse.wst.jsdt.core.compiler.InvalidInputException;
 import org.eclipse.wst.jsdt.core.infer.IInferEngine;
 import org.eclipse.wst.jsdt.core.infer.IInferEngineExtension;
@@ -317,6 +319,26 @@ public class Parser implements  ParserBasicInformation, TerminalTokens, Operator
 	private int insertedSemicolonPosition=-1;
 
 	private Set errorAction = new HashSet();
+
+	/* whether the ends of the top level statements are recorded in the parsed units, see #reparse(...) */
+	public boolean recordStatementEnds = false;
+	/* whether the units of minified sources are only parsed for their top level declarations when
+	   CompilerOptions#summarizeMinifiedFiles is set, see MinifiedSource */
+	public boolean summarizeMinifiedUnits = false;
+	/* whether the bodies jumped over are recorded to be parsed on demand, see #lazyParse(...) */
+	private boolean deferBodies = false;
+	/* position following the last token shifted, an inserted semicolon aside, and this token */
+	private int lastTokenEnd, lastToken;
+	private int[] statementEnds, statementEndTokens;
+	private int statementEndsPtr;
+	/* during a reparse, the ends of the statements of the previous unit after which its statements can
+	   be reused, their tokens, the next one to look for, and the difference between their new and previous
+	   positions, see #reparse(...) */
+	private int[] reusableEnds, reusableEndTokens;
+	private int reusableEndsPtr, reusableEndsShift;
+	/* after a reparse, the position in the previous source from which its statements were reused and moved
+	   by reusedTailShift, or -1 */
+	protected int reusedTailStart = -1, reusedTailShift;
 	
 	private static final int  UNCONSUMED_LIT_ELEMENT=0x4;
 	private static final int  UNCONSUMED_ELISION=0x2;
@@ -1715,6 +1737,37 @@ protected void consumeBlockStatements() {
 protected void consumeProgramElements() {
 	// BlockStatements ::= BlockStatements BlockStatement
 	concatNodeLists();
+	if ((this.recordStatementEnds || this.reusableEnds != null) && this.nestedType == 0 && this.nestedMethod[0] == 0) {
+		// a top level statement other than the first one was reduced, the lookahead starts the next one
+		// negative if comments preceding the end were still pending, these could belong to the next statement,
+		// or if the modifiers or javadoc found for a declaration were not consumed, see checkComment()
+		boolean pendingComments = (this.scanner.commentPtr >= 0 && Math.abs(this.scanner.commentStarts[0]) < this.lastTokenEnd)
+			|| this.modifiersSourceStart >= 0 || this.modifiers != ClassFileConstants.AccDefault || this.javadoc != null;
+		if (this.recordStatementEnds) {
+			int length = this.statementEnds.length;
+			if (++this.statementEndsPtr >= length) {
+				System.arraycopy(this.statementEnds, 0, this.statementEnds = new int[length * 2], 0, length);
+				System.arraycopy(this.statementEndTokens, 0, this.statementEndTokens = new int[length * 2], 0, length);
+			}
+			this.statementEnds[this.statementEndsPtr] = pendingComments ? -this.lastTokenEnd : this.lastTokenEnd;
+			this.statementEndTokens[this.statementEndsPtr] = this.lastToken;
+		}
+		if (this.reusableEnds != null && !pendingComments) {
+			// the parse of the previous source went on from the same state with the same lookahead
+			int end = this.lastTokenEnd - this.reusableEndsShift;
+			int length = this.reusableEnds.length;
+			while (this.reusableEndsPtr < length && Math.abs(this.reusableEnds[this.reusableEndsPtr]) < end) this.reusableEndsPtr++;
+			if (this.reusableEndsPtr < length && this.reusableEnds[this.reusableEndsPtr] == end
+					&& this.reusableEndTokens[this.reusableEndsPtr] == this.lastToken) {
+				this.reusableEnds = null;
+				this.reusedTailStart = end;
+				// the tasks found in the comments scanned before the lookahead are reported with the reused statements
+				while (this.scanner.foundTaskCount > 0 && this.scanner.foundTaskPositions[this.scanner.foundTaskCount - 1][0] >= this.lastTokenEnd)
+					this.scanner.foundTaskCount--;
+				this.currentToken = TokenNameEOF;
+			}
+		}
+	}
 }
 protected void consumeCallExpressionWithArguments() {
 	//optimize the push/pop
@@ -2401,7 +2454,7 @@ protected void consumeMethodDeclaration(boolean isNotAbstract) {
 	// is a body when we reduce the method header
 	if (!isNotAbstract) { //remember the fact that the method has a semicolon body
 		md.modifiers |= ExtraCompilerModifiers.AccSemicolonBody;
-	} else if (!(this.diet && this.dietInt == 0) && statements == null && !containsComment(md.bodyStart, this.endPosition)) {
+	} else if (!(this.diet && this.dietInt == 0) && (md.bits & ASTNode.HasLazyBody) == 0 && statements == null && !containsComment(md.bodyStart, this.endPosition)) {
 		md.bits |= ASTNode.UndocumentedEmptyBlock;
 	}
 	// store the this.endPosition (position just before the '}') in case there is
@@ -4605,6 +4658,26 @@ public CompilationUnitDeclaration dietParse(ICompilationUnit sourceUnit, Compila
 	}
 	return parsedUnit;
 }
+/**
+ * Parses the given unit, jumping over the bodies of its functions whatever {@link #DO_DIET_PARSE}.
+ * The bodies are flagged with {@link ASTNode#HasLazyBody} and parsed on demand by
+ * {@link #getMethodBodies(CompilationUnitDeclaration)} or {@link #getMethodBodies(CompilationUnitDeclaration, int, int)}.
+ * The types are not inferred: the inference needs all the bodies.
+ */
+public CompilationUnitDeclaration lazyParse(ICompilationUnit sourceUnit, CompilationResult compilationResult) {
+
+	CompilationUnitDeclaration parsedUnit;
+	boolean old = this.diet;
+	try {
+		this.diet = true;
+		this.deferBodies = true;
+		parsedUnit = parse(sourceUnit, compilationResult);
+	} finally {
+		this.diet = old;
+		this.deferBodies = false;
+	}
+	return parsedUnit;
+}
 protected void dispatchDeclarationInto(int length) {
 	/* they are length on this.astStack that should go into
 	   methods fields constructors lists of the typeDecl
@@ -4969,6 +5042,9 @@ public int[] getJavaDocPositions() {
 			// if initial diet parse did not work, no need to dig into method bodies.
 		}
 
+		if (unit.isSummary)
+			return; // the bodies of a minified source are never parsed
+
 		if ((unit.bits & ASTNode.HasAllMethodBodies) != 0)
 			return; //work already done ...
 
@@ -4989,6 +5065,16 @@ public int[] getJavaDocPositions() {
 			for (int i = unit.types.length; --i >= 0;)
 				unit.types[i].parseMethod(this, unit);
 		}
+		// the functions jumped over by a diet parse, followed by those they declare if still in diet mode
+		for (int i = 0; i < unit.lazyMethodsCount; i++) {
+			MethodDeclaration md = unit.lazyMethods[i];
+			if ((md.bits & ASTNode.HasLazyBody) != 0) {
+				md.bits &= ~ASTNode.HasLazyBody;
+				parse(md, unit);
+			}
+		}
+		unit.lazyMethods = null;
+		unit.lazyMethodsCount = 0;
 
 		// tag unit has having read bodies
 		unit.bits |= ASTNode.HasAllMethodBodies;
@@ -4998,6 +5084,48 @@ public int[] getJavaDocPositions() {
 		this.scanner.lineEnds = oldLineEnds;
 		this.scanner.linePtr = oldLinePtr;
 	}
+	/**
+	 * Parses the bodies jumped over by a diet parse of the given unit which intersect the given range,
+	 * see {@link #lazyParse(ICompilationUnit, CompilationResult)}. The functions declared by these bodies
+	 * are jumped over in turn, and parsed if they intersect the range. The other bodies are left unparsed.
+	 *
+	 * @param unit the unit
+	 * @param start the start of the range
+	 * @param end the end of the range, inclusive
+	 */
+	public void getMethodBodies(CompilationUnitDeclaration unit, int start, int end) {
+		if (unit == null || unit.ignoreMethodBodies || unit.lazyMethodsCount == 0) return;
+
+		int[] oldLineEnds = this.scanner.lineEnds;
+		int oldLinePtr = this.scanner.linePtr;
+		boolean oldDiet = this.diet;
+
+		CompilationResult compilationResult = unit.compilationResult;
+		char[] contents = compilationResult.compilationUnit.getContents();
+		this.scanner.setSource(contents, compilationResult);
+
+		if (this.javadocParser != null && this.javadocParser.checkDocComment) {
+			this.javadocParser.scanner.setSource(contents);
+		}
+		try {
+			this.diet = true;
+			this.deferBodies = true;
+			for (int i = 0; i < unit.lazyMethodsCount; i++) {
+				MethodDeclaration md = unit.lazyMethods[i];
+				// the closing brace follows the end of the body
+				if ((md.bits & ASTNode.HasLazyBody) != 0 && md.bodyStart <= end && md.bodyEnd + 1 >= start) {
+					md.bits &= ~ASTNode.HasLazyBody;
+					parse(md, unit);
+				}
+			}
+		} finally {
+			this.diet = oldDiet;
+			this.deferBodies = false;
+		}
+
+		this.scanner.lineEnds = oldLineEnds;
+		this.scanner.linePtr = oldLinePtr;
+	}
 protected char getNextCharacter(char[] comment, int[] index) {
 	char nextCharacter = comment[index[0]++];
 	switch(nextCharacter) {
@@ -5326,7 +5454,25 @@ public void jumpOverMethodBody() {
 	//automatically by the scanner once it has jumped over
 	//the statements
 
-	if (this.diet && (this.dietInt == 0))
+	if (!this.diet || this.scanner.diet) return;
+	if (this.astPtr >= 0 && this.astStack[this.astPtr] instanceof MethodDeclaration) {
+		MethodDeclaration md = (MethodDeclaration) this.astStack[this.astPtr];
+		// the body of a function starts here, it is parsed on demand by getMethodBodies(CompilationUnitDeclaration)
+		if (this.deferBodies && md.bodyStart == this.scanner.currentPosition && this.currentElement == null
+				&& this.compilationUnit != null && !this.scanner.checkNonExternalizedStringLiterals) {
+			md.bits |= ASTNode.HasLazyBody;
+			CompilationUnitDeclaration unit = this.compilationUnit;
+			if (unit.lazyMethods == null) {
+				unit.lazyMethods = new MethodDeclaration[5];
+			} else if (unit.lazyMethodsCount == unit.lazyMethods.length) {
+				System.arraycopy(unit.lazyMethods, 0, unit.lazyMethods = new MethodDeclaration[unit.lazyMethodsCount * 2], 0, unit.lazyMethodsCount);
+			}
+			unit.lazyMethods[unit.lazyMethodsCount++] = md;
+			this.scanner.diet = true;
+			return;
+		}
+	}
+	if (this.dietInt == 0)
 		this.scanner.diet = true;
 }
 private void jumpOverType(){
@@ -5748,6 +5894,10 @@ protected void parse() {
 			if (DEBUG) System.out.println("<<shift-reduce consume Token: "+scanner.toStringAction(this.currentToken)); //$NON-NLS-1$
 			consumeToken(this.currentToken);
 			if (this.currentElement != null) this.recoveryTokenCheck();
+			if ((this.recordStatementEnds || this.reusableEnds != null) && !this.scanner.pushedBack) {
+				this.lastTokenEnd = this.scanner.currentPosition;
+				this.lastToken = this.scanner.currentNonWhitespaceToken;
+			}
 			try {
 				prevPos = scanner.currentPosition;
 				prevToken = currentToken;
@@ -5776,6 +5926,10 @@ protected void parse() {
 				if (DEBUG) System.out.println("<<shift consume Token: "+scanner.toStringAction(this.currentToken)); //$NON-NLS-1$
 				consumeToken(this.currentToken);
 				if (this.currentElement != null) this.recoveryTokenCheck();
+				if ((this.recordStatementEnds || this.reusableEnds != null) && !this.scanner.pushedBack) {
+					this.lastTokenEnd = this.scanner.currentPosition;
+					this.lastToken = this.scanner.currentNonWhitespaceToken;
+				}
 				try{
 					prevPos = scanner.currentPosition;
 					prevToken = currentToken;
@@ -6006,6 +6160,11 @@ public CompilationUnitDeclaration parse(
 	// parses a compilation unit and manages error handling (even bugs....)
 
 	CompilationUnitDeclaration unit;
+	int problemCount = compilationResult.problemCount;
+	int taskCount = compilationResult.taskCount;
+	RecoveryScannerData recoveryScannerData = compilationResult.recoveryScannerData;
+	boolean hasSyntaxError = compilationResult.hasSyntaxError;
+	boolean diet = this.diet;
 	try {
 		/* automaton initialization */
 		initialize(true);
@@ -6032,6 +6191,13 @@ public CompilationUnitDeclaration parse(
 		}
 		this.scanner.setSource(contents);
 		this.compilationUnit.sourceEnd = this.scanner.source.length - 1;
+		if (this.summarizeMinifiedUnits && end == -1 && this.options.summarizeMinifiedFiles
+				&& MinifiedSource.isMinified(sourceUnit.getFileName(), contents)) {
+			// only the top level declarations, the functions are jumped over and never parsed
+			this.compilationUnit.isSummary = true;
+			this.diet = true;
+			MinifiedSource.summarized(sourceUnit.getFileName(), contents);
+		}
 		if (end != -1) this.scanner.resetTo(start, end);
 		if (this.javadocParser != null && this.javadocParser.checkDocComment) {
 			this.javadocParser.scanner.setSource(contents);
@@ -6039,6 +6205,13 @@ public CompilationUnitDeclaration parse(
 				this.javadocParser.scanner.resetTo(start, end);
 			}
 		}
+		if (this.recordStatementEnds) {
+			if (this.statementEnds == null) {
+				this.statementEnds = new int[AstStackIncrement];
+				this.statementEndTokens = new int[AstStackIncrement];
+			}
+			this.statementEndsPtr = -1;
+		}
 		/* run automaton */
 if (false)
 	System.out.println("parsing "+new String(sourceUnit.getFileName())); //$NON-NLS-1$
@@ -6048,10 +6221,264 @@ if (false)
 		this.compilationUnit = null; // reset parser
 		// tag unit has having read bodies
 		if (!this.diet) unit.bits |= ASTNode.HasAllMethodBodies;
+		this.diet = diet;
+	}
+	// the statements recovery resets hasError
+	if (this.diet && this.deferBodies && !unit.isSummary && (this.hasError || compilationResult.hasSyntaxError != hasSyntaxError)) {
+		// the recovery from syntax errors does not resume in the bodies jumped over, parse them along
+		if ((compilationResult.problemCount = problemCount) == 0) compilationResult.problems = null;
+		if ((compilationResult.taskCount = taskCount) == 0) compilationResult.tasks = null;
+		compilationResult.hasSyntaxError = hasSyntaxError;
+		compilationResult.recoveryScannerData = recoveryScannerData;
+		this.diet = false;
+		try {
+			return parse(sourceUnit, compilationResult, start, end);
+		} finally {
+			this.diet = true;
+		}
+	}
+	if (this.recordStatementEnds) {
+		int length = this.statementEndsPtr + 1;
+		System.arraycopy(this.statementEnds, 0, unit.statementEnds = new int[length], 0, length);
+		System.arraycopy(this.statementEndTokens, 0, unit.statementEndTokens = new int[length], 0, length);
 	}
 	return unit;
 }
 
+/**
+ * Parses a new version of a source, reusing the top level statements of the unit of its
+ * previous version which precede and follow the changed characters. The reused statements
+ * are moved to the new unit, and the source is only scanned and parsed from the end of the
+ * leading ones to the start of the trailing ones.
+ * <p>
+ * The previous unit must have been parsed from the given previous contents, by a parser
+ * with the same options and with {@link #recordStatementEnds} set, and it must not have been
+ * inferred nor resolved since. A statement is reused if the statement following it ends
+ * before the first changed character: the parse of the reused statements, and the token
+ * which ended each of them, only depended on characters which did not change. The parse
+ * stops once it reduces a statement ending, with the same token, where a statement of the
+ * previous unit ended after the last changed character: the statements following that one
+ * are reused, with their positions shifted by the change of the length of the source. The
+ * problems and tasks reported in the reused statements are reported again, so the previous
+ * unit is only reused if these are warnings about missing semicolons: the recovery of a syntax
+ * error could have shaped the following statements differently. For the same reason, the new
+ * unit is given up if the parsed statements have syntax errors.
+ * </p>
+ *
+ * @return the new unit, or <code>null</code> if no statement can be reused, in which case
+ * 	the source remains to be parsed, by this parser as if this method had not been called
+ */
+public CompilationUnitDeclaration reparse(
+	ICompilationUnit sourceUnit,
+	CompilationResult compilationResult,
+	CompilationUnitDeclaration previousUnit,
+	char[] previousContents) {
+
+	int[] ends = previousUnit.statementEnds;
+	ProgramElement[] previousStatements = previousUnit.statements;
+	if (ends == null || previousStatements == null || previousStatements.length != ends.length + 1)
+		return null;
+	CompilationResult previousResult = previousUnit.compilationResult;
+	for (int i = 0; i < previousResult.problemCount; i++) {
+		CategorizedProblem problem = previousResult.problems[i];
+		if (problem.getID() != IProblem.MissingSemiColon || problem.isError()) return null;
+	}
+	int[] previousLineEnds = previousResult.lineSeparatorPositions;
+	if ((this.scanner.recordLineSeparator && previousLineEnds == null) || this.checkExternalizeStrings)
+		return null;
+	char[] contents;
+	try {
+		contents = sourceUnit.getContents();
+	} catch(AbortCompilationUnit abortException) {
+		return null;
+	}
+
+	int changeStart = 0;
+	for (int max = Math.min(contents.length, previousContents.length); changeStart < max; changeStart++) {
+		if (contents[changeStart] != previousContents[changeStart]) break;
+	}
+	// the characters of the previous source from changeEnd did not change either, they moved by delta
+	int delta = contents.length - previousContents.length;
+	int changeEnd = previousContents.length;
+	for (int min = changeStart + Math.max(0, -delta); changeEnd > min; changeEnd--) {
+		if (previousContents[changeEnd - 1] != contents[changeEnd - 1 + delta]) break;
+	}
+	// ends[i] follows statement i + 1, which is reused if statement i + 2 ends before the change,
+	// and if no comment was pending at its end
+	int last = -1;
+	for (int i = 1, length = ends.length; i < length && Math.abs(ends[i]) < changeStart; i++) {
+		if (ends[i - 1] > 0) last = i - 1;
+	}
+	// the statements following ends[i] are reused if the new parse reaches it after the change
+	int firstReusableEnd = ends.length;
+	while (firstReusableEnd > 0 && Math.abs(ends[firstReusableEnd - 1]) >= changeEnd) firstReusableEnd--;
+	if (last < 0 && firstReusableEnd == ends.length) return null;
+	int resumePosition = last < 0 ? 0 : ends[last];
+	int reusedCount = last < 0 ? 0 : last + 2;
+
+	// the state a parse of the whole source starts from if this one is given up
+	boolean methodRecovery = this.methodRecoveryActivated;
+	boolean enteredRecovery = this.enteredRecoverStatements;
+	int currentToken = this.scanner.currentToken;
+	int currentNonWhitespaceToken = this.scanner.currentNonWhitespaceToken;
+	CompilationUnitDeclaration unit;
+	try {
+		/* automaton initialization */
+		initialize(true);
+		goForCompilationUnit();
+
+		/* unit creation */
+		this.referenceContext =
+			this.compilationUnit =
+				new CompilationUnitDeclaration(
+					this.problemReporter,
+					compilationResult,
+					0);
+
+		initializeInferenceEngine(this.compilationUnit);
+
+		/* scanners initialization, as if the reused statements had just been scanned */
+		this.scanner.setSource(contents);
+		this.compilationUnit.sourceEnd = this.scanner.source.length - 1;
+		if (previousLineEnds != null) {
+			int lineCount = 0;
+			while (lineCount < previousLineEnds.length && previousLineEnds[lineCount] < resumePosition) lineCount++;
+			System.arraycopy(previousLineEnds, 0, this.scanner.lineEnds = new int[lineCount + 250], 0, lineCount);
+			this.scanner.linePtr = lineCount - 1;
+		}
+		if (last < 0) {
+			this.scanner.resetTo(0, contents.length - 1);
+		} else {
+			int endToken = previousUnit.statementEndTokens[last];
+			this.scanner.resetTo(resumePosition, contents.length - 1, endToken, endToken);
+		}
+		if (this.javadocParser != null && this.javadocParser.checkDocComment) {
+			this.javadocParser.scanner.setSource(contents);
+			this.javadocParser.scanner.resetTo(resumePosition, contents.length - 1);
+		}
+
+		/* problems of the reused statements */
+		for (int i = 0; i < previousResult.problemCount; i++) {
+			CategorizedProblem problem = previousResult.problems[i];
+			if (problem.getSourceStart() < resumePosition)
+				this.problemReporter.record(problem, compilationResult, this.compilationUnit);
+		}
+		for (int i = 0; i < previousResult.taskCount; i++) {
+			CategorizedProblem task = previousResult.tasks[i];
+			if (task.getSourceStart() < resumePosition)
+				this.problemReporter.record(task, compilationResult, this.compilationUnit);
+		}
+
+		/* run automaton, up to the end of a statement after which the parse of the previous source went on the same */
+		this.reusedTailStart = -1;
+		if (firstReusableEnd < ends.length) {
+			this.reusableEnds = ends;
+			this.reusableEndTokens = previousUnit.statementEndTokens;
+			this.reusableEndsPtr = firstReusableEnd;
+			this.reusableEndsShift = delta;
+		}
+		parse();
+	} finally {
+		this.reusableEnds = this.reusableEndTokens = null;
+		unit = this.compilationUnit;
+		this.compilationUnit = null; // reset parser
+		// tag unit has having read bodies
+		if (!this.diet) unit.bits |= ASTNode.HasAllMethodBodies;
+	}
+	// a syntax error may not be reported, e.g. with reportOnlyOneSyntaxError
+	boolean hasSyntaxError = this.hasError || compilationResult.hasSyntaxError;
+	for (int i = 0; !hasSyntaxError && i < compilationResult.problemCount; i++) {
+		CategorizedProblem problem = compilationResult.problems[i];
+		hasSyntaxError = problem.getID() != IProblem.MissingSemiColon || problem.isError();
+	}
+	if (hasSyntaxError) {
+		// the recovery of the statements which follow the reused ones could depend on these
+		this.methodRecoveryActivated = methodRecovery;
+		this.enteredRecoverStatements = enteredRecovery;
+		this.scanner.currentToken = currentToken;
+		this.scanner.currentNonWhitespaceToken = currentNonWhitespaceToken;
+		this.reusedTailStart = -1;
+		return null;
+	}
+
+	/* merge the reused statements */
+	int tailStart = this.reusedTailStart;
+	int tailIndex = tailStart < 0 ? previousStatements.length : this.reusableEndsPtr + 2;
+	int tailCount = previousStatements.length - tailIndex;
+	ProgramElement[] statements = unit.statements;
+	int length = statements.length;
+	System.arraycopy(statements, 0, unit.statements = new ProgramElement[reusedCount + length + tailCount], reusedCount, length);
+	System.arraycopy(previousStatements, 0, unit.statements, 0, reusedCount);
+	System.arraycopy(previousStatements, tailIndex, unit.statements, reusedCount + length, tailCount);
+
+	/* comments, the ones scanned after the last statement parsed are found again in the reused ones */
+	int[][] previousComments = previousUnit.comments;
+	if (unit.comments != null && previousComments != null) {
+		int commentCount = 0;
+		while (commentCount < previousComments.length && Math.abs(previousComments[commentCount][0]) < resumePosition) commentCount++;
+		int[][] comments = unit.comments;
+		int newCount = comments.length;
+		int tailComment = previousComments.length;
+		if (tailStart >= 0) {
+			while (newCount > 0 && Math.abs(comments[newCount - 1][0]) >= tailStart + delta) newCount--;
+			tailComment = commentCount;
+			while (tailComment < previousComments.length && Math.abs(previousComments[tailComment][0]) < tailStart) tailComment++;
+		}
+		unit.comments = new int[commentCount + newCount + previousComments.length - tailComment][];
+		System.arraycopy(previousComments, 0, unit.comments, 0, commentCount);
+		System.arraycopy(comments, 0, unit.comments, commentCount, newCount);
+		for (int i = tailComment, j = commentCount + newCount; i < previousComments.length; i++, j++) {
+			int[] comment = previousComments[i];
+			// negative positions mark line comments and non javadoc comments
+			unit.comments[j] = new int[] {
+				comment[0] < 0 ? comment[0] - delta : comment[0] + delta,
+				comment[1] < 0 ? comment[1] - delta : comment[1] + delta
+			};
+		}
+	}
+
+	if (tailStart >= 0) {
+		/* lines */
+		if (this.scanner.recordLineSeparator) {
+			int[] lineEnds = this.scanner.getLineEnds();
+			int lineCount = 0;
+			while (lineCount < lineEnds.length && lineEnds[lineCount] < tailStart + delta) lineCount++;
+			int previousLineCount = 0;
+			while (previousLineCount < previousLineEnds.length && previousLineEnds[previousLineCount] < tailStart) previousLineCount++;
+			int tailLines = previousLineEnds.length - previousLineCount;
+			System.arraycopy(lineEnds, 0, lineEnds = new int[lineCount + tailLines], 0, lineCount);
+			for (int i = 0; i < tailLines; i++) {
+				lineEnds[lineCount + i] = previousLineEnds[previousLineCount + i] + delta;
+			}
+			this.scanner.lineEnds = lineEnds;
+			this.scanner.linePtr = lineEnds.length - 1;
+			compilationResult.lineSeparatorPositions = this.scanner.getLineEnds();
+		}
+
+		/* problems of the reused statements, reported again where they moved */
+		for (int i = 0; i < previousResult.problemCount; i++) {
+			CategorizedProblem problem = previousResult.problems[i];
+			if (problem.getSourceStart() >= tailStart)
+				problemReporter().missingSemiColon(null, problem.getSourceStart() + delta, problem.getSourceEnd() + delta);
+		}
+		for (int i = 0; i < previousResult.taskCount; i++) {
+			CategorizedProblem task = previousResult.tasks[i];
+			if (task.getSourceStart() >= tailStart) {
+				String[] arguments = task.getArguments();
+				problemReporter().task(arguments[0], arguments[1], arguments[2], task.getSourceStart() + delta, task.getSourceEnd() + delta);
+			}
+		}
+
+		/* nodes */
+		if (delta != 0)
+			new PositionShifter(tailStart, delta).shift(unit.statements, reusedCount + length, unit.statements.length);
+		this.reusedTailShift = delta;
+	}
+	// as after a parse of the whole source
+	this.scanner.resetTo(0, contents.length - 1);
+	return unit;
+}
+
 public void initializeInferenceEngine(CompilationUnitDeclaration compilationUnitDeclaration) {
 	if (this.inferenceEngines==null)
 		this.inferenceEngines =  InferrenceManager.getInstance().getInferenceEngines(compilationUnitDeclaration);
@@ -6687,6 +7114,23 @@ protected void recoverStatements() {
 		}
 	}
 	}
+	else if (this.referenceContext instanceof AbstractMethodDeclaration)
+	{
+		// the body of a function parsed on its own, see parse(MethodDeclaration, CompilationUnitDeclaration)
+		AbstractMethodDeclaration methodDeclaration = (AbstractMethodDeclaration) this.referenceContext;
+		ReferenceContext oldContext = Parser.this.referenceContext;
+		Parser.this.recoveryScanner.resetTo(methodDeclaration.bodyStart, methodDeclaration.bodyEnd);
+		Scanner oldScanner = Parser.this.scanner;
+		Parser.this.scanner = Parser.this.recoveryScanner;
+		Parser.this.parseStatements(
+				methodDeclaration,
+				methodDeclaration.bodyStart,
+				methodDeclaration.bodyEnd,
+				null,
+				this.compilationUnit);
+		Parser.this.scanner = oldScanner;
+		Parser.this.referenceContext = oldContext;
+	}
 	else
 	{
 		CompilationUnitDeclaration compilationUnitDeclaration=(CompilationUnitDeclaration)this.referenceContext;
@@ -7089,7 +7533,6 @@ public void inferTypes(CompilationUnitDeclaration parsedUnit, CompilerOptions co
 		return;
 	if (compileOptions==null)
 		compileOptions=this.options;
-	
 	if (this.inferenceEngines==null)
 		initializeInferenceEngine(parsedUnit);
 //	InferEngine inferEngine=compileOptions.inferOptions.createEngine();
@@ -0,0 +1,723 @@
+/*******************************************************************************
+ * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.compiler.parser;
+
+import java.util.IdentityHashMap;
+
+import org.eclipse.wst.jsdt.internal.compiler.ASTVisitor;
+import org.eclipse.wst.jsdt.internal.compiler.ast.AND_AND_Expression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ASTNode;
+import org.eclipse.wst.jsdt.internal.compiler.ast.AbstractMethodDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.AbstractVariableDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.AllocationExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Argument;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ArrayAllocationExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ArrayInitializer;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ArrayQualifiedTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ArrayReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ArrayTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Assignment;
+import org.eclipse.wst.jsdt.internal.compiler.ast.BinaryExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Block;
+import org.eclipse.wst.jsdt.internal.compiler.ast.BreakStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CaseStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ClassLiteralAccess;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Clinit;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompoundAssignment;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ConditionalExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ConstructorDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ContinueStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.DebuggerStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.DoStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.DoubleLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.EmptyStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.EqualExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ExplicitConstructorCall;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Expression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ExtendedStringLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.FalseLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.FieldDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.FieldReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ForInStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ForStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ForeachStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.FunctionExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.IfStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ImportReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Initializer;
+import org.eclipse.wst.jsdt.internal.compiler.ast.InstanceOfExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.IntLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Javadoc;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocAllocationExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocArgumentExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocArrayQualifiedTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocArraySingleTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocFieldReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocImplicitTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocMessageSend;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocQualifiedTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocReturnStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocSingleNameReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocSingleTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.LabeledStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ListExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.LocalDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.MessageSend;
+import org.eclipse.wst.jsdt.internal.compiler.ast.MethodDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.NullLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.OR_OR_Expression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ObjectGetterSetterField;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ObjectLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ObjectLiteralField;
+import org.eclipse.wst.jsdt.internal.compiler.ast.PostfixExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.PrefixExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ProgramElement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.QualifiedAllocationExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.QualifiedNameReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.QualifiedThisReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.QualifiedTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.RegExLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ReturnStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.SingleNameReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.SingleTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.StringLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.StringLiteralConcatenation;
+import org.eclipse.wst.jsdt.internal.compiler.ast.SuperReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.SwitchStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ThisReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ThrowStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.TrueLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.TryStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.TypeDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.UnaryExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.UndefinedLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.WhileStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.WithStatement;
+import org.eclipse.wst.jsdt.internal.compiler.lookup.BlockScope;
+import org.eclipse.wst.jsdt.internal.compiler.lookup.ClassScope;
+import org.eclipse.wst.jsdt.internal.compiler.lookup.CompilationUnitScope;
+import org.eclipse.wst.jsdt.internal.compiler.lookup.MethodScope;
+import org.eclipse.wst.jsdt.internal.compiler.lookup.Scope;
+
+/**
+ * Moves the nodes parsed from a part of a source which moved in a new version of the source,
+ * see {@link Parser#reparse(org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit, org.eclipse.wst.jsdt.internal.compiler.CompilationResult, CompilationUnitDeclaration, char[])}.
+ * <p>
+ * The positions from the start of the moved part are shifted, the ones before it are left alone:
+ * these mark missing positions, e.g. of the literal created for <code>++</code>. The nodes must
+ * not have been inferred nor resolved.
+ * </p>
+ */
+public class PositionShifter extends ASTVisitor {
+
+	private int start;
+	private int delta;
+	/* the nodes already shifted, some are reachable twice, e.g. the javadoc of a function */
+	private IdentityHashMap shifted = new IdentityHashMap();
+
+	/**
+	 * @param start the position of the start of the moved part in the previous source
+	 * @param delta the difference between the new and previous positions of the moved part
+	 */
+	public PositionShifter(int start, int delta) {
+		this.start = start;
+		this.delta = delta;
+	}
+
+	/**
+	 * Shifts the positions of the given statements and of all their nodes.
+	 */
+	public void shift(ProgramElement[] statements, int from, int to) {
+		for (int i = from; i < to; i++) {
+			statements[i].traverse(this, (BlockScope) null);
+		}
+	}
+
+	private int shift(int position) {
+		return position >= this.start ? position + this.delta : position;
+	}
+
+	/* positions encoded as (start << 32) + end */
+	private long shift(long positions) {
+		int sourceStart = (int) (positions >>> 32);
+		int sourceEnd = (int) positions;
+		if (sourceStart < this.start && sourceEnd < this.start)
+			return positions;
+		return ((long) shift(sourceStart) << 32) + shift(sourceEnd);
+	}
+
+	private void shift(long[] positions) {
+		if (positions != null) {
+			for (int i = 0, length = positions.length; i < length; i++) {
+				positions[i] = shift(positions[i]);
+			}
+		}
+	}
+
+	/* shifts a node which the traversal of the node referring to it does not visit */
+	private void traverse(ASTNode node) {
+		if (node != null) {
+			node.traverse(this, (BlockScope) null);
+			shift(node);
+		}
+	}
+
+	private void traverse(ASTNode[] nodes) {
+		if (nodes != null) {
+			for (int i = 0, length = nodes.length; i < length; i++) {
+				traverse(nodes[i]);
+			}
+		}
+	}
+
+	/*
+	 * Shifts the given node, and the nodes it refers to which its traversal does not visit.
+	 * Answers false if it was already shifted.
+	 */
+	private boolean shift(ASTNode node) {
+		if (node == null || this.shifted.put(node, node) != null)
+			return false;
+		node.sourceStart = shift(node.sourceStart);
+		node.sourceEnd = shift(node.sourceEnd);
+		if (node instanceof Expression) {
+			Expression expression = (Expression) node;
+			expression.statementEnd = shift(expression.statementEnd);
+			if (node instanceof FieldReference) {
+				FieldReference fieldReference = (FieldReference) node;
+				fieldReference.nameSourcePosition = shift(fieldReference.nameSourcePosition);
+				if (node instanceof JavadocFieldReference) {
+					JavadocFieldReference javadocReference = (JavadocFieldReference) node;
+					javadocReference.tagSourceStart = shift(javadocReference.tagSourceStart);
+					javadocReference.tagSourceEnd = shift(javadocReference.tagSourceEnd);
+				}
+			} else if (node instanceof MessageSend) {
+				MessageSend messageSend = (MessageSend) node;
+				messageSend.nameSourcePosition = shift(messageSend.nameSourcePosition);
+				if (node instanceof JavadocMessageSend) {
+					JavadocMessageSend javadocMessageSend = (JavadocMessageSend) node;
+					javadocMessageSend.tagSourceStart = shift(javadocMessageSend.tagSourceStart);
+					javadocMessageSend.tagSourceEnd = shift(javadocMessageSend.tagSourceEnd);
+				}
+			} else if (node instanceof QualifiedNameReference) {
+				shift(((QualifiedNameReference) node).sourcePositions);
+			} else if (node instanceof QualifiedTypeReference) {
+				shift(((QualifiedTypeReference) node).sourcePositions);
+				if (node instanceof JavadocQualifiedTypeReference) {
+					JavadocQualifiedTypeReference javadocReference = (JavadocQualifiedTypeReference) node;
+					javadocReference.tagSourceStart = shift(javadocReference.tagSourceStart);
+					javadocReference.tagSourceEnd = shift(javadocReference.tagSourceEnd);
+				} else if (node instanceof JavadocArrayQualifiedTypeReference) {
+					JavadocArrayQualifiedTypeReference javadocReference = (JavadocArrayQualifiedTypeReference) node;
+					javadocReference.tagSourceStart = shift(javadocReference.tagSourceStart);
+					javadocReference.tagSourceEnd = shift(javadocReference.tagSourceEnd);
+				}
+			} else if (node instanceof ArrayTypeReference) {
+				ArrayTypeReference arrayReference = (ArrayTypeReference) node;
+				arrayReference.originalSourceEnd = shift(arrayReference.originalSourceEnd);
+			} else if (node instanceof JavadocSingleTypeReference) {
+				JavadocSingleTypeReference javadocReference = (JavadocSingleTypeReference) node;
+				javadocReference.tagSourceStart = shift(javadocReference.tagSourceStart);
+				javadocReference.tagSourceEnd = shift(javadocReference.tagSourceEnd);
+			} else if (node instanceof JavadocSingleNameReference) {
+				JavadocSingleNameReference javadocReference = (JavadocSingleNameReference) node;
+				javadocReference.tagSourceStart = shift(javadocReference.tagSourceStart);
+				javadocReference.tagSourceEnd = shift(javadocReference.tagSourceEnd);
+			} else if (node instanceof JavadocAllocationExpression) {
+				JavadocAllocationExpression javadocAllocation = (JavadocAllocationExpression) node;
+				javadocAllocation.tagSourceStart = shift(javadocAllocation.tagSourceStart);
+				javadocAllocation.tagSourceEnd = shift(javadocAllocation.tagSourceEnd);
+				javadocAllocation.memberStart = shift(javadocAllocation.memberStart);
+			} else if (node instanceof Assignment) {
+				traverse(((Assignment) node).javadoc);
+			}
+		} else if (node instanceof AbstractVariableDeclaration) {
+			AbstractVariableDeclaration declaration = (AbstractVariableDeclaration) node;
+			declaration.declarationEnd = shift(declaration.declarationEnd);
+			declaration.declarationSourceStart = shift(declaration.declarationSourceStart);
+			declaration.declarationSourceEnd = shift(declaration.declarationSourceEnd);
+			declaration.modifiersSourceStart = shift(declaration.modifiersSourceStart);
+			if (node instanceof FieldDeclaration) {
+				FieldDeclaration fieldDeclaration = (FieldDeclaration) node;
+				fieldDeclaration.endPart1Position = shift(fieldDeclaration.endPart1Position);
+				fieldDeclaration.endPart2Position = shift(fieldDeclaration.endPart2Position);
+				if (node instanceof Initializer) {
+					Initializer initializer = (Initializer) node;
+					initializer.bodyStart = shift(initializer.bodyStart);
+					initializer.bodyEnd = shift(initializer.bodyEnd);
+				}
+			}
+			traverse(declaration.javadoc);
+		} else if (node instanceof AbstractMethodDeclaration) {
+			AbstractMethodDeclaration declaration = (AbstractMethodDeclaration) node;
+			declaration.declarationSourceStart = shift(declaration.declarationSourceStart);
+			declaration.declarationSourceEnd = shift(declaration.declarationSourceEnd);
+			declaration.bodyStart = shift(declaration.bodyStart);
+			declaration.bodyEnd = shift(declaration.bodyEnd);
+			traverse(declaration.javadoc);
+		} else if (node instanceof TypeDeclaration) {
+			TypeDeclaration declaration = (TypeDeclaration) node;
+			declaration.modifiersSourceStart = shift(declaration.modifiersSourceStart);
+			declaration.declarationSourceStart = shift(declaration.declarationSourceStart);
+			declaration.declarationSourceEnd = shift(declaration.declarationSourceEnd);
+			declaration.bodyStart = shift(declaration.bodyStart);
+			declaration.bodyEnd = shift(declaration.bodyEnd);
+			traverse(declaration.javadoc);
+		} else if (node instanceof LabeledStatement) {
+			LabeledStatement statement = (LabeledStatement) node;
+			statement.labelEnd = shift(statement.labelEnd);
+		} else if (node instanceof SwitchStatement) {
+			SwitchStatement statement = (SwitchStatement) node;
+			statement.blockStart = shift(statement.blockStart);
+		} else if (node instanceof Javadoc) {
+			Javadoc javadoc = (Javadoc) node;
+			javadoc.inheritedPositions = shift(javadoc.inheritedPositions);
+			javadoc.valuePositions = shift(javadoc.valuePositions);
+			traverse(javadoc.invalidParameters);
+			traverse(javadoc.namespace);
+			traverse(javadoc.memberOf);
+			traverse(javadoc.returnType);
+			traverse(javadoc.extendsType);
+			traverse(javadoc.classDef);
+			traverse(javadoc.methodDef);
+			traverse(javadoc.property);
+		}
+		return true;
+	}
+
+	public boolean visit(AllocationExpression allocationExpression, BlockScope scope) {
+		return shift(allocationExpression);
+	}
+
+	public boolean visit(AND_AND_Expression and_and_Expression, BlockScope scope) {
+		return shift(and_and_Expression);
+	}
+
+	public boolean visit(Argument argument, BlockScope scope) {
+		return shift(argument);
+	}
+
+	public boolean visit(Argument argument, ClassScope scope) {
+		return shift(argument);
+	}
+
+	public boolean visit(ArrayAllocationExpression arrayAllocationExpression, BlockScope scope) {
+		return shift(arrayAllocationExpression);
+	}
+
+	public boolean visit(ArrayInitializer arrayInitializer, BlockScope scope) {
+		return shift(arrayInitializer);
+	}
+
+	public boolean visit(ArrayQualifiedTypeReference arrayQualifiedTypeReference, BlockScope scope) {
+		return shift(arrayQualifiedTypeReference);
+	}
+
+	public boolean visit(ArrayQualifiedTypeReference arrayQualifiedTypeReference, ClassScope scope) {
+		return shift(arrayQualifiedTypeReference);
+	}
+
+	public boolean visit(ArrayReference arrayReference, BlockScope scope) {
+		return shift(arrayReference);
+	}
+
+	public boolean visit(ArrayTypeReference arrayTypeReference, BlockScope scope) {
+		return shift(arrayTypeReference);
+	}
+
+	public boolean visit(ArrayTypeReference arrayTypeReference, ClassScope scope) {
+		return shift(arrayTypeReference);
+	}
+
+	public boolean visit(Assignment assignment, BlockScope scope) {
+		return shift(assignment);
+	}
+
+	public boolean visit(BinaryExpression binaryExpression, BlockScope scope) {
+		return shift(binaryExpression);
+	}
+
+	public boolean visit(Block block, BlockScope scope) {
+		return shift(block);
+	}
+
+	public boolean visit(BreakStatement breakStatement, BlockScope scope) {
+		return shift(breakStatement);
+	}
+
+	public boolean visit(CaseStatement caseStatement, BlockScope scope) {
+		return shift(caseStatement);
+	}
+
+	public boolean visit(ClassLiteralAccess classLiteral, BlockScope scope) {
+		return shift(classLiteral);
+	}
+
+	public boolean visit(Clinit clinit, ClassScope scope) {
+		return shift(clinit);
+	}
+
+	public boolean visit(CompoundAssignment compoundAssignment, BlockScope scope) {
+		return shift(compoundAssignment);
+	}
+
+	public boolean visit(ConditionalExpression conditionalExpression, BlockScope scope) {
+		return shift(conditionalExpression);
+	}
+
+	public boolean visit(ConstructorDeclaration constructorDeclaration, ClassScope scope) {
+		return shift(constructorDeclaration);
+	}
+
+	public boolean visit(ContinueStatement continueStatement, BlockScope scope) {
+		return shift(continueStatement);
+	}
+
+	public boolean visit(DoStatement doStatement, BlockScope scope) {
+		return shift(doStatement);
+	}
+
+	public boolean visit(DoubleLiteral doubleLiteral, BlockScope scope) {
+		return shift(doubleLiteral);
+	}
+
+	public boolean visit(EmptyStatement emptyStatement, BlockScope scope) {
+		return shift(emptyStatement);
+	}
+
+	public boolean visit(EqualExpression equalExpression, BlockScope scope) {
+		return shift(equalExpression);
+	}
+
+	public boolean visit(ExplicitConstructorCall explicitConstructor, BlockScope scope) {
+		return shift(explicitConstructor);
+	}
+
+	public boolean visit(ExtendedStringLiteral extendedStringLiteral, BlockScope scope) {
+		return shift(extendedStringLiteral);
+	}
+
+	public boolean visit(FalseLiteral falseLiteral, BlockScope scope) {
+		return shift(falseLiteral);
+	}
+
+	public boolean visit(FieldDeclaration fieldDeclaration, MethodScope scope) {
+		return shift(fieldDeclaration);
+	}
+
+	public boolean visit(FieldReference fieldReference, BlockScope scope) {
+		return shift(fieldReference);
+	}
+
+	public boolean visit(FieldReference fieldReference, ClassScope scope) {
+		return shift(fieldReference);
+	}
+
+	public boolean visit(ForeachStatement forStatement, BlockScope scope) {
+		return shift(forStatement);
+	}
+
+	public boolean visit(ForInStatement forInStatement, BlockScope scope) {
+		return shift(forInStatement);
+	}
+
+	public boolean visit(ForStatement forStatement, BlockScope scope) {
+		return shift(forStatement);
+	}
+
+	public boolean visit(FunctionExpression functionExpression, BlockScope scope) {
+		return shift(functionExpression);
+	}
+
+	public boolean visit(IfStatement ifStatement, BlockScope scope) {
+		return shift(ifStatement);
+	}
+
+	public boolean visit(ImportReference importRef, CompilationUnitScope scope) {
+		return shift(importRef);
+	}
+
+	public boolean visit(Initializer initializer, MethodScope scope) {
+		return shift(initializer);
+	}
+
+	public boolean visit(InstanceOfExpression instanceOfExpression, BlockScope scope) {
+		return shift(instanceOfExpression);
+	}
+
+	public boolean visit(IntLiteral intLiteral, BlockScope scope) {
+		return shift(intLiteral);
+	}
+
+	public boolean visit(Javadoc javadoc, BlockScope scope) {
+		return shift(javadoc);
+	}
+
+	public boolean visit(Javadoc javadoc, ClassScope scope) {
+		return shift(javadoc);
+	}
+
+	public boolean visit(JavadocAllocationExpression expression, BlockScope scope) {
+		return shift(expression);
+	}
+
+	public boolean visit(JavadocAllocationExpression expression, ClassScope scope) {
+		return shift(expression);
+	}
+
+	public boolean visit(JavadocArgumentExpression expression, BlockScope scope) {
+		return shift(expression);
+	}
+
+	public boolean visit(JavadocArgumentExpression expression, ClassScope scope) {
+		return shift(expression);
+	}
+
+	public boolean visit(JavadocArrayQualifiedTypeReference typeRef, BlockScope scope) {
+		return shift(typeRef);
+	}
+
+	public boolean visit(JavadocArrayQualifiedTypeReference typeRef, ClassScope scope) {
+		return shift(typeRef);
+	}
+
+	public boolean visit(JavadocArraySingleTypeReference typeRef, BlockScope scope) {
+		return shift(typeRef);
+	}
+
+	public boolean visit(JavadocArraySingleTypeReference typeRef, ClassScope scope) {
+		return shift(typeRef);
+	}
+
+	public boolean visit(JavadocFieldReference fieldRef, BlockScope scope) {
+		return shift(fieldRef);
+	}
+
+	public boolean visit(JavadocFieldReference fieldRef, ClassScope scope) {
+		return shift(fieldRef);
+	}
+
+	public boolean visit(JavadocImplicitTypeReference implicitTypeReference, BlockScope scope) {
+		return shift(implicitTypeReference);
+	}
+
+	public boolean visit(JavadocImplicitTypeReference implicitTypeReference, ClassScope scope) {
+		return shift(implicitTypeReference);
+	}
+
+	public boolean visit(JavadocMessageSend messageSend, BlockScope scope) {
+		return shift(messageSend);
+	}
+
+	public boolean visit(JavadocMessageSend messageSend, ClassScope scope) {
+		return shift(messageSend);
+	}
+
+	public boolean visit(JavadocQualifiedTypeReference typeRef, BlockScope scope) {
+		return shift(typeRef);
+	}
+
+	public boolean visit(JavadocQualifiedTypeReference typeRef, ClassScope scope) {
+		return shift(typeRef);
+	}
+
+	public boolean visit(JavadocReturnStatement statement, BlockScope scope) {
+		return shift(statement);
+	}
+
+	public boolean visit(JavadocReturnStatement statement, ClassScope scope) {
+		return shift(statement);
+	}
+
+	public boolean visit(JavadocSingleNameReference argument, BlockScope scope) {
+		return shift(argument);
+	}
+
+	public boolean visit(JavadocSingleNameReference argument, ClassScope scope) {
+		return shift(argument);
+	}
+
+	public boolean visit(JavadocSingleTypeReference typeRef, BlockScope scope) {
+		return shift(typeRef);
+	}
+
+	public boolean visit(JavadocSingleTypeReference typeRef, ClassScope scope) {
+		return shift(typeRef);
+	}
+
+	public boolean visit(LabeledStatement labeledStatement, BlockScope scope) {
+		return shift(labeledStatement);
+	}
+
+	public boolean visit(LocalDeclaration localDeclaration, BlockScope scope) {
+		return shift(localDeclaration);
+	}
+
+	public boolean visit(ListExpression listDeclaration, BlockScope scope) {
+		return shift(listDeclaration);
+	}
+
+	public boolean visit(MessageSend messageSend, BlockScope scope) {
+		return shift(messageSend);
+	}
+
+	public boolean visit(MethodDeclaration methodDeclaration, Scope scope) {
+		return shift(methodDeclaration);
+	}
+
+	public boolean visit(StringLiteralConcatenation literal, BlockScope scope) {
+		return shift(literal);
+	}
+
+	public boolean visit(NullLiteral nullLiteral, BlockScope scope) {
+		return shift(nullLiteral);
+	}
+
+	public boolean visit(OR_OR_Expression or_or_Expression, BlockScope scope) {
+		return shift(or_or_Expression);
+	}
+
+	public boolean visit(PostfixExpression postfixExpression, BlockScope scope) {
+		return shift(postfixExpression);
+	}
+
+	public boolean visit(PrefixExpression prefixExpression, BlockScope scope) {
+		return shift(prefixExpression);
+	}
+
+	public boolean visit(QualifiedAllocationExpression qualifiedAllocationExpression, BlockScope scope) {
+		return shift(qualifiedAllocationExpression);
+	}
+
+	public boolean visit(QualifiedNameReference qualifiedNameReference, BlockScope scope) {
+		return shift(qualifiedNameReference);
+	}
+
+	public boolean visit(QualifiedNameReference qualifiedNameReference, ClassScope scope) {
+		return shift(qualifiedNameReference);
+	}
+
+	public boolean visit(QualifiedThisReference qualifiedThisReference, BlockScope scope) {
+		return shift(qualifiedThisReference);
+	}
+
+	public boolean visit(QualifiedThisReference qualifiedThisReference, ClassScope scope) {
+		return shift(qualifiedThisReference);
+	}
+
+	public boolean visit(QualifiedTypeReference qualifiedTypeReference, BlockScope scope) {
+		return shift(qualifiedTypeReference);
+	}
+
+	public boolean visit(QualifiedTypeReference qualifiedTypeReference, ClassScope scope) {
+		return shift(qualifiedTypeReference);
+	}
+
+	public boolean visit(RegExLiteral stringLiteral, BlockScope scope) {
+		return shift(stringLiteral);
+	}
+
+	public boolean visit(ReturnStatement returnStatement, BlockScope scope) {
+		return shift(returnStatement);
+	}
+
+	public boolean visit(SingleNameReference singleNameReference, BlockScope scope) {
+		return shift(singleNameReference);
+	}
+
+	public boolean visit(SingleNameReference singleNameReference, ClassScope scope) {
+		return shift(singleNameReference);
+	}
+
+	public boolean visit(SingleTypeReference singleTypeReference, BlockScope scope) {
+		return shift(singleTypeReference);
+	}
+
+	public boolean visit(SingleTypeReference singleTypeReference, ClassScope scope) {
+		return shift(singleTypeReference);
+	}
+
+	public boolean visit(StringLiteral stringLiteral, BlockScope scope) {
+		return shift(stringLiteral);
+	}
+
+	public boolean visit(SuperReference superReference, BlockScope scope) {
+		return shift(superReference);
+	}
+
+	public boolean visit(SwitchStatement switchStatement, BlockScope scope) {
+		return shift(switchStatement);
+	}
+
+	public boolean visit(ThisReference thisReference, BlockScope scope) {
+		return shift(thisReference);
+	}
+
+	public boolean visit(ThisReference thisReference, ClassScope scope) {
+		return shift(thisReference);
+	}
+
+	public boolean visit(ThrowStatement throwStatement, BlockScope scope) {
+		return shift(throwStatement);
+	}
+
+	public boolean visit(TrueLiteral trueLiteral, BlockScope scope) {
+		return shift(trueLiteral);
+	}
+
+	public boolean visit(TryStatement tryStatement, BlockScope scope) {
+		return shift(tryStatement);
+	}
+
+	public boolean visit(TypeDeclaration localTypeDeclaration, BlockScope scope) {
+		return shift(localTypeDeclaration);
+	}
+
+	public boolean visit(TypeDeclaration memberTypeDeclaration, ClassScope scope) {
+		return shift(memberTypeDeclaration);
+	}
+
+	public boolean visit(TypeDeclaration typeDeclaration, CompilationUnitScope scope) {
+		return shift(typeDeclaration);
+	}
+
+	public boolean visit(UnaryExpression unaryExpression, BlockScope scope) {
+		return shift(unaryExpression);
+	}
+
+	public boolean visit(UndefinedLiteral undefined, BlockScope scope) {
+		return shift(undefined);
+	}
+
+	public boolean visit(WhileStatement whileStatement, BlockScope scope) {
+		return shift(whileStatement);
+	}
+
+	public boolean visit(WithStatement whileStatement, BlockScope scope) {
+		return shift(whileStatement);
+	}
+
+	public boolean visit(ObjectLiteral literal, BlockScope scope) {
+		return shift(literal);
+	}
+
+	public boolean visit(ObjectLiteralField field, BlockScope scope) {
+		return shift(field);
+	}
+
+	public boolean visit(ObjectGetterSetterField field, BlockScope scope) {
+		return shift(field);
+	}
+
+	public boolean visit(DebuggerStatement statement, BlockScope scope) {
+		return shift(statement);
+	}
+}
@@ -174,6 +174,15 @@ public class Scanner implements TerminalTokens {
 		newEntry4 = 0,
 		newEntry5 = 0,
 		newEntry6 = 0;
+	/*
+	 * Maximum number of the identifiers longer than OptimizedLength - 1 that a scanner keeps to
+	 * answer the same char[] for each of their occurrences, across the sources it scans. The table
+	 * is emptied once full, it is not used if 0.
+	 */
+	public static int IDENTIFIER_TABLE_LIMIT = Integer.getInteger("org.eclipse.wst.jsdt.core.scanner.identifierTableLimit", 4096).intValue(); //$NON-NLS-1$
+	// open addressing, the length is a power of 2 at least twice the count
+	private char[][] identifierTable;
+	private int identifierCount;
 	public boolean insideRecovery = false;
 
 	public int currentToken;
@@ -407,6 +416,8 @@ public char[] getCurrentIdentifierSource() {
 			case 6 :
 				return optimizedCurrentTokenSource6();
 		}
+		if (IDENTIFIER_TABLE_LIMIT > 0)
+			return optimizedCurrentTokenSource(length);
 		//no optimization
 		System.arraycopy(this.source, this.startPosition, result = new char[length], 0, length);
 	}
@@ -1053,9 +1064,9 @@ public int getNextToken() throws InvalidInputException {
 	int previousTokenNonWS = this.currentNonWhitespaceToken;
 	this.wasAcr = false;
 	if (this.diet) {
-		jumpOverMethodBody();
 		this.diet = false;
-		currentToken=this.currentPosition > this.eofPosition ? TokenNameEOF : TokenNameRBRACE;
+		jumpOverFunctionBody();
+		currentToken=currentNonWhitespaceToken=this.currentPosition > this.eofPosition ? TokenNameEOF : TokenNameRBRACE;
 		return currentToken;
 	}
 	int whiteStart = 0;
@@ -1885,6 +1896,41 @@ public char[] getSource(){
 	return this.source;
 }
 
+/**
+ * Jumps over the statements of a function body up to its closing brace, which is consumed.
+ * Unlike {@link #jumpOverMethodBody()}, the body is scanned token by token: string and regular
+ * expression literals may contain braces. The task tags are only looked for once the body is
+ * parsed.
+ */
+public final void jumpOverFunctionBody() {
+	char[][] tags = this.taskTags;
+	this.taskTags = null;
+	try {
+		int found = 1;
+		while (true) {
+			int token;
+			try {
+				token = getNextToken();
+			} catch (InvalidInputException e) {
+				// the characters are consumed, the error is reported once the body is parsed
+				if (this.currentPosition > this.eofPosition) return;
+				continue;
+			}
+			switch (token) {
+				case TokenNameLBRACE :
+					found++;
+					break;
+				case TokenNameRBRACE :
+					if (--found == 0) return;
+					break;
+				case TokenNameEOF :
+					return;
+			}
+		}
+	} finally {
+		this.taskTags = tags;
+	}
+}
 public final void jumpOverMethodBody() {
 
 	this.wasAcr = false;
@@ -2499,6 +2545,56 @@ final char[] optimizedCurrentTokenSource6() {
 	//newIdentCount++;
 	return table[newEntry6 = max] = r; //(r = new char[] {c0, c1, c2, c3, c4, c5});
 }
+final char[] optimizedCurrentTokenSource(int length) {
+	//return the same char[] for all the occurrences of an identifier, see IDENTIFIER_TABLE_LIMIT
+
+	char[] src = this.source;
+	int start = this.startPosition, end = start + length;
+	int hash = identifierHash(src, start, end);
+	char[][] table = this.identifierTable;
+	if (table == null)
+		table = this.identifierTable = new char[64][];
+	int index = identifierIndex(table, hash);
+	char[] charArray;
+	while ((charArray = table[index]) != null) {
+		if (charArray.length == length && CharOperation.equals(charArray, src, start, end))
+			return charArray;
+		index = (index + 1) & (table.length - 1);
+	}
+	//--------add the entry-------
+	if (this.identifierCount >= IDENTIFIER_TABLE_LIMIT) {
+		// the identifiers of the sources scanned next are the likeliest to be met again
+		this.identifierTable = table = new char[64][];
+		this.identifierCount = 0;
+		index = identifierIndex(table, hash);
+	} else if ((this.identifierCount + 1) * 2 > table.length) {
+		char[][] newTable = new char[table.length * 2][];
+		for (int i = 0; i < table.length; i++) {
+			if ((charArray = table[i]) != null) {
+				int newIndex = identifierIndex(newTable, identifierHash(charArray, 0, charArray.length));
+				while (newTable[newIndex] != null)
+					newIndex = (newIndex + 1) & (newTable.length - 1);
+				newTable[newIndex] = charArray;
+			}
+		}
+		this.identifierTable = table = newTable;
+		index = identifierIndex(table, hash);
+		while (table[index] != null)
+			index = (index + 1) & (table.length - 1);
+	}
+	this.identifierCount++;
+	System.arraycopy(src, start, charArray = new char[length], 0, length);
+	return table[index] = charArray;
+}
+private static int identifierHash(char[] chars, int start, int end) {
+	int hash = 0;
+	for (int i = start; i < end; i++)
+		hash = 31 * hash + chars[i];
+	return hash;
+}
+private static int identifierIndex(char[][] table, int hash) {
+	return (hash ^ (hash >>> 16)) & (table.length - 1);
+}
 
 private void parseTags() {
 	int position = 0;
@@ -127,12 +127,13 @@ public class Util implements SuffixConstants {
 			do {
 				int amountRequested = Math.max(stream.available(), DEFAULT_READING_SIZE);  // read at least 8K
 
-				// resize contents if needed
+				// resize contents if needed, doubling them at least: the streams whose length is unknown,
+				// such as the compressed zip entries, answer few available bytes
 				if (contentsLength + amountRequested > contents.length) {
 					System.arraycopy(
 						contents,
 						0,
-						contents = new byte[contentsLength + amountRequested],
+						contents = new byte[Math.max(contentsLength + amountRequested, contents.length * 2)],
 						0,
 						contentsLength);
 				}
@@ -230,9 +231,9 @@ public class Util implements SuffixConstants {
 
 				amountRequested = Math.max(stream.available(), DEFAULT_READING_SIZE);  // read at least 8K
 
-				// resize contents if needed
+				// resize contents if needed, doubling them at least, see getInputStreamAsByteArray(InputStream, int)
 				if (totalRead + 1 + amountRequested > contents.length)
-					System.arraycopy(contents, 	0, 	contents = new char[totalRead + 1 + amountRequested], 0, totalRead);
+					System.arraycopy(contents, 	0, 	contents = new char[Math.max(totalRead + 1 + amountRequested, contents.length * 2)], 0, totalRead);
 
 				// add current character
 				contents[totalRead++] = (char) current; // coming from totalRead==length
@@ -305,6 +306,31 @@ public class Util implements SuffixConstants {
 		}
 	}
 
+	/**
+	 * Returns the contents of the given zip entry as a char array, decoded with the given encoding
+	 * as they are read: unlike decoding the result of {@link #getZipEntryByteContent(ZipEntry, ZipFile)},
+	 * the entry is never held both as bytes and as characters.
+	 * @throws IOException if a problem occured reading the zip entry.
+	 */
+	public static char[] getZipEntryCharContent(ZipEntry ze, ZipFile zip, String encoding)
+		throws IOException {
+
+		InputStream stream = null;
+		try {
+			stream = zip.getInputStream(ze);
+			if (stream == null) throw new IOException("Invalid zip entry name : " + ze.getName()); //$NON-NLS-1$
+			return getInputStreamAsCharArray(stream, (int) ze.getSize(), encoding);
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
 	/**
 	 * Returns true iff str.toLowerCase().endsWith(".jar") || str.toLowerCase().endsWith(".zip")
 	 * implementation is not creating extra strings.
@@ -52,6 +52,7 @@ import org.eclipse.wst.jsdt.core.LibrarySuperType;
 import org.eclipse.wst.jsdt.core.WorkingCopyOwner;
 import org.eclipse.wst.jsdt.core.compiler.CharOperation;
 import org.eclipse.wst.jsdt.internal.compiler.IProblemFactory;
+import org.eclipse.wst.jsdt.internal.compiler.ISourceElementRequestor;
 import org.eclipse.wst.jsdt.internal.compiler.SourceElementParser;
 import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
 import org.eclipse.wst.jsdt.internal.compiler.env.IBinaryType;
@@ -159,22 +160,43 @@ protected boolean buildStructure(OpenableElementInfo info, IProgressMonitor pm,
 		// disable task tags checking to speed up parsing
 		options.put(JavaScriptCore.COMPILER_TASK_TAGS, ""); //$NON-NLS-1$
 	}
-	SourceElementParser parser = new SourceElementParser(
-		requestor,
-		problemFactory,
-		new CompilerOptions(options),
-		true/*report local declarations*/,
-		!createAST /*optimize string literals only if not creating a DOM AST*/);
-	parser.reportOnlyOneSyntaxError = !computeProblems;
-	parser.setStatementsRecovery((reconcileFlags & IJavaScriptUnit.ENABLE_STATEMENTS_RECOVERY) != 0);
-
-//	if (!computeProblems && !resolveBindings && !createAST) // disable javadoc parsing if not computing problems, not resolving and not creating ast
-//		parser.javadocParser.checkDocComment = false;
-	requestor.parser = parser;
-	CompilationUnitDeclaration unit =
-		parser.parseCompilationUnit(
-			this,
-		true /*full parse to find local elements*/);
+	boolean statementsRecovery = (reconcileFlags & IJavaScriptUnit.ENABLE_STATEMENTS_RECOVERY) != 0;
+
+	// reuse the structure saved when the library was last parsed, if it did not change since
+	LibraryTypesSnapshot snapshot = null;
+	File snapshotFile = null;
+	char[] contents = null;
+	long signature = 0;
+	boolean replayed = false;
+	if (!createAST && LibraryTypesSnapshot.ENABLED && (contents = getContents()) != null) {
+		snapshotFile = JavaModelManager.getJavaModelManager().getIndexManager().computeLibraryTypesFile(getPath());
+		signature = LibraryTypesSnapshot.signature(options, statementsRecovery);
+		replayed = LibraryTypesSnapshot.replay(snapshotFile, getFileName(), contents, signature, requestor);
+		if (!replayed)
+			snapshot = new LibraryTypesSnapshot(requestor);
+	}
+
+	CompilationUnitDeclaration unit = null;
+	if (!replayed) {
+		SourceElementParser parser = new SourceElementParser(
+			snapshot != null ? (ISourceElementRequestor) snapshot : requestor,
+			problemFactory,
+			new CompilerOptions(options),
+			true/*report local declarations*/,
+			!createAST /*optimize string literals only if not creating a DOM AST*/);
+		parser.reportOnlyOneSyntaxError = !computeProblems;
+		parser.setStatementsRecovery(statementsRecovery);
+
+//		if (!computeProblems && !resolveBindings && !createAST) // disable javadoc parsing if not computing problems, not resolving and not creating ast
+//			parser.javadocParser.checkDocComment = false;
+		requestor.parser = parser;
+		unit =
+			parser.parseCompilationUnit(
+				this,
+			true /*full parse to find local elements*/);
+		if (snapshot != null)
+			snapshot.save(snapshotFile, getFileName(), contents, signature);
+	}
 
 	// update timestamp (might be IResource.NULL_STAMP if original does not exist)
 	if (underlyingResource == null) {
@@ -190,15 +190,28 @@ public class CompilationUnit extends Openable implements IJavaScriptUnit, org.ec
 			// disable task tags checking to speed up parsing
 			options.put(JavaScriptCore.COMPILER_TASK_TAGS, ""); //$NON-NLS-1$
 		}
+		CompilerOptions compilerOptions = new CompilerOptions(options);
 		SourceElementParser parser = new SourceElementParser(
 			requestor,
 			problemFactory,
-			new CompilerOptions(options),
+			compilerOptions,
 			true/*report local declarations*/,
 			!createAST /*optimize string literals only if not creating a DOM AST*/);
 		parser.reportOnlyOneSyntaxError = !computeProblems;
 		parser.setMethodsFullRecovery(true);
 		parser.setStatementsRecovery((reconcileFlags & IJavaScriptUnit.ENABLE_STATEMENTS_RECOVERY) != 0);
+
+		// only parse the statements following the first change since the last reconcile
+		SourceElementParser.ReusableUnit previousUnit = null;
+		if (ReconcileUnitCache.isCached(this)) {
+			previousUnit = ReconcileUnitCache.getInstance().getReusableUnit(
+				this,
+				contents,
+				compilerOptions,
+				!createAST,
+				!computeProblems,
+				(reconcileFlags & IJavaScriptUnit.ENABLE_STATEMENTS_RECOVERY) != 0);
+		}
 	
 		requestor.parser = parser;
 		CompilationUnitDeclaration unit = parser.parseCompilationUnit(
@@ -224,7 +237,11 @@ public class CompilationUnit extends Openable implements IJavaScriptUnit, org.ec
 	
 	
 			},
-			true /*full parse to find local elements*/);
+			true /*full parse to find local elements*/,
+			previousUnit);
+		if (ReconcileUnitCache.isCached(this)) {
+			ReconcileUnitCache.getInstance().parseInBackground(this, unit);
+		}
 	
 		// update timestamp (might be IResource.NULL_STAMP if original does not exist)
 		if (underlyingResource == null) {
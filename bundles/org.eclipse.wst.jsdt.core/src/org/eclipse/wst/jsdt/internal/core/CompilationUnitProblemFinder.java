@@ -37,9 +37,11 @@ import org.eclipse.wst.jsdt.internal.compiler.env.ISourceType;
 import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
 import org.eclipse.wst.jsdt.internal.compiler.impl.ITypeRequestor2;
 import org.eclipse.wst.jsdt.internal.compiler.lookup.PackageBinding;
+import org.eclipse.wst.jsdt.internal.compiler.parser.MinifiedSource;
 import org.eclipse.wst.jsdt.internal.compiler.parser.Parser;
 import org.eclipse.wst.jsdt.internal.compiler.parser.SourceTypeConverter;
 import org.eclipse.wst.jsdt.internal.compiler.problem.AbortCompilationUnit;
+import org.eclipse.wst.jsdt.internal.compiler.problem.ProblemReporter;
 import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfObject;
 import org.eclipse.wst.jsdt.internal.compiler.util.Messages;
 import org.eclipse.wst.jsdt.internal.core.search.IRestrictedAccessBindingRequestor;
@@ -157,6 +159,11 @@ public class CompilationUnitProblemFinder extends Compiler implements ITypeReque
 							new String(sourceUnit.getFileName())
 						}));
 			}
+			if (parsedUnit == null && LibraryUnitCache.isCached(sourceUnit)) {
+				parsedUnit = LibraryUnitCache.getInstance().getParsedUnit(sourceUnit, totalUnits >= parseThreshold, this.options, getLibraryParserFactory());
+				if (parsedUnit != null)
+					parsedUnits.put(sourceUnit.getFileName(), parsedUnit);
+			}
 			if (parsedUnit == null) {
 				// diet parsing for large collection of unit
 				if (totalUnits < parseThreshold) {
@@ -253,6 +260,9 @@ public class CompilationUnitProblemFinder extends Compiler implements ITypeReque
 				problemFactory);
 			if (parser != null) {
 				problemFinder.parser = parser;
+			} else {
+				// only check the top level declarations of the minified sources if the project says so, unless building their AST
+				problemFinder.parser.summarizeMinifiedUnits = !creatingAST;
 			}
 			PackageFragment packageFragment = (PackageFragment)unitElement.getAncestor(IJavaScriptElement.PACKAGE_FRAGMENT);
 			char[][] expectedPackageName = null;
@@ -270,6 +280,12 @@ public class CompilationUnitProblemFinder extends Compiler implements ITypeReque
 					true, // analyze code
 					true); // generate code
 			} else {
+				if (!creatingAST && !unit.isSummary && problemFinder.options.summarizeMinifiedFiles
+						&& MinifiedSource.isMinified(unit.getFileName(), contents)) {
+					// entirely parsed for the structure of the working copy, but its functions are not resolved
+					unit.isSummary = true;
+					MinifiedSource.summarized(unit.getFileName(), contents);
+				}
 				problemFinder.resolve(
 					unit,
 					null, // no need for source
@@ -342,5 +358,17 @@ public class CompilationUnitProblemFinder extends Compiler implements ITypeReque
 	public void initializeParser() {
 		this.parser = new CommentRecorderParser(this.problemReporter, this.options.parseLiteralExpressionsAsConstants);
 	}
+	protected Parser newConcurrentParser(ProblemReporter reporter) {
+		return new CommentRecorderParser(reporter, this.options.parseLiteralExpressionsAsConstants);
+	}
+
+	private static final LibraryUnitCache.ParserFactory LIBRARY_PARSER_FACTORY = new LibraryUnitCache.ParserFactory() {
+		public Parser newParser(ProblemReporter problemReporter, CompilerOptions compilerOptions) {
+			return new CommentRecorderParser(problemReporter, compilerOptions.parseLiteralExpressionsAsConstants);
+		}
+	};
+	protected LibraryUnitCache.ParserFactory getLibraryParserFactory() {
+		return LIBRARY_PARSER_FACTORY;
+	}
 }
 
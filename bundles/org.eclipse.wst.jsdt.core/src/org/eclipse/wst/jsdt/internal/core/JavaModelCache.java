@@ -9,7 +9,7 @@
  *     IBM Corporation - initial API and implementation
  *******************************************************************************/
 package org.eclipse.wst.jsdt.internal.core;
-import java.util.HashMap;
+import java.util.Hashtable;
 import java.util.Map;
 
 import org.eclipse.wst.jsdt.core.IJavaScriptElement;
@@ -17,6 +17,12 @@ import org.eclipse.wst.jsdt.internal.core.util.LRUCache;
 
 /**
  * The cache of java elements to their respective info.
+ * <p>
+ * The infos are put and removed by the <code>JavaModelManager</code> while it is locked, but
+ * <code>#getInfo(IJavaScriptElement)</code> and <code>#peekAtInfo(IJavaScriptElement)</code> may be
+ * called concurrently: each kind of element has its own table, and the LRU caches are only reordered
+ * when they make space, see <code>LRUCache#getConcurrently(Object)</code>.
+ * </p>
  */
 public class JavaModelCache {
 	public static boolean VERBOSE = false;
@@ -37,12 +43,12 @@ public class JavaModelCache {
 	/**
 	 * Active Java Model Info
 	 */
-	protected JavaModelInfo modelInfo;
+	protected volatile JavaModelInfo modelInfo;
 
 	/**
 	 * Cache of open projects.
 	 */
-	protected HashMap projectCache;
+	protected Map projectCache;
 
 	/**
 	 * Cache of open package fragment roots.
@@ -72,7 +78,7 @@ public class JavaModelCache {
 public JavaModelCache() {
 	// set the size of the caches in function of the maximum amount of memory available
 	double ratio = getMemoryRatio();
-	this.projectCache = new HashMap(DEFAULT_PROJECT_SIZE); // NB: Don't use a LRUCache for projects as they are constantly reopened (e.g. during delta processing)
+	this.projectCache = new Hashtable(DEFAULT_PROJECT_SIZE); // NB: Don't use a LRUCache for projects as they are constantly reopened (e.g. during delta processing)
 	if (VERBOSE) {
 		this.rootCache = new VerboseElementCache((int) (DEFAULT_ROOT_SIZE * ratio), "Root cache"); //$NON-NLS-1$
 		this.pkgCache = new VerboseElementCache((int) (DEFAULT_PKG_SIZE * ratio), "Package cache"); //$NON-NLS-1$
@@ -82,7 +88,7 @@ public JavaModelCache() {
 		this.pkgCache = new ElementCache((int) (DEFAULT_PKG_SIZE * ratio));
 		this.openableCache = new ElementCache((int) (DEFAULT_OPENABLE_SIZE * ratio));
 	}
-	this.childrenCache = new HashMap((int) (DEFAULT_CHILDREN_SIZE * ratio));
+	this.childrenCache = new Hashtable((int) (DEFAULT_CHILDREN_SIZE * ratio));
 	resetJarTypeCache();
 }
 
@@ -96,14 +102,14 @@ public Object getInfo(IJavaScriptElement element) {
 		case IJavaScriptElement.JAVASCRIPT_PROJECT:
 			return this.projectCache.get(element);
 		case IJavaScriptElement.PACKAGE_FRAGMENT_ROOT:
-			return this.rootCache.get(element);
+			return this.rootCache.getConcurrently(element);
 		case IJavaScriptElement.PACKAGE_FRAGMENT:
-			return this.pkgCache.get(element);
+			return this.pkgCache.getConcurrently(element);
 		case IJavaScriptElement.JAVASCRIPT_UNIT:
 		case IJavaScriptElement.CLASS_FILE:
-			return this.openableCache.get(element);
+			return this.openableCache.getConcurrently(element);
 		case IJavaScriptElement.TYPE:
-			Object result = this.jarTypeCache.get(element);
+			Object result = this.jarTypeCache.getConcurrently(element);
 			if (result != null)
 				return result;
 			else
@@ -176,7 +182,10 @@ protected void putInfo(IJavaScriptElement element, Object info) {
 			this.openableCache.put(element, info);
 			break;
 		default:
-			this.childrenCache.put(element, info);
+			if (info == null)
+				this.childrenCache.remove(element); // not held by the table, as if never opened
+			else
+				this.childrenCache.put(element, info);
 	}
 }
 /**
@@ -115,6 +115,7 @@ import org.eclipse.wst.jsdt.internal.compiler.Compiler;
 import org.eclipse.wst.jsdt.internal.compiler.classfmt.ClassFileConstants;
 import org.eclipse.wst.jsdt.internal.compiler.env.AccessRestriction;
 import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.parser.MinifiedSource;
 import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfObjectToInt;
 import org.eclipse.wst.jsdt.internal.core.JavaProjectElementInfo.LookupCache;
 import org.eclipse.wst.jsdt.internal.core.builder.JavaBuilder;
@@ -125,6 +126,7 @@ import org.eclipse.wst.jsdt.internal.core.search.IRestrictedAccessTypeRequestor;
 import org.eclipse.wst.jsdt.internal.core.search.JavaWorkspaceScope;
 import org.eclipse.wst.jsdt.internal.core.search.indexing.IndexManager;
 import org.eclipse.wst.jsdt.internal.core.search.processing.JobManager;
+import org.eclipse.wst.jsdt.internal.core.util.BatchScheduler;
 import org.eclipse.wst.jsdt.internal.core.util.HashtableOfArrayToObject;
 import org.eclipse.wst.jsdt.internal.core.util.LRUCache;
 import org.eclipse.wst.jsdt.internal.core.util.Messages;
@@ -253,6 +255,7 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 	};
 
 	private static final String BUFFER_MANAGER_DEBUG = JavaScriptCore.PLUGIN_ID + "/debug/buffermanager" ; //$NON-NLS-1$
+	private static final String BATCHING_DEBUG = JavaScriptCore.PLUGIN_ID + "/debug/batching" ; //$NON-NLS-1$
 	private static final String INDEX_MANAGER_DEBUG = JavaScriptCore.PLUGIN_ID + "/debug/indexmanager" ; //$NON-NLS-1$
 	private static final String COMPILER_DEBUG = JavaScriptCore.PLUGIN_ID + "/debug/compiler" ; //$NON-NLS-1$
 	private static final String JAVAMODEL_DEBUG = JavaScriptCore.PLUGIN_ID + "/debug/javamodel" ; //$NON-NLS-1$
@@ -271,6 +274,7 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 	private static final String SEARCH_DEBUG = JavaScriptCore.PLUGIN_ID + "/debug/search" ; //$NON-NLS-1$
 	private static final String SOURCE_MAPPER_DEBUG_VERBOSE = JavaScriptCore.PLUGIN_ID + "/debug/sourcemapper" ; //$NON-NLS-1$
 	private static final String INFER_DEBUG = JavaScriptCore.PLUGIN_ID + "/debug/inferEngine" ; //$NON-NLS-1$
+	private static final String MINIFIED_SOURCE_DEBUG = JavaScriptCore.PLUGIN_ID + "/debug/minifiedsource" ; //$NON-NLS-1$
 
 	public static final String COMPLETION_PERF = JavaScriptCore.PLUGIN_ID + "/perf/completion" ; //$NON-NLS-1$
 	public static final String SELECTION_PERF = JavaScriptCore.PLUGIN_ID + "/perf/selection" ; //$NON-NLS-1$
@@ -1369,6 +1373,9 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 			String option = Platform.getDebugOption(BUFFER_MANAGER_DEBUG);
 			if(option != null) BufferManager.VERBOSE = option.equalsIgnoreCase(TRUE) ;
 
+			option = Platform.getDebugOption(BATCHING_DEBUG);
+			if(option != null) BatchScheduler.VERBOSE = option.equalsIgnoreCase(TRUE) ;
+
 			option = Platform.getDebugOption(BUILDER_DEBUG);
 			if(option != null) JavaBuilder.DEBUG = option.equalsIgnoreCase(TRUE) ;
 
@@ -1422,6 +1429,9 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 			
 			option = Platform.getDebugOption(INFER_DEBUG);
 			if(option != null) InferEngine.DEBUG = option.equalsIgnoreCase(TRUE);
+
+			option = Platform.getDebugOption(MINIFIED_SOURCE_DEBUG);
+			if(option != null) MinifiedSource.VERBOSE = option.equalsIgnoreCase(TRUE) ;
 		}
 
 		// configure performance options
@@ -1558,8 +1568,13 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 
 	/**
 	 *  Returns the info for the element.
+	 *  <p>
+	 *  The cache is only locked if the element is not found: it may be being opened or closed
+	 *  along with its parent or children, see {@link #putInfos(IJavaScriptElement, Map)} and
+	 *  {@link #removeInfoAndChildren(JavaElement)}.
+	 *  </p>
 	 */
-	public synchronized Object getInfo(IJavaScriptElement element) {
+	public Object getInfo(IJavaScriptElement element) {
 		HashMap tempCache = (HashMap)this.temporaryCache.get();
 		if (tempCache != null) {
 			Object result = tempCache.get(element);
@@ -1567,7 +1582,12 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 				return result;
 			}
 		}
-		return this.cache.getInfo(element);
+		Object info = this.cache.getInfo(element);
+		if (info != null)
+			return info;
+		synchronized (this) {
+			return this.cache.getInfo(element);
+		}
 	}
 
 	/**
@@ -2872,7 +2892,7 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 	 *  Returns the info for this element without
 	 *  disturbing the cache ordering.
 	 */
-	protected synchronized Object peekAtInfo(IJavaScriptElement element) {
+	protected Object peekAtInfo(IJavaScriptElement element) {
 		HashMap tempCache = (HashMap)this.temporaryCache.get();
 		if (tempCache != null) {
 			Object result = tempCache.get(element);
@@ -2880,7 +2900,13 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 				return result;
 			}
 		}
-		return this.cache.peekAtInfo(element);
+		// as getInfo(IJavaScriptElement), only locked if not found
+		Object info = this.cache.peekAtInfo(element);
+		if (info != null)
+			return info;
+		synchronized (this) {
+			return this.cache.peekAtInfo(element);
+		}
 	}
 
 	/**
@@ -0,0 +1,712 @@
+/*******************************************************************************
+ * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.wst.jsdt.core.compiler.CategorizedProblem;
+import org.eclipse.wst.jsdt.core.compiler.CharOperation;
+import org.eclipse.wst.jsdt.core.compiler.IProblem;
+import org.eclipse.wst.jsdt.core.infer.InferrenceManager;
+import org.eclipse.wst.jsdt.core.infer.InferrenceProvider;
+import org.eclipse.wst.jsdt.internal.compiler.ISourceElementRequestor;
+import org.eclipse.wst.jsdt.internal.core.util.Util;
+
+/**
+ * Snapshot of the types, functions and variables inferred from a library file, as reported
+ * to the requestor of a {@link org.eclipse.wst.jsdt.internal.compiler.SourceElementParser}.
+ * <p>
+ * While a library file is parsed, a snapshot forwards the notifications to the actual requestor
+ * and records them. The recording is then saved next to the index files, so that the structure
+ * of the library can be built again from the recording once the IDE is restarted, instead of
+ * parsing the library and inferring its types. A recording is only replayed for the same contents
+ * of the library, the same compiler options and the same inference providers.
+ * </p>
+ * Libraries with syntax errors are not recorded.
+ */
+class LibraryTypesSnapshot implements ISourceElementRequestor {
+	public static boolean ENABLED = !"false".equals(System.getProperty("org.eclipse.wst.jsdt.core.libraryTypesSnapshot")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	public static boolean VERBOSE = false;
+
+	private static final int VERSION = 0x0001;
+
+	private static final int CONSTRUCTOR_REFERENCE = 1;
+	private static final int FIELD_REFERENCE = 2;
+	private static final int IMPORT = 3;
+	private static final int LINE_SEPARATOR_POSITIONS = 4;
+	private static final int METHOD_REFERENCE = 5;
+	private static final int QUALIFIED_TYPE_REFERENCE = 6;
+	private static final int TYPE_REFERENCE = 7;
+	private static final int QUALIFIED_UNKNOWN_REFERENCE = 8;
+	private static final int UNKNOWN_REFERENCE = 9;
+	private static final int ENTER_COMPILATION_UNIT = 10;
+	private static final int ENTER_CONSTRUCTOR = 11;
+	private static final int ENTER_FIELD = 12;
+	private static final int ENTER_INITIALIZER = 13;
+	private static final int ENTER_METHOD = 14;
+	private static final int ENTER_TYPE = 15;
+	private static final int EXIT_COMPILATION_UNIT = 16;
+	private static final int EXIT_CONSTRUCTOR = 17;
+	private static final int EXIT_FIELD = 18;
+	private static final int EXIT_INITIALIZER = 19;
+	private static final int EXIT_METHOD = 20;
+	private static final int EXIT_TYPE = 21;
+	private static final int END = 0;
+
+	private final ISourceElementRequestor requestor;
+	private ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+	private DataOutputStream out = new DataOutputStream(this.bytes);
+	/* whether the recording is incomplete or must not be replayed */
+	private boolean invalid;
+
+	LibraryTypesSnapshot(ISourceElementRequestor requestor) {
+		this.requestor = requestor;
+	}
+
+	/**
+	 * Answers the signature of the compiler options and the inference providers the
+	 * structure of a library depends on.
+	 */
+	static long signature(Map options, boolean statementsRecovery) {
+		StringBuffer buffer = new StringBuffer();
+		Iterator entries = new TreeMap(options).entrySet().iterator();
+		while (entries.hasNext()) {
+			Map.Entry entry = (Map.Entry) entries.next();
+			buffer.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+		}
+		InferrenceProvider[] providers = InferrenceManager.getInstance().getInferenceProviders();
+		for (int i = 0; i < providers.length; i++)
+			buffer.append(providers[i].getID()).append('\n');
+		buffer.append(statementsRecovery);
+		return hash(buffer.toString().toCharArray());
+	}
+
+	static long hash(char[] contents) {
+		long hash = contents.length;
+		for (int i = 0, length = contents.length; i < length; i++)
+			hash = 31 * hash + contents[i];
+		return hash;
+	}
+
+	/**
+	 * Saves the recorded notifications into the given file, unless they must not be replayed.
+	 */
+	void save(File file, char[] fileName, char[] contents, long signature) {
+		if (this.invalid) {
+			file.delete();
+			return;
+		}
+		DataOutputStream stream = null;
+		try {
+			this.out.writeByte(END);
+			stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 2048));
+			stream.writeInt(VERSION);
+			writeName(stream, fileName);
+			stream.writeInt(contents.length);
+			stream.writeLong(hash(contents));
+			stream.writeLong(signature);
+			stream.writeInt(this.bytes.size());
+			this.bytes.writeTo(stream);
+			if (VERBOSE)
+				Util.verbose("LibraryTypesSnapshot saved " + new String(fileName) + " to " + file + " (" + this.bytes.size() + " bytes)"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		} catch (IOException e) {
+			if (VERBOSE) {
+				Util.verbose("LibraryTypesSnapshot could not save " + file); //$NON-NLS-1$
+				e.printStackTrace();
+			}
+			file.delete();
+		} finally {
+			this.bytes = null;
+			this.out = null;
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reports to the given requestor the notifications saved in the given file, if they were
+	 * recorded from the given contents with the given signature.
+	 *
+	 * @return whether the notifications were reported, nothing is reported otherwise
+	 */
+	static boolean replay(File file, char[] fileName, char[] contents, long signature, ISourceElementRequestor requestor) {
+		if (!file.exists())
+			return false;
+		byte[] recording;
+		DataInputStream stream = null;
+		try {
+			stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 2048));
+			if (stream.readInt() != VERSION
+					|| !CharOperation.equals(readName(stream), fileName)
+					|| stream.readInt() != contents.length
+					|| stream.readLong() != hash(contents)
+					|| stream.readLong() != signature) {
+				if (VERBOSE)
+					Util.verbose("LibraryTypesSnapshot out of date " + new String(fileName)); //$NON-NLS-1$
+				return false;
+			}
+			recording = new byte[stream.readInt()];
+			stream.readFully(recording);
+		} catch (IOException e) {
+			return false;
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+		try {
+			// check the whole recording first, as the requestor cannot be given part of it
+			replay(recording, null);
+			replay(recording, requestor);
+		} catch (IOException e) {
+			if (VERBOSE)
+				Util.verbose("LibraryTypesSnapshot corrupted " + file); //$NON-NLS-1$
+			return false;
+		}
+		if (VERBOSE)
+			Util.verbose("LibraryTypesSnapshot replayed " + new String(fileName)); //$NON-NLS-1$
+		return true;
+	}
+
+	private static void replay(byte[] recording, ISourceElementRequestor requestor) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(recording));
+		while (true) {
+			int kind = in.readByte();
+			switch (kind) {
+				case END :
+					return;
+				case CONSTRUCTOR_REFERENCE : {
+					char[] typeName = readName(in);
+					int argCount = in.readInt();
+					int sourcePosition = in.readInt();
+					if (requestor != null)
+						requestor.acceptConstructorReference(typeName, argCount, sourcePosition);
+					break;
+				}
+				case FIELD_REFERENCE : {
+					char[] fieldName = readName(in);
+					int sourcePosition = in.readInt();
+					if (requestor != null)
+						requestor.acceptFieldReference(fieldName, sourcePosition);
+					break;
+				}
+				case IMPORT : {
+					int declarationStart = in.readInt();
+					int declarationEnd = in.readInt();
+					char[][] tokens = readNames(in);
+					boolean onDemand = in.readBoolean();
+					if (requestor != null)
+						requestor.acceptImport(declarationStart, declarationEnd, tokens, onDemand);
+					break;
+				}
+				case LINE_SEPARATOR_POSITIONS : {
+					int length = in.readInt();
+					int[] positions = null;
+					if (length >= 0) {
+						positions = new int[length];
+						for (int i = 0; i < length; i++)
+							positions[i] = in.readInt();
+					}
+					if (requestor != null)
+						requestor.acceptLineSeparatorPositions(positions);
+					break;
+				}
+				case METHOD_REFERENCE : {
+					char[] methodName = readName(in);
+					int sourcePosition = in.readInt();
+					if (requestor != null)
+						requestor.acceptMethodReference(methodName, sourcePosition);
+					break;
+				}
+				case QUALIFIED_TYPE_REFERENCE : {
+					char[][] typeName = readNames(in);
+					int sourceStart = in.readInt();
+					int sourceEnd = in.readInt();
+					if (requestor != null)
+						requestor.acceptTypeReference(typeName, sourceStart, sourceEnd);
+					break;
+				}
+				case TYPE_REFERENCE : {
+					char[] typeName = readName(in);
+					int sourcePosition = in.readInt();
+					if (requestor != null)
+						requestor.acceptTypeReference(typeName, sourcePosition);
+					break;
+				}
+				case QUALIFIED_UNKNOWN_REFERENCE : {
+					char[][] name = readNames(in);
+					int sourceStart = in.readInt();
+					int sourceEnd = in.readInt();
+					if (requestor != null)
+						requestor.acceptUnknownReference(name, sourceStart, sourceEnd);
+					break;
+				}
+				case UNKNOWN_REFERENCE : {
+					char[] name = readName(in);
+					int sourcePosition = in.readInt();
+					if (requestor != null)
+						requestor.acceptUnknownReference(name, sourcePosition);
+					break;
+				}
+				case ENTER_COMPILATION_UNIT :
+					if (requestor != null)
+						requestor.enterCompilationUnit();
+					break;
+				case ENTER_CONSTRUCTOR : {
+					MethodInfo methodInfo = readMethodInfo(in);
+					if (requestor != null)
+						requestor.enterConstructor(methodInfo);
+					break;
+				}
+				case ENTER_FIELD : {
+					FieldInfo fieldInfo = new FieldInfo();
+					fieldInfo.declarationStart = in.readInt();
+					fieldInfo.modifiers = in.readInt();
+					fieldInfo.type = readName(in);
+					fieldInfo.name = readName(in);
+					fieldInfo.declaringType = readName(in);
+					fieldInfo.nameSourceStart = in.readInt();
+					fieldInfo.nameSourceEnd = in.readInt();
+					fieldInfo.categories = readNames(in);
+					if (requestor != null)
+						requestor.enterField(fieldInfo);
+					break;
+				}
+				case ENTER_INITIALIZER : {
+					int declarationStart = in.readInt();
+					int modifiers = in.readInt();
+					if (requestor != null)
+						requestor.enterInitializer(declarationStart, modifiers);
+					break;
+				}
+				case ENTER_METHOD : {
+					MethodInfo methodInfo = readMethodInfo(in);
+					if (requestor != null)
+						requestor.enterMethod(methodInfo);
+					break;
+				}
+				case ENTER_TYPE : {
+					TypeInfo typeInfo = new TypeInfo();
+					typeInfo.declarationStart = in.readInt();
+					typeInfo.modifiers = in.readInt();
+					typeInfo.name = readName(in);
+					typeInfo.nameSourceStart = in.readInt();
+					typeInfo.nameSourceEnd = in.readInt();
+					typeInfo.superclass = readName(in);
+					typeInfo.categories = readNames(in);
+					typeInfo.secondary = in.readBoolean();
+					typeInfo.anonymousMember = in.readBoolean();
+					typeInfo.synonyms = readNames(in);
+					typeInfo.isIndexed = in.readBoolean();
+					if (requestor != null)
+						requestor.enterType(typeInfo);
+					break;
+				}
+				case EXIT_COMPILATION_UNIT : {
+					int declarationEnd = in.readInt();
+					if (requestor != null)
+						requestor.exitCompilationUnit(declarationEnd);
+					break;
+				}
+				case EXIT_CONSTRUCTOR : {
+					int declarationEnd = in.readInt();
+					if (requestor != null)
+						requestor.exitConstructor(declarationEnd);
+					break;
+				}
+				case EXIT_FIELD : {
+					int initializationStart = in.readInt();
+					int declarationEnd = in.readInt();
+					int declarationSourceEnd = in.readInt();
+					if (requestor != null)
+						requestor.exitField(initializationStart, declarationEnd, declarationSourceEnd);
+					break;
+				}
+				case EXIT_INITIALIZER : {
+					int declarationEnd = in.readInt();
+					if (requestor != null)
+						requestor.exitInitializer(declarationEnd);
+					break;
+				}
+				case EXIT_METHOD : {
+					int declarationEnd = in.readInt();
+					int defaultValueStart = in.readInt();
+					int defaultValueEnd = in.readInt();
+					if (requestor != null)
+						requestor.exitMethod(declarationEnd, defaultValueStart, defaultValueEnd);
+					break;
+				}
+				case EXIT_TYPE : {
+					int declarationEnd = in.readInt();
+					if (requestor != null)
+						requestor.exitType(declarationEnd);
+					break;
+				}
+				default :
+					throw new IOException("Unknown notification " + kind); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private static MethodInfo readMethodInfo(DataInputStream in) throws IOException {
+		MethodInfo methodInfo = new MethodInfo();
+		methodInfo.isConstructor = in.readBoolean();
+		methodInfo.declarationStart = in.readInt();
+		methodInfo.modifiers = in.readInt();
+		methodInfo.returnType = readName(in);
+		methodInfo.name = readName(in);
+		methodInfo.nameSourceStart = in.readInt();
+		methodInfo.nameSourceEnd = in.readInt();
+		methodInfo.parameterTypes = readNames(in);
+		methodInfo.parameterNames = readNames(in);
+		methodInfo.declaringType = readName(in);
+		methodInfo.categories = readNames(in);
+		return methodInfo;
+	}
+
+	private void writeMethodInfo(MethodInfo methodInfo) throws IOException {
+		this.out.writeBoolean(methodInfo.isConstructor);
+		this.out.writeInt(methodInfo.declarationStart);
+		this.out.writeInt(methodInfo.modifiers);
+		writeName(this.out, methodInfo.returnType);
+		writeName(this.out, methodInfo.name);
+		this.out.writeInt(methodInfo.nameSourceStart);
+		this.out.writeInt(methodInfo.nameSourceEnd);
+		writeNames(this.out, methodInfo.parameterTypes);
+		writeNames(this.out, methodInfo.parameterNames);
+		writeName(this.out, methodInfo.declaringType);
+		writeNames(this.out, methodInfo.categories);
+	}
+
+	private static char[] readName(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			return null;
+		char[] name = new char[length];
+		for (int i = 0; i < length; i++)
+			name[i] = in.readChar();
+		return name;
+	}
+
+	private static char[][] readNames(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			return null;
+		char[][] names = new char[length][];
+		for (int i = 0; i < length; i++)
+			names[i] = readName(in);
+		return names;
+	}
+
+	private static void writeName(DataOutputStream stream, char[] name) throws IOException {
+		if (name == null) {
+			stream.writeInt(-1);
+			return;
+		}
+		stream.writeInt(name.length);
+		for (int i = 0; i < name.length; i++)
+			stream.writeChar(name[i]);
+	}
+
+	private static void writeNames(DataOutputStream stream, char[][] names) throws IOException {
+		if (names == null) {
+			stream.writeInt(-1);
+			return;
+		}
+		stream.writeInt(names.length);
+		for (int i = 0; i < names.length; i++)
+			writeName(stream, names[i]);
+	}
+
+	private void record(IOException e) {
+		// cannot happen when writing to a byte array, but a partial recording must not be saved
+		this.invalid = true;
+	}
+
+	public void acceptConstructorReference(char[] typeName, int argCount, int sourcePosition) {
+		this.requestor.acceptConstructorReference(typeName, argCount, sourcePosition);
+		try {
+			this.out.writeByte(CONSTRUCTOR_REFERENCE);
+			writeName(this.out, typeName);
+			this.out.writeInt(argCount);
+			this.out.writeInt(sourcePosition);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void acceptFieldReference(char[] fieldName, int sourcePosition) {
+		this.requestor.acceptFieldReference(fieldName, sourcePosition);
+		try {
+			this.out.writeByte(FIELD_REFERENCE);
+			writeName(this.out, fieldName);
+			this.out.writeInt(sourcePosition);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void acceptImport(int declarationStart, int declarationEnd, char[][] tokens, boolean onDemand) {
+		this.requestor.acceptImport(declarationStart, declarationEnd, tokens, onDemand);
+		try {
+			this.out.writeByte(IMPORT);
+			this.out.writeInt(declarationStart);
+			this.out.writeInt(declarationEnd);
+			writeNames(this.out, tokens);
+			this.out.writeBoolean(onDemand);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void acceptLineSeparatorPositions(int[] positions) {
+		this.requestor.acceptLineSeparatorPositions(positions);
+		try {
+			this.out.writeByte(LINE_SEPARATOR_POSITIONS);
+			if (positions == null) {
+				this.out.writeInt(-1);
+			} else {
+				this.out.writeInt(positions.length);
+				for (int i = 0; i < positions.length; i++)
+					this.out.writeInt(positions[i]);
+			}
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void acceptMethodReference(char[] methodName, int sourcePosition) {
+		this.requestor.acceptMethodReference(methodName, sourcePosition);
+		try {
+			this.out.writeByte(METHOD_REFERENCE);
+			writeName(this.out, methodName);
+			this.out.writeInt(sourcePosition);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void acceptProblem(CategorizedProblem problem) {
+		this.requestor.acceptProblem(problem);
+		// syntax errors are not recorded, the library will be parsed again
+		if ((problem.getID() & IProblem.Syntax) != 0)
+			this.invalid = true;
+	}
+
+	public void acceptTypeReference(char[][] typeName, int sourceStart, int sourceEnd) {
+		this.requestor.acceptTypeReference(typeName, sourceStart, sourceEnd);
+		try {
+			this.out.writeByte(QUALIFIED_TYPE_REFERENCE);
+			writeNames(this.out, typeName);
+			this.out.writeInt(sourceStart);
+			this.out.writeInt(sourceEnd);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void acceptTypeReference(char[] typeName, int sourcePosition) {
+		this.requestor.acceptTypeReference(typeName, sourcePosition);
+		try {
+			this.out.writeByte(TYPE_REFERENCE);
+			writeName(this.out, typeName);
+			this.out.writeInt(sourcePosition);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void acceptUnknownReference(char[][] name, int sourceStart, int sourceEnd) {
+		this.requestor.acceptUnknownReference(name, sourceStart, sourceEnd);
+		try {
+			this.out.writeByte(QUALIFIED_UNKNOWN_REFERENCE);
+			writeNames(this.out, name);
+			this.out.writeInt(sourceStart);
+			this.out.writeInt(sourceEnd);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void acceptUnknownReference(char[] name, int sourcePosition) {
+		this.requestor.acceptUnknownReference(name, sourcePosition);
+		try {
+			this.out.writeByte(UNKNOWN_REFERENCE);
+			writeName(this.out, name);
+			this.out.writeInt(sourcePosition);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void enterCompilationUnit() {
+		this.requestor.enterCompilationUnit();
+		try {
+			this.out.writeByte(ENTER_COMPILATION_UNIT);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void enterConstructor(MethodInfo methodInfo) {
+		this.requestor.enterConstructor(methodInfo);
+		try {
+			this.out.writeByte(ENTER_CONSTRUCTOR);
+			writeMethodInfo(methodInfo);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void enterField(FieldInfo fieldInfo) {
+		this.requestor.enterField(fieldInfo);
+		try {
+			this.out.writeByte(ENTER_FIELD);
+			this.out.writeInt(fieldInfo.declarationStart);
+			this.out.writeInt(fieldInfo.modifiers);
+			writeName(this.out, fieldInfo.type);
+			writeName(this.out, fieldInfo.name);
+			writeName(this.out, fieldInfo.declaringType);
+			this.out.writeInt(fieldInfo.nameSourceStart);
+			this.out.writeInt(fieldInfo.nameSourceEnd);
+			writeNames(this.out, fieldInfo.categories);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void enterInitializer(int declarationStart, int modifiers) {
+		this.requestor.enterInitializer(declarationStart, modifiers);
+		try {
+			this.out.writeByte(ENTER_INITIALIZER);
+			this.out.writeInt(declarationStart);
+			this.out.writeInt(modifiers);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void enterMethod(MethodInfo methodInfo) {
+		this.requestor.enterMethod(methodInfo);
+		try {
+			this.out.writeByte(ENTER_METHOD);
+			writeMethodInfo(methodInfo);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void enterType(TypeInfo typeInfo) {
+		this.requestor.enterType(typeInfo);
+		try {
+			this.out.writeByte(ENTER_TYPE);
+			this.out.writeInt(typeInfo.declarationStart);
+			this.out.writeInt(typeInfo.modifiers);
+			writeName(this.out, typeInfo.name);
+			this.out.writeInt(typeInfo.nameSourceStart);
+			this.out.writeInt(typeInfo.nameSourceEnd);
+			writeName(this.out, typeInfo.superclass);
+			writeNames(this.out, typeInfo.categories);
+			this.out.writeBoolean(typeInfo.secondary);
+			this.out.writeBoolean(typeInfo.anonymousMember);
+			writeNames(this.out, typeInfo.synonyms);
+			this.out.writeBoolean(typeInfo.isIndexed);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void exitCompilationUnit(int declarationEnd) {
+		this.requestor.exitCompilationUnit(declarationEnd);
+		try {
+			this.out.writeByte(EXIT_COMPILATION_UNIT);
+			this.out.writeInt(declarationEnd);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void exitConstructor(int declarationEnd) {
+		this.requestor.exitConstructor(declarationEnd);
+		try {
+			this.out.writeByte(EXIT_CONSTRUCTOR);
+			this.out.writeInt(declarationEnd);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void exitField(int initializationStart, int declarationEnd, int declarationSourceEnd) {
+		this.requestor.exitField(initializationStart, declarationEnd, declarationSourceEnd);
+		try {
+			this.out.writeByte(EXIT_FIELD);
+			this.out.writeInt(initializationStart);
+			this.out.writeInt(declarationEnd);
+			this.out.writeInt(declarationSourceEnd);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void exitInitializer(int declarationEnd) {
+		this.requestor.exitInitializer(declarationEnd);
+		try {
+			this.out.writeByte(EXIT_INITIALIZER);
+			this.out.writeInt(declarationEnd);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void exitMethod(int declarationEnd, int defaultValueStart, int defaultValueEnd) {
+		this.requestor.exitMethod(declarationEnd, defaultValueStart, defaultValueEnd);
+		try {
+			this.out.writeByte(EXIT_METHOD);
+			this.out.writeInt(declarationEnd);
+			this.out.writeInt(defaultValueStart);
+			this.out.writeInt(defaultValueEnd);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+
+	public void exitType(int declarationEnd) {
+		this.requestor.exitType(declarationEnd);
+		try {
+			this.out.writeByte(EXIT_TYPE);
+			this.out.writeInt(declarationEnd);
+		} catch (IOException e) {
+			record(e);
+		}
+	}
+}
@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.eclipse.wst.jsdt.core.LibrarySuperType;
+import org.eclipse.wst.jsdt.core.compiler.CharOperation;
+import org.eclipse.wst.jsdt.core.compiler.InvalidInputException;
+import org.eclipse.wst.jsdt.core.infer.InferredType;
+import org.eclipse.wst.jsdt.core.infer.InferrenceManager;
+import org.eclipse.wst.jsdt.internal.compiler.CompilationResult;
+import org.eclipse.wst.jsdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit;
+import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.parser.Parser;
+import org.eclipse.wst.jsdt.internal.compiler.parser.Scanner;
+import org.eclipse.wst.jsdt.internal.compiler.parser.TerminalTokens;
+import org.eclipse.wst.jsdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.wst.jsdt.internal.compiler.problem.ProblemReporter;
+import org.eclipse.wst.jsdt.internal.core.util.ILRUCacheable;
+import org.eclipse.wst.jsdt.internal.core.util.LRUCache;
+import org.eclipse.wst.jsdt.internal.core.util.Util;
+
+/**
+ * Process wide cache of parsed and inferred library units (the units of class files), so that
+ * the compilers created for each reconcile, build or code assist request do not parse the
+ * library files again.
+ * <p>
+ * Binding a unit records scopes and bindings in its declarations, so a parsed unit is handed
+ * to a single compiler. When a compiler finds no copy ready, it parses the library itself and
+ * the cache parses a new copy in the background, ready for the next compiler, unless a copy is
+ * being parsed already: the compiler then waits for that one. Copies are kept for the libraries
+ * used last, up to {@link #SPACE_LIMIT} bytes of library source and parsed units. A copy is only
+ * handed out if the contents of the library, the parse mode, the parser set up and the compiler
+ * options are the ones it was parsed with.
+ * </p>
+ */
+public class LibraryUnitCache {
+	/* approximate number of bytes of library source and parsed units kept, the cache is disabled if 0 */
+	public static int SPACE_LIMIT = Integer.getInteger("org.eclipse.wst.jsdt.core.libraryUnitCache.size", 64000000).intValue(); //$NON-NLS-1$
+
+	/* approximate number of bytes of the nodes parsed or inferred for a token of a library source */
+	private static final int TOKEN_FOOTPRINT = 64;
+
+	/**
+	 * Creates the parsers of the library units, set up as the parsers of a compiler or engine.
+	 * The parsers created by the factories of a given class must be set up the same way, as the
+	 * units they parse are handed out to the callers giving a factory of the same class.
+	 */
+	public interface ParserFactory {
+		Parser newParser(ProblemReporter problemReporter, CompilerOptions options);
+	}
+
+	/**
+	 * Creates parsers with their default javadoc parser.
+	 */
+	public static final ParserFactory DEFAULT_PARSER_FACTORY = new ParserFactory() {
+		public Parser newParser(ProblemReporter problemReporter, CompilerOptions options) {
+			return new Parser(problemReporter, options.parseLiteralExpressionsAsConstants);
+		}
+	};
+
+	public static boolean VERBOSE = false;
+
+	private static LibraryUnitCache Instance;
+
+	private final LRUCache entries;
+	/* entries whose unit is to be parsed by the background thread */
+	private final ArrayList pending = new ArrayList();
+	private Thread worker;
+
+	private int hits, misses;
+
+	/*
+	 * A library unit, parsed in a given mode with given options.
+	 */
+	private static class Entry implements ILRUCacheable, ICompilationUnit {
+		final String key;
+		final ICompilationUnit unit;
+		final char[] fileName;
+		final char[] contents;
+		final boolean diet;
+		final CompilerOptions options;
+		final Map optionsMap;
+		final ParserFactory parserFactory;
+		final String inferenceID;
+		/* unit parsed and not yet handed out, and its footprint */
+		CompilationUnitDeclaration parsedUnit;
+		int parsedUnitFootprint;
+		/* whether the unit is pending or being parsed, and whether it is being parsed */
+		boolean scheduled, parsing;
+
+		Entry(String key, ICompilationUnit unit, char[] contents, boolean diet, CompilerOptions options, Map optionsMap, ParserFactory parserFactory) {
+			this.key = key;
+			this.unit = unit;
+			this.fileName = unit.getFileName();
+			this.contents = contents;
+			this.diet = diet;
+			this.options = options;
+			this.optionsMap = optionsMap;
+			this.parserFactory = parserFactory;
+			// computed here as it may need the java model
+			this.inferenceID = unit.getInferenceID();
+		}
+		public int getCacheFootprint() {
+			return this.contents.length * 2 + (this.parsedUnit != null ? this.parsedUnitFootprint : 0);
+		}
+		// the unit given to the background parser, reading the contents seen by the compiler
+		public char[] getContents() {
+			return this.contents;
+		}
+		public char[] getFileName() {
+			return this.fileName;
+		}
+		public char[] getMainTypeName() {
+			return this.unit.getMainTypeName();
+		}
+		public char[][] getPackageName() {
+			return this.unit.getPackageName();
+		}
+		public LibrarySuperType getCommonSuperType() {
+			return this.unit.getCommonSuperType();
+		}
+		public String getInferenceID() {
+			return this.inferenceID;
+		}
+	}
+
+	public static synchronized LibraryUnitCache getInstance() {
+		if (Instance == null)
+			Instance = new LibraryUnitCache();
+		return Instance;
+	}
+
+	private LibraryUnitCache() {
+		this.entries = new LRUCache(Math.max(SPACE_LIMIT, 1));
+	}
+
+	/**
+	 * Answers whether the units of the given source are kept by this cache.
+	 */
+	public static boolean isCached(ICompilationUnit sourceUnit) {
+		return SPACE_LIMIT > 0 && sourceUnit instanceof ClassFile;
+	}
+
+	/**
+	 * Answers a parsed and inferred unit of the given library source, which no other compiler
+	 * has seen, or <code>null</code> if none is ready nor being parsed. In which case the caller
+	 * parses the source itself and a unit will be ready for the next call.
+	 *
+	 * @param sourceUnit the library source, see {@link #isCached(ICompilationUnit)}
+	 * @param diet whether the unit is diet parsed or fully parsed
+	 * @param options the options of the compiler
+	 * @param parserFactory creates parsers set up as the ones of the caller
+	 */
+	public CompilationUnitDeclaration getParsedUnit(ICompilationUnit sourceUnit, boolean diet, CompilerOptions options, ParserFactory parserFactory) {
+		char[] contents = sourceUnit.getContents();
+		Map optionsMap = options.getMap();
+		String key = key(sourceUnit.getFileName(), diet, options, parserFactory);
+		CompilationUnitDeclaration parsedUnit = null;
+		Entry entry;
+		synchronized (this) {
+			entry = (Entry) this.entries.get(key);
+			if (entry != null && CharOperation.equals(entry.contents, contents) && entry.optionsMap.equals(optionsMap)) {
+				if (entry.parsing) {
+					// waiting costs less than parsing the source a second time
+					Thread thread = this.worker;
+					if (thread != null)
+						thread.setPriority(Thread.currentThread().getPriority());
+					while (entry.parsing) {
+						try {
+							wait();
+						} catch (InterruptedException e) {
+							// ignore
+						}
+					}
+				}
+				parsedUnit = entry.parsedUnit;
+				if (parsedUnit != null) {
+					this.hits++;
+					entry.parsedUnit = null;
+					if (this.entries.peek(key) == entry)
+						this.entries.put(key, entry); // smaller footprint
+				} else {
+					this.misses++; // handed out already, or pending
+				}
+			} else {
+				this.misses++;
+				// the library changed or was never seen
+				entry = new Entry(key, sourceUnit, contents, diet, options, optionsMap, parserFactory);
+				this.entries.put(key, entry);
+			}
+			// a copy for the next compiler, which is not parsed twice
+			if (parsedUnit == null && !entry.scheduled) {
+				entry.scheduled = true;
+				this.pending.add(entry);
+			}
+			if (!this.pending.isEmpty() && this.worker == null) {
+				// the inference providers are loaded lazily by a singleton which is not thread safe
+				InferrenceManager.getInstance().getInferenceProviders();
+				this.worker = new Thread("JavaScript Library Units Parser") { //$NON-NLS-1$
+					public void run() {
+						parseUnits();
+					}
+				};
+				this.worker.setDaemon(true);
+				this.worker.setPriority(Thread.MIN_PRIORITY);
+				this.worker.start();
+			}
+		}
+		if (VERBOSE)
+			Util.verbose("LibraryUnitCache " + (parsedUnit != null ? "hit " : "miss ") + new String(sourceUnit.getFileName()) + " (" + this + ')'); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		return parsedUnit;
+	}
+
+	private static String key(char[] fileName, boolean diet, CompilerOptions options, ParserFactory parserFactory) {
+		// the parser set up and the options which are not part of the options map
+		String factoryName = parserFactory.getClass().getName();
+		StringBuffer buffer = new StringBuffer(fileName.length + factoryName.length() + 6);
+		buffer.append(fileName);
+		buffer.append(factoryName);
+		buffer.append('/');
+		buffer.append(diet ? 'D' : 'F');
+		buffer.append(options.parseLiteralExpressionsAsConstants ? 'C' : '-');
+		buffer.append(options.performMethodsFullRecovery ? 'M' : '-');
+		buffer.append(options.performStatementsRecovery ? 'S' : '-');
+		return buffer.toString();
+	}
+
+	/*
+	 * Executed by the background thread: parses the units of the pending entries.
+	 */
+	void parseUnits() {
+		while (true) {
+			Entry entry;
+			synchronized (this) {
+				if (this.pending.isEmpty()) {
+					this.worker = null;
+					return;
+				}
+				entry = (Entry) this.pending.remove(0);
+				if (this.entries.peek(entry.key) != entry) {
+					entry.scheduled = false;
+					continue; // replaced or flushed since
+				}
+				entry.parsing = true;
+			}
+			// raised while a compiler waits for a unit
+			Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
+			CompilationUnitDeclaration parsedUnit = null;
+			int footprint = 0;
+			try {
+				parsedUnit = parse(entry);
+				footprint = footprint(parsedUnit, entry);
+			} catch (Throwable e) {
+				if (e instanceof ThreadDeath)
+					throw (ThreadDeath) e;
+				// errors too, e.g. a StackOverflowError, else the compilers waiting for the unit would wait forever
+				Util.log(e, "Error while parsing library " + new String(entry.fileName)); //$NON-NLS-1$
+				parsedUnit = null;
+			} finally {
+				synchronized (this) {
+					entry.scheduled = entry.parsing = false;
+					if (parsedUnit != null && this.entries.peek(entry.key) == entry) {
+						entry.parsedUnit = parsedUnit;
+						entry.parsedUnitFootprint = footprint;
+						this.entries.put(entry.key, entry); // larger footprint
+					}
+					notifyAll(); // wake up the compilers waiting for the unit
+				}
+			}
+		}
+	}
+
+	private CompilationUnitDeclaration parse(Entry entry) {
+		// parser set up as the ones of the compilers, the problems of library units are not reported
+		Parser parser = entry.parserFactory.newParser(
+			new ProblemReporter(
+				DefaultErrorHandlingPolicies.proceedWithAllProblems(),
+				entry.options,
+				new DefaultProblemFactory()),
+			entry.options);
+		CompilationResult result = new CompilationResult(entry, 1, 1, entry.options.maxProblemsPerUnit);
+		CompilationUnitDeclaration parsedUnit = entry.diet ? parser.dietParse(entry, result) : parser.parse(entry, result);
+		parser.inferTypes(parsedUnit, entry.options);
+		return parsedUnit;
+	}
+
+	/*
+	 * Estimates the number of bytes of the given unit, parsed and inferred from the source of the given entry,
+	 * from the number of tokens of the source and of the inferred members.
+	 */
+	private static int footprint(CompilationUnitDeclaration parsedUnit, Entry entry) {
+		Scanner scanner = new Scanner(false, false, false, entry.options.sourceLevel, null, null, true);
+		scanner.setSource(entry.contents);
+		int count = 0;
+		try {
+			while (scanner.getNextToken() != TerminalTokens.TokenNameEOF)
+				count++;
+		} catch (InvalidInputException e) {
+			// the rest of the source is not counted
+		}
+		for (int i = 0; i < parsedUnit.numberInferredTypes; i++) {
+			InferredType type = parsedUnit.inferredTypes[i];
+			count += 1 + type.numberAttributes + (type.methods != null ? type.methods.size() : 0);
+		}
+		return count * TOKEN_FOOTPRINT;
+	}
+
+	/**
+	 * Forgets all the parsed units.
+	 */
+	public synchronized void flush() {
+		this.entries.flush();
+		this.pending.clear();
+	}
+
+	public synchronized int getHits() {
+		return this.hits;
+	}
+
+	public synchronized int getMisses() {
+		return this.misses;
+	}
+
+	public synchronized String toString() {
+		return "hits: " + this.hits + ", misses: " + this.misses + ", space: " + this.entries.getCurrentSpace() + '/' + this.entries.getSpaceLimit(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+}
@@ -170,6 +170,7 @@ public double getLoadFactor() {
 		int spaceNeeded = (int)((1 - fLoadFactor) * limit);
 		spaceNeeded = (spaceNeeded > space) ? spaceNeeded : space;
 		LRUCacheEntry entry = fEntryQueueTail;
+		int requeued = fEntryTable.size();
 
 		try {
 			// disable timestamps update while making space so that the previous and next links are not changed
@@ -177,8 +178,15 @@ public double getLoadFactor() {
 			fTimestampsOn = false;
 
 			while (fCurrentSpace + spaceNeeded > limit && entry != null) {
-				this.privateRemoveEntry(entry, false, false);
-				entry = entry._fPrevious;
+				LRUCacheEntry previous = entry._fPrevious;
+				if (entry._fUsed && requeued-- > 0) {
+					// used by getConcurrently(Object) since it was queued, visited again after the older entries
+					this.privateRemoveEntry(entry, true);
+					this.privateAddEntry(entry, true);
+				} else {
+					this.privateRemoveEntry(entry, false, false);
+				}
+				entry = previous;
 			}
 		} finally {
 			fTimestampsOn = true;
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.eclipse.wst.jsdt.core.LibrarySuperType;
+import org.eclipse.wst.jsdt.core.compiler.CategorizedProblem;
+import org.eclipse.wst.jsdt.core.compiler.IProblem;
+import org.eclipse.wst.jsdt.core.infer.InferrenceManager;
+import org.eclipse.wst.jsdt.internal.compiler.CompilationResult;
+import org.eclipse.wst.jsdt.internal.compiler.SourceElementParser;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit;
+import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.wst.jsdt.internal.core.util.ILRUCacheable;
+import org.eclipse.wst.jsdt.internal.core.util.LRUCache;
+import org.eclipse.wst.jsdt.internal.core.util.Util;
+
+/**
+ * Process wide cache of the last contents of the reconciled working copies, parsed so that the
+ * next reconcile of a working copy only parses the statements around the changed characters, see
+ * {@link SourceElementParser#parseCompilationUnit(ICompilationUnit, boolean, SourceElementParser.ReusableUnit)}.
+ * <p>
+ * A reconcile infers and resolves the unit it parses, and such a unit cannot be reused: inference
+ * and resolution change the nodes and the inferred types they share. So once a working copy is
+ * reconciled, the cache parses its contents again in the background, ready for the next reconcile,
+ * unless the unit parsed by the reconcile shows that no statement of these contents could be reused.
+ * Copies are kept for the working copies reconciled last, up to
+ * {@link #SPACE_LIMIT} characters of source. A copy is only handed out if it was parsed with the
+ * parser options of the reconcile.
+ * </p>
+ */
+public class ReconcileUnitCache {
+	/* number of characters of source whose units are kept parsed, the cache is disabled if 0 */
+	public static int SPACE_LIMIT = Integer.getInteger("org.eclipse.wst.jsdt.core.reconcileUnitCache.size", 1000000).intValue(); //$NON-NLS-1$
+
+	public static boolean VERBOSE = false;
+
+	private static ReconcileUnitCache Instance;
+
+	private final LRUCache entries;
+	/* entries whose unit is to be parsed by the background thread */
+	private final ArrayList pending = new ArrayList();
+	private Thread worker;
+
+	private int hits, misses;
+
+	/*
+	 * The contents of a working copy, parsed with given options.
+	 */
+	private static class Entry implements ILRUCacheable, ICompilationUnit {
+		final CompilationUnit workingCopy;
+		final char[] fileName;
+		final char[] contents;
+		final CompilerOptions options;
+		final Map optionsMap;
+		final String parserKey;
+		final String inferenceID;
+		/* unit parsed and not yet handed out */
+		SourceElementParser.ReusableUnit parsedUnit;
+
+		Entry(CompilationUnit workingCopy, char[] contents, CompilerOptions options, String parserKey) {
+			this.workingCopy = workingCopy;
+			this.fileName = workingCopy.getFileName();
+			// the buffer may be changed while the contents are parsed
+			System.arraycopy(contents, 0, this.contents = new char[contents.length], 0, contents.length);
+			this.optionsMap = options.getMap();
+			// the parsers change their options, the reconcile one is not shared with the background parser
+			this.options = new CompilerOptions(this.optionsMap);
+			this.options.parseLiteralExpressionsAsConstants = options.parseLiteralExpressionsAsConstants;
+			this.parserKey = parserKey;
+			// computed here as it may need the java model
+			this.inferenceID = workingCopy.getInferenceID();
+		}
+		public int getCacheFootprint() {
+			return this.contents.length;
+		}
+		// the unit given to the background parser, reading the contents seen by the reconcile
+		public char[] getContents() {
+			return this.contents;
+		}
+		public char[] getFileName() {
+			return this.fileName;
+		}
+		public char[] getMainTypeName() {
+			return this.workingCopy.getMainTypeName();
+		}
+		public char[][] getPackageName() {
+			return this.workingCopy.getPackageName();
+		}
+		public LibrarySuperType getCommonSuperType() {
+			return this.workingCopy.getCommonSuperType();
+		}
+		public String getInferenceID() {
+			return this.inferenceID;
+		}
+	}
+
+	public static synchronized ReconcileUnitCache getInstance() {
+		if (Instance == null)
+			Instance = new ReconcileUnitCache();
+		return Instance;
+	}
+
+	private ReconcileUnitCache() {
+		this.entries = new LRUCache(Math.max(SPACE_LIMIT, 1));
+	}
+
+	/**
+	 * Answers whether the units of the given working copy are kept by this cache.
+	 */
+	public static boolean isCached(CompilationUnit workingCopy) {
+		return SPACE_LIMIT > 0 && workingCopy.isWorkingCopy();
+	}
+
+	/**
+	 * Answers the unit of the contents the given working copy was last reconciled with, parsed
+	 * with the given options and not yet handed out, or <code>null</code> if none is ready.
+	 * The given contents, which the working copy is being reconciled with, replace these, see
+	 * {@link #parseInBackground(CompilationUnit, CompilationUnitDeclaration)}.
+	 *
+	 * @param workingCopy the working copy, see {@link #isCached(CompilationUnit)}
+	 * @param contents the contents being reconciled
+	 * @param options the options of the reconcile parser
+	 * @param optimizeStringLiterals whether the reconcile parser optimizes string literals
+	 * @param reportOnlyOneSyntaxError whether the reconcile parser reports only one syntax error
+	 * @param statementsRecovery whether the reconcile parser recovers statements
+	 */
+	public SourceElementParser.ReusableUnit getReusableUnit(CompilationUnit workingCopy, char[] contents, CompilerOptions options,
+			boolean optimizeStringLiterals, boolean reportOnlyOneSyntaxError, boolean statementsRecovery) {
+		String parserKey = parserKey(optimizeStringLiterals, reportOnlyOneSyntaxError, statementsRecovery, options);
+		SourceElementParser.ReusableUnit parsedUnit = null;
+		Entry entry = new Entry(workingCopy, contents, options, parserKey);
+		synchronized (this) {
+			Entry previous = (Entry) this.entries.get(workingCopy);
+			if (previous != null && previous.parserKey.equals(parserKey) && previous.optionsMap.equals(entry.optionsMap)) {
+				parsedUnit = previous.parsedUnit;
+				previous.parsedUnit = null;
+			}
+			if (parsedUnit != null)
+				this.hits++;
+			else
+				this.misses++; // never reconciled, reconciled with other options or still being parsed
+			// the next reconcile starts from the contents of this one
+			this.entries.put(workingCopy, entry);
+		}
+		if (VERBOSE)
+			Util.verbose("ReconcileUnitCache " + (parsedUnit != null ? "hit " : "miss ") + new String(entry.fileName) + " (" + this + ')'); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		return parsedUnit;
+	}
+
+	/**
+	 * Parses in the background the contents the given working copy is being reconciled with,
+	 * given to {@link #getReusableUnit(CompilationUnit, char[], CompilerOptions, boolean, boolean, boolean)},
+	 * for the next reconcile. These contents are forgotten instead if the given unit, the one the
+	 * reconcile parsed from them, shows that none of its statements could be reused: the unit has
+	 * a single statement, or syntax errors, see
+	 * {@link org.eclipse.wst.jsdt.internal.compiler.parser.Parser#reparse(ICompilationUnit, CompilationResult, CompilationUnitDeclaration, char[])}.
+	 *
+	 * @param workingCopy the working copy, see {@link #isCached(CompilationUnit)}
+	 * @param unit the unit parsed by the reconcile, neither inferred nor resolved yet
+	 */
+	public synchronized void parseInBackground(CompilationUnit workingCopy, CompilationUnitDeclaration unit) {
+		Entry entry = (Entry) this.entries.peek(workingCopy);
+		if (entry == null)
+			return;
+		if (!isReusable(unit)) {
+			this.entries.flush(workingCopy);
+			return;
+		}
+		this.pending.add(entry);
+		if (this.worker == null) {
+			// the inference providers are loaded lazily by a singleton which is not thread safe
+			InferrenceManager.getInstance().getInferenceProviders();
+			this.worker = new Thread("JavaScript Reconcile Units Parser") { //$NON-NLS-1$
+				public void run() {
+					parseUnits();
+				}
+			};
+			this.worker.setDaemon(true);
+			this.worker.setPriority(Thread.MIN_PRIORITY);
+			this.worker.start();
+		}
+	}
+
+	private static boolean isReusable(CompilationUnitDeclaration unit) {
+		// a reparse reuses the statements preceding or following the one which changed
+		if (unit == null || unit.statements == null || unit.statements.length < 2)
+			return false;
+		CompilationResult result = unit.compilationResult;
+		if (result.hasSyntaxError)
+			return false;
+		CategorizedProblem[] problems = result.problems;
+		for (int i = 0, length = result.problemCount; i < length; i++) {
+			if (problems[i].getID() != IProblem.MissingSemiColon || problems[i].isError())
+				return false;
+		}
+		return true;
+	}
+
+	private static String parserKey(boolean optimizeStringLiterals, boolean reportOnlyOneSyntaxError, boolean statementsRecovery, CompilerOptions options) {
+		// the options which are not part of the options map
+		StringBuffer buffer = new StringBuffer(4);
+		buffer.append(optimizeStringLiterals ? 'O' : '-');
+		buffer.append(reportOnlyOneSyntaxError ? '1' : '-');
+		buffer.append(statementsRecovery ? 'S' : '-');
+		buffer.append(options.parseLiteralExpressionsAsConstants ? 'C' : '-');
+		return buffer.toString();
+	}
+
+	/*
+	 * Executed by the background thread: parses the units of the pending entries.
+	 */
+	void parseUnits() {
+		while (true) {
+			Entry entry;
+			synchronized (this) {
+				if (this.pending.isEmpty()) {
+					this.worker = null;
+					return;
+				}
+				entry = (Entry) this.pending.remove(0);
+				if (this.entries.peek(entry.workingCopy) != entry)
+					continue; // replaced or flushed since
+			}
+			SourceElementParser.ReusableUnit parsedUnit = null;
+			try {
+				parsedUnit = parse(entry);
+			} catch (RuntimeException e) {
+				Util.log(e, "Error while parsing " + new String(entry.fileName)); //$NON-NLS-1$
+			}
+			synchronized (this) {
+				if (this.entries.peek(entry.workingCopy) == entry)
+					entry.parsedUnit = parsedUnit;
+			}
+		}
+	}
+
+	private SourceElementParser.ReusableUnit parse(Entry entry) {
+		// configured as the reconcile parser, see CompilationUnit#buildStructure(...)
+		String key = entry.parserKey;
+		SourceElementParser parser = new SourceElementParser(
+			null,
+			new DefaultProblemFactory(),
+			entry.options,
+			true/*report local declarations*/,
+			key.charAt(0) == 'O');
+		parser.reportOnlyOneSyntaxError = key.charAt(1) == '1';
+		parser.setMethodsFullRecovery(true);
+		parser.setStatementsRecovery(key.charAt(2) == 'S');
+		return parser.parseReusableUnit(entry);
+	}
+
+	/**
+	 * Forgets all the parsed units.
+	 */
+	public synchronized void flush() {
+		this.entries.flush();
+		this.pending.clear();
+	}
+
+	public synchronized int getHits() {
+		return this.hits;
+	}
+
+	public synchronized int getMisses() {
+		return this.misses;
+	}
+
+	public synchronized String toString() {
+		return "hits: " + this.hits + ", misses: " + this.misses + ", space: " + this.entries.getCurrentSpace() + '/' + this.entries.getSpaceLimit(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+}
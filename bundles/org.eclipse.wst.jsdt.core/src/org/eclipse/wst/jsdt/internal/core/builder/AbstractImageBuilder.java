@@ -41,6 +41,7 @@ import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
 import org.eclipse.wst.jsdt.internal.compiler.problem.AbortCompilation;
 import org.eclipse.wst.jsdt.internal.compiler.util.SimpleSet;
 import org.eclipse.wst.jsdt.internal.core.JavaModelManager;
+import org.eclipse.wst.jsdt.internal.core.util.BatchScheduler;
 import org.eclipse.wst.jsdt.internal.core.util.Messages;
 import org.eclipse.wst.jsdt.internal.core.util.Util;
 
@@ -68,6 +69,7 @@ private boolean inCompiler;
 protected boolean keepStoringProblemMarkers;
 
 public static int MAX_AT_ONCE = 2000; // best compromise between space used and speed
+private static final BatchScheduler BATCH_SCHEDULER = new BatchScheduler("builder"); //$NON-NLS-1$
 public final static String[] JAVA_PROBLEM_MARKER_ATTRIBUTE_NAMES = {
 	IMarker.MESSAGE,
 	IMarker.SEVERITY,
@@ -218,40 +220,61 @@ protected void compile(SourceFile[] units) {
 	}
 
 	int unitsLength = units.length;
-	this.compiledAllAtOnce = unitsLength <= MAX_AT_ONCE;
+	long[] sourceSizes = new long[unitsLength];
+	for (int i = 0; i < unitsLength; i++)
+		sourceSizes[i] = BatchScheduler.sourceSize(units[i].resource);
+	// the groups are sized from the size of the units and the free heap, see BatchScheduler
+	long usedBefore = BatchScheduler.usedMemory();
+	long charsBudget = BATCH_SCHEDULER.charsBudget();
+	int unitsLimit = BATCH_SCHEDULER.unitsLimit(MAX_AT_ONCE);
+	long chars = 0;
+	int doNow = 0;
+	while (doNow < unitsLength && doNow < unitsLimit && (doNow == 0 || chars + sourceSizes[doNow] <= charsBudget))
+		chars += sourceSizes[doNow++];
+	this.compiledAllAtOnce = doNow == unitsLength;
 	if (this.compiledAllAtOnce) {
 		// do them all now
 		if (JavaBuilder.DEBUG)
 			for (int i = 0; i < unitsLength; i++)
 				System.out.println("About to compile " + units[i].typeLocator()); //$NON-NLS-1$
 		compile(units, null, true);
+		BATCH_SCHEDULER.batchDone(unitsLength, chars, usedBefore);
 	} else {
 		SourceFile[] remainingUnits = new SourceFile[unitsLength]; // copy of units, removing units when about to compile
 		System.arraycopy(units, 0, remainingUnits, 0, unitsLength);
-		int doNow = unitsLength < MAX_AT_ONCE ? unitsLength : MAX_AT_ONCE;
-		SourceFile[] toCompile = new SourceFile[doNow];
 		int remainingIndex = 0;
 		boolean compilingFirstGroup = true;
 		while (remainingIndex < unitsLength) {
+			if (!compilingFirstGroup) {
+				usedBefore = BatchScheduler.usedMemory();
+				charsBudget = BATCH_SCHEDULER.charsBudget();
+				unitsLimit = BATCH_SCHEDULER.unitsLimit(MAX_AT_ONCE);
+			}
+			SourceFile[] toCompile = new SourceFile[Math.min(unitsLimit, unitsLength - remainingIndex)];
 			int count = 0;
-			while (remainingIndex < unitsLength && count < doNow) {
+			chars = 0;
+			while (remainingIndex < unitsLength && count < unitsLimit) {
 				// Although it needed compiling when this method was called, it may have
 				// already been compiled when it was referenced by another unit.
 				SourceFile unit = remainingUnits[remainingIndex];
 				if (unit != null && (compilingFirstGroup || this.workQueue.isWaiting(unit))) {
+					if (count > 0 && chars + sourceSizes[remainingIndex] > charsBudget)
+						break; // the group is full
 					if (JavaBuilder.DEBUG)
 						System.out.println("About to compile #" + remainingIndex + " : "+ unit.typeLocator()); //$NON-NLS-1$ //$NON-NLS-2$
 					toCompile[count++] = unit;
+					chars += sourceSizes[remainingIndex];
 				}
 				remainingUnits[remainingIndex++] = null;
 			}
-			if (count < doNow)
+			if (count < toCompile.length)
 				System.arraycopy(toCompile, 0, toCompile = new SourceFile[count], 0, count);
 			if (!compilingFirstGroup)
 				for (int a = remainingIndex; a < unitsLength; a++)
 					if (remainingUnits[a] != null && this.workQueue.isCompiled(remainingUnits[a]))
 						remainingUnits[a] = null; // use the class file for this source file since its been compiled
 			compile(toCompile, remainingUnits, compilingFirstGroup);
+			BATCH_SCHEDULER.batchDone(count, chars, usedBefore);
 			compilingFirstGroup = false;
 		}
 	}
@@ -422,6 +445,9 @@ protected Compiler newCompiler() {
 	// enable the compiler reference info support
 	options.produceReferenceInfo = true;
 
+	// only build the top level declarations of the minified sources if the project says so
+	newCompiler.parser.summarizeMinifiedUnits = true;
+
 	return newCompiler;
 }
 
@@ -498,11 +524,8 @@ protected void recordParticipantResult(ValidationParticipantResult result) {
 	}
 
 	String[] dependencies = result.dependencies;
-	if (dependencies != null) {
-		ReferenceCollection refs = (ReferenceCollection) this.newState.references.get(result.sourceFile.typeLocator());
-		if (refs != null)
-			refs.addDependencies(dependencies);
-	}
+	if (dependencies != null)
+		this.newState.addDependencies(result.sourceFile.typeLocator(), dependencies);
 }
 
 /**
@@ -18,5 +18,10 @@ protected AdditionalTypeCollection(char[][] definedTypeNames, char[][][] qualifi
 	super(qualifiedReferences, simpleNameReferences);
 	this.definedTypeNames = definedTypeNames; // do not bother interning member type names (ie. 'A$M')
 }
+
+protected AdditionalTypeCollection(char[][] definedTypeNames) {
+	super();
+	this.definedTypeNames = definedTypeNames;
+}
 }
 
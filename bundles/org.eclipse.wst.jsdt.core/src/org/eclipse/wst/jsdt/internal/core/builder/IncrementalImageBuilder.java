@@ -196,26 +196,40 @@ protected void addAffectedSourceFiles(StringSet qualifiedSet, StringSet simpleSe
 	if (internedSimpleNames.length < simpleSet.elementSize)
 		internedSimpleNames = null;
 
-	Object[] keyTable = newState.references.keyTable;
-	Object[] valueTable = newState.references.valueTable;
-	next : for (int i = 0, l = valueTable.length; i < l; i++) {
+	if (internedSimpleNames != null) {
+		// only the source files referencing one of the simple names can be affected
+		Object[] dependents = newState.getDependentLocators(internedSimpleNames).values;
+		for (int i = 0, l = dependents.length; i < l; i++) {
+			String typeLocator = (String) dependents[i];
+			if (typeLocator != null)
+				addAffectedSourceFile(typeLocator, (ReferenceCollection) newState.getReferences().get(typeLocator), internedQualifiedNames, internedSimpleNames, affectedTypes);
+		}
+		return;
+	}
+
+	SimpleLookupTable references = newState.getReferences();
+	Object[] keyTable = references.keyTable;
+	Object[] valueTable = references.valueTable;
+	for (int i = 0, l = valueTable.length; i < l; i++) {
 		String typeLocator = (String) keyTable[i];
-		if (typeLocator != null) {
-			if (affectedTypes != null && !affectedTypes.includes(typeLocator)) continue next;
-			ReferenceCollection refs = (ReferenceCollection) valueTable[i];
-			if (refs.includes(internedQualifiedNames, internedSimpleNames)) {
-				IFile file = javaBuilder.currentProject.getFile(typeLocator);
-				SourceFile sourceFile = findSourceFile(file, true);
-				if (sourceFile == null) continue next;
-				if (sourceFiles.contains(sourceFile)) continue next;
-				if (compiledAllAtOnce && previousSourceFiles != null && previousSourceFiles.contains(sourceFile))
-					continue next; // can skip previously compiled files since already saw hierarchy related problems
+		if (typeLocator != null)
+			addAffectedSourceFile(typeLocator, (ReferenceCollection) valueTable[i], internedQualifiedNames, internedSimpleNames, affectedTypes);
+	}
+}
 
-				if (JavaBuilder.DEBUG)
-					System.out.println("  adding affected source file " + typeLocator); //$NON-NLS-1$
-				sourceFiles.add(sourceFile);
-			}
-		}
+private void addAffectedSourceFile(String typeLocator, ReferenceCollection refs, char[][][] internedQualifiedNames, char[][] internedSimpleNames, StringSet affectedTypes) {
+	if (affectedTypes != null && !affectedTypes.includes(typeLocator)) return;
+	if (refs.includes(internedQualifiedNames, internedSimpleNames)) {
+		IFile file = javaBuilder.currentProject.getFile(typeLocator);
+		SourceFile sourceFile = findSourceFile(file, true);
+		if (sourceFile == null) return;
+		if (sourceFiles.contains(sourceFile)) return;
+		if (compiledAllAtOnce && previousSourceFiles != null && previousSourceFiles.contains(sourceFile))
+			return; // can skip previously compiled files since already saw hierarchy related problems
+
+		if (JavaBuilder.DEBUG)
+			System.out.println("  adding affected source file " + typeLocator); //$NON-NLS-1$
+		sourceFiles.add(sourceFile);
 	}
 }
 
@@ -33,7 +33,11 @@ public char[][] add(char[][] qualifiedName) {
 	if (qLength == 0) return CharOperation.NO_CHAR_CHAR;
 
 	int length = qualifiedNames.length;
-	int index = CharOperation.hashCode(qualifiedName[qLength - 1]) % length;
+	// combine all the segments, many qualified names end with the same simple name
+	int hash = 0;
+	for (int i = 0; i < qLength; i++)
+		hash = hash * 31 + CharOperation.hashCode(qualifiedName[i]);
+	int index = (hash & 0x7FFFFFFF) % length;
 	char[][] current;
 	while ((current = qualifiedNames[index]) != null) {
 		if (CharOperation.equals(current, qualifiedName)) return current;
@@ -24,6 +24,10 @@ protected ReferenceCollection(char[][][] qualifiedNameReferences, char[][] simpl
 	this.simpleNameReferences = internSimpleNames(simpleNameReferences, true);
 }
 
+protected ReferenceCollection() {
+	// names are set by the caller, they must already be interned
+}
+
 void addDependencies(String[] typeNameDependencies) {
 	// if each qualified type name is already known then all of its subNames can be skipped
 	// and its expected that very few qualified names in typeNameDependencies need to be added
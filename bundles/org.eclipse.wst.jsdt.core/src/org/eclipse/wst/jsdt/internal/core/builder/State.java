@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.wst.jsdt.internal.core.builder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -27,6 +29,7 @@ import org.eclipse.wst.jsdt.core.compiler.CharOperation;
 import org.eclipse.wst.jsdt.internal.compiler.env.AccessRule;
 import org.eclipse.wst.jsdt.internal.compiler.env.AccessRuleSet;
 import org.eclipse.wst.jsdt.internal.compiler.util.SimpleLookupTable;
+import org.eclipse.wst.jsdt.internal.compiler.util.SimpleSet;
 import org.eclipse.wst.jsdt.internal.core.ClasspathAccessRule;
 import org.eclipse.wst.jsdt.internal.core.JavaModelManager;
 
@@ -37,9 +40,15 @@ String javaProjectName;
 ClasspathMultiDirectory[] sourceLocations;
 ClasspathLocation[] binaryLocations;
 // keyed by the project relative path of the type (ie. "src1/p1/p2/A.js"), value is a ReferenceCollection or an AdditionalTypeCollection
+// null until getReferences() decodes the encoded references of a state read from disk
 SimpleLookupTable references;
+private byte[] encodedReferences;
+private String[] encodedTypeLocators;
 // keyed by qualified type name "p1/p2/A", value is the project relative path which defines this type "src1/p1/p2/A.js"
 public SimpleLookupTable typeLocators;
+// keyed by an interned simple name, value is a SimpleSet of the type locators whose references include this name
+// built from the references when first needed, then updated as references are recorded & removed
+private SimpleLookupTable dependents;
 
 int buildNumber;
 long lastStructuralBuildTime;
@@ -49,9 +58,8 @@ private String[] knownPackageNames; // of the form "p1/p2"
 
 private long previousStructuralBuildTime;
 private StringSet structurallyChangedTypes;
-public static int MaxStructurallyChangedTypes = 100; // keep track of ? structurally changed types, otherwise consider all to be changed
 
-public static final byte VERSION = 0x0015; // changed access rule presentation
+public static final byte VERSION = 0x0016; // variable length ids and lazily decoded references
 
 static final byte SOURCE_FOLDER = 1;
 static final byte BINARY_FOLDER = 2;
@@ -92,9 +100,18 @@ void copyFrom(State lastState) {
 	this.buildNumber = lastState.buildNumber + 1;
 	this.lastStructuralBuildTime = lastState.lastStructuralBuildTime;
 	this.structuralBuildTimes = lastState.structuralBuildTimes;
+	// the last state is replaced by this one, so take over its dependents instead of copying them
+	this.dependents = lastState.dependents;
+	lastState.dependents = null;
 
 	try {
-		this.references = (SimpleLookupTable) lastState.references.clone();
+		if (lastState.references == null) {
+			// still encoded, share the bytes since they are never modified
+			this.encodedReferences = lastState.encodedReferences;
+			this.encodedTypeLocators = lastState.encodedTypeLocators;
+		} else {
+			this.references = (SimpleLookupTable) lastState.references.clone();
+		}
 		this.typeLocators = (SimpleLookupTable) lastState.typeLocators.clone();
 	} catch (CloneNotSupportedException e) {
 		this.references = new SimpleLookupTable(lastState.references.elementSize);
@@ -113,12 +130,85 @@ void copyFrom(State lastState) {
 	}
 }
 public char[][] getDefinedTypeNamesFor(String typeLocator) {
-	Object c = references.get(typeLocator);
+	Object c = getReferences().get(typeLocator);
 	if (c instanceof AdditionalTypeCollection)
 		return ((AdditionalTypeCollection) c).definedTypeNames;
 	return null; // means only one type is defined with the same name as the file... saves space
 }
 
+/*
+ * Answer the type locators whose references include one of the given interned simple names,
+ * these are the only candidates for including a reference to the types of these names.
+ */
+SimpleSet getDependentLocators(char[][] internedSimpleNames) {
+	if (this.dependents == null) {
+		SimpleLookupTable refs = getReferences();
+		this.dependents = new SimpleLookupTable(refs.elementSize * 4 + 7);
+		Object[] keyTable = refs.keyTable;
+		Object[] valueTable = refs.valueTable;
+		for (int i = 0, l = keyTable.length; i < l; i++)
+			if (keyTable[i] != null)
+				addDependent((String) keyTable[i], (ReferenceCollection) valueTable[i]);
+	}
+	SimpleSet result = new SimpleSet(7);
+	for (int i = 0, l = internedSimpleNames.length; i < l; i++) {
+		SimpleSet locators = (SimpleSet) this.dependents.get(internedSimpleNames[i]);
+		if (locators != null) {
+			Object[] values = locators.values;
+			for (int j = 0, m = values.length; j < m; j++)
+				if (values[j] != null)
+					result.add(values[j]);
+		}
+	}
+	return result;
+}
+
+private void addDependent(String typeLocator, ReferenceCollection refs) {
+	// simple names are interned so they can be used as identity keys
+	char[][] simpleNames = refs.simpleNameReferences;
+	for (int i = 0, l = simpleNames.length; i < l; i++) {
+		SimpleSet locators = (SimpleSet) this.dependents.get(simpleNames[i]);
+		if (locators == null)
+			this.dependents.put(simpleNames[i], locators = new SimpleSet(3));
+		locators.add(typeLocator);
+	}
+}
+
+private void removeDependent(String typeLocator, ReferenceCollection refs) {
+	char[][] simpleNames = refs.simpleNameReferences;
+	for (int i = 0, l = simpleNames.length; i < l; i++) {
+		SimpleSet locators = (SimpleSet) this.dependents.get(simpleNames[i]);
+		if (locators != null) {
+			locators.remove(typeLocator);
+			if (locators.elementSize == 0)
+				this.dependents.removeKey(simpleNames[i]);
+		}
+	}
+}
+
+void addDependencies(String typeLocator, String[] typeNameDependencies) {
+	ReferenceCollection refs = (ReferenceCollection) getReferences().get(typeLocator);
+	if (refs != null) {
+		refs.addDependencies(typeNameDependencies);
+		if (this.dependents != null)
+			addDependent(typeLocator, refs);
+	}
+}
+
+SimpleLookupTable getReferences() {
+	if (this.references == null) {
+		try {
+			this.references = readReferences(new DataInputStream(new ByteArrayInputStream(this.encodedReferences)), this.encodedTypeLocators);
+		} catch (IOException e) {
+			// the saved state is corrupted, abort the incremental build so a full build recreates it
+			throw new AbortIncrementalBuildException(this.javaProjectName);
+		}
+		this.encodedReferences = null;
+		this.encodedTypeLocators = null;
+	}
+	return this.references;
+}
+
 StringSet getStructurallyChangedTypes(State prereqState) {
 	if (prereqState != null && prereqState.previousStructuralBuildTime > 0) {
 		Object o = structuralBuildTimes.get(prereqState.javaProjectName);
@@ -166,12 +256,20 @@ boolean isKnownType(String qualifiedTypeName) {
 void record(String typeLocator, char[][][] qualifiedRefs, char[][] simpleRefs, char[] mainTypeName, ArrayList typeNames) {
 	if (typeNames==null)
 		typeNames=new ArrayList();
+	ReferenceCollection refs;
 	if (typeNames.size() == 1 && CharOperation.equals(mainTypeName, (char[]) typeNames.get(0))) {
-		references.put(typeLocator, new ReferenceCollection(qualifiedRefs, simpleRefs));
+		refs = new ReferenceCollection(qualifiedRefs, simpleRefs);
 	} else {
 		char[][] definedTypeNames = new char[typeNames.size()][]; // can be empty when no types are defined
 		typeNames.toArray(definedTypeNames);
-		references.put(typeLocator, new AdditionalTypeCollection(definedTypeNames, qualifiedRefs, simpleRefs));
+		refs = new AdditionalTypeCollection(definedTypeNames, qualifiedRefs, simpleRefs);
+	}
+	Object previous = getReferences().get(typeLocator);
+	references.put(typeLocator, refs);
+	if (this.dependents != null) {
+		if (previous != null)
+			removeDependent(typeLocator, (ReferenceCollection) previous);
+		addDependent(typeLocator, refs);
 	}
 }
 
@@ -192,7 +290,9 @@ void recordStructuralDependency(IProject prereqProject, State prereqState) {
 
 void removeLocator(String typeLocatorToRemove) {
 	this.knownPackageNames = null;
-	references.removeKey(typeLocatorToRemove);
+	Object refs = getReferences().removeKey(typeLocatorToRemove);
+	if (refs != null && this.dependents != null)
+		removeDependent(typeLocatorToRemove, (ReferenceCollection) refs);
 	typeLocators.removeValue(typeLocatorToRemove);
 }
 
@@ -276,54 +376,76 @@ static State read(IProject project, DataInputStream in) throws IOException {
 	for (int i = 0; i < length; i++)
 		newState.structuralBuildTimes.put(in.readUTF(), new Long(in.readLong()));
 
-	String[] internedTypeLocators = new String[length = in.readInt()];
+	String[] internedTypeLocators = new String[length = readVarInt(in)];
 	for (int i = 0; i < length; i++)
 		internedTypeLocators[i] = in.readUTF();
 
-	newState.typeLocators = new SimpleLookupTable(length = in.readInt());
+	newState.typeLocators = new SimpleLookupTable(length = readVarInt(in));
 	for (int i = 0; i < length; i++)
-		newState.recordLocatorForType(in.readUTF(), internedTypeLocators[in.readInt()]);
+		newState.recordLocatorForType(in.readUTF(), internedTypeLocators[readVarInt(in)]);
+
+	// the references are only decoded when first needed, most states are never incrementally built
+	newState.encodedReferences = new byte[in.readInt()];
+	in.readFully(newState.encodedReferences);
+	newState.encodedTypeLocators = internedTypeLocators;
+	if (JavaBuilder.DEBUG)
+		System.out.println("Successfully read state for " + newState.javaProjectName); //$NON-NLS-1$
+	return newState;
+}
 
-	char[][] internedSimpleNames = ReferenceCollection.internSimpleNames(readNames(in), false);
-	char[][][] internedQualifiedNames = new char[length = in.readInt()][][];
+/*
+ * Decodes the references written by writeReferences(), the type locators are identified
+ * by their position in the given interned type locators.
+ */
+private static SimpleLookupTable readReferences(DataInputStream in, String[] internedTypeLocators) throws IOException {
+	int length = readVarInt(in);
+	char[][] internedSimpleNames = new char[length][];
+	for (int i = 0; i < length; i++)
+		internedSimpleNames[i] = in.readUTF().toCharArray();
+	internedSimpleNames = ReferenceCollection.internSimpleNames(internedSimpleNames, false);
+	char[][][] internedQualifiedNames = new char[length = readVarInt(in)][][];
 	for (int i = 0; i < length; i++) {
-		int qLength = in.readInt();
+		int qLength = readVarInt(in);
 		char[][] qName = new char[qLength][];
 		for (int j = 0; j < qLength; j++)
-			qName[j] = internedSimpleNames[in.readInt()];
+			qName[j] = internedSimpleNames[readVarInt(in)];
 		internedQualifiedNames[i] = qName;
 	}
 	internedQualifiedNames = ReferenceCollection.internQualifiedNames(internedQualifiedNames);
 
-	newState.references = new SimpleLookupTable(length = in.readInt());
+	SimpleLookupTable references = new SimpleLookupTable(length = readVarInt(in));
 	for (int i = 0; i < length; i++) {
-		String typeLocator = internedTypeLocators[in.readInt()];
-		ReferenceCollection collection = null;
-		switch (in.readByte()) {
-			case 1 :
-				char[][] additionalTypeNames = readNames(in);
-				char[][][] qualifiedNames = new char[in.readInt()][][];
-				for (int j = 0, m = qualifiedNames.length; j < m; j++)
-					qualifiedNames[j] = internedQualifiedNames[in.readInt()];
-				char[][] simpleNames = new char[in.readInt()][];
-				for (int j = 0, m = simpleNames.length; j < m; j++)
-					simpleNames[j] = internedSimpleNames[in.readInt()];
-				collection = new AdditionalTypeCollection(additionalTypeNames, qualifiedNames, simpleNames);
-				break;
-			case 2 :
-				char[][][] qNames = new char[in.readInt()][][];
-				for (int j = 0, m = qNames.length; j < m; j++)
-					qNames[j] = internedQualifiedNames[in.readInt()];
-				char[][] sNames = new char[in.readInt()][];
-				for (int j = 0, m = sNames.length; j < m; j++)
-					sNames[j] = internedSimpleNames[in.readInt()];
-				collection = new ReferenceCollection(qNames, sNames);
+		String typeLocator = internedTypeLocators[readVarInt(in)];
+		char[][] additionalTypeNames = null;
+		if (in.readByte() == 1) {
+			additionalTypeNames = new char[readVarInt(in)][];
+			for (int j = 0, m = additionalTypeNames.length; j < m; j++)
+				additionalTypeNames[j] = in.readUTF().toCharArray();
 		}
-		newState.references.put(typeLocator, collection);
+		// the names come from the interned pools so there is no need to intern them again
+		ReferenceCollection collection = additionalTypeNames == null
+			? new ReferenceCollection()
+			: new AdditionalTypeCollection(additionalTypeNames);
+		char[][][] qNames = new char[readVarInt(in)][][];
+		for (int j = 0, m = qNames.length; j < m; j++)
+			qNames[j] = internedQualifiedNames[readVarInt(in)];
+		collection.qualifiedNameReferences = qNames.length == 0 ? ReferenceCollection.EmptyQualifiedNames : qNames;
+		char[][] sNames = new char[readVarInt(in)][];
+		for (int j = 0, m = sNames.length; j < m; j++)
+			sNames[j] = internedSimpleNames[readVarInt(in)];
+		collection.simpleNameReferences = sNames.length == 0 ? ReferenceCollection.EmptySimpleNames : sNames;
+		references.put(typeLocator, collection);
+	}
+	return references;
+}
+
+private static int readVarInt(DataInputStream in) throws IOException {
+	int value = 0;
+	for (int shift = 0;; shift += 7) {
+		int b = in.readByte();
+		value |= (b & 0x7F) << shift;
+		if ((b & 0x80) == 0) return value;
 	}
-	if (JavaBuilder.DEBUG)
-		System.out.println("Successfully read state for " + newState.javaProjectName); //$NON-NLS-1$
-	return newState;
 }
 
 private static char[] readName(DataInputStream in) throws IOException {
@@ -384,12 +506,8 @@ boolean wasStructurallyChanged(IProject prereqProject, State prereqState) {
 }
 
 void wasStructurallyChanged(String typeName) {
-	if (this.structurallyChangedTypes != null) {
-		if (this.structurallyChangedTypes.elementSize > MaxStructurallyChangedTypes)
-			this.structurallyChangedTypes = null; // too many to keep track of
-		else
-			this.structurallyChangedTypes.add(typeName);
-	}
+	if (this.structurallyChangedTypes != null)
+		this.structurallyChangedTypes.add(typeName);
 }
 
 void write(DataOutputStream out) throws IOException {
@@ -475,29 +593,42 @@ void write(DataOutputStream out) throws IOException {
 
 /*
  * String[]	Interned type locators
+ * varint		number of locators
  */
-	out.writeInt(length = references.elementSize);
-	SimpleLookupTable internedTypeLocators = new SimpleLookupTable(length);
-	if (length > 0) {
-		keyTable = references.keyTable;
-		for (int i = 0, l = keyTable.length; i < l; i++) {
-			if (keyTable[i] != null) {
-				length--;
-				String key = (String) keyTable[i];
-				out.writeUTF(key);
-				internedTypeLocators.put(key, new Integer(internedTypeLocators.elementSize));
+	SimpleLookupTable internedTypeLocators;
+	if (this.references == null) {
+		// the references were never decoded, so write them back as they were read
+		length = this.encodedTypeLocators.length;
+		writeVarInt(length, out);
+		internedTypeLocators = new SimpleLookupTable(length);
+		for (int i = 0; i < length; i++) {
+			out.writeUTF(this.encodedTypeLocators[i]);
+			internedTypeLocators.put(this.encodedTypeLocators[i], new Integer(i));
+		}
+	} else {
+		writeVarInt(length = references.elementSize, out);
+		internedTypeLocators = new SimpleLookupTable(length);
+		if (length > 0) {
+			keyTable = references.keyTable;
+			for (int i = 0, l = keyTable.length; i < l; i++) {
+				if (keyTable[i] != null) {
+					length--;
+					String key = (String) keyTable[i];
+					out.writeUTF(key);
+					internedTypeLocators.put(key, new Integer(internedTypeLocators.elementSize));
+				}
 			}
+			if (JavaBuilder.DEBUG && length != 0)
+				System.out.println("references table is inconsistent"); //$NON-NLS-1$
 		}
-		if (JavaBuilder.DEBUG && length != 0)
-			System.out.println("references table is inconsistent"); //$NON-NLS-1$
 	}
 
 /*
  * Type locators table
  * String		type name
- * int			interned locator id
+ * varint		interned locator id
  */
-	out.writeInt(length = typeLocators.elementSize);
+	writeVarInt(length = typeLocators.elementSize, out);
 	if (length > 0) {
 		keyTable = typeLocators.keyTable;
 		valueTable = typeLocators.valueTable;
@@ -506,7 +637,7 @@ void write(DataOutputStream out) throws IOException {
 				length--;
 				out.writeUTF((String) keyTable[i]);
 				Integer index = (Integer) internedTypeLocators.get(valueTable[i]);
-				out.writeInt(index.intValue());
+				writeVarInt(index.intValue(), out);
 			}
 		}
 		if (JavaBuilder.DEBUG && length != 0)
@@ -514,8 +645,29 @@ void write(DataOutputStream out) throws IOException {
 	}
 
 /*
- * char[][][]	Interned qualified names
+ * int		length of the encoded references
+ * byte[]	encoded references, see writeReferences()
+ */
+	byte[] encoded = this.encodedReferences;
+	if (this.references != null) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(references.elementSize * 16 + 16);
+		DataOutputStream referencesOut = new DataOutputStream(bytes);
+		writeReferences(internedTypeLocators, referencesOut);
+		referencesOut.flush();
+		encoded = bytes.toByteArray();
+	}
+	out.writeInt(encoded.length);
+	out.write(encoded);
+}
+
+private void writeReferences(SimpleLookupTable internedTypeLocators, DataOutputStream out) throws IOException {
+	int length;
+	Object[] keyTable;
+	Object[] valueTable;
+
+/*
  * char[][]	Interned simple names
+ * char[][][]	Interned qualified names, as ids of interned simple names
  */
 	SimpleLookupTable internedQualifiedNames = new SimpleLookupTable(31);
 	SimpleLookupTable internedSimpleNames = new SimpleLookupTable(31);
@@ -552,7 +704,9 @@ void write(DataOutputStream out) throws IOException {
 			internedArray[index] = (char[]) simpleNames[i];
 		}
 	}
-	writeNames(internedArray, out);
+	writeVarInt(length = internedArray.length, out);
+	for (int i = 0; i < length; i++)
+		out.writeUTF(new String(internedArray[i]));
 	// now write the interned qualified names as arrays of interned simple names
 	char[][][] internedQArray = new char[internedQualifiedNames.elementSize][][];
 	Object[] qualifiedNames = internedQualifiedNames.keyTable;
@@ -563,51 +717,55 @@ void write(DataOutputStream out) throws IOException {
 			internedQArray[index] = (char[][]) qualifiedNames[i];
 		}
 	}
-	out.writeInt(length = internedQArray.length);
+	writeVarInt(length = internedQArray.length, out);
 	for (int i = 0; i < length; i++) {
 		char[][] qName = internedQArray[i];
 		int qLength = qName.length;
-		out.writeInt(qLength);
+		writeVarInt(qLength, out);
 		for (int j = 0; j < qLength; j++) {
 			Integer index = (Integer) internedSimpleNames.get(qName[j]);
-			out.writeInt(index.intValue());
+			writeVarInt(index.intValue(), out);
 		}
 	}
 
 /*
  * References table
- * int		interned locator id
- * ReferenceCollection
+ * varint	interned locator id
+ * byte		1 followed by the defined type names for an AdditionalTypeCollection, 2 otherwise
+ * varint[]	interned qualified name ids
+ * varint[]	interned simple name ids
 */
-	out.writeInt(length = references.elementSize);
+	writeVarInt(length = references.elementSize, out);
 	if (length > 0) {
 		keyTable = references.keyTable;
 		for (int i = 0, l = keyTable.length; i < l; i++) {
 			if (keyTable[i] != null) {
 				length--;
 				Integer index = (Integer) internedTypeLocators.get(keyTable[i]);
-				out.writeInt(index.intValue());
+				writeVarInt(index.intValue(), out);
 				ReferenceCollection collection = (ReferenceCollection) valueTable[i];
 				if (collection instanceof AdditionalTypeCollection) {
 					out.writeByte(1);
-					AdditionalTypeCollection atc = (AdditionalTypeCollection) collection;
-					writeNames(atc.definedTypeNames, out);
+					char[][] definedTypeNames = ((AdditionalTypeCollection) collection).definedTypeNames;
+					writeVarInt(definedTypeNames.length, out);
+					for (int j = 0, m = definedTypeNames.length; j < m; j++)
+						out.writeUTF(new String(definedTypeNames[j]));
 				} else {
 					out.writeByte(2);
 				}
 				char[][][] qNames = collection.qualifiedNameReferences;
 				int qLength = qNames.length;
-				out.writeInt(qLength);
+				writeVarInt(qLength, out);
 				for (int j = 0; j < qLength; j++) {
 					index = (Integer) internedQualifiedNames.get(qNames[j]);
-					out.writeInt(index.intValue());
+					writeVarInt(index.intValue(), out);
 				}
 				char[][] sNames = collection.simpleNameReferences;
 				int sLength = sNames.length;
-				out.writeInt(sLength);
+				writeVarInt(sLength, out);
 				for (int j = 0; j < sLength; j++) {
 					index = (Integer) internedSimpleNames.get(sNames[j]);
-					out.writeInt(index.intValue());
+					writeVarInt(index.intValue(), out);
 				}
 			}
 		}
@@ -616,6 +774,15 @@ void write(DataOutputStream out) throws IOException {
 	}
 }
 
+private static void writeVarInt(int value, DataOutputStream out) throws IOException {
+	// 7 bits per byte, the high bit is set when more bytes follow
+	while ((value & ~0x7F) != 0) {
+		out.writeByte((value & 0x7F) | 0x80);
+		value >>>= 7;
+	}
+	out.writeByte(value);
+}
+
 private void writeName(char[] name, DataOutputStream out) throws IOException {
 	int nLength = name.length;
 	out.writeInt(nLength);
@@ -692,11 +859,12 @@ void dump() {
 	}
 
 	System.out.print("\n\tReferences table:");
-	if (references.elementSize == 0) {
+	SimpleLookupTable refs = getReferences(); // decoded if read from disk
+	if (refs.elementSize == 0) {
 		System.out.print(" <empty>");
 	} else {
-		Object[] keyTable = references.keyTable;
-		Object[] valueTable = references.valueTable;
+		Object[] keyTable = refs.keyTable;
+		Object[] valueTable = refs.valueTable;
 		for (int i = 0, l = keyTable.length; i < l; i++) {
 			if (keyTable[i] != null) {
 				System.out.print("\n\t\t" + keyTable[i].toString());
@@ -403,6 +403,75 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder implements Suff
 		}
 	}
 
+	/**
+	 * Updates the hierarchy after the given units changed. The sub types index of the hierarchy
+	 * answers the files which may now declare subtypes of the focus type, so that only these files
+	 * and the changed units are resolved again instead of all the possible subtypes.
+	 */
+	public void buildIncrementally(org.eclipse.wst.jsdt.core.IJavaScriptUnit[] changedUnits) throws JavaScriptModelException {
+		JavaModelManager manager = JavaModelManager.getJavaModelManager();
+		try {
+			// optimize access to zip files while building hierarchy
+			manager.cacheZipFiles();
+
+			// update the super type references of the changed units
+			SubtypesIndex index = this.hierarchy.subtypesIndex;
+			int length = changedUnits.length;
+			HashSet changedPaths = new HashSet(length);
+			HashSet existingPaths = new HashSet(length);
+			HashSet changedTypeNames = new HashSet();
+			for (int i = 0; i < length; i++) {
+				org.eclipse.wst.jsdt.core.IJavaScriptUnit unit = changedUnits[i];
+				if (!unit.exists()) {
+					// case of a discarded working copy
+					unit = unit.getPrimary();
+				}
+				String path = unit.getPath().toString();
+				changedPaths.add(path);
+				if (unit.exists()) {
+					index.update(path, unit.getAllTypes(), changedTypeNames);
+					existingPaths.add(path);
+				}
+				else {
+					index.update(path, null, changedTypeNames);
+				}
+			}
+			HashSet hierarchyPaths = this.hierarchy.removeTypes(changedPaths);
+
+			// the changed units may have added or removed synonyms of the types they refer to
+			IProgressMonitor possibleSubtypesMonitor = this.hierarchy.progressMonitor == null ? null : new SubProgressMonitor(this.hierarchy.progressMonitor, 20);
+			index.removeSynonyms(changedTypeNames, possibleSubtypesMonitor);
+
+			// resolve the changed units and the files that were not possible subtypes
+			HashSet paths = index.getPaths(possibleSubtypesMonitor);
+			ArrayList potentialSubtypes = new ArrayList();
+			for (Iterator iter = paths.iterator(); iter.hasNext();) {
+				String path = (String) iter.next();
+				if (!index.paths.contains(path) || existingPaths.contains(path)) {
+					potentialSubtypes.add(path);
+				}
+			}
+			for (Iterator iter = existingPaths.iterator(); iter.hasNext();) {
+				String path = (String) iter.next();
+				// e.g. a super type of the focus type
+				if (!paths.contains(path) && hierarchyPaths.contains(path)) {
+					potentialSubtypes.add(path);
+				}
+			}
+			index.paths = paths;
+			String[] potentialSubtypePaths = new String[potentialSubtypes.size()];
+			potentialSubtypes.toArray(potentialSubtypePaths);
+			IProgressMonitor buildMonitor = this.hierarchy.progressMonitor == null ? null : new SubProgressMonitor(this.hierarchy.progressMonitor, 80);
+			this.buildFromPotentialSubtypeFilepaths(potentialSubtypePaths, new HashSet(10), buildMonitor);
+
+			// forget the types that left the hierarchy with the changed units
+			this.hierarchy.removeUnreachableTypes();
+		}
+		finally {
+			manager.flushZipFiles();
+		}
+	}
+
 	protected ICompilationUnit createCompilationUnitFromPath(Openable handle, IFile file) {
 		ICompilationUnit unit = super.createCompilationUnitFromPath(handle, file);
 		this.cuToHandle.put(unit, handle);
@@ -422,17 +491,24 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder implements Suff
 			}
 		};
 
+		IType focusType = this.getType();
+		// remember the super type references so that the hierarchy can be refreshed incrementally
+		SubtypesIndex index = !TypeHierarchy.REFRESH_INCREMENTALLY || focusType.getElementName().equals(new String(IIndexConstants.OBJECT)) ? null : new SubtypesIndex(focusType, this.scope);
 		try {
 			if (monitor != null) {
 				monitor.beginTask("", MAXTICKS); //$NON-NLS-1$
 			}
-			searchAllPossibleSubTypes(this.getType(), this.scope, collector, IJavaScriptSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+			searchAllPossibleSubTypes(focusType, focusType.getElementName().toCharArray(), this.scope, collector, index, IJavaScriptSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
 		}
 		finally {
 			if (monitor != null) {
 				monitor.done();
 			}
 		}
+		if (index != null && (monitor == null || !monitor.isCanceled())) {
+			index.paths = paths;
+			this.hierarchy.subtypesIndex = index;
+		}
 
 		int length = paths.size();
 		String[] result = new String[length];
@@ -461,6 +537,25 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder implements Suff
 	public static void searchAllPossibleSubTypes(IType type, IJavaScriptSearchScope scope,
 				 final IPathRequestor pathRequestor,
 				int waitingPolicy, IProgressMonitor progressMonitor) {
+		searchAllPossibleSubTypes(type, type.getElementName().toCharArray(), scope, pathRequestor, null, waitingPolicy, progressMonitor);
+	}
+
+	/**
+	 * Find the set of candidate subtypes of the type with the given name, remembering the super
+	 * type references found in the given index if not null. The names already searched in this
+	 * index are not searched again.
+	 * 
+	 * @param focus the focus of the search
+	 * @param rootTypeName
+	 * @param scope
+	 * @param pathRequestor
+	 * @param index
+	 * @param waitingPolicy
+	 * @param progressMonitor
+	 */
+	static void searchAllPossibleSubTypes(IType focus, char[] rootTypeName, IJavaScriptSearchScope scope,
+				final IPathRequestor pathRequestor, final SubtypesIndex index,
+				int waitingPolicy, IProgressMonitor progressMonitor) {
 		
 		//set up monitor
 		final IProgressMonitor monitor;
@@ -476,6 +571,10 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder implements Suff
 
 		IndexManager indexManager = JavaModelManager.getJavaModelManager().getIndexManager();
 
+		//create initial pattern
+		final SuperTypeReferencePattern superTypeRefPattern = new SuperTypeReferencePattern(null, SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
+		MatchLocator.setFocus(superTypeRefPattern, focus);
+		
 		// use a special collector to collect paths and queue new subtype names
 		IndexQueryRequestor subTypeSearchRequestor = new IndexQueryRequestor() {
 			/**
@@ -485,6 +584,9 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder implements Suff
 				SuperTypeReferencePattern record = (SuperTypeReferencePattern) indexRecord;
 				pathRequestor.acceptPath(documentPath, false);
 				char[] typeName = record.typeName;
+				if (index != null) {
+					index.add(new String(superTypeRefPattern.superTypeName), documentPath, new String(typeName));
+				}
 				
 				//add to list of type names to search for children for
 				if (!foundSuperNames.containsKey(typeName)) {
@@ -495,16 +597,12 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder implements Suff
 			}
 		};
 
-		//create initial pattern
-		SuperTypeReferencePattern superTypeRefPattern = new SuperTypeReferencePattern(null, SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
-		MatchLocator.setFocus(superTypeRefPattern, type);
-		
 		//create the job used for searching for the sub types
 		SearchParticipant participant = new JavaSearchParticipant();
 		SubTypeSearchJob subTypeSearchJob = new SubTypeSearchJob(superTypeRefPattern, participant, scope, subTypeSearchRequestor);
 
 		//queue of parent type names
-		parentTypeNames.add(type.getElementName().toCharArray());
+		parentTypeNames.add(rootTypeName);
 		
 		//monitor used just to track cancellation
 		IProgressMonitor cancelMonitor = new NullProgressMonitor() {
@@ -538,12 +636,17 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder implements Suff
 				/* if current name then get all its synonyms then search for all of those synonyms children
 				 * else in case, we search all sub-types, no need to search further */
 				if(currentTypeName != null) {
+					// the sub types of a name already in the index are known
+					if (index != null && index.synonyms.get(new String(currentTypeName)) != null) {
+						continue;
+					}
+					
 					//get all the synonyms, including self, to the current type name
 					char[][] synonyms = SearchEngine.getAllSynonyms(currentTypeName, scope, waitingPolicy, progressMonitor);
 					
 					//for each synonym search the index for sub types of that synonym
 					for(int i = 0; i < synonyms.length; ++i) {
-						char[] synonym = synonyms[i];
+						final char[] synonym = synonyms[i];
 						
 						//search for synonym type in index so that it can be added to the hierarchy
 						indexManager.performConcurrentJob(new PatternSearchJob(
@@ -555,6 +658,9 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder implements Suff
 									 */
 									public boolean acceptIndexMatch(String documentPath, SearchPattern indexRecord, SearchParticipant participant, AccessRuleSet access) {
 										pathRequestor.acceptPath(documentPath, false);
+										if (index != null) {
+											index.add(new String(synonym), documentPath, null);
+										}
 										
 										return true;
 									}
@@ -569,6 +675,9 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder implements Suff
 							monitor.worked(1);
 						}
 					}
+					if (index != null && !monitor.isCanceled()) {
+						index.addSynonyms(currentTypeName, synonyms);
+					}
 				} else {
 					break;
 				}
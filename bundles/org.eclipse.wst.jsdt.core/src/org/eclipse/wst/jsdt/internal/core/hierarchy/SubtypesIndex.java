@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.hierarchy;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.wst.jsdt.core.IType;
+import org.eclipse.wst.jsdt.core.JavaScriptModelException;
+import org.eclipse.wst.jsdt.core.search.IJavaScriptSearchConstants;
+import org.eclipse.wst.jsdt.core.search.IJavaScriptSearchScope;
+import org.eclipse.wst.jsdt.core.search.SearchEngine;
+import org.eclipse.wst.jsdt.internal.core.IPathRequestor;
+import org.eclipse.wst.jsdt.internal.core.search.indexing.IIndexConstants;
+
+/*
+ * Remembers the super type references found while searching the possible subtypes of the focus type
+ * of a type hierarchy, so that the files to look at after some units changed can be computed without
+ * searching the indexes again.
+ */
+public class SubtypesIndex {
+
+	/*
+	 * A table from super type names to tables from the paths of the files referring to them to
+	 * the names of the subtypes declared in these files (String -> HashMap(String -> HashSet(String))).
+	 * The set of subtype names is empty for a file that declares the type itself.
+	 */
+	HashMap subtypes = new HashMap();
+
+	/*
+	 * A table from paths to the names of the super types their files refer to (String -> HashSet(String))
+	 */
+	HashMap superTypeNames = new HashMap();
+
+	/*
+	 * A table from the type names already searched to their synonyms (String -> String[])
+	 */
+	HashMap synonyms = new HashMap();
+
+	/*
+	 * The paths of the files which may declare subtypes of the focus type when the hierarchy was last computed
+	 */
+	HashSet paths = new HashSet();
+
+	IType focusType;
+
+	IJavaScriptSearchScope scope;
+
+	public SubtypesIndex(IType focusType, IJavaScriptSearchScope scope) {
+		this.focusType = focusType;
+		this.scope = scope;
+	}
+
+	/*
+	 * Records that the file with the given path declares the given subtype of the given super type,
+	 * or the super type itself if the subtype name is null.
+	 */
+	public void add(String superTypeName, String path, String subtypeName) {
+		HashMap files = (HashMap) this.subtypes.get(superTypeName);
+		if (files == null) {
+			this.subtypes.put(superTypeName, files = new HashMap());
+		}
+		HashSet names = (HashSet) files.get(path);
+		if (names == null) {
+			files.put(path, names = new HashSet(3));
+		}
+		if (subtypeName != null) {
+			names.add(subtypeName);
+		}
+		HashSet referencedNames = (HashSet) this.superTypeNames.get(path);
+		if (referencedNames == null) {
+			this.superTypeNames.put(path, referencedNames = new HashSet(3));
+		}
+		referencedNames.add(superTypeName);
+	}
+
+	public void addSynonyms(char[] typeName, char[][] typeSynonyms) {
+		int length = typeSynonyms == null ? 0 : typeSynonyms.length;
+		String[] names = new String[length];
+		for (int i = 0; i < length; i++) {
+			names[i] = new String(typeSynonyms[i]);
+		}
+		this.synonyms.put(new String(typeName), names);
+	}
+
+	/*
+	 * Whether the file with the given path is known to refer to a searched type.
+	 */
+	public boolean contains(String path) {
+		return this.superTypeNames.get(path) != null;
+	}
+
+	/*
+	 * Answers the paths of the files which may declare subtypes of the focus type. The types which
+	 * were not searched yet are searched in the indexes.
+	 */
+	public HashSet getPaths(IProgressMonitor monitor) {
+		String typeName = this.focusType.getElementName();
+		HashSet result = new HashSet();
+		HashSet names = new HashSet();
+		LinkedList queue = new LinkedList();
+		names.add(typeName);
+		queue.add(typeName);
+		while (!queue.isEmpty()) {
+			String name = (String) queue.removeFirst();
+			// all subclasses of OBJECT are actually all types
+			if (name.equals(new String(IIndexConstants.OBJECT))) {
+				continue;
+			}
+			String[] nameSynonyms = (String[]) this.synonyms.get(name);
+			if (nameSynonyms == null) {
+				IndexBasedHierarchyBuilder.searchAllPossibleSubTypes(this.focusType, name.toCharArray(), this.scope, new IPathRequestor() {
+					public void acceptPath(String path, boolean containsLocalTypes) {
+						// the index remembers the paths
+					}
+				}, this, IJavaScriptSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+				nameSynonyms = (String[]) this.synonyms.get(name);
+				if (nameSynonyms == null) {
+					// search was canceled
+					nameSynonyms = new String[] {name};
+				}
+			}
+			for (int i = 0, length = nameSynonyms.length; i < length; i++) {
+				HashMap files = (HashMap) this.subtypes.get(nameSynonyms[i]);
+				if (files == null) {
+					continue;
+				}
+				for (Iterator iter = files.entrySet().iterator(); iter.hasNext();) {
+					Map.Entry entry = (Map.Entry) iter.next();
+					result.add(entry.getKey());
+					for (Iterator subtypeNames = ((HashSet) entry.getValue()).iterator(); subtypeNames.hasNext();) {
+						String subtypeName = (String) subtypeNames.next();
+						if (names.add(subtypeName)) {
+							queue.add(subtypeName);
+						}
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * Forgets the super type references of the file with the given path.
+	 */
+	public void remove(String path) {
+		HashSet referencedNames = (HashSet) this.superTypeNames.remove(path);
+		if (referencedNames == null) {
+			return;
+		}
+		for (Iterator iter = referencedNames.iterator(); iter.hasNext();) {
+			HashMap files = (HashMap) this.subtypes.get(iter.next());
+			if (files != null) {
+				files.remove(path);
+			}
+		}
+	}
+
+	/*
+	 * Forgets the synonyms found for the given type names, for their current synonyms and for the names
+	 * they were synonyms of, so that these names are searched again. A changed file may have added
+	 * or removed synonyms of the types it declares, e.g. with <code>Foo = Base</code>.
+	 */
+	public void removeSynonyms(HashSet typeNames, IProgressMonitor monitor) {
+		HashSet names = new HashSet(typeNames);
+		String objectName = new String(IIndexConstants.OBJECT);
+		for (Iterator iter = typeNames.iterator(); iter.hasNext();) {
+			String typeName = (String) iter.next();
+			if (typeName.equals(objectName)) {
+				continue;
+			}
+			char[][] typeSynonyms = SearchEngine.getAllSynonyms(typeName.toCharArray(), this.scope, IJavaScriptSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+			for (int i = 0, length = typeSynonyms.length; i < length; i++) {
+				names.add(new String(typeSynonyms[i]));
+			}
+		}
+		for (Iterator iter = this.synonyms.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry entry = (Map.Entry) iter.next();
+			if (names.contains(entry.getKey())) {
+				iter.remove();
+				continue;
+			}
+			String[] nameSynonyms = (String[]) entry.getValue();
+			for (int i = 0, length = nameSynonyms.length; i < length; i++) {
+				if (names.contains(nameSynonyms[i])) {
+					iter.remove();
+					break;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Replaces the super type references of the file with the given path with the ones of the
+	 * given types, the types now declared in this file or null if it was removed. The names of
+	 * the types the file referred to or declared, before or after, are added to the given set.
+	 */
+	public void update(String path, IType[] types, HashSet typeNames) throws JavaScriptModelException {
+		HashSet referencedNames = (HashSet) this.superTypeNames.get(path);
+		if (referencedNames != null) {
+			typeNames.addAll(referencedNames);
+		}
+		remove(path);
+		if (types == null) {
+			return;
+		}
+		for (int i = 0, length = types.length; i < length; i++) {
+			IType type = types[i];
+			String typeName = type.getElementName();
+			String superclassName = type.getSuperclassName();
+			if (superclassName == null) {
+				superclassName = new String(IIndexConstants.OBJECT);
+			}
+			add(superclassName, path, typeName);
+			add(typeName, path, null);
+			typeNames.add(superclassName);
+			typeNames.add(typeName);
+		}
+	}
+
+	public String toString() {
+		StringBuffer buffer = new StringBuffer();
+		for (Iterator iter = this.subtypes.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry entry = (Map.Entry) iter.next();
+			buffer.append(entry.getKey());
+			buffer.append(" <- "); //$NON-NLS-1$
+			buffer.append(entry.getValue());
+			if (iter.hasNext()) {
+				buffer.append('\n');
+			}
+		}
+		return buffer.toString();
+	}
+}
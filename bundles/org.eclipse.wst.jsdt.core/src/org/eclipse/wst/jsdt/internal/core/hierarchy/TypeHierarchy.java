@@ -83,6 +83,11 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 	// cst
 	static final byte[] NO_FLAGS = new byte[]{};
 	static final int SIZE = 10;
+	// over this number of changed units, the hierarchy is computed again
+	static final int MAX_CHANGED_UNITS = 100;
+	/* whether a hierarchy is refreshed from the changed units rather than computed again, see #computeIncrementally(),
+	   off unless the system property is set to true */
+	public static boolean REFRESH_INCREMENTALLY = Boolean.getBoolean("org.eclipse.wst.jsdt.core.hierarchy.refreshIncrementally"); //$NON-NLS-1$
 
 	/**
 	 * The Java Project in which the hierarchy is being built - this provides
@@ -159,6 +164,24 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 	 */
 	protected ChangeCollector changeCollector;
 
+	/**
+	 * The super type references found when searching the possible subtypes
+	 * of the focus type, null if this hierarchy cannot be refreshed
+	 * incrementally.
+	 */
+	SubtypesIndex subtypesIndex;
+
+	/**
+	 * The compilation units changed since the last refresh, null if the
+	 * changes were not all collected.
+	 */
+	protected HashSet changedUnits;
+
+	/**
+	 * The number of compilation unit changes which affected this hierarchy
+	 */
+	private int unitChanges;
+
 	/**
 	 * Creates an empty TypeHierarchy
 	 */
@@ -247,6 +270,9 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 		// register with JavaScriptCore to get Java element delta on first listener added
 		if (listeners.size() == 0) {
 			JavaScriptCore.addElementChangedListener(this);
+			if (!this.needsRefresh && this.subtypesIndex != null) {
+				this.changedUnits = new HashSet();
+			}
 		}
 
 		// add listener only if it is not already present
@@ -307,6 +333,36 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 		} // else a RegionBasedTypeHierarchy should be used
 	}
 
+	/**
+	 * Updates this type hierarchy with the compilation units changed since
+	 * the last refresh. Returns false if this hierarchy cannot be refreshed
+	 * incrementally and must be computed again.
+	 */
+	protected boolean computeIncrementally() throws JavaScriptModelException {
+		HashSet units = this.changedUnits;
+		if (units == null || units.isEmpty() || this.subtypesIndex == null || !this.focusType.exists()) {
+			return false;
+		}
+		IJavaScriptUnit[] changed = new IJavaScriptUnit[units.size()];
+		units.toArray(changed);
+		boolean updated = false;
+		try {
+			new IndexBasedHierarchyBuilder(this, this.scope).buildIncrementally(changed);
+			updated = true;
+		}
+		finally {
+			if (!updated) {
+				// the hierarchy is partially updated
+				this.subtypesIndex = null;
+				this.changedUnits = null;
+			}
+		}
+		this.projectRegion = new Region();
+		this.packageRegion = new Region();
+		this.files = new HashMap(5);
+		return true;
+	}
+
 	/**
 	 * @see ITypeHierarchy
 	 */
@@ -329,8 +385,13 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 	 */
 	public void elementChanged(ElementChangedEvent event) {
 		// type hierarchy change has already been fired
-		if (this.needsRefresh)
+		if (this.needsRefresh) {
+			if (this.changedUnits != null) {
+				// keep collecting the changed units for an incremental refresh
+				isAffected(event.getDelta());
+			}
 			return;
+		}
 
 		if (isAffected(event.getDelta())) {
 			this.needsRefresh = true;
@@ -617,20 +678,38 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 	 */
 	public synchronized boolean isAffected(IJavaScriptElementDelta delta) {
 		IJavaScriptElement element = delta.getElement();
+		int previousUnitChanges = this.unitChanges;
+		boolean affected;
 		switch (element.getElementType()) {
 			case IJavaScriptElement.JAVASCRIPT_MODEL :
-				return isAffectedByJavaModel(delta, element);
+				affected = isAffectedByJavaModel(delta, element);
+				break;
 			case IJavaScriptElement.JAVASCRIPT_PROJECT :
-				return isAffectedByJavaProject(delta, element);
+				affected = isAffectedByJavaProject(delta, element);
+				break;
 			case IJavaScriptElement.PACKAGE_FRAGMENT_ROOT :
-				return isAffectedByPackageFragmentRoot(delta, element);
+				affected = isAffectedByPackageFragmentRoot(delta, element);
+				break;
 			case IJavaScriptElement.PACKAGE_FRAGMENT :
-				return isAffectedByPackageFragment(delta, (PackageFragment) element);
+				affected = isAffectedByPackageFragment(delta, (PackageFragment) element);
+				break;
 			case IJavaScriptElement.CLASS_FILE :
+				affected = isAffectedByOpenable(delta, element);
+				break;
 			case IJavaScriptElement.JAVASCRIPT_UNIT :
-				return isAffectedByOpenable(delta, element);
+				if (isAffectedByOpenable(delta, element)) {
+					this.unitChanges++;
+					return true;
+				}
+				return false;
+			default :
+				return false;
 		}
-		return false;
+		if (affected && previousUnitChanges == this.unitChanges) {
+			// not only compilation units changed, the hierarchy must be computed again
+			this.changedUnits = null;
+		}
+		return affected;
 	}
 
 	/**
@@ -641,11 +720,17 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 	private boolean isAffectedByChildren(IJavaScriptElementDelta delta) {
 		if ((delta.getFlags() & IJavaScriptElementDelta.F_CHILDREN) > 0) {
 			IJavaScriptElementDelta[] children = delta.getAffectedChildren();
+			boolean affected = false;
 			for (int i = 0; i < children.length; i++) {
 				if (isAffected(children[i])) {
-					return true;
+					affected = true;
+					// look at all the changed units if they are collected
+					if (this.changedUnits == null) {
+						break;
+					}
 				}
 			}
+			return affected;
 		}
 		return false;
 	}
@@ -808,6 +893,13 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 				if (DEBUG)
 					e.printStackTrace();
 			}
+			if (this.changedUnits != null && (collector.needsRefresh() || this.subtypesIndex.contains(cu.getPath().toString()))) {
+				// remember the unit for an incremental refresh
+				this.changedUnits.add(cu);
+				if (this.changedUnits.size() > MAX_CHANGED_UNITS) {
+					this.changedUnits = null;
+				}
+			}
 			if (cu.isWorkingCopy()) {
 				// changes to working copies are batched
 				this.changeCollector = collector;
@@ -1023,10 +1115,16 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 				}
 			}
 
-			compute();
+			if (!computeIncrementally()) {
+				this.subtypesIndex = null;
+				this.changedUnits = null;
+				compute();
+			}
 			initializeRegions();
 			this.needsRefresh = false;
 			this.changeCollector = null;
+			ArrayList listeners = this.changeListeners;
+			this.changedUnits = this.subtypesIndex != null && listeners != null && !listeners.isEmpty() ? new HashSet() : null;
 
 			if (DEBUG) {
 				if (this.computeSubtypes) {
@@ -1052,6 +1150,78 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 		}
 	}
 
+	/**
+	 * Removes the types declared in the files with the given paths. Returns
+	 * the paths of the files which declared types of this hierarchy.
+	 */
+	HashSet removeTypes(HashSet paths) {
+		HashSet removedPaths = new HashSet();
+		for (Iterator iter = this.files.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry entry = (Map.Entry) iter.next();
+			String path = ((Openable) entry.getKey()).getPath().toString();
+			if (paths.contains(path)) {
+				ArrayList types = (ArrayList) entry.getValue();
+				for (int i = 0, size = types.size(); i < size; i++) {
+					uncacheType((IType) types.get(i));
+				}
+				removedPaths.add(path);
+			}
+		}
+		recomputeSubtypes();
+		return removedPaths;
+	}
+
+	/**
+	 * Removes the types which are neither the focus type, nor one of its
+	 * subtypes or supertypes.
+	 */
+	void removeUnreachableTypes() {
+		IType[] allTypes = getAllClasses();
+		HashSet reachableTypes = new HashSet();
+		String focusName = this.focusType.getDisplayName();
+		for (int i = 0, length = allTypes.length; i < length; i++) {
+			IType type = allTypes[i];
+			// the types equivalent to the focus type are in the hierarchy as well
+			if (type.equals(this.focusType) || focusName.equals(type.getDisplayName())) {
+				reachableTypes.add(type);
+				IType[] subtypes = getAllSubtypes(type);
+				for (int j = 0; j < subtypes.length; j++) {
+					reachableTypes.add(subtypes[j]);
+				}
+				IType[] superclasses = getAllSuperclasses(type);
+				for (int j = 0; j < superclasses.length; j++) {
+					reachableTypes.add(superclasses[j]);
+				}
+			}
+		}
+		for (int i = 0, length = allTypes.length; i < length; i++) {
+			if (!reachableTypes.contains(allTypes[i])) {
+				uncacheType(allTypes[i]);
+			}
+		}
+		recomputeSubtypes();
+	}
+
+	/**
+	 * Computes the table of subtypes from the superclasses.
+	 */
+	private void recomputeSubtypes() {
+		this.typeToSubtypes = new HashMap(this.typeToSubtypes.size());
+		for (Iterator iter = this.classToSuperclass.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry entry = (Map.Entry) iter.next();
+			addSubtype((IType) entry.getValue(), (IType) entry.getKey());
+		}
+	}
+
+	/**
+	 * Forgets the superclass, the flags and the root status of the given type.
+	 */
+	private void uncacheType(IType type) {
+		this.classToSuperclass.remove(type);
+		this.rootClasses.remove(type);
+		this.typeFlags.remove(type);
+	}
+
 	/**
 	 * @see ITypeHierarchy
 	 */
@@ -1065,6 +1235,8 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 		// deregister from JavaScriptCore on last listener removed
 		if (listeners.isEmpty()) {
 			JavaScriptCore.removeElementChangedListener(this);
+			// the next changes will not be collected
+			this.changedUnits = null;
 		}
 	}
 
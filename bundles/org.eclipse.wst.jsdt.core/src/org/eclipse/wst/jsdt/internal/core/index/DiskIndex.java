@@ -16,6 +16,11 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.io.UTFDataFormatException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.wst.jsdt.core.compiler.CharOperation;
@@ -38,27 +43,31 @@ private int headerInfoOffset;
 private int numberOfChunks;
 private int sizeOfLastChunk;
 private int[] chunkOffsets;
-private int documentReferenceSize; // 1, 2 or more bytes... depends on # of document names
 private int startOfCategoryTables;
 private HashtableOfIntValues categoryOffsets, categoryEnds;
 
 private volatile int cacheUserCount;
 private String[][] cachedChunks; // decompressed chunks of document names
-private HashtableOfObject categoryTables; // category name -> HashtableOfObject(words -> int[] of document #'s) or offset if not read yet
+private HashtableOfObject categoryTables; // category name -> HashtableOfObject(words -> int[] of document #'s, encoded byte[] or offset if not read yet)
 private char[] cachedCategoryName;
+private HashtableOfObject categoryWords; // category name -> {category table, its words in ascending order}, see sortedWords()
 
 private Object fStopQueryAction;
 
 private static final int DEFAULT_BUFFER_SIZE = 2048;
-private static int BUFFER_READ_SIZE = DEFAULT_BUFFER_SIZE;
+private static final int BUFFER_READ_SIZE = DEFAULT_BUFFER_SIZE;
 private static final int BUFFER_WRITE_SIZE = DEFAULT_BUFFER_SIZE;
 private byte[] streamBuffer;
 private int bufferIndex, bufferEnd; // used when reading from the file into the streamBuffer
 private int streamEnd; // used when writing data from the streamBuffer to the file
+private MappedByteBuffer mappedBuffer; // read-only mapping of the whole index file, see getMappedBuffer()
+private int mappedIndex; // used when reading from the mappedBuffer
 
-public static final String SIGNATURE= "INDEX VERSION 1.3"; //$NON-NLS-1$
+public static final String SIGNATURE= "INDEX VERSION 1.4"; //$NON-NLS-1$
 private static final char[] SIGNATURE_CHARS = SIGNATURE.toCharArray();
 public static boolean DEBUG = false;
+// set to false to read index files through streams instead of mapping them in memory
+public static boolean USE_MAPPED_READS = !"false".equals(System.getProperty("org.eclipse.wst.jsdt.core.index.mapped")); //$NON-NLS-1$ //$NON-NLS-2$
 
 private static final int RE_INDEXED = -1;
 private static final int DELETED = -2;
@@ -102,10 +111,10 @@ DiskIndex(String fileName) {
 	this.numberOfChunks = -1;
 	this.sizeOfLastChunk = -1;
 	this.chunkOffsets = null;
-	this.documentReferenceSize = -1;
 	this.cacheUserCount = -1;
 	this.cachedChunks = null;
 	this.categoryTables = null;
+	this.categoryWords = null;
 	this.cachedCategoryName = null;
 	this.categoryOffsets = null;
 	this.categoryEnds = null;
@@ -198,24 +207,37 @@ HashtableOfObject addQueryResults(char[][] categories, char[] key, int matchRule
 				for (int i = 0, l = categories.length; i < l; i++) {
 					HashtableOfObject wordsToDocNumbers = readCategoryTable(categories[i], false);
 					if (wordsToDocNumbers != null) {
-						char[][] words = wordsToDocNumbers.keyTable;
-						for (int j = 0, m = words.length; j < m; j++) {
+						// the words starting with the key are next to each other in the sorted words
+						char[][] words = sortedWords(categories[i], wordsToDocNumbers);
+						for (int j = indexOfFirstWord(words, key), m = words.length; j < m; j++) {
 							char[] word = words[j];
-							if (word != null && key[0] == word[0] && CharOperation.prefixEquals(key, word))
-								results = addQueryResult(results, word, wordsToDocNumbers, memoryIndex);
+							if (!CharOperation.prefixEquals(key, word)) break;
+							results = addQueryResult(results, word, wordsToDocNumbers, memoryIndex);
 						}
 					}
 				}
 				break;
 			default:
+				char[] prefix = matchingWordsPrefix(key, matchRule);
 				for (int i = 0, l = categories.length; i < l; i++) {
 					HashtableOfObject wordsToDocNumbers = readCategoryTable(categories[i], false);
 					if (wordsToDocNumbers != null) {
-						char[][] words = wordsToDocNumbers.keyTable;
-						for (int j = 0, m = words.length; j < m; j++) {
-							char[] word = words[j];
-							if (word != null && Index.isMatch(key, word, matchRule))
-								results = addQueryResult(results, word, wordsToDocNumbers, memoryIndex);
+						if (prefix == null) {
+							char[][] words = wordsToDocNumbers.keyTable;
+							for (int j = 0, m = words.length; j < m; j++) {
+								char[] word = words[j];
+								if (word != null && Index.isMatch(key, word, matchRule))
+									results = addQueryResult(results, word, wordsToDocNumbers, memoryIndex);
+							}
+						} else {
+							// only check the words starting with the prefix
+							char[][] words = sortedWords(categories[i], wordsToDocNumbers);
+							for (int j = indexOfFirstWord(words, prefix), m = words.length; j < m; j++) {
+								char[] word = words[j];
+								if (!CharOperation.prefixEquals(prefix, word)) break;
+								if (Index.isMatch(key, word, matchRule))
+									results = addQueryResult(results, word, wordsToDocNumbers, memoryIndex);
+							}
 						}
 					}
 				}
@@ -225,15 +247,92 @@ HashtableOfObject addQueryResults(char[][] categories, char[] key, int matchRule
 	if (results == null) return null;
 	return results;
 }
+/*
+ * Answers the index of the first word which is greater or equal to the given prefix in the sorted words.
+ */
+private static int indexOfFirstWord(char[][] sortedWords, char[] prefix) {
+	int low = 0, high = sortedWords.length - 1;
+	while (low <= high) {
+		int mid = (low + high) >>> 1;
+		if (CharOperation.compareTo(sortedWords[mid], prefix) < 0)
+			low = mid + 1;
+		else
+			high = mid - 1;
+	}
+	return low;
+}
+/*
+ * Answers the prefix that every word matching the given key must start with, or null if the matching words
+ * can start with anything (e.g. case insensitive match or pattern starting with a wild card).
+ * Only restricts the words to check with Index.isMatch(), which still decides of the match.
+ */
+static char[] matchingWordsPrefix(char[] key, int matchRule) {
+	if (key.length == 0 || (matchRule & SearchPattern.R_CASE_SENSITIVE) == 0) return null;
+
+	int prefixLength;
+	switch (matchRule & ~(SearchPattern.R_CASE_SENSITIVE | SearchPattern.R_CAMELCASE_MATCH)) {
+		case SearchPattern.R_EXACT_MATCH :
+		case SearchPattern.R_PREFIX_MATCH :
+			prefixLength = key.length;
+			break;
+		case SearchPattern.R_PATTERN_MATCH :
+			prefixLength = 0;
+			while (prefixLength < key.length && key[prefixLength] != '*' && key[prefixLength] != '?')
+				prefixLength++;
+			if (prefixLength == 0) return null;
+			break;
+		default : // regular expressions
+			return null;
+	}
+	if ((matchRule & SearchPattern.R_CAMELCASE_MATCH) != 0)
+		prefixLength = 1; // camel case matches only need the same first character
+	return prefixLength == key.length ? key : CharOperation.subarray(key, 0, prefixLength);
+}
+/*
+ * Answers the words of the given category table in ascending order. Category tables are written
+ * with their words in this order (see writeCategoryTable()), so they are usually known when the table is read.
+ */
+private synchronized char[][] sortedWords(char[] categoryName, HashtableOfObject wordsToDocNumbers) {
+	Object[] cached = this.categoryWords == null ? null : (Object[]) this.categoryWords.get(categoryName);
+	if (cached != null && cached[0] == wordsToDocNumbers)
+		return (char[][]) cached[1];
+
+	char[][] words = new char[wordsToDocNumbers.elementSize][];
+	char[][] keys = wordsToDocNumbers.keyTable;
+	for (int i = 0, l = keys.length, count = 0; i < l; i++)
+		if (keys[i] != null)
+			words[count++] = keys[i];
+	Util.sort(words);
+	cacheSortedWords(categoryName, wordsToDocNumbers, words);
+	return words;
+}
+private void cacheSortedWords(char[] categoryName, HashtableOfObject wordsToDocNumbers, char[][] words) {
+	if (this.categoryWords == null)
+		this.categoryWords = new HashtableOfObject(3);
+	this.categoryWords.put(categoryName, new Object[] {wordsToDocNumbers, words});
+}
 private synchronized void cacheDocumentNames() throws IOException {
 	// will need all document names so get them now
 	this.cachedChunks = new String[this.numberOfChunks][];
+	ByteBuffer buffer = getMappedBuffer();
+	if (buffer != null) {
+		try {
+			this.mappedIndex = this.chunkOffsets[0];
+			for (int i = 0; i < this.numberOfChunks; i++) {
+				int size = i == this.numberOfChunks - 1 ? this.sizeOfLastChunk : CHUNK_SIZE;
+				readMappedChunk(this.cachedChunks[i] = new String[size], buffer, 0, size);
+			}
+		} catch (IOException e) {
+			this.cachedChunks = null;
+			throw e;
+		}
+		return;
+	}
 	FileInputStream stream = new FileInputStream(this.indexFile);
 	try {
-		if (this.numberOfChunks > 5) BUFFER_READ_SIZE <<= 1;
 		int offset = this.chunkOffsets[0];
 		stream.skip(offset);
-		this.streamBuffer = new byte[BUFFER_READ_SIZE];
+		this.streamBuffer = new byte[this.numberOfChunks > 5 ? BUFFER_READ_SIZE << 1 : BUFFER_READ_SIZE];
 		this.bufferIndex = 0;
 		this.bufferEnd = stream.read(this.streamBuffer, 0, this.streamBuffer.length);
 		for (int i = 0; i < this.numberOfChunks; i++) {
@@ -246,7 +345,17 @@ private synchronized void cacheDocumentNames() throws IOException {
 	} finally {
 		stream.close();
 		this.streamBuffer = null;
-		BUFFER_READ_SIZE = DEFAULT_BUFFER_SIZE;
+	}
+}
+/**
+ * Releases the memory mapping of the index file, if any.
+ * Subsequent reads map the file again when needed.
+ */
+synchronized void close() {
+	if (this.mappedBuffer != null) {
+		MappedByteBuffer buffer = this.mappedBuffer;
+		this.mappedBuffer = null;
+		unmap(buffer);
 	}
 }
 private String[] computeDocumentNames(String[] onDiskNames, int[] positions, SimpleLookupTable indexedDocuments, MemoryIndex memoryIndex) {
@@ -494,6 +603,7 @@ DiskIndex mergeWith(MemoryIndex memoryIndex) throws IOException {
 		if (previousLength == 0) return this; // nothing to do... memory index contained deleted documents that had never been saved
 
 		// index is now empty since all the saved documents were removed
+		close();
 		DiskIndex newDiskIndex = new DiskIndex(this.indexFile.getPath());
 		newDiskIndex.initialize(false);
 		return newDiskIndex;
@@ -534,6 +644,7 @@ DiskIndex mergeWith(MemoryIndex memoryIndex) throws IOException {
 		newDiskIndex.writeOffsetToHeader(offsetToHeader);
 
 		// rename file by deleting previous index file & renaming temp one
+		close();
 		if (this.indexFile.exists() && !this.indexFile.delete()) {
 			if (DEBUG)
 				System.out.println("mergeWith - Failed to delete " + this.indexFile); //$NON-NLS-1$
@@ -558,6 +669,16 @@ private synchronized String[] readAllDocumentNames() throws IOException {
 	if (this.numberOfChunks <= 0)
 		return CharOperation.NO_STRINGS;
 
+	int lastIndex = this.numberOfChunks - 1;
+	ByteBuffer buffer = getMappedBuffer();
+	if (buffer != null) {
+		this.mappedIndex = this.chunkOffsets[0];
+		String[] docNames = new String[lastIndex * CHUNK_SIZE + sizeOfLastChunk];
+		for (int i = 0; i < this.numberOfChunks; i++)
+			readMappedChunk(docNames, buffer, i * CHUNK_SIZE, i < lastIndex ? CHUNK_SIZE : sizeOfLastChunk);
+		return docNames;
+	}
+
 	FileInputStream stream = new FileInputStream(this.indexFile);
 	try {
 		int offset = this.chunkOffsets[0];
@@ -565,7 +686,6 @@ private synchronized String[] readAllDocumentNames() throws IOException {
 		this.streamBuffer = new byte[BUFFER_READ_SIZE];
 		this.bufferIndex = 0;
 		this.bufferEnd = stream.read(this.streamBuffer, 0, this.streamBuffer.length);
-		int lastIndex = this.numberOfChunks - 1;
 		String[] docNames = new String[lastIndex * CHUNK_SIZE + sizeOfLastChunk];
 		for (int i = 0; i < this.numberOfChunks; i++)
 			readChunk(docNames, stream, i * CHUNK_SIZE, i < lastIndex ? CHUNK_SIZE : sizeOfLastChunk);
@@ -590,15 +710,65 @@ private synchronized HashtableOfObject readCategoryTable(char[] categoryName, bo
 			if (readDocNumbers) { // must cache remaining document number arrays
 				Object[] arrayOffsets = cachedTable.valueTable;
 				for (int i = 0, l = arrayOffsets.length; i < l; i++)
-					if (arrayOffsets[i] instanceof Integer)
+					if (arrayOffsets[i] != null && !(arrayOffsets[i] instanceof int[]))
 						arrayOffsets[i] = readDocumentNumbers(arrayOffsets[i]);
 			}
 			return cachedTable;
 		}
 	}
 
+	HashtableOfObject categoryTable;
+	ByteBuffer buffer = getMappedBuffer();
+	if (buffer != null)
+		categoryTable = readMappedCategoryTable(categoryName, buffer, offset, readDocNumbers);
+	else
+		categoryTable = readStreamCategoryTable(categoryName, offset, readDocNumbers);
+	synchronized (INTERNED_CATEGORY_NAMES) { // shared by the indexes which can be queried concurrently
+		categoryName = INTERNED_CATEGORY_NAMES.get(categoryName);
+	}
+	this.categoryTables.put(categoryName, categoryTable);
+	// cache the table as long as its not too big
+	// in practice, some tables can be greater than 500K when they contain more than 10K elements
+	this.cachedCategoryName = categoryTable.elementSize < 20000 ? categoryName : null;
+	return categoryTable;
+}
+private HashtableOfObject readMappedCategoryTable(char[] categoryName, ByteBuffer buffer, int offset, boolean readDocNumbers) throws IOException {
+	// same format as readStreamCategoryTable() but large arrays can be read in place since the buffer is random access
+	this.mappedIndex = offset;
+	int size = readMappedInt(buffer);
+	HashtableOfObject categoryTable = new HashtableOfObject(size);
+	char[][] sortedWords = new char[size][];
+	int largeArraySize = 256;
+	for (int i = 0; i < size; i++) {
+		char[] word = readMappedChars(buffer);
+		sortedWords[i] = word;
+		int arrayOffset = readMappedInt(buffer);
+		if (arrayOffset <= 0) {
+			categoryTable.put(word, new int[] {-arrayOffset}); // store 1 element array by negating documentNumber
+		} else if (arrayOffset < largeArraySize) {
+			if (readDocNumbers)
+				categoryTable.put(word, readMappedDocumentArray(buffer, arrayOffset)); // read in-lined array providing size
+			else
+				categoryTable.put(word, readMappedEncodedArray(buffer, arrayOffset)); // decoded when needed, see readDocumentNumbers()
+		} else {
+			arrayOffset = readMappedInt(buffer); // read actual offset
+			if (readDocNumbers) {
+				int tableIndex = this.mappedIndex;
+				this.mappedIndex = arrayOffset;
+				categoryTable.put(word, readMappedDocumentArray(buffer, readMappedInt(buffer)));
+				this.mappedIndex = tableIndex;
+			} else {
+				categoryTable.put(word, new Integer(arrayOffset)); // offset to array in the file
+			}
+		}
+	}
+	cacheSortedWords(categoryName, categoryTable, sortedWords);
+	return categoryTable;
+}
+private HashtableOfObject readStreamCategoryTable(char[] categoryName, int offset, boolean readDocNumbers) throws IOException {
 	FileInputStream stream = new FileInputStream(this.indexFile);
 	HashtableOfObject categoryTable = null;
+	char[][] sortedWords = null;
 	char[][] matchingWords = null;
 	int count = 0;
 	int firstOffset = -1;
@@ -617,6 +787,7 @@ private synchronized HashtableOfObject readCategoryTable(char[] categoryName, bo
 				System.err.println("--------------------   END   --------------------"); //$NON-NLS-1$
 			}
 			categoryTable = new HashtableOfObject(size);
+			sortedWords = new char[size][];
 		} catch (OutOfMemoryError oom) {
 			// DEBUG
 			oom.printStackTrace();
@@ -630,6 +801,7 @@ private synchronized HashtableOfObject readCategoryTable(char[] categoryName, bo
 		int largeArraySize = 256;
 		for (int i = 0; i < size; i++) {
 			char[] word = readStreamChars(stream);
+			sortedWords[i] = word;
 			int arrayOffset = readStreamInt(stream);
 			// if arrayOffset is:
 			//		<= 0 then the array size == 1 with the value -> -arrayOffset
@@ -638,7 +810,10 @@ private synchronized HashtableOfObject readCategoryTable(char[] categoryName, bo
 			if (arrayOffset <= 0) {
 				categoryTable.put(word, new int[] {-arrayOffset}); // store 1 element array by negating documentNumber
 			} else if (arrayOffset < largeArraySize) {
-				categoryTable.put(word, readStreamDocumentArray(stream, arrayOffset)); // read in-lined array providing size
+				if (readDocNumbers)
+					categoryTable.put(word, readStreamDocumentArray(stream, arrayOffset)); // read in-lined array providing size
+				else
+					categoryTable.put(word, readStreamEncodedArray(stream, arrayOffset)); // decoded when needed, see readDocumentNumbers()
 			} else {
 				arrayOffset = readStreamInt(stream); // read actual offset
 				if (readDocNumbers) {
@@ -651,10 +826,6 @@ private synchronized HashtableOfObject readCategoryTable(char[] categoryName, bo
 				categoryTable.put(word, new Integer(arrayOffset)); // offset to array in the file
 			}
 		}
-		this.categoryTables.put(INTERNED_CATEGORY_NAMES.get(categoryName), categoryTable);
-		// cache the table as long as its not too big
-		// in practice, some tables can be greater than 500K when they contain more than 10K elements
-		this.cachedCategoryName = categoryTable.elementSize < 20000 ? categoryName : null;
 	} catch (IOException ioe) {
 		this.streamBuffer = null;
 		throw ioe;
@@ -679,6 +850,7 @@ private synchronized HashtableOfObject readCategoryTable(char[] categoryName, bo
 		}
 	}
 	this.streamBuffer = null;
+	cacheSortedWords(categoryName, categoryTable, sortedWords);
 	return categoryTable;
 }
 private void readChunk(String[] docNames, FileInputStream stream, int index, int size) throws IOException {
@@ -705,6 +877,29 @@ private void readChunk(String[] docNames, FileInputStream stream, int index, int
 		current = next;
 	}
 }
+private void readMappedChunk(String[] docNames, ByteBuffer buffer, int index, int size) throws IOException {
+	// same format as readChunk()
+	String current = new String(readMappedChars(buffer));
+	docNames[index++] = current;
+	for (int i = 1; i < size; i++) {
+		int start = buffer.get(this.mappedIndex++) & 0xFF;
+		int end = buffer.get(this.mappedIndex++) & 0xFF;
+		String next  = new String(readMappedChars(buffer));
+		if (start > 0) {
+			if (end > 0) {
+				int length = current.length();
+				next = current.substring(0, start) + next + current.substring(length - end, length);
+			} else {
+				next = current.substring(0, start) + next;
+			}
+		} else if (end > 0) {
+			int length = current.length();
+			next = next + current.substring(length - end, length);
+		}
+		docNames[index++] = next;
+		current = next;
+	}
+}
 synchronized String readDocumentName(int docNumber) throws IOException {
 	if (this.cachedChunks == null)
 		this.cachedChunks = new String[this.numberOfChunks][];
@@ -712,6 +907,14 @@ synchronized String readDocumentName(int docNumber) throws IOException {
 	int chunkNumber = docNumber / CHUNK_SIZE;
 	String[] chunk = this.cachedChunks[chunkNumber];
 	if (chunk == null) {
+		ByteBuffer buffer = getMappedBuffer();
+		if (buffer != null) {
+			int numberOfNames = chunkNumber == this.numberOfChunks - 1 ? this.sizeOfLastChunk : CHUNK_SIZE;
+			this.mappedIndex = this.chunkOffsets[chunkNumber];
+			readMappedChunk(chunk = new String[numberOfNames], buffer, 0, numberOfNames);
+			this.cachedChunks[chunkNumber] = chunk;
+			return chunk[docNumber - (chunkNumber * CHUNK_SIZE)];
+		}
 		boolean isLastChunk = chunkNumber == this.numberOfChunks - 1;
 		int start = this.chunkOffsets[chunkNumber];
 		int numberOfBytes = (isLastChunk ? this.startOfCategoryTables : this.chunkOffsets[chunkNumber + 1]) - start;
@@ -743,10 +946,39 @@ synchronized String readDocumentName(int docNumber) throws IOException {
 	this.streamBuffer = null;
 	return chunk[docNumber - (chunkNumber * CHUNK_SIZE)];
 }
+private static int[] decodeDocumentNumbers(byte[] encoded) {
+	// same encoding as readStreamDocumentArray()
+	int count = 0;
+	for (int i = 0, l = encoded.length; i < l; i++)
+		if ((encoded[i] & 0x80) == 0)
+			count++;
+	int[] documentNumbers = new int[count];
+	int documentNumber = 0, delta = 0, shift = 0;
+	for (int i = 0, l = encoded.length, n = 0; i < l; i++) {
+		byte b = encoded[i];
+		delta |= (b & 0x7F) << shift;
+		if ((b & 0x80) == 0) {
+			documentNumbers[n++] = documentNumber += delta;
+			delta = 0;
+			shift = 0;
+		} else {
+			shift += 7;
+		}
+	}
+	return documentNumbers;
+}
 synchronized int[] readDocumentNumbers(Object arrayOffset) throws IOException {
-	// arrayOffset is either a cached array of docNumbers or an Integer offset in the file
+	// arrayOffset is either a cached array of docNumbers, their encoded bytes or an Integer offset in the file
 	if (arrayOffset instanceof int[])
 		return (int[]) arrayOffset;
+	if (arrayOffset instanceof byte[])
+		return decodeDocumentNumbers((byte[]) arrayOffset);
+
+	ByteBuffer buffer = getMappedBuffer();
+	if (buffer != null) {
+		this.mappedIndex = ((Integer) arrayOffset).intValue();
+		return readMappedDocumentArray(buffer, readMappedInt(buffer));
+	}
 
 	FileInputStream stream = new FileInputStream(this.indexFile);
 	try {
@@ -761,13 +993,121 @@ synchronized int[] readDocumentNumbers(Object arrayOffset) throws IOException {
 		this.streamBuffer = null;
 	}
 }
+private MappedByteBuffer getMappedBuffer() {
+	// assume the lock on this disk index is held
+	if (this.mappedBuffer == null && USE_MAPPED_READS) {
+		RandomAccessFile file = null;
+		try {
+			file = new RandomAccessFile(this.indexFile, "r"); //$NON-NLS-1$
+			FileChannel channel = file.getChannel();
+			this.mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // stays valid once the channel is closed
+		} catch (IOException e) {
+			// cannot map the file (e.g. no more address space), fall back to reading it through streams
+			if (DEBUG)
+				System.out.println("getMappedBuffer - Failed to map index " + this.indexFile); //$NON-NLS-1$
+		} finally {
+			if (file != null) {
+				try {
+					file.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+	return this.mappedBuffer;
+}
+private char[] readMappedChars(ByteBuffer buffer) throws IOException {
+	// same encoding as readStreamChars()
+	int index = this.mappedIndex;
+	int length = (buffer.get(index++) & 0xFF) << 8;
+	length += buffer.get(index++) & 0xFF;
+
+	char[] word = new char[length];
+	int i = 0;
+	while (i < length) {
+		byte b = buffer.get(index++);
+		switch (b & 0xF0) {
+			case 0x00 :
+			case 0x10 :
+			case 0x20 :
+			case 0x30 :
+			case 0x40 :
+			case 0x50 :
+			case 0x60 :
+			case 0x70 :
+				word[i++]= (char) b;
+				break;
+			case 0xC0 :
+			case 0xD0 :
+				char next = (char) buffer.get(index++);
+				if ((next & 0xC0) != 0x80) {
+					throw new UTFDataFormatException();
+				}
+				char ch = (char) ((b & 0x1F) << 6);
+				ch |= next & 0x3F;
+				word[i++] = ch;
+				break;
+			case 0xE0 :
+				char first = (char) buffer.get(index++);
+				char second = (char) buffer.get(index++);
+				if ((first & second & 0xC0) != 0x80) {
+					throw new UTFDataFormatException();
+				}
+				ch = (char) ((b & 0x0F) << 12);
+				ch |= ((first& 0x3F) << 6);
+				ch |= second & 0x3F;
+				word[i++] = ch;
+				break;
+			default:
+				throw new UTFDataFormatException();
+		}
+	}
+	this.mappedIndex = index;
+	return word;
+}
+private int[] readMappedDocumentArray(ByteBuffer buffer, int arraySize) {
+	// same encoding as readStreamDocumentArray()
+	int[] indexes = new int[arraySize];
+	int index = this.mappedIndex;
+	int documentNumber = 0;
+	for (int i = 0; i < arraySize; i++) {
+		int delta = 0, shift = 0, b;
+		do {
+			b = buffer.get(index++);
+			delta |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		indexes[i] = documentNumber += delta;
+	}
+	this.mappedIndex = index;
+	return indexes;
+}
+private byte[] readMappedEncodedArray(ByteBuffer buffer, int arraySize) {
+	// the last byte of each encoded document number is the only one without its high bit set
+	int start = this.mappedIndex;
+	int index = start;
+	for (int i = 0; i < arraySize; index++)
+		if ((buffer.get(index) & 0x80) == 0)
+			i++;
+	byte[] encoded = new byte[index - start];
+	ByteBuffer slice = buffer.duplicate();
+	slice.position(start);
+	slice.get(encoded);
+	this.mappedIndex = index;
+	return encoded;
+}
+private int readMappedInt(ByteBuffer buffer) {
+	int val = buffer.getInt(this.mappedIndex); // big-endian, like writeStreamInt()
+	this.mappedIndex += 4;
+	return val;
+}
 private void readHeaderInfo(RandomAccessFile file) throws IOException {
 	file.seek(this.headerInfoOffset);
 
 	// must be same order as writeHeaderInfo()
 	this.numberOfChunks = file.readInt();
 	this.sizeOfLastChunk = file.readUnsignedByte();
-	this.documentReferenceSize = file.readUnsignedByte();
 
 	this.chunkOffsets = new int[this.numberOfChunks];
 	for (int i = 0; i < this.numberOfChunks; i++)
@@ -781,7 +1121,10 @@ private void readHeaderInfo(RandomAccessFile file) throws IOException {
 	char[] previousCategory = null;
 	int offset = -1;
 	for (int i = 0; i < size; i++) {
-		char[] categoryName = INTERNED_CATEGORY_NAMES.get(file.readUTF().toCharArray());
+		char[] categoryName = file.readUTF().toCharArray();
+		synchronized (INTERNED_CATEGORY_NAMES) {
+			categoryName = INTERNED_CATEGORY_NAMES.get(categoryName);
+		}
 		offset = file.readInt();
 		this.categoryOffsets.put(categoryName, offset); // cache offset to category table
 		if (previousCategory != null) {
@@ -793,6 +1136,7 @@ private void readHeaderInfo(RandomAccessFile file) throws IOException {
 		this.categoryEnds.put(previousCategory, this.headerInfoOffset); // cache end of the category table
 	}
 	this.categoryTables = new HashtableOfObject(3);
+	this.categoryWords = null;
 }
 void startQuery() {
 	this.cacheUserCount++;
@@ -822,11 +1166,17 @@ void stopQuery() {
 					if (DiskIndex.this.categoryTables != null) {
 						if (DiskIndex.this.cachedCategoryName == null) {
 							DiskIndex.this.categoryTables = null;
+							DiskIndex.this.categoryWords = null;
 						}
 						else if (DiskIndex.this.categoryTables.elementSize > 1) {
 							HashtableOfObject newTables = new HashtableOfObject(3);
 							newTables.put(DiskIndex.this.cachedCategoryName, DiskIndex.this.categoryTables.get(DiskIndex.this.cachedCategoryName));
 							DiskIndex.this.categoryTables = newTables;
+							if (DiskIndex.this.categoryWords != null) {
+								HashtableOfObject newWords = new HashtableOfObject(3);
+								newWords.put(DiskIndex.this.cachedCategoryName, DiskIndex.this.categoryWords.get(DiskIndex.this.cachedCategoryName));
+								DiskIndex.this.categoryWords = newWords;
+							}
 						}
 					}
 				}
@@ -933,46 +1283,41 @@ private char[] readStreamChars(FileInputStream stream) throws IOException {
 	return word;
 }
 private int[] readStreamDocumentArray(FileInputStream stream, int arraySize) throws IOException {
+	// the sorted document numbers are stored as the difference with the previous one, 7 bits per byte
+	// with the high bit set on every byte but the last one (see writeDocumentNumbers())
 	int[] indexes = new int[arraySize];
-	if (arraySize == 0) return indexes;
-
-	int i = 0;
-	switch (this.documentReferenceSize) {
-		case 1 :
-			while (i < arraySize) {
-				// how many bytes without refilling the buffer?
-				int bytesInBuffer = i + this.bufferEnd - this.bufferIndex;
-				if (bytesInBuffer > arraySize)
-					bytesInBuffer = arraySize;
-				while (i < bytesInBuffer) {
-					indexes[i++] = this.streamBuffer[this.bufferIndex++] & 0xFF;
-				}
-				if (i < arraySize && stream != null)
-					readStreamBuffer(stream);
-			}
-			break;
-		case 2 :
-			while (i < arraySize) {
-				// how many shorts without refilling the buffer?
-				int shortsInBuffer = i + ((this.bufferEnd - this.bufferIndex) / 2);
-				if (shortsInBuffer > arraySize)
-					shortsInBuffer = arraySize;
-				while (i < shortsInBuffer) {
-					int val = (this.streamBuffer[this.bufferIndex++] & 0xFF) << 8;
-					indexes[i++] = val + (this.streamBuffer[this.bufferIndex++] & 0xFF);
-				}
-				if (i < arraySize && stream != null)
-					readStreamBuffer(stream);
-			}
-			break;
-		default :
-			while (i < arraySize) {
-				indexes[i++] = readStreamInt(stream);
-			}
-			break;
+	int documentNumber = 0;
+	for (int i = 0; i < arraySize; i++) {
+		int delta = 0, shift = 0, b;
+		do {
+			if (this.bufferIndex >= this.bufferEnd && stream != null)
+				readStreamBuffer(stream);
+			b = this.streamBuffer[this.bufferIndex++];
+			delta |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		indexes[i] = documentNumber += delta;
 	}
 	return indexes;
 }
+private byte[] readStreamEncodedArray(FileInputStream stream, int arraySize) throws IOException {
+	// keep the encoded document numbers as is, they are decoded when needed by readDocumentNumbers()
+	byte[] encoded = new byte[arraySize + (arraySize >> 1)];
+	int length = 0;
+	for (int i = 0; i < arraySize;) {
+		if (this.bufferIndex >= this.bufferEnd && stream != null)
+			readStreamBuffer(stream);
+		byte b = this.streamBuffer[this.bufferIndex++];
+		if (length == encoded.length)
+			System.arraycopy(encoded, 0, encoded = new byte[length * 2], 0, length);
+		encoded[length++] = b;
+		if ((b & 0x80) == 0)
+			i++;
+	}
+	if (length < encoded.length)
+		System.arraycopy(encoded, 0, encoded = new byte[length], 0, length);
+	return encoded;
+}
 private int readStreamInt(FileInputStream stream) throws IOException {
 	if (this.bufferIndex + 4 >= this.bufferEnd) {
 		readStreamBuffer(stream);
@@ -1003,7 +1348,6 @@ private void writeAllDocumentNames(String[] sortedDocNames, FileOutputStream str
 		this.numberOfChunks--;
 		this.sizeOfLastChunk = CHUNK_SIZE;
 	}
-	this.documentReferenceSize = size <= 0x7F ? 1 : (size <= 0x7FFF ? 2 : 4); // number of bytes used to encode a reference
 
 	this.chunkOffsets = new int[this.numberOfChunks];
 	int lastIndex = this.numberOfChunks - 1;
@@ -1064,17 +1408,25 @@ private void writeCategoryTable(char[] categoryName, HashtableOfObject wordsToDo
 	//		an int <= 0 if the array size == 1
 	//		an int > 1 & < 256 for the size of the array if its > 1 & < 256, the document array follows immediately
 	//		256 if the array size >= 256 followed by another int which is the offset to the array (written prior to the table)
+	// a document array is its size followed by the delta encoded document numbers (see writeDocumentNumbers())
 
+	// the words are written in ascending order, so they do not need to be sorted when read (see sortedWords()),
+	// the large arrays are written in the same order since they are read one after the other
 	int largeArraySize = 256;
-	Object[] values = wordsToDocs.valueTable;
-	for (int i = 0, l = values.length; i < l; i++) {
-		Object o = values[i];
+	char[][] words = new char[wordsToDocs.elementSize][];
+	char[][] keys = wordsToDocs.keyTable;
+	for (int i = 0, l = keys.length, count = 0; i < l; i++)
+		if (keys[i] != null)
+			words[count++] = keys[i];
+	Util.sort(words);
+	for (int i = 0, l = words.length; i < l; i++) {
+		Object o = wordsToDocs.get(words[i]);
 		if (o != null) {
 			if (o instanceof IntList)
-				o = values[i] = ((IntList) values[i]).asArray();
+				wordsToDocs.put(words[i], o = ((IntList) o).asArray());
 			int[] documentNumbers = (int[]) o;
 			if (documentNumbers.length >= largeArraySize) {
-				values[i] = new Integer(this.streamEnd);
+				wordsToDocs.put(words[i], new Integer(this.streamEnd));
 				writeDocumentNumbers(documentNumbers, stream);
 			}
 		}
@@ -1083,9 +1435,8 @@ private void writeCategoryTable(char[] categoryName, HashtableOfObject wordsToDo
 	this.categoryOffsets.put(categoryName, this.streamEnd); // remember the offset to the start of the table
 	this.categoryTables.put(categoryName, null); // flush cached table
 	writeStreamInt(stream, wordsToDocs.elementSize);
-	char[][] words = wordsToDocs.keyTable;
 	for (int i = 0, l = words.length; i < l; i++) {
-		Object o = values[i];
+		Object o = wordsToDocs.get(words[i]);
 		if (o != null) {
 			writeStreamChars(stream, words[i]);
 			if (o instanceof int[]) {
@@ -1106,56 +1457,33 @@ private void writeDocumentNumbers(int[] documentNumbers, FileOutputStream stream
 	int length = documentNumbers.length;
 	writeStreamInt(stream, length);
 	Util.sort(documentNumbers);
-	int start = 0;
-	switch (this.documentReferenceSize) {
-		case 1 :
-			while ((this.bufferIndex + length - start) >= BUFFER_WRITE_SIZE) {
-				// when documentNumbers is large, write BUFFER_WRITE_SIZE parts & fall thru to write the last part
-				int bytesLeft = BUFFER_WRITE_SIZE - this.bufferIndex;
-				for (int i=0; i < bytesLeft; i++) {
-					this.streamBuffer[this.bufferIndex++] = (byte) documentNumbers[start++];
-				}
-				stream.write(this.streamBuffer, 0, this.bufferIndex);
-				this.bufferIndex = 0;
-			}
-			while (start < length) {
-				this.streamBuffer[this.bufferIndex++] = (byte) documentNumbers[start++];
-			}
-			this.streamEnd += length;
-			break;
-		case 2 :
-			while ((this.bufferIndex + ((length - start) * 2)) >= BUFFER_WRITE_SIZE) {
-				// when documentNumbers is large, write BUFFER_WRITE_SIZE parts & fall thru to write the last part
-				int shortsLeft = (BUFFER_WRITE_SIZE - this.bufferIndex) / 2;
-				for (int i=0; i < shortsLeft; i++) {
-					this.streamBuffer[this.bufferIndex++] = (byte) (documentNumbers[start] >> 8);
-					this.streamBuffer[this.bufferIndex++] = (byte) documentNumbers[start++];
-				}
-				stream.write(this.streamBuffer, 0, this.bufferIndex);
-				this.bufferIndex = 0;
-			}
-			while (start < length) {
-				this.streamBuffer[this.bufferIndex++] = (byte) (documentNumbers[start] >> 8);
-				this.streamBuffer[this.bufferIndex++] = (byte) documentNumbers[start++];
-			}
-			this.streamEnd += length * 2;
-			break;
-		default :
-			while (start < length) {
-				writeStreamInt(stream, documentNumbers[start++]);
-			}
-			break;
+	// write the difference with the previous document number, 7 bits per byte starting with the low order bits,
+	// the high bit is set on every byte but the last one of each number
+	int documentNumber = 0;
+	for (int i = 0; i < length; i++) {
+		if ((this.bufferIndex + 5) >= BUFFER_WRITE_SIZE) {
+			stream.write(this.streamBuffer, 0, this.bufferIndex);
+			this.bufferIndex = 0;
+		}
+		int delta = documentNumbers[i] - documentNumber;
+		documentNumber = documentNumbers[i];
+		int start = this.bufferIndex;
+		while ((delta & ~0x7F) != 0) {
+			this.streamBuffer[this.bufferIndex++] = (byte) ((delta & 0x7F) | 0x80);
+			delta >>>= 7;
+		}
+		this.streamBuffer[this.bufferIndex++] = (byte) delta;
+		this.streamEnd += this.bufferIndex - start;
 	}
 }
 private void writeHeaderInfo(FileOutputStream stream) throws IOException {
 	writeStreamInt(stream, this.numberOfChunks);
-	if ((this.bufferIndex + 2) >= BUFFER_WRITE_SIZE)  {
+	if ((this.bufferIndex + 1) >= BUFFER_WRITE_SIZE)  {
 		stream.write(this.streamBuffer, 0, this.bufferIndex);
 		this.bufferIndex = 0;
 	}
 	this.streamBuffer[this.bufferIndex++] = (byte) this.sizeOfLastChunk;
-	this.streamBuffer[this.bufferIndex++] = (byte) this.documentReferenceSize;
-	this.streamEnd += 2;
+	this.streamEnd += 1;
 
 	// apend the file with chunk offsets
 	for (int i = 0; i < this.numberOfChunks; i++) {
@@ -1292,4 +1620,30 @@ private void writeStreamInt(FileOutputStream stream, int val) throws IOException
 	this.streamBuffer[this.bufferIndex++] = (byte) val;
 	this.streamEnd += 4;
 }
+private static void unmap(MappedByteBuffer buffer) {
+	// there is no API to release a mapping before the buffer is garbage collected, and a mapped file cannot
+	// be deleted or replaced on some platforms... so use the VM's cleaner when it is accessible
+	// no decoded value refers to the buffer and all reads are done while holding the lock on the disk index
+	try {
+		Class unsafeClass = Class.forName("sun.misc.Unsafe"); //$NON-NLS-1$
+		try {
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", new Class[] {ByteBuffer.class}); //$NON-NLS-1$
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe"); //$NON-NLS-1$
+			theUnsafe.setAccessible(true);
+			invokeCleaner.invoke(theUnsafe.get(null), new Object[] {buffer});
+			return;
+		} catch (NoSuchMethodException e) {
+			// VM older than 9, use the buffer's cleaner
+		}
+		Method cleanerMethod = buffer.getClass().getMethod("cleaner", new Class[0]); //$NON-NLS-1$
+		cleanerMethod.setAccessible(true);
+		Object cleaner = cleanerMethod.invoke(buffer, new Object[0]);
+		if (cleaner != null)
+			cleaner.getClass().getMethod("clean", new Class[0]).invoke(cleaner, new Object[0]); //$NON-NLS-1$
+	} catch (Exception e) {
+		// the mapping will be released when the buffer is garbage collected
+		if (DEBUG)
+			System.out.println("unmap - Cannot release mapped buffer: " + e); //$NON-NLS-1$
+	}
+}
 }
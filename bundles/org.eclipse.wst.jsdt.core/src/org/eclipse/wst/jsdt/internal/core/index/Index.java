@@ -106,6 +106,14 @@ public Index(String fileName, String containerPath, boolean reuseExistingFile) t
 public void addIndexEntry(char[] category, char[] key, String containerRelativePath) {
 	this.memoryIndex.addIndexEntry(category, key, containerRelativePath);
 }
+/**
+ * Releases the resources held to read the index file, such as its memory mapping.
+ * The index can still be used afterwards.
+ */
+public void close() {
+	if (this.diskIndex != null)
+		this.diskIndex.close();
+}
 public String containerRelativePath(String documentPath) {
 	int index = documentPath.indexOf(IJavaScriptSearchScope.JAR_FILE_ENTRY_SEPARATOR);
 	if (index == -1) {
@@ -217,6 +225,7 @@ public String toString() {
  */
 public void reset() throws IOException {
 	this.memoryIndex = new MemoryIndex();
+	this.diskIndex.close();
 	this.diskIndex = new DiskIndex(this.diskIndex.indexFile.getAbsolutePath());
 	this.diskIndex.initialize(false/*do not reuse the index file*/);
 }
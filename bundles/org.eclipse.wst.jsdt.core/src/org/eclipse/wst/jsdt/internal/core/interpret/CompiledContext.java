@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2005, 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.interpret;
+
+import org.eclipse.wst.jsdt.core.compiler.CharOperation;
+import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfObject;
+
+/**
+ * Context of a compiled function call. The arguments and the variables declared by the
+ * function are kept in slots, which compiled nodes access by index. Lookups by name, as
+ * done by the functions it calls, still find them.
+ */
+class CompiledContext extends InterpreterContext {
+
+	final char[][] slotNames;
+	final Value[] slots;
+
+	CompiledContext(InterpreterContext parent, ObjectValue thisObject, char[][] slotNames) {
+		// most names are in slots, the table only receives the undeclared ones
+		super(parent, thisObject, new HashtableOfObject(1));
+		this.slotNames = slotNames;
+		this.slots = new Value[slotNames.length];
+	}
+
+	protected Value getLocalValue(char[] name) {
+		for (int i = 0, length = this.slotNames.length; i < length; i++) {
+			if (CharOperation.equals(this.slotNames[i], name)) {
+				if (this.slots[i] != null)
+					return this.slots[i];
+				break;
+			}
+		}
+		return super.getLocalValue(name);
+	}
+
+	public void setValue(char[] name, Value value) {
+		for (int i = 0, length = this.slotNames.length; i < length; i++) {
+			if (CharOperation.equals(this.slotNames[i], name)) {
+				this.slots[i] = value;
+				return;
+			}
+		}
+		super.setValue(name, value);
+	}
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2005, 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.interpret;
+
+import org.eclipse.wst.jsdt.internal.compiler.ast.MethodDeclaration;
+
+/**
+ * A function whose body was lowered by the {@link ScriptCompiler}. It can be called by
+ * compiled nodes as well as by an {@link InterpreterEngine}.
+ */
+class CompiledFunctionValue extends FunctionValue {
+
+	final ScriptCompiler.Function function;
+
+	CompiledFunctionValue(MethodDeclaration method, ScriptCompiler.Function function) {
+		super(method);
+		this.function = function;
+	}
+
+	public Value execute(InterpreterEngine interpreter, ObjectValue receiver, Value[] arguments) {
+		return call(interpreter.context, receiver, arguments);
+	}
+
+	Value call(InterpreterContext caller, ObjectValue receiver, Value[] arguments) {
+		CompiledContext context = new CompiledContext(caller, receiver, this.function.slotNames);
+		int count = Math.min(arguments.length, this.function.argumentsCount);
+		for (int i = 0; i < count; i++)
+			context.slots[i] = arguments[i].getValue();
+		ScriptCompiler.execute(this.function.statements, context);
+		Value returnValue = context.returnValue;
+		if (returnValue == null)
+			returnValue = Value.UndefinedObjectValue;
+		return returnValue;
+	}
+}
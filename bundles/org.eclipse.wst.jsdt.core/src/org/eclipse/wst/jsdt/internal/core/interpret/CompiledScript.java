@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2005, 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.interpret;
+
+/**
+ * A script lowered once by {@link Interpreter#compile(org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration)},
+ * which can then be executed any number of times without walking its AST again.
+ */
+public class CompiledScript {
+
+	final ScriptCompiler.Statement[] statements;
+
+	CompiledScript(ScriptCompiler.Statement[] statements) {
+		this.statements = statements;
+	}
+
+	/**
+	 * Executes the script in the given context. The result is the value of the last
+	 * expression statement executed outside of a function.
+	 */
+	public InterpreterResult execute(InterpreterContext context) {
+		InterpreterResult result = new InterpreterResult();
+		// the top level expression statements record their value as the return value of the context
+		Value previousValue = context.returnValue;
+		context.returnValue = null;
+		try {
+			ScriptCompiler.execute(this.statements, context);
+			result.result = context.returnValue == null ? Value.UndefinedObjectValue : context.returnValue;
+		} finally {
+			context.returnValue = previousValue;
+		}
+		return result;
+	}
+}
@@ -15,6 +15,7 @@ import java.io.IOException;
 import java.util.Locale;
 import java.util.Map;
 
+import org.eclipse.wst.jsdt.core.UnimplementedException;
 import org.eclipse.wst.jsdt.internal.compiler.CompilationResult;
 import org.eclipse.wst.jsdt.internal.compiler.DefaultErrorHandlingPolicies;
 import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
@@ -42,6 +43,22 @@ public class Interpreter {
 	}
 
 
+	/**
+	 * Interprets the given code, after lowering it with {@link #compile(CompilationUnitDeclaration)}
+	 * when <code>compiled</code> is set.
+	 */
+	public static InterpreterResult interpet(String code, InterpreterContext context, boolean compiled)
+	{
+		InterpretedScript parsedUnit = parseString(code);
+
+		InterpreterResult result = interpret(parsedUnit.compilationUnit, context, compiled);
+		
+		parsedUnit.compilationUnit.cleanUp();
+		
+		return result;
+
+	}
+
 	public static InterpretedScript parseFile(String fileName) {
 		File file = new File(fileName);
 		InterpretedScript unit=null;
@@ -94,6 +111,39 @@ return new InterpretedScript(parsedUnit,lineEnds,parser.scanner.linePtr);
 		return engine.interpret(ast);
 		
 	}
+
+	/**
+	 * Interprets the given unit. When <code>compiled</code> is set, the unit is first lowered
+	 * with {@link #compile(CompilationUnitDeclaration)}, falling back to the interpreter engine
+	 * if it uses constructs the compiler does not support.
+	 */
+	public static InterpreterResult interpret(CompilationUnitDeclaration ast, InterpreterContext context, boolean compiled)
+	{
+		if (compiled) {
+			CompiledScript script = compile(ast);
+			if (script != null)
+				return script.execute(context);
+		}
+		return interpret(ast, context);
+	}
+
+	/**
+	 * Lowers the given unit into a script which can be executed any number of times
+	 * without walking its AST again.
+	 *
+	 * @return the compiled script, or <code>null</code> if the unit uses constructs
+	 * which can only be interpreted
+	 */
+	public static CompiledScript compile(CompilationUnitDeclaration ast)
+	{
+		if (ast.ignoreFurtherInvestigation)
+			throw new InterpretException("compile errors"); //$NON-NLS-1$
+		try {
+			return new ScriptCompiler().compile(ast);
+		} catch (UnimplementedException e) {
+			return null;
+		}
+	}
 	
 	
 }
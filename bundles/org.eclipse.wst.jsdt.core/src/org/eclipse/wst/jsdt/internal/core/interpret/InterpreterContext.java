@@ -18,7 +18,7 @@ import org.eclipse.wst.jsdt.internal.core.interpret.builtin.BuiltInHelper;
 
 public class InterpreterContext implements ValueReference{
 
-	protected HashtableOfObject values=new HashtableOfObject();
+	protected HashtableOfObject values;
 	protected InterpreterContext parent;
 	InterpreterContext lastReference;
 	public Value returnValue;
@@ -30,6 +30,11 @@ public class InterpreterContext implements ValueReference{
 	}
 	
 	public InterpreterContext(InterpreterContext parent,ObjectValue thisObject) {
+		this(parent, thisObject, new HashtableOfObject());
+	}
+
+	InterpreterContext(InterpreterContext parent,ObjectValue thisObject, HashtableOfObject values) {
+		this.values=values;
 		this.parent=parent;
 		this.thisObject= (thisObject!=null) ? thisObject : (ValueReference)globalContext();
 		
@@ -42,7 +47,7 @@ public class InterpreterContext implements ValueReference{
 		InterpreterContext checkContext=this;
 		do {
 			this.lastReference=checkContext;
-			Value value=(Value) checkContext.values.get(name);
+			Value value=checkContext.getLocalValue(name);
 			if (value!=null)
 			{
 				return value;
@@ -52,13 +57,20 @@ public class InterpreterContext implements ValueReference{
 		return Value.UndefinedObjectValue;
 	}
 
+	/**
+	 * Answer the value defined in this context, without looking into the parent contexts.
+	 */
+	protected Value getLocalValue(char [] name) {
+		return (Value) values.get(name);
+	}
+
 	public void setValue(char [] name, Value value) {
 		values.put(name,  value);
 		
 	}
 
 	public ValueReference getReference(char [] name) {
-		if (parent==null || values.containsKey(name))
+		if (parent==null || getLocalValue(name)!=null)
 			return this;
 		return parent.getReference(name);
 	}
@@ -355,7 +355,7 @@ public class InterpreterEngine extends ASTVisitor implements Contants{
 			number++; //$NON-NLS-1$
 			break;
 		case OperatorIds.MINUS :
-			number++; //$NON-NLS-1$
+			number--; //$NON-NLS-1$
 			break;
 	} 
     	Value newValue = new NumberValue(number);
@@ -376,7 +376,7 @@ public class InterpreterEngine extends ASTVisitor implements Contants{
 			number++; //$NON-NLS-1$
 			break;
 		case OperatorIds.MINUS :
-			number++; //$NON-NLS-1$
+			number--; //$NON-NLS-1$
 			break;
 	} 
     	Value newValue = new NumberValue(number);
@@ -0,0 +1,983 @@
+/*******************************************************************************
+ * Copyright (c) 2005, 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.interpret;
+
+import java.util.ArrayList;
+
+import org.eclipse.wst.jsdt.core.UnimplementedException;
+import org.eclipse.wst.jsdt.core.compiler.CharOperation;
+import org.eclipse.wst.jsdt.internal.compiler.ast.AND_AND_Expression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ASTNode;
+import org.eclipse.wst.jsdt.internal.compiler.ast.AllocationExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Assignment;
+import org.eclipse.wst.jsdt.internal.compiler.ast.BinaryExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Block;
+import org.eclipse.wst.jsdt.internal.compiler.ast.BreakStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CombinedBinaryExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ContinueStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.EmptyStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.EqualExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Expression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.FalseLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.FieldReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.FunctionExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.IfStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.IntLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.LocalDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.MessageSend;
+import org.eclipse.wst.jsdt.internal.compiler.ast.MethodDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.NullLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.OR_OR_Expression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ObjectLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ObjectLiteralField;
+import org.eclipse.wst.jsdt.internal.compiler.ast.OperatorIds;
+import org.eclipse.wst.jsdt.internal.compiler.ast.PostfixExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.PrefixExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ProgramElement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ReturnStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.SingleNameReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.StringLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ThisReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.TrueLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.UndefinedLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.WhileStatement;
+import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfObject;
+
+/**
+ * Lowers the AST of a script once into a tree of nodes which evaluate themselves, instead of
+ * walking the AST with an {@link InterpreterEngine} on every evaluation.
+ * <ul>
+ * <li>the arguments and variables of a function are resolved to slots of its {@link CompiledContext},</li>
+ * <li>arithmetic and comparisons between numbers are computed on ints, without creating values,</li>
+ * <li>property reads remember where they found the property in the last object read.</li>
+ * </ul>
+ * Only the constructs handled by the {@link InterpreterEngine} are supported, an
+ * <code>UnimplementedException</code> is thrown for the others.
+ */
+class ScriptCompiler implements OperatorIds {
+
+	static final Value[] NO_ARGUMENTS = new Value[0];
+	static final BooleanValue TRUE = new BooleanValue(true);
+	static final BooleanValue FALSE = new BooleanValue(false);
+
+	private static final int MIN_CACHED_NUMBER = -128;
+	private static final NumberValue[] NUMBERS = new NumberValue[1024 - MIN_CACHED_NUMBER];
+	static {
+		for (int i = 0; i < NUMBERS.length; i++)
+			NUMBERS[i] = new NumberValue(i + MIN_CACHED_NUMBER);
+	}
+
+	/* names of the arguments & variables of the function being compiled, null for the top level statements */
+	private char[][] slotNames;
+
+	static Value number(int value) {
+		int index = value - MIN_CACHED_NUMBER;
+		if (index >= 0 && index < NUMBERS.length)
+			return NUMBERS[index];
+		return new NumberValue(value);
+	}
+
+	static Value bool(boolean value) {
+		return value ? TRUE : FALSE;
+	}
+
+	static int execute(Statement[] statements, InterpreterContext context) {
+		for (int i = 0, length = statements.length; i < length; i++) {
+			int code = statements[i].execute(context);
+			if (code != 0)
+				return code;
+		}
+		return 0;
+	}
+
+	CompiledScript compile(CompilationUnitDeclaration unit) {
+		ProgramElement[] statements = unit.statements;
+		return new CompiledScript(compileStatements(statements, statements == null ? 0 : statements.length));
+	}
+
+	private Statement[] compileStatements(ProgramElement[] statements, int length) {
+		ArrayList compiled = new ArrayList(length);
+		for (int i = 0; i < length; i++) {
+			Statement statement = compileStatement(statements[i]);
+			if (statement != null)
+				compiled.add(statement);
+		}
+		return (Statement[]) compiled.toArray(new Statement[compiled.size()]);
+	}
+
+	private Statement compileStatement(ProgramElement statement) {
+		if (statement == null)
+			return null;
+		Class kind = statement.getClass();
+		if (kind == EmptyStatement.class)
+			return null;
+		if (kind == Block.class) {
+			org.eclipse.wst.jsdt.internal.compiler.ast.Statement[] statements = ((Block) statement).statements;
+			return new BlockStatement(compileStatements(statements, statements == null ? 0 : statements.length));
+		}
+		if (kind == IfStatement.class) {
+			IfStatement ifStatement = (IfStatement) statement;
+			return new If(compileExpression(ifStatement.condition), compileStatement(ifStatement.thenStatement), compileStatement(ifStatement.elseStatement));
+		}
+		if (kind == WhileStatement.class) {
+			WhileStatement whileStatement = (WhileStatement) statement;
+			return new While(compileExpression(whileStatement.condition), compileStatement(whileStatement.action));
+		}
+		if (kind == ReturnStatement.class) {
+			Expression expression = ((ReturnStatement) statement).expression;
+			return new Return(expression == null ? null : compileExpression(expression));
+		}
+		if (kind == BreakStatement.class && ((BreakStatement) statement).label == null)
+			return new Branch(InterpreterEngine.STOP_BREAK);
+		if (kind == ContinueStatement.class && ((ContinueStatement) statement).label == null)
+			return new Branch(InterpreterEngine.STOP_CONTINUE);
+		if (kind == LocalDeclaration.class) {
+			ArrayList declarations = new ArrayList();
+			for (LocalDeclaration local = (LocalDeclaration) statement; local != null; local = (LocalDeclaration) local.nextLocal) {
+				Node initialization = local.initialization == null ? null : compileExpression(local.initialization);
+				declarations.add(new Declaration(local.name, slotIndex(local.name), initialization));
+			}
+			return new BlockStatement((Statement[]) declarations.toArray(new Statement[declarations.size()]));
+		}
+		if (kind == MethodDeclaration.class) {
+			MethodDeclaration method = (MethodDeclaration) statement;
+			char[] name = method.getName();
+			if (name == null)
+				return null;
+			return new Declaration(name, slotIndex(name), new FunctionNode(method, compileFunction(method)));
+		}
+		if (statement instanceof Expression)
+			return new ExpressionStatement(compileExpression((Expression) statement), this.slotNames == null);
+		throw new UnimplementedException(kind.getName());
+	}
+
+	private Function compileFunction(MethodDeclaration method) {
+		ArrayList names = new ArrayList();
+		int argumentsCount = 0;
+		if (method.arguments != null) {
+			for (int i = 0; i < method.arguments.length; i++)
+				addSlotName(names, method.arguments[i].name);
+			argumentsCount = names.size();
+			if (argumentsCount < method.arguments.length)
+				throw new UnimplementedException("duplicate argument"); //$NON-NLS-1$
+		}
+		collectDeclarations(method.statements, names);
+
+		char[][] previousSlotNames = this.slotNames;
+		this.slotNames = (char[][]) names.toArray(new char[names.size()][]);
+		try {
+			org.eclipse.wst.jsdt.internal.compiler.ast.Statement[] statements = method.statements;
+			return new Function(this.slotNames, argumentsCount, compileStatements(statements, statements == null ? 0 : statements.length));
+		} finally {
+			this.slotNames = previousSlotNames;
+		}
+	}
+
+	/*
+	 * Collects the names of the variables & functions a function declares, not those of the functions it contains.
+	 */
+	private void collectDeclarations(ProgramElement[] statements, ArrayList names) {
+		if (statements == null)
+			return;
+		for (int i = 0; i < statements.length; i++)
+			collectDeclarations(statements[i], names);
+	}
+
+	private void collectDeclarations(ProgramElement statement, ArrayList names) {
+		if (statement instanceof LocalDeclaration) {
+			for (LocalDeclaration local = (LocalDeclaration) statement; local != null; local = (LocalDeclaration) local.nextLocal)
+				addSlotName(names, local.name);
+		} else if (statement instanceof MethodDeclaration) {
+			char[] name = ((MethodDeclaration) statement).getName();
+			if (name != null)
+				addSlotName(names, name);
+		} else if (statement instanceof Block) {
+			collectDeclarations(((Block) statement).statements, names);
+		} else if (statement instanceof IfStatement) {
+			collectDeclarations(((IfStatement) statement).thenStatement, names);
+			collectDeclarations(((IfStatement) statement).elseStatement, names);
+		} else if (statement instanceof WhileStatement) {
+			collectDeclarations(((WhileStatement) statement).action, names);
+		}
+	}
+
+	private static void addSlotName(ArrayList names, char[] name) {
+		for (int i = 0, size = names.size(); i < size; i++)
+			if (CharOperation.equals((char[]) names.get(i), name))
+				return;
+		names.add(name);
+	}
+
+	private int slotIndex(char[] name) {
+		if (this.slotNames != null)
+			for (int i = 0; i < this.slotNames.length; i++)
+				if (CharOperation.equals(this.slotNames[i], name))
+					return i;
+		return -1;
+	}
+
+	private Node compileExpression(Expression expression) {
+		Class kind = expression.getClass();
+		if (kind == IntLiteral.class) {
+			IntLiteral literal = (IntLiteral) expression;
+			try {
+				return new Constant(number(literal.source == null ? literal.value : Integer.valueOf(new String(literal.source)).intValue()));
+			} catch (NumberFormatException e) {
+				throw new UnimplementedException(new String(literal.source));
+			}
+		}
+		if (kind == StringLiteral.class)
+			return new Constant(new StringValue(new String(((StringLiteral) expression).source())));
+		if (kind == TrueLiteral.class)
+			return new Constant(TRUE);
+		if (kind == FalseLiteral.class)
+			return new Constant(FALSE);
+		if (kind == NullLiteral.class)
+			return new Constant(Value.NullObjectValue);
+		if (kind == UndefinedLiteral.class)
+			return new Constant(Value.UndefinedObjectValue);
+		if (kind == ThisReference.class)
+			return new This();
+		if (kind == SingleNameReference.class) {
+			char[] name = ((SingleNameReference) expression).token;
+			int slot = slotIndex(name);
+			return slot < 0 ? (Node) new Name(name) : new Slot(slot);
+		}
+		if (kind == FieldReference.class) {
+			FieldReference reference = (FieldReference) expression;
+			return new Property(compileExpression(reference.receiver), reference.token);
+		}
+		if (kind == Assignment.class) {
+			Assignment assignment = (Assignment) expression;
+			return new Assign(compileReference(assignment.lhs), compileExpression(assignment.expression));
+		}
+		if (kind == PostfixExpression.class || kind == PrefixExpression.class) {
+			int operator = kind == PostfixExpression.class ? ((PostfixExpression) expression).operator : ((PrefixExpression) expression).operator;
+			if (operator != PLUS && operator != MINUS)
+				throw new UnimplementedException();
+			Expression lhs = kind == PostfixExpression.class ? ((PostfixExpression) expression).lhs : ((PrefixExpression) expression).lhs;
+			return new Increment(compileReference(lhs), operator == PLUS ? 1 : -1, kind == PrefixExpression.class);
+		}
+		if (kind == AND_AND_Expression.class) {
+			BinaryExpression binary = (BinaryExpression) expression;
+			return new And(compileExpression(binary.left), compileExpression(binary.right));
+		}
+		if (kind == OR_OR_Expression.class) {
+			BinaryExpression binary = (BinaryExpression) expression;
+			return new Or(compileExpression(binary.left), compileExpression(binary.right));
+		}
+		if (kind == EqualExpression.class) {
+			BinaryExpression binary = (BinaryExpression) expression;
+			return new Equal(compileExpression(binary.left), compileExpression(binary.right), (binary.bits & ASTNode.OperatorMASK) >> ASTNode.OperatorSHIFT);
+		}
+		if (kind == BinaryExpression.class || kind == CombinedBinaryExpression.class)
+			return compileBinary((BinaryExpression) expression);
+		if (kind == ObjectLiteral.class) {
+			ObjectLiteralField[] fields = ((ObjectLiteral) expression).fields;
+			int length = fields == null ? 0 : fields.length;
+			char[][] names = new char[length][];
+			Node[] values = new Node[length];
+			for (int i = 0; i < length; i++) {
+				if (fields[i].fieldName instanceof SingleNameReference)
+					names[i] = ((SingleNameReference) fields[i].fieldName).token;
+				else if (fields[i].fieldName instanceof StringLiteral)
+					names[i] = ((StringLiteral) fields[i].fieldName).source();
+				else
+					throw new UnimplementedException("invalid object literal field"); //$NON-NLS-1$
+				values[i] = compileExpression(fields[i].initializer);
+			}
+			return new ObjectCreation(names, values);
+		}
+		if (kind == FunctionExpression.class) {
+			MethodDeclaration method = ((FunctionExpression) expression).methodDeclaration;
+			return new FunctionNode(method, compileFunction(method));
+		}
+		if (kind == MessageSend.class) {
+			MessageSend messageSend = (MessageSend) expression;
+			return new Call(messageSend.receiver == null ? null : compileExpression(messageSend.receiver), messageSend.selector, compileArguments(messageSend.arguments));
+		}
+		if (kind == AllocationExpression.class) {
+			AllocationExpression allocation = (AllocationExpression) expression;
+			return new Allocation(compileExpression(allocation.member), compileArguments(allocation.isShort ? null : allocation.arguments));
+		}
+		throw new UnimplementedException(kind.getName());
+	}
+
+	private Node compileBinary(BinaryExpression expression) {
+		int operator = (expression.bits & ASTNode.OperatorMASK) >> ASTNode.OperatorSHIFT;
+		Node left = compileExpression(expression.left);
+		Node right = compileExpression(expression.right);
+		switch (operator) {
+			case PLUS :
+				if (left.isNumber() && right.isNumber())
+					return new Arithmetic(left, right, operator);
+				return new Plus(left, right);
+			case MINUS :
+			case DIVIDE :
+			case MULTIPLY :
+			case REMAINDER :
+			case AND :
+			case OR :
+				return new Arithmetic(left, right, operator);
+			case GREATER :
+			case GREATER_EQUAL :
+			case LESS :
+			case LESS_EQUAL :
+				return new Comparison(left, right, operator);
+			case AND_AND :
+				return new And(left, right);
+			case OR_OR :
+				return new Or(left, right);
+		}
+		throw new UnimplementedException();
+	}
+
+	private Reference compileReference(Expression expression) {
+		Node node = compileExpression(expression);
+		if (!(node instanceof Reference))
+			throw new UnimplementedException("invalid assigment left hand side"); //$NON-NLS-1$
+		return (Reference) node;
+	}
+
+	private Node[] compileArguments(Expression[] arguments) {
+		if (arguments == null)
+			return null;
+		Node[] nodes = new Node[arguments.length];
+		for (int i = 0; i < arguments.length; i++)
+			nodes[i] = compileExpression(arguments[i]);
+		return nodes;
+	}
+
+	static Value[] evaluate(Node[] arguments, InterpreterContext context) {
+		if (arguments == null)
+			return NO_ARGUMENTS;
+		Value[] values = new Value[arguments.length];
+		for (int i = 0; i < values.length; i++)
+			values[i] = arguments[i].evaluate(context);
+		return values;
+	}
+
+	static Value call(FunctionValue function, InterpreterContext context, ObjectValue receiver, Value[] arguments) {
+		if (function instanceof CompiledFunctionValue)
+			return ((CompiledFunctionValue) function).call(context, receiver, arguments);
+		// native functions & functions created by an interpreter engine
+		Value returnValue = function.execute(new InterpreterEngine(context), receiver, arguments);
+		return returnValue == null ? Value.UndefinedObjectValue : returnValue.getValue();
+	}
+
+	/**
+	 * A function body, shared by all the function values created from its declaration.
+	 */
+	static class Function {
+		final char[][] slotNames;
+		final int argumentsCount;
+		final Statement[] statements;
+
+		Function(char[][] slotNames, int argumentsCount, Statement[] statements) {
+			this.slotNames = slotNames;
+			this.argumentsCount = argumentsCount;
+			this.statements = statements;
+		}
+	}
+
+	/**
+	 * Answers 0 once executed, or one of the <code>InterpreterEngine.STOP_*</code> codes.
+	 */
+	static abstract class Statement {
+		abstract int execute(InterpreterContext context);
+	}
+
+	static abstract class Node {
+		abstract Value evaluate(InterpreterContext context);
+
+		int evaluateNumber(InterpreterContext context) {
+			return evaluate(context).numberValue();
+		}
+
+		boolean evaluateBoolean(InterpreterContext context) {
+			return evaluate(context).booleanValue();
+		}
+
+		/* whether this node always evaluates to a number */
+		boolean isNumber() {
+			return false;
+		}
+	}
+
+	static abstract class Reference extends Node {
+		abstract void assign(InterpreterContext context, Value value);
+	}
+
+	static class BlockStatement extends Statement {
+		final Statement[] statements;
+
+		BlockStatement(Statement[] statements) {
+			this.statements = statements;
+		}
+
+		int execute(InterpreterContext context) {
+			return ScriptCompiler.execute(this.statements, context);
+		}
+	}
+
+	static class ExpressionStatement extends Statement {
+		final Node expression;
+		final boolean topLevel;
+
+		ExpressionStatement(Node expression, boolean topLevel) {
+			this.expression = expression;
+			this.topLevel = topLevel;
+		}
+
+		int execute(InterpreterContext context) {
+			Value value = this.expression.evaluate(context);
+			if (this.topLevel)
+				context.returnValue = value; // the result of the script, see CompiledScript
+			return 0;
+		}
+	}
+
+	static class If extends Statement {
+		final Node condition;
+		final Statement thenStatement, elseStatement;
+
+		If(Node condition, Statement thenStatement, Statement elseStatement) {
+			this.condition = condition;
+			this.thenStatement = thenStatement;
+			this.elseStatement = elseStatement;
+		}
+
+		int execute(InterpreterContext context) {
+			Statement statement = this.condition.evaluateBoolean(context) ? this.thenStatement : this.elseStatement;
+			return statement == null ? 0 : statement.execute(context);
+		}
+	}
+
+	static class While extends Statement {
+		final Node condition;
+		final Statement action;
+
+		While(Node condition, Statement action) {
+			this.condition = condition;
+			this.action = action;
+		}
+
+		int execute(InterpreterContext context) {
+			while (this.condition.evaluateBoolean(context)) {
+				int code = this.action == null ? 0 : this.action.execute(context);
+				if (code == InterpreterEngine.STOP_BREAK)
+					break;
+				if (code != 0 && code != InterpreterEngine.STOP_CONTINUE)
+					return code;
+			}
+			return 0;
+		}
+	}
+
+	static class Return extends Statement {
+		final Node expression;
+
+		Return(Node expression) {
+			this.expression = expression;
+		}
+
+		int execute(InterpreterContext context) {
+			context.returnValue = this.expression == null ? Value.UndefinedObjectValue : this.expression.evaluate(context);
+			return InterpreterEngine.STOP_RETURN;
+		}
+	}
+
+	static class Branch extends Statement {
+		final int code;
+
+		Branch(int code) {
+			this.code = code;
+		}
+
+		int execute(InterpreterContext context) {
+			return this.code;
+		}
+	}
+
+	/* a variable or function declaration, kept in a slot when it belongs to a function */
+	static class Declaration extends Statement {
+		final char[] name;
+		final int slot;
+		final Node value;
+
+		Declaration(char[] name, int slot, Node value) {
+			this.name = name;
+			this.slot = slot;
+			this.value = value;
+		}
+
+		int execute(InterpreterContext context) {
+			Value result = this.value == null ? Value.UndefinedObjectValue : this.value.evaluate(context);
+			if (this.slot >= 0)
+				((CompiledContext) context).slots[this.slot] = result;
+			else
+				context.setValue(this.name, result);
+			return 0;
+		}
+	}
+
+	static class Constant extends Node {
+		final Value value;
+
+		Constant(Value value) {
+			this.value = value;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			return this.value;
+		}
+
+		int evaluateNumber(InterpreterContext context) {
+			return this.value.numberValue();
+		}
+
+		boolean isNumber() {
+			return this.value.type == Value.NUMBER;
+		}
+	}
+
+	static class This extends Node {
+		Value evaluate(InterpreterContext context) {
+			if (context.thisObject instanceof ObjectValue)
+				return (ObjectValue) context.thisObject;
+			return Value.UndefinedObjectValue;
+		}
+	}
+
+	/* a name looked up in the contexts, as the interpreter engine does */
+	static class Name extends Reference {
+		final char[] name;
+
+		Name(char[] name) {
+			this.name = name;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			return context.getValue(this.name);
+		}
+
+		void assign(InterpreterContext context, Value value) {
+			context.getValue(this.name);
+			context.lastReference.setValue(this.name, value);
+		}
+	}
+
+	/* an argument or variable of the function being executed */
+	static class Slot extends Reference {
+		final int index;
+
+		Slot(int index) {
+			this.index = index;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			Value value = ((CompiledContext) context).slots[this.index];
+			return value == null ? Value.UndefinedObjectValue : value;
+		}
+
+		void assign(InterpreterContext context, Value value) {
+			((CompiledContext) context).slots[this.index] = value;
+		}
+	}
+
+	static class Property extends Reference {
+		final Node receiver;
+		final char[] name;
+		/* where the property was last found, only used for plain objects */
+		private char[][] cachedKeys;
+		private int cachedIndex;
+
+		Property(Node receiver, char[] name) {
+			this.receiver = receiver;
+			this.name = name;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			ObjectValue object = this.receiver.evaluate(context).getObjectValue();
+			Value value = object.getClass() == ObjectValue.class ? getProperty(object.properties) : object.getValue(this.name);
+			return value == null ? Value.UndefinedObjectValue : value;
+		}
+
+		private Value getProperty(HashtableOfObject properties) {
+			char[][] keys = properties.keyTable;
+			if (keys == this.cachedKeys) {
+				char[] key = keys[this.cachedIndex];
+				if (key == this.name || key != null && CharOperation.equals(key, this.name))
+					return (Value) properties.valueTable[this.cachedIndex];
+			}
+			// same lookup as HashtableOfObject.get(), remembering the index
+			int length = keys.length;
+			int index = CharOperation.hashCode(this.name) % length;
+			char[] key;
+			while ((key = keys[index]) != null) {
+				if (CharOperation.equals(key, this.name)) {
+					this.cachedKeys = keys;
+					this.cachedIndex = index;
+					return (Value) properties.valueTable[index];
+				}
+				if (++index == length)
+					index = 0;
+			}
+			return null;
+		}
+
+		void assign(InterpreterContext context, Value value) {
+			this.receiver.evaluate(context).getObjectValue().setValue(this.name, value);
+		}
+	}
+
+	static class Assign extends Node {
+		final Reference reference;
+		final Node expression;
+
+		Assign(Reference reference, Node expression) {
+			this.reference = reference;
+			this.expression = expression;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			Value value = this.expression.evaluate(context).getValue();
+			this.reference.assign(context, value);
+			return value;
+		}
+	}
+
+	static class Increment extends Node {
+		final Reference reference;
+		final int increment;
+		final boolean prefix;
+
+		Increment(Reference reference, int increment, boolean prefix) {
+			this.reference = reference;
+			this.increment = increment;
+			this.prefix = prefix;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			return number(evaluateNumber(context));
+		}
+
+		int evaluateNumber(InterpreterContext context) {
+			int number = this.reference.evaluateNumber(context);
+			this.reference.assign(context, number(number + this.increment));
+			return this.prefix ? number + this.increment : number;
+		}
+
+		boolean isNumber() {
+			return true;
+		}
+	}
+
+	static class Arithmetic extends Node {
+		final Node left, right;
+		final int operator;
+
+		Arithmetic(Node left, Node right, int operator) {
+			this.left = left;
+			this.right = right;
+			this.operator = operator;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			return number(evaluateNumber(context));
+		}
+
+		int evaluateNumber(InterpreterContext context) {
+			int value1 = this.left.evaluateNumber(context);
+			int value2 = this.right.evaluateNumber(context);
+			switch (this.operator) {
+				case PLUS :
+					return value1 + value2;
+				case MINUS :
+					return value1 - value2;
+				case DIVIDE :
+					return value1 / value2;
+				case MULTIPLY :
+					return value1 * value2;
+				case REMAINDER :
+					return value1 % value2;
+				case AND :
+					return value1 & value2;
+				default : // OR
+					return value1 | value2;
+			}
+		}
+
+		boolean evaluateBoolean(InterpreterContext context) {
+			return evaluateNumber(context) != 0;
+		}
+
+		boolean isNumber() {
+			return true;
+		}
+	}
+
+	/* an addition of operands which may be strings */
+	static class Plus extends Node {
+		final Node left, right;
+
+		Plus(Node left, Node right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			Value value1 = this.left.evaluate(context);
+			Value value2 = this.right.evaluate(context);
+			if (value1.type == Value.STRING || value2.type == Value.STRING)
+				return new StringValue(value1.stringValue() + value2.stringValue());
+			return number(value1.numberValue() + value2.numberValue());
+		}
+
+		int evaluateNumber(InterpreterContext context) {
+			Value value1 = this.left.evaluate(context);
+			Value value2 = this.right.evaluate(context);
+			if (value1.type == Value.STRING || value2.type == Value.STRING)
+				return Integer.valueOf(value1.stringValue() + value2.stringValue()).intValue();
+			return value1.numberValue() + value2.numberValue();
+		}
+	}
+
+	static class Comparison extends Node {
+		final Node left, right;
+		final int operator;
+
+		Comparison(Node left, Node right, int operator) {
+			this.left = left;
+			this.right = right;
+			this.operator = operator;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			return bool(evaluateBoolean(context));
+		}
+
+		int evaluateNumber(InterpreterContext context) {
+			return evaluateBoolean(context) ? 1 : 0;
+		}
+
+		boolean evaluateBoolean(InterpreterContext context) {
+			int value1 = this.left.evaluateNumber(context);
+			int value2 = this.right.evaluateNumber(context);
+			switch (this.operator) {
+				case GREATER :
+					return value1 > value2;
+				case GREATER_EQUAL :
+					return value1 >= value2;
+				case LESS :
+					return value1 < value2;
+				default : // LESS_EQUAL
+					return value1 <= value2;
+			}
+		}
+	}
+
+	static class And extends Node {
+		final Node left, right;
+
+		And(Node left, Node right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			return bool(evaluateBoolean(context));
+		}
+
+		int evaluateNumber(InterpreterContext context) {
+			return evaluateBoolean(context) ? 1 : 0;
+		}
+
+		boolean evaluateBoolean(InterpreterContext context) {
+			return this.left.evaluateBoolean(context) && this.right.evaluateBoolean(context);
+		}
+	}
+
+	static class Or extends Node {
+		final Node left, right;
+
+		Or(Node left, Node right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			return bool(evaluateBoolean(context));
+		}
+
+		int evaluateNumber(InterpreterContext context) {
+			return evaluateBoolean(context) ? 1 : 0;
+		}
+
+		boolean evaluateBoolean(InterpreterContext context) {
+			return this.left.evaluateBoolean(context) || this.right.evaluateBoolean(context);
+		}
+	}
+
+	static class Equal extends Node {
+		final Node left, right;
+		final int operator;
+
+		Equal(Node left, Node right, int operator) {
+			this.left = left;
+			this.right = right;
+			this.operator = operator;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			return bool(evaluateBoolean(context));
+		}
+
+		int evaluateNumber(InterpreterContext context) {
+			return evaluateBoolean(context) ? 1 : 0;
+		}
+
+		boolean evaluateBoolean(InterpreterContext context) {
+			Value value1 = this.left.evaluate(context);
+			Value value2 = this.right.evaluate(context);
+			boolean equal;
+			switch (this.operator) {
+				case EQUAL_EQUAL :
+				case NOT_EQUAL :
+					switch (value1.type) {
+						case Value.NUMBER :
+						case Value.BOOLEAN :
+							equal = value1.numberValue() == value2.numberValue();
+							break;
+						case Value.STRING :
+							if (value2.type == Value.NUMBER)
+								equal = value1.numberValue() == value2.numberValue();
+							else
+								equal = value1.stringValue().equals(value2.stringValue());
+							break;
+						case Value.UNDEFINED :
+						case Value.NULL :
+							equal = value2.type == Value.UNDEFINED || value2.type == Value.NULL;
+							break;
+						default :
+							equal = value1 == value2;
+					}
+					return this.operator == NOT_EQUAL ? !equal : equal;
+				case EQUAL_EQUAL_EQUAL :
+				case NOT_EQUAL_EQUAL :
+					equal = false;
+					if (value1.type == value2.type) {
+						switch (value1.type) {
+							case Value.NUMBER :
+							case Value.BOOLEAN :
+								equal = value1.numberValue() == value2.numberValue();
+								break;
+							case Value.STRING :
+								equal = value1.stringValue().equals(value2.stringValue());
+								break;
+							case Value.UNDEFINED :
+							case Value.NULL :
+								equal = true;
+								break;
+							default :
+								equal = value1 == value2;
+						}
+					}
+					return this.operator == NOT_EQUAL_EQUAL ? !equal : equal;
+			}
+			throw new UnimplementedException(""); //$NON-NLS-1$
+		}
+	}
+
+	static class ObjectCreation extends Node {
+		final char[][] names;
+		final Node[] values;
+
+		ObjectCreation(char[][] names, Node[] values) {
+			this.names = names;
+			this.values = values;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			ObjectValue object = new ObjectValue();
+			for (int i = 0; i < this.names.length; i++)
+				object.setValue(this.names[i], this.values[i].evaluate(context).getValue());
+			return object;
+		}
+	}
+
+	static class FunctionNode extends Node {
+		final MethodDeclaration method;
+		final Function function;
+
+		FunctionNode(MethodDeclaration method, Function function) {
+			this.method = method;
+			this.function = function;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			return new CompiledFunctionValue(this.method, this.function);
+		}
+	}
+
+	static class Call extends Node {
+		final Node receiver;
+		final char[] selector;
+		final Node[] arguments;
+
+		Call(Node receiver, char[] selector, Node[] arguments) {
+			this.receiver = receiver;
+			this.selector = selector;
+			this.arguments = arguments;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			FunctionValue function = null;
+			ValueReference receiverObject = context;
+			if (this.receiver != null) {
+				Value value = this.receiver.evaluate(context);
+				if (value.type == Value.FUNCTION && this.selector == null)
+					function = (FunctionValue) value;
+				else
+					receiverObject = value.getObjectValue();
+			}
+			if (function == null) {
+				Value value = receiverObject.getValue(this.selector);
+				if (value == null || value.type != Value.FUNCTION)
+					throw new InterpretException("not a function:" + new String(this.selector)); //$NON-NLS-1$
+				function = (FunctionValue) value;
+			}
+			Value[] values = ScriptCompiler.evaluate(this.arguments, context);
+			return call(function, context, receiverObject instanceof ObjectValue ? (ObjectValue) receiverObject : null, values);
+		}
+	}
+
+	static class Allocation extends Node {
+		final Node member;
+		final Node[] arguments;
+
+		Allocation(Node member, Node[] arguments) {
+			this.member = member;
+			this.arguments = arguments;
+		}
+
+		Value evaluate(InterpreterContext context) {
+			Value value = this.member.evaluate(context);
+			if (value.type != Value.FUNCTION)
+				throw new InterpretException("not a function"); //$NON-NLS-1$
+			FunctionValue function = (FunctionValue) value;
+			ObjectValue receiver = new ObjectValue(function.prototype);
+			call(function, context, receiver, ScriptCompiler.evaluate(this.arguments, context));
+			return receiver;
+		}
+	}
+}
@@ -36,6 +36,93 @@ protected IndexQueryRequestor requestor;
 protected boolean areIndexesReady;
 protected long executionTime = 0;
 
+/**
+ * Maximum number of indexes queried at the same time by a search job, 1 or less to query them one after the other.
+ * Only the index queries run concurrently, matches are always reported to the requestor by the thread
+ * executing the job and in the same order as a sequential search.
+ */
+public static int CONCURRENT_INDEX_QUERIES = Integer.getInteger("org.eclipse.wst.jsdt.core.search.concurrentIndexQueries", 1).intValue(); //$NON-NLS-1$
+
+// states of the indexes queried concurrently
+private static final int PENDING = 0;
+private static final int QUERIED = 1;
+private static final int QUERY_FAILED = 2;
+private static final int CANCELED = 3;
+
+/**
+ * Queries the indexes of a job on several threads and keeps their results until they are reported.
+ */
+class ConcurrentIndexQuery implements Runnable {
+	Index[] indexes;
+	IProgressMonitor progressMonitor;
+	Object[][] matches; // matches collected for each index, see InternalSearchPattern#collectIndexMatches()
+	int[] states; // state of each index
+	int nextIndex = 0;
+	boolean canceled = false;
+	Throwable failure; // unexpected exception thrown by a query
+
+	ConcurrentIndexQuery(Index[] indexes, IProgressMonitor progressMonitor) {
+		this.indexes = indexes;
+		this.progressMonitor = progressMonitor;
+		int length = indexes.length;
+		this.matches = new Object[length][];
+		this.states = new int[length]; // all PENDING
+	}
+	public void run() {
+		while (true) {
+			int index;
+			synchronized (this) {
+				if (this.canceled || this.nextIndex == this.indexes.length) return;
+				index = this.nextIndex++;
+			}
+			Object[] indexMatches = null;
+			int state = QUERIED;
+			long start = System.currentTimeMillis();
+			try {
+				indexMatches = collectIndexMatches(this.indexes[index], this.progressMonitor);
+			} catch (IOException e) {
+				if (e instanceof java.io.EOFException)
+					e.printStackTrace();
+				state = QUERY_FAILED;
+			} catch (OperationCanceledException e) {
+				state = CANCELED;
+			} catch (RuntimeException e) {
+				this.failure = e;
+				state = CANCELED;
+			} catch (Error e) {
+				this.failure = e;
+				state = CANCELED;
+			}
+			synchronized (this) {
+				PatternSearchJob.this.executionTime += System.currentTimeMillis() - start;
+				this.matches[index] = indexMatches;
+				this.states[index] = state;
+				if (state == CANCELED)
+					this.canceled = true;
+				notifyAll();
+			}
+		}
+	}
+	synchronized void cancel() {
+		this.canceled = true;
+	}
+	/**
+	 * Waits until the given index was queried, and answers its state.
+	 */
+	synchronized int waitFor(int index) {
+		while (this.states[index] == PENDING) {
+			if (this.canceled && index >= this.nextIndex)
+				return CANCELED; // will never be queried
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				// ignore
+			}
+		}
+		return this.states[index];
+	}
+}
+
 public PatternSearchJob(SearchPattern pattern, SearchParticipant participant, IJavaScriptSearchScope scope, IndexQueryRequestor requestor) {
 	this.pattern = pattern;
 	this.participant = participant;
@@ -62,6 +149,14 @@ public boolean execute(IProgressMonitor progressMonitor) {
 		int max = indexes.length;
 		if (progressMonitor != null)
 			progressMonitor.beginTask("", max); //$NON-NLS-1$
+		int threads = CONCURRENT_INDEX_QUERIES < max ? CONCURRENT_INDEX_QUERIES : max;
+		if (threads > 1 && canSearchConcurrently()) {
+			long start = System.currentTimeMillis();
+			isComplete = searchConcurrently(indexes, threads, progressMonitor);
+			if (JobManager.VERBOSE)
+				Util.verbose("-> execution time: " + executionTime + "ms, elapsed: " + (System.currentTimeMillis() - start) + "ms on " + threads + " threads for " + max + " indexes - " + this);//$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$//$NON-NLS-4$//$NON-NLS-5$
+			return isComplete;
+		}
 		for (int i = 0; i < max; i++) {
 			isComplete &= search(indexes[i], progressMonitor);
 			if (progressMonitor != null) {
@@ -77,6 +172,29 @@ public boolean execute(IProgressMonitor progressMonitor) {
 			progressMonitor.done();
 	}
 }
+/**
+ * Returns whether the indexes of this job can be queried concurrently, see CONCURRENT_INDEX_QUERIES.
+ */
+protected boolean canSearchConcurrently() {
+	return this.pattern != null && this.pattern.canQueryIndexesConcurrently();
+}
+/**
+ * Collects the matches of the given index, see InternalSearchPattern#collectIndexMatches().
+ * Can be called by several threads at the same time on different indexes.
+ */
+protected Object[] collectIndexMatches(Index index, IProgressMonitor progressMonitor) throws IOException {
+	if (index == null) return null;
+	if (progressMonitor != null && progressMonitor.isCanceled()) throw new OperationCanceledException();
+
+	ReadWriteMonitor monitor = index.monitor;
+	if (monitor == null) return null; // index got deleted since acquired
+	try {
+		monitor.enterRead(); // ask permission to read
+		return this.pattern.collectIndexMatches(index, progressMonitor);
+	} finally {
+		monitor.exitRead(); // finished reading
+	}
+}
 public Index[] getIndexes(IProgressMonitor progressMonitor) {
 	// acquire the in-memory indexes on the fly
 	IPath[] indexLocations = this.participant.selectIndexes(this.pattern, this.scope);
@@ -124,6 +242,41 @@ public boolean search(Index index, IProgressMonitor progressMonitor) {
 		monitor.exitRead(); // finished reading
 	}
 }
+/**
+ * Queries the given indexes on the given number of threads, and reports their matches to the requestor
+ * in the order of the indexes as they become available.
+ */
+protected boolean searchConcurrently(Index[] indexes, int threads, IProgressMonitor progressMonitor) {
+	boolean isComplete = COMPLETE;
+	ConcurrentIndexQuery query = new ConcurrentIndexQuery(indexes, progressMonitor);
+	for (int i = 0; i < threads; i++) {
+		Thread thread = new Thread(query, "JavaScript Index Query Worker " + i); //$NON-NLS-1$
+		thread.setDaemon(true);
+		thread.start();
+	}
+	try {
+		for (int i = 0, max = indexes.length; i < max; i++) {
+			int state = query.waitFor(i);
+			if (query.failure instanceof RuntimeException) throw (RuntimeException) query.failure;
+			if (query.failure instanceof Error) throw (Error) query.failure;
+			if (state == CANCELED) throw new OperationCanceledException();
+
+			isComplete &= state == QUERIED;
+			Object[] matches = query.matches[i];
+			if (matches != null) {
+				query.matches[i] = null; // free up the space
+				this.pattern.acceptIndexMatches(matches, indexes[i].containerPath, this.requestor, this.participant, this.scope, progressMonitor);
+			}
+			if (progressMonitor != null) {
+				if (progressMonitor.isCanceled()) throw new OperationCanceledException();
+				progressMonitor.worked(1);
+			}
+		}
+	} finally {
+		query.cancel(); // stop the workers if the search was cancelled
+	}
+	return isComplete;
+}
 public String toString() {
 	return "searching " + pattern.toString(); //$NON-NLS-1$
 }
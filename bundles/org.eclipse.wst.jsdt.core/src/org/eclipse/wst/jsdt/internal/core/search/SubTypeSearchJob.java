@@ -30,6 +30,9 @@ public void finished() {
 		if (values[i] != null)
 			((Index) values[i]).stopQuery();
 }
+protected boolean canSearchConcurrently() {
+	return false; // indexes must stay open until finished(), see search(Index, IProgressMonitor)
+}
 public boolean search(Index index, IProgressMonitor progressMonitor) {
 	if (index == null) return COMPLETE;
 	if (indexes.addIfNotIncluded(index) == index)
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.wst.jsdt.internal.core.search.indexing;
 
+import java.util.ArrayList;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -18,6 +20,7 @@ import org.eclipse.core.resources.IResourceProxyVisitor;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.wst.jsdt.core.IJavaScriptProject;
 import org.eclipse.wst.jsdt.core.JavaScriptCore;
 import org.eclipse.wst.jsdt.internal.compiler.SourceElementParser;
 import org.eclipse.wst.jsdt.internal.core.index.Index;
@@ -55,7 +58,10 @@ class AddFolderToIndex extends IndexRequest {
 
 			final IPath container = this.containerPath;
 			final IndexManager indexManager = this.manager;
-			final SourceElementParser parser = indexManager.getSourceElementParser(JavaScriptCore.create(this.project), null/*requestor will be set by indexer*/);
+			final IJavaScriptProject javaProject = JavaScriptCore.create(this.project);
+			// the sources are collected to be parsed by several threads if possible
+			final ArrayList sources = AddSourcesToIndex.PARSING_THREADS > 1 ? new ArrayList() : null;
+			final SourceElementParser parser = sources != null ? null : indexManager.getSourceElementParser(javaProject, null/*requestor will be set by indexer*/);
 			if (this.exclusionPatterns == null && this.inclusionPatterns == null) {
 				folder.accept(
 					new IResourceProxyVisitor() {
@@ -63,7 +69,10 @@ class AddFolderToIndex extends IndexRequest {
 							if (proxy.getType() == IResource.FILE) {
 								if (org.eclipse.wst.jsdt.internal.core.util.Util.isJavaLikeFileName(proxy.getName())
 										||org.eclipse.wst.jsdt.internal.core.util.Util.isMetadataFileName(proxy.getName()))
-									indexManager.addSource((IFile) proxy.requestResource(), container, parser);
+									if (sources != null)
+										sources.add(proxy.requestResource());
+									else
+										indexManager.addSource((IFile) proxy.requestResource(), container, parser);
 								return false;
 							}
 							return true;
@@ -79,8 +88,12 @@ class AddFolderToIndex extends IndexRequest {
 								case IResource.FILE :
 									if (org.eclipse.wst.jsdt.internal.core.util.Util.isJavaLikeFileName(proxy.getName())) {
 										IResource resource = proxy.requestResource();
-										if (!Util.isExcluded(resource, inclusionPatterns, exclusionPatterns))
-											indexManager.addSource((IFile)resource, container, parser);
+										if (!Util.isExcluded(resource, inclusionPatterns, exclusionPatterns)) {
+											if (sources != null)
+												sources.add(resource);
+											else
+												indexManager.addSource((IFile)resource, container, parser);
+										}
 									}
 									return false;
 								case IResource.FOLDER :
@@ -96,6 +109,11 @@ class AddFolderToIndex extends IndexRequest {
 					IResource.NONE
 				);
 			}
+			if (sources != null && !sources.isEmpty()) {
+				IFile[] files = new IFile[sources.size()];
+				sources.toArray(files);
+				indexManager.request(new AddSourcesToIndex(files, container, javaProject, indexManager));
+			}
 		} catch (CoreException e) {
 			if (JobManager.VERBOSE) {
 				Util.verbose("-> failed to add " + this.folderPath + " to index because of the following exception:", System.err); //$NON-NLS-1$ //$NON-NLS-2$
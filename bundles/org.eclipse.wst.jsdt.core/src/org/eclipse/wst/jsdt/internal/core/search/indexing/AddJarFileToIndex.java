@@ -202,11 +202,7 @@ class AddJarFileToIndex extends IndexRequest {
 					ZipEntry ze = (ZipEntry) e.nextElement();
 					String zipEntryName = ze.getName();
 					if (Util.isClassFileName(zipEntryName)) {
-						final byte[] classFileBytes = org.eclipse.wst.jsdt.internal.compiler.util.Util.getZipEntryByteContent(ze, zip);
-						char[] classFileChars = new char[classFileBytes.length];
-						for (int i = 0; i < classFileChars.length; i++) {
-							classFileChars[i] = (char) classFileBytes[i];
-						}
+						final char[] classFileChars = org.eclipse.wst.jsdt.internal.compiler.util.Util.getZipEntryCharContent(ze, zip, org.eclipse.wst.jsdt.internal.compiler.util.Util.UTF_8);
 						JavaSearchDocument entryDocument = new JavaSearchDocument(ze, zipFilePath, classFileChars, participant);
 						this.manager.indexDocument(entryDocument, participant, index, indexPath);
 					}
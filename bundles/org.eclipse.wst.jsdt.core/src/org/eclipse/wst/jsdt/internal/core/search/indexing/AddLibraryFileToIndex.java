@@ -12,7 +12,6 @@ package org.eclipse.wst.jsdt.internal.core.search.indexing;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.Enumeration;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -185,14 +184,8 @@ class AddLibraryFileToIndex extends IndexRequest {
 							// iterate each entry to index it
 							ZipEntry ze = (ZipEntry) e.nextElement();
 							if (Util.isClassFileName(ze.getName())) {
-								InputStreamReader inputStreamReader = new InputStreamReader(zip.getInputStream(ze), "utf8"); //$NON-NLS-1$
-								StringBuffer buffer = new StringBuffer();
-								char c[] = new char[2048];
-								int length = 0;
-								while ((length = inputStreamReader.read(c)) > -1) {
-									buffer.append(c, 0, length);
-								}
-								JavaSearchDocument entryDocument = new JavaSearchDocument(ze, libraryFilePath, buffer.toString().toCharArray(), participant);
+								char[] contents = Util.getZipEntryCharContent(ze, zip, Util.UTF_8);
+								JavaSearchDocument entryDocument = new JavaSearchDocument(ze, libraryFilePath, contents, participant);
 								this.manager.indexDocument(entryDocument, participant, index, this.containerPath);
 							}
 						}
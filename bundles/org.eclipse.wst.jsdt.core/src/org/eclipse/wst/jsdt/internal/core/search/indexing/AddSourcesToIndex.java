@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.search.indexing;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.wst.jsdt.core.IJavaScriptProject;
+import org.eclipse.wst.jsdt.core.search.SearchDocument;
+import org.eclipse.wst.jsdt.core.search.SearchEngine;
+import org.eclipse.wst.jsdt.core.search.SearchParticipant;
+import org.eclipse.wst.jsdt.internal.compiler.SourceElementParser;
+import org.eclipse.wst.jsdt.internal.core.index.Index;
+import org.eclipse.wst.jsdt.internal.core.search.processing.JobManager;
+import org.eclipse.wst.jsdt.internal.core.util.Util;
+
+/**
+ * Indexes source files of a project with several parser threads. Each thread parses
+ * one document at a time and records its index entries, the entries are then added
+ * to the index by the thread executing this job, which is the only one writing to the index.
+ */
+class AddSourcesToIndex extends IndexRequest {
+	/* number of threads parsing the source files, sources are indexed by separate jobs if 1 or less */
+	public static int PARSING_THREADS = Integer.getInteger("org.eclipse.wst.jsdt.core.indexer.parsingThreads", 1).intValue(); //$NON-NLS-1$
+
+	IFile[] files;
+	IJavaScriptProject project;
+
+	/* documents parsed and not yet added to the index */
+	SearchDocument[] parsedDocuments;
+	int parsedStart = 0, parsedCount = 0;
+	int nextFile = 0;
+	int runningThreads = 0;
+	boolean stopped = false;
+
+	public AddSourcesToIndex(IFile[] files, IPath containerPath, IJavaScriptProject project, IndexManager manager) {
+		super(containerPath, manager);
+		this.files = files;
+		this.project = project;
+	}
+	public void cancel() {
+		super.cancel();
+		synchronized (this) {
+			notifyAll(); // wake up the waiting threads
+		}
+	}
+	public boolean execute(IProgressMonitor progressMonitor) {
+
+		if (this.isCancelled || progressMonitor != null && progressMonitor.isCanceled()) return true;
+		if (!this.project.getProject().isAccessible()) return true; // nothing to do
+
+		/* ensure no concurrent write access to index */
+		final IPath indexLocation = this.manager.computeIndexLocation(this.containerPath);
+		Index index = this.manager.getIndex(this.containerPath, indexLocation, true, /*reuse index file*/ true /*create if none*/);
+		if (index == null) return true;
+		ReadWriteMonitor monitor = index.monitor;
+		if (monitor == null) return true; // index got deleted since acquired
+
+		long start = System.currentTimeMillis();
+		final SearchParticipant participant = SearchEngine.getDefaultSearchParticipant();
+		int length = this.files.length;
+		int threadsCount = Math.min(Math.max(PARSING_THREADS, 1), length);
+		this.parsedDocuments = new SearchDocument[threadsCount * 4];
+		Thread[] threads = new Thread[threadsCount];
+		this.runningThreads = threadsCount;
+		for (int i = 0; i < threadsCount; i++) {
+			threads[i] = new Thread("JavaScript Indexing Parser " + i) { //$NON-NLS-1$
+				public void run() {
+					try {
+						parseDocuments(participant, indexLocation);
+					} finally {
+						synchronized (AddSourcesToIndex.this) {
+							AddSourcesToIndex.this.runningThreads--;
+							AddSourcesToIndex.this.notifyAll();
+						}
+					}
+				}
+			};
+			threads[i].setDaemon(true);
+			threads[i].setPriority(Thread.currentThread().getPriority());
+			threads[i].start();
+		}
+		try {
+			for (int i = 0; i < length; i++) {
+				InternalSearchDocument document = (InternalSearchDocument) nextParsedDocument();
+				if (document == null) return true; // cancelled, or the parser threads died
+				try {
+					monitor.enterWrite(); // ask permission to write
+					document.addRecordedEntriesTo(index);
+				} finally {
+					monitor.exitWrite(); // free write lock
+				}
+			}
+		} finally {
+			synchronized (this) {
+				this.stopped = true; // stop the parser threads
+				notifyAll();
+			}
+			for (int i = 0; i < threadsCount; i++) {
+				try {
+					threads[i].join();
+				} catch (InterruptedException e) {
+					// ignore
+				}
+			}
+		}
+		if (JobManager.VERBOSE)
+			Util.verbose("-> indexed " + length + " files of " + this.containerPath + " with " + threadsCount + " threads in " + (System.currentTimeMillis() - start) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		return true;
+	}
+	/*
+	 * Executed by each parser thread: parses the next documents and records their index entries.
+	 */
+	void parseDocuments(SearchParticipant participant, IPath indexLocation) {
+		SourceElementParser parser = this.manager.getSourceElementParser(this.project, null/*requestor will be set by indexer*/);
+		while (true) {
+			int fileIndex;
+			synchronized (this) {
+				if (this.isCancelled || this.stopped || this.nextFile >= this.files.length) return;
+				fileIndex = this.nextFile++;
+			}
+			SearchDocument document = participant.getDocument(this.files[fileIndex].getFullPath().toString());
+			((InternalSearchDocument) document).parser = parser;
+			((InternalSearchDocument) document).recordIndexEntries();
+			try {
+				participant.indexDocument(document, indexLocation);
+			} catch (RuntimeException e) {
+				Util.log(e, "Error while indexing " + document.getPath()); //$NON-NLS-1$
+			} finally {
+				((InternalSearchDocument) document).parser = null;
+				addParsedDocument(document);
+			}
+		}
+	}
+	private synchronized void addParsedDocument(SearchDocument document) {
+		int capacity = this.parsedDocuments.length;
+		while (this.parsedCount == capacity && !this.isCancelled && !this.stopped) {
+			try {
+				wait(); // until the writer catches up
+			} catch (InterruptedException e) {
+				// ignore
+			}
+		}
+		if (this.isCancelled || this.stopped) return;
+		this.parsedDocuments[(this.parsedStart + this.parsedCount++) % capacity] = document;
+		notifyAll();
+	}
+	private synchronized SearchDocument nextParsedDocument() {
+		while (this.parsedCount == 0 && this.runningThreads > 0 && !this.isCancelled) {
+			try {
+				wait(); // until a parser thread is done with a document
+			} catch (InterruptedException e) {
+				// ignore
+			}
+		}
+		if (this.isCancelled || this.parsedCount == 0) return null;
+		SearchDocument document = this.parsedDocuments[this.parsedStart];
+		this.parsedDocuments[this.parsedStart] = null;
+		this.parsedStart = (this.parsedStart + 1) % this.parsedDocuments.length;
+		this.parsedCount--;
+		notifyAll();
+		return document;
+	}
+	public String toString() {
+		return "indexing " + this.files.length + " files of " + this.containerPath; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
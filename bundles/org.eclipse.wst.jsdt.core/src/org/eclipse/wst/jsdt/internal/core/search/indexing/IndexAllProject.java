@@ -207,9 +207,12 @@ public class IndexAllProject extends IndexRequest {
 				}
 			}
 
-			SourceElementParser parser = this.manager.getSourceElementParser(javaProject, null/*requestor will be set by indexer*/);
+			boolean parseInParallel = AddSourcesToIndex.PARSING_THREADS > 1;
+			SourceElementParser parser = parseInParallel ? null : this.manager.getSourceElementParser(javaProject, null/*requestor will be set by indexer*/);
 			Object[] names = indexedFileNames.keyTable;
 			Object[] values = indexedFileNames.valueTable;
+			IFile[] sources = parseInParallel ? new IFile[indexedFileNames.elementSize] : null;
+			int sourcesCount = 0;
 			for (int i = 0, namesLength = names.length; i < namesLength; i++) {
 				String name = (String) names[i];
 				if (name != null) {
@@ -219,11 +222,18 @@ public class IndexAllProject extends IndexRequest {
 					if (value != OK) {
 						if (value == DELETED)
 							this.manager.remove(name, this.containerPath);
+						else if (parseInParallel)
+							sources[sourcesCount++] = (IFile) value;
 						else
 							this.manager.addSource((IFile) value, this.containerPath, parser);
 					}
 				}
 			}
+			if (sourcesCount > 0) {
+				if (sourcesCount < sources.length)
+					System.arraycopy(sources, 0, sources = new IFile[sourcesCount], 0, sourcesCount);
+				this.manager.request(new AddSourcesToIndex(sources, this.containerPath, javaProject, this.manager));
+			}
 
 			// request to save index when all cus have been indexed... also sets state to SAVED_STATE
 			this.manager.request(new SaveIndex(this.containerPath, this.manager));
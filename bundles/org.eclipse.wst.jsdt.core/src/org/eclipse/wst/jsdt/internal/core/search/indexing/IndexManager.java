@@ -81,6 +81,7 @@ public class IndexManager extends JobManager implements IIndexConstants {
 	public static Integer UNKNOWN_STATE = new Integer(2);
 	public static Integer REBUILDING_STATE = new Integer(3);
 	private static final String INDEX_FILE_SUFFIX = ".index";
+	private static final String LIBRARY_TYPES_FILE_SUFFIX = ".libtypes"; //$NON-NLS-1$
 
 
 public synchronized void aboutToUpdateIndex(IPath containerPath, Integer newIndexState) {
@@ -165,6 +166,14 @@ public IPath computeIndexLocation(IPath containerPath) {
 	}
 	return indexLocation;
 }
+/**
+ * Answers the file in which the snapshot of the types inferred from the library of the given path is kept.
+ */
+public File computeLibraryTypesFile(IPath libraryPath) {
+	CRC32 checksum = new CRC32();
+	checksum.update(libraryPath.toOSString().getBytes());
+	return getJavaPluginWorkingLocation().append(Long.toString(checksum.getValue()) + LIBRARY_TYPES_FILE_SUFFIX).toFile();
+}
 public void deleteIndexFiles() {
 	this.savedIndexNamesFile.delete(); // forget saved indexes & delete each index file
 	deleteIndexFiles(null);
@@ -181,6 +190,11 @@ private void deleteIndexFiles(SimpleSet pathsToKeep) {
 				Util.verbose("Deleting index file " + indexesFiles[i]); //$NON-NLS-1$
 			indexesFiles[i].delete();
 		}
+		else if (pathsToKeep == null && fileName.regionMatches(true, fileName.length() - LIBRARY_TYPES_FILE_SUFFIX.length(), LIBRARY_TYPES_FILE_SUFFIX, 0, LIBRARY_TYPES_FILE_SUFFIX.length())) {
+			if (VERBOSE)
+				Util.verbose("Deleting library types file " + indexesFiles[i]); //$NON-NLS-1$
+			indexesFiles[i].delete();
+		}
 	}
 }
 /*
@@ -212,6 +226,9 @@ public SourceElementParser getSourceElementParser(IJavaScriptProject project, IS
 	parser.javadocParser.checkDocComment = true;
 	parser.javadocParser.reportProblems = false;
 
+	// only index the top level declarations of the minified sources if the project says so
+	parser.summarizeMinifiedUnits = true;
+
 	return parser;
 }
 /**
@@ -459,6 +476,14 @@ public synchronized void jobWasCancelled(IPath containerPath) {
 	}
 	updateIndexState(indexLocation, UNKNOWN_STATE);
 }
+/**
+ * Jobs updating different indexes can be executed concurrently.
+ */
+protected Object jobKey(IJob job) {
+	if (job instanceof IndexRequest)
+		return ((IndexRequest) job).containerPath;
+	return null;
+}
 /**
  * Advance to the next available job, once the current one has been completed.
  * Note: clients awaiting until the job count is zero are still waiting at this point.
@@ -521,6 +546,8 @@ public synchronized Index recreateIndex(IPath containerPath) {
 		IPath indexLocation = computeIndexLocation(containerPath);
 		Index index = getIndex(indexLocation);
 		ReadWriteMonitor monitor = index == null ? null : index.monitor;
+		if (index != null)
+			index.close();
 
 		if (VERBOSE)
 			Util.verbose("-> recreating index: "+indexLocation+" for path: "+containerPathString); //$NON-NLS-1$ //$NON-NLS-2$
@@ -557,6 +584,7 @@ public synchronized void removeIndex(IPath containerPath) {
 	if (index != null) {
 		index.monitor = null;
 		indexFile = index.getIndexFile();
+		index.close();
 	}
 	if (indexFile == null)
 		indexFile = new File(indexLocation.toOSString()); // index is not cached yet, but still want to delete the file
@@ -584,6 +612,7 @@ public synchronized void removeIndexPath(IPath path) {
 			if (locations == null)
 				locations = new IPath[max];
 			locations[count++] = indexLocation;
+			index.close();
 			File indexFile = index.getIndexFile();
 			if (indexFile.exists())
 				indexFile.delete();
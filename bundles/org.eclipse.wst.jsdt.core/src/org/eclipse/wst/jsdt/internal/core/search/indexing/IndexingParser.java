@@ -21,6 +21,7 @@ import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
 
 /*
  * A source element parser that avoids creating unnecessary nodes.
+ * The function bodies are parsed in full, the references they hold are indexed.
  */
 public class IndexingParser extends SourceElementParser {
 	SingleNameReference singleNameReference = new SingleNameReference(CharOperation.NO_CHAR, 0);
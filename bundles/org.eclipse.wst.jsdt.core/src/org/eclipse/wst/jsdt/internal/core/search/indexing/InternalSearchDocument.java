@@ -20,12 +20,24 @@ public class InternalSearchDocument {
 	Index index;
 	private String containerRelativePath;
 	SourceElementParser parser;
+	/* when set, the index entries are recorded instead of being added to the index (see AddSourcesToIndex) */
+	char[][] categories, keys;
+	int entriesCount;
+	boolean removedAllEntries;
 	/*
 	 * Hidden by API SearchDocument subclass
 	 */
 	public void addIndexEntry(char[] category, char[] key) {
-		if (this.index != null)
+		if (this.index != null) {
 			index.addIndexEntry(category, key, getContainerRelativePath());
+		} else if (this.keys != null) {
+			if (this.entriesCount == this.keys.length) {
+				System.arraycopy(this.categories, 0, this.categories = new char[this.entriesCount * 2][], 0, this.entriesCount);
+				System.arraycopy(this.keys, 0, this.keys = new char[this.entriesCount * 2][], 0, this.entriesCount);
+			}
+			this.categories[this.entriesCount] = category;
+			this.keys[this.entriesCount++] = key;
+		}
 	}
 	private String getContainerRelativePath() {
 		if (this.containerRelativePath == null)
@@ -36,8 +48,33 @@ public class InternalSearchDocument {
 	 * Hidden by API SearchDocument subclass
 	 */
 	public void removeAllIndexEntries() {
-		if (this.index != null)
+		if (this.index != null) {
 			index.remove(getContainerRelativePath());
+		} else if (this.keys != null) {
+			this.removedAllEntries = true;
+			this.entriesCount = 0;
+		}
+	}
+	/*
+	 * Records the index entries of this document until they are added to the given index by addRecordedEntriesTo(Index).
+	 */
+	void recordIndexEntries() {
+		this.categories = new char[32][];
+		this.keys = new char[32][];
+		this.entriesCount = 0;
+		this.removedAllEntries = false;
+	}
+	/*
+	 * Must own the write lock of the index monitor.
+	 */
+	void addRecordedEntriesTo(Index targetIndex) {
+		String relativePath = targetIndex.containerRelativePath(getPath());
+		if (this.removedAllEntries)
+			targetIndex.remove(relativePath);
+		for (int i = 0; i < this.entriesCount; i++)
+			targetIndex.addIndexEntry(this.categories[i], this.keys[i], relativePath);
+		this.categories = this.keys = null;
+		this.entriesCount = 0;
 	}
 	/*
 	 * Hidden by API SearchDocument subclass
@@ -13,7 +13,6 @@ package org.eclipse.wst.jsdt.internal.core.search.indexing;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.util.Enumeration;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
@@ -142,8 +141,8 @@ public class SourceIndexer extends AbstractIndexer implements SuffixConstants {
 					// iterate each entry to index it
 					ZipEntry ze = (ZipEntry) e.nextElement();
 					if (Util.isClassFileName(ze.getName())) {
-						final byte[] classFileBytes = org.eclipse.wst.jsdt.internal.compiler.util.Util.getZipEntryByteContent(ze, zip);
-						JavaSearchDocument entryDocument = new JavaSearchDocument(ze, jarPath, ByteBuffer.wrap(classFileBytes).asCharBuffer().array(), participant);
+						final char[] classFileChars = Util.getZipEntryCharContent(ze, zip, Util.UTF_8);
+						JavaSearchDocument entryDocument = new JavaSearchDocument(ze, jarPath, classFileChars, participant);
 						indexManager.indexDocument(entryDocument, participant, index, jarPath);
 					}
 				}
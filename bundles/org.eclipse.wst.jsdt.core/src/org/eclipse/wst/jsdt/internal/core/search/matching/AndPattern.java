@@ -75,6 +75,9 @@ public void findIndexMatches(Index index, IndexQueryRequestor requestor, SearchP
 		if (names[i] != null)
 			((InternalSearchPattern) this).acceptMatch((String) names[i], containerPath, null/*no pattern*/, requestor, participant, scope); // AndPatterns cannot provide the decoded result
 }
+public boolean canQueryIndexesConcurrently() {
+	return false; // the current query is part of this pattern's state
+}
 /**
  * Returns whether another query must be done.
  */
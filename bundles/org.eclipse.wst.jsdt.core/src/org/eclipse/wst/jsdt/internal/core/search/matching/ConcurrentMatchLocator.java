@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.search.matching;
+
+import java.util.ArrayList;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.wst.jsdt.core.infer.InferrenceManager;
+import org.eclipse.wst.jsdt.core.search.SearchMatch;
+import org.eclipse.wst.jsdt.core.search.SearchRequestor;
+import org.eclipse.wst.jsdt.internal.compiler.util.SimpleLookupTable;
+import org.eclipse.wst.jsdt.internal.core.JavaModelManager;
+import org.eclipse.wst.jsdt.internal.core.JavaProject;
+import org.eclipse.wst.jsdt.internal.core.util.HandleFactory;
+
+/**
+ * Locates the matches of the possible matches of a project on several threads.
+ * <p>
+ * The possible matches are split into batches, sized by the {@link MatchLocator#BATCH_SCHEDULER} as
+ * the groups of a serial search are, but shared between the threads. Like these groups, each batch has
+ * its own parser and lookup environment. Each thread locates its batches with its own match locator,
+ * whose pattern locator, handle factory and binding caches are not shared. The matches found in a batch are reported to
+ * the search requestor by the calling thread, batch after batch, so they are reported in the same
+ * order as a serial search reports them.
+ * </p>
+ */
+class ConcurrentMatchLocator {
+	final MatchLocator locator;
+	final JavaProject javaProject;
+	final PossibleMatch[] possibleMatches;
+	/* index of the first possible match of each batch, followed by the number of possible matches */
+	final int[] batchStarts;
+	final int batchesCount;
+	/* matches found in each batch, null until the batch is located */
+	final ArrayList[] batchMatches;
+	/* what interrupted the location of each batch, if any */
+	final Throwable[] failures;
+	Thread[] threads;
+	int nextBatch = 0;
+	boolean stopped = false;
+
+	/*
+	 * A requestor keeping the matches of the batch being located.
+	 */
+	static class MatchCollector extends SearchRequestor {
+		ArrayList matches;
+		public void acceptSearchMatch(SearchMatch match) {
+			this.matches.add(match);
+		}
+	}
+
+	ConcurrentMatchLocator(MatchLocator locator, JavaProject javaProject, PossibleMatch[] possibleMatches) {
+		this.locator = locator;
+		this.javaProject = javaProject;
+		this.possibleMatches = possibleMatches;
+		int length = possibleMatches.length;
+		int threadsCount = Math.min(MatchLocator.LOCATOR_THREADS, length);
+		// as many possible matches are held in memory at once as in a serial search
+		int unitsLimit = Math.max(1, Math.min(MatchLocator.BATCH_SCHEDULER.unitsLimit(MatchLocator.MAX_AT_ONCE) / threadsCount, (length + threadsCount - 1) / threadsCount));
+		long charsBudget = MatchLocator.BATCH_SCHEDULER.charsBudget() / threadsCount;
+		int[] starts = new int[length + 1];
+		int batches = 0;
+		for (int index = 0; index < length; batches++) {
+			starts[batches] = index;
+			int count = 0;
+			long chars = 0;
+			while (count < unitsLimit && index < length) {
+				long size = possibleMatches[index].getSourceSize();
+				if (count > 0 && chars + size > charsBudget) break;
+				chars += size;
+				count++;
+				index++;
+			}
+		}
+		starts[batches] = length;
+		System.arraycopy(starts, 0, this.batchStarts = new int[batches + 1], 0, batches + 1);
+		this.batchesCount = batches;
+		this.batchMatches = new ArrayList[this.batchesCount];
+		this.failures = new Throwable[this.batchesCount];
+	}
+
+	/**
+	 * Locates the matches of all the batches and reports them in order.
+	 */
+	void locateMatches() throws CoreException {
+		start();
+		try {
+			for (int i = 0; i < this.batchesCount; i++) {
+				ArrayList matches = batchMatches(i);
+				MatchLocator main = this.locator;
+				for (int j = 0, size = matches.size(); j < size; j++)
+					main.report((SearchMatch) matches.get(j));
+				for (int j = this.batchStarts[i], end = this.batchStarts[i + 1]; j < end; j++) {
+					this.possibleMatches[j] = null; // release reference to processed possible match
+					if (main.progressMonitor != null) {
+						main.progressWorked++;
+						if ((main.progressWorked%main.progressStep)==0) main.progressMonitor.worked(main.progressStep);
+					}
+				}
+			}
+		} finally {
+			stop();
+		}
+	}
+
+	private void start() {
+		// the inference providers are loaded lazily by a singleton which is not thread safe
+		InferrenceManager.getInstance().getInferenceProviders();
+
+		int threadsCount = Math.min(MatchLocator.LOCATOR_THREADS, this.batchesCount);
+		this.threads = new Thread[threadsCount];
+		for (int i = 0; i < threadsCount; i++) {
+			final MatchLocator batchLocator = newBatchLocator();
+			this.threads[i] = new Thread("JavaScript Search Match Locator " + i) { //$NON-NLS-1$
+				public void run() {
+					locateBatches(batchLocator);
+				}
+			};
+			this.threads[i].setDaemon(true);
+			this.threads[i].setPriority(Thread.currentThread().getPriority());
+			this.threads[i].start();
+		}
+	}
+
+	private MatchLocator newBatchLocator() {
+		final MatchLocator main = this.locator;
+		MatchLocator batchLocator = new MatchLocator(
+			main.pattern,
+			new MatchCollector(),
+			main.scope,
+			main.progressMonitor == null ? null : new NullProgressMonitor() {
+				public boolean isCanceled() {
+					return main.progressMonitor.isCanceled();
+				}
+			});
+		batchLocator.patternLocator.initializePolymorphicSearch(main.patternLocator);
+		batchLocator.workingCopies = main.workingCopies;
+		batchLocator.handleFactory = new HandleFactory();
+		batchLocator.bindings = new SimpleLookupTable();
+		batchLocator.progressStep = 1; // the progress is reported by the main locator
+		return batchLocator;
+	}
+
+	/*
+	 * Executed by each thread: locates the matches of the next batch until all batches are located.
+	 */
+	void locateBatches(MatchLocator batchLocator) {
+		JavaModelManager manager = JavaModelManager.getJavaModelManager();
+		// the zip files are cached per thread
+		manager.cacheZipFiles();
+		try {
+			while (true) {
+				int batchIndex;
+				synchronized (this) {
+					if (this.stopped || this.nextBatch >= this.batchesCount) return;
+					batchIndex = this.nextBatch++;
+				}
+				MatchCollector collector = (MatchCollector) batchLocator.requestor;
+				collector.matches = new ArrayList();
+				Throwable failure = null;
+				try {
+					int start = this.batchStarts[batchIndex];
+					batchLocator.locateMatches(this.javaProject, this.possibleMatches, start, this.batchStarts[batchIndex + 1] - start);
+				} catch (CoreException e) {
+					failure = e;
+				} catch (RuntimeException e) {
+					failure = e;
+				} catch (Error e) {
+					failure = e;
+				}
+				synchronized (this) {
+					this.batchMatches[batchIndex] = collector.matches;
+					this.failures[batchIndex] = failure;
+					notifyAll();
+				}
+			}
+		} finally {
+			if (batchLocator.nameEnvironment != null)
+				batchLocator.nameEnvironment.cleanup();
+			batchLocator.patternLocator.clear();
+			manager.flushZipFiles();
+		}
+	}
+
+	/*
+	 * Answer the matches of the given batch once located, rethrowing what interrupted its location if any.
+	 */
+	private synchronized ArrayList batchMatches(int batchIndex) throws CoreException {
+		while (this.batchMatches[batchIndex] == null) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				// ignore
+			}
+		}
+		ArrayList matches = this.batchMatches[batchIndex];
+		Throwable failure = this.failures[batchIndex];
+		this.batchMatches[batchIndex] = null; // no longer hold onto the matches
+		this.failures[batchIndex] = null;
+		if (failure instanceof CoreException)
+			throw (CoreException) failure;
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		if (failure instanceof Error)
+			throw (Error) failure;
+		return matches;
+	}
+
+	private void stop() {
+		synchronized (this) {
+			this.stopped = true;
+		}
+		for (int i = 0, length = this.threads.length; i < length; i++) {
+			try {
+				this.threads[i].join();
+			} catch (InterruptedException e) {
+				// ignore
+			}
+		}
+	}
+}
@@ -113,6 +113,67 @@ public abstract class InternalSearchPattern {
 			index.stopQuery();
 		}
 	}
+	/**
+	 * Query a given index for matching entries and decode them without notifying any requestor.
+	 * Answers the decoded pattern followed by the names of its documents for each matching entry,
+	 * or null if there is none. The results are reported later using acceptIndexMatches(...).
+	 *
+	 * Unlike findIndexMatches(...), this can be called on several indexes at the same time
+	 * as long as canQueryIndexesConcurrently() answers true.
+	 */
+	public Object[] collectIndexMatches(Index index, IProgressMonitor monitor) throws IOException {
+		if (monitor != null && monitor.isCanceled()) throw new OperationCanceledException();
+		try {
+			index.startQuery();
+			SearchPattern pattern = currentPattern();
+			EntryResult[] entries = ((InternalSearchPattern)pattern).queryIn(index);
+			if (entries == null) return null;
+
+			Object[] matches = new Object[entries.length * 2];
+			int count = 0;
+			SearchPattern decodedResult = pattern.getBlankPattern();
+			for (int i = 0, l = entries.length; i < l; i++) {
+				if (monitor != null && monitor.isCanceled()) throw new OperationCanceledException();
+
+				EntryResult entry = entries[i];
+				decodedResult.decodeIndexKey(entry.getWord());
+				if (pattern.matchesDecodedKey(decodedResult)) {
+					matches[count++] = decodedResult;
+					matches[count++] = entry.getDocumentNames(index);
+					decodedResult = pattern.getBlankPattern(); // the decoded result is kept until the matches are accepted
+				}
+			}
+			if (count == 0) return null;
+			if (count < matches.length)
+				System.arraycopy(matches, 0, matches = new Object[count], 0, count);
+			return matches;
+		} finally {
+			index.stopQuery();
+		}
+	}
+	/**
+	 * Reports the matches answered by collectIndexMatches(...) for the given container to the requestor.
+	 */
+	public void acceptIndexMatches(Object[] matches, String containerPath, IndexQueryRequestor requestor, SearchParticipant participant, IJavaScriptSearchScope scope, IProgressMonitor monitor) {
+		for (int i = 0, l = matches.length; i < l; i += 2) {
+			if (monitor != null && monitor.isCanceled()) throw new OperationCanceledException();
+
+			SearchPattern decodedResult = (SearchPattern) matches[i];
+			String[] names = (String[]) matches[i + 1];
+			for (int j = 0, n = names.length; j < n; j++) {
+				if(!scope.shouldExclude(containerPath, names[j]))
+					acceptMatch(names[j], containerPath, decodedResult, requestor, participant, scope);
+			}
+		}
+	}
+	/**
+	 * Returns whether collectIndexMatches(...) can query several indexes at the same time.
+	 * Patterns which change their own state while querying an index, or which do not use the default
+	 * findIndexMatches(...), must answer false.
+	 */
+	public boolean canQueryIndexesConcurrently() {
+		return true;
+	}
 	boolean isPolymorphicSearch() {
 		return false;
 	}
@@ -79,6 +79,9 @@ public void findIndexMatches(Index index, IndexQueryRequestor requestor, SearchP
 		super.findIndexMatches( index,  requestor,  participant,  scope,  progressMonitor);
 	}
 }
+public boolean canQueryIndexesConcurrently() {
+	return this.localVariable == null; // a local variable is matched without querying the index
+}
 
 
 protected static char[][] REF_CATEGORIES = { REF };
@@ -136,6 +136,7 @@ import org.eclipse.wst.jsdt.internal.core.search.HierarchyScope;
 import org.eclipse.wst.jsdt.internal.core.search.IndexQueryRequestor;
 import org.eclipse.wst.jsdt.internal.core.search.IndexSelector;
 import org.eclipse.wst.jsdt.internal.core.search.JavaSearchDocument;
+import org.eclipse.wst.jsdt.internal.core.util.BatchScheduler;
 import org.eclipse.wst.jsdt.internal.core.util.HandleFactory;
 import org.eclipse.wst.jsdt.internal.core.util.Util;
 import org.eclipse.wst.jsdt.internal.oaametadata.LibraryAPIs;
@@ -163,6 +164,12 @@ static {
 	}
 }
 
+/* sizes the groups of possible matches located at once, at most MAX_AT_ONCE */
+static final BatchScheduler BATCH_SCHEDULER = new BatchScheduler("search"); //$NON-NLS-1$
+
+/* number of threads locating the possible matches of a project, see ConcurrentMatchLocator */
+public static int LOCATOR_THREADS = Integer.getInteger("org.eclipse.wst.jsdt.core.search.locatorThreads", 1).intValue(); //$NON-NLS-1$
+
 // permanent state
 public SearchPattern pattern;
 public PatternLocator patternLocator;
@@ -1182,11 +1189,27 @@ protected void locateMatches(JavaProject javaProject, PossibleMatchSet matchSet,
 		this.progressWorked += expected-length;
 		this.progressMonitor.worked( expected-length);
 	}
+	if (LOCATOR_THREADS > 1 && length > 1) {
+		new ConcurrentMatchLocator(this, javaProject, possibleMatches).locateMatches();
+		this.patternLocator.clear();
+		return;
+	}
 	// locate matches (processed matches are limited to avoid problem while using VM default memory heap size)
 	for (int index = 0; index < length;) {
-		int max = Math.min(MAX_AT_ONCE, length - index);
-		locateMatches(javaProject, possibleMatches, index, max);
-		index += max;
+		long usedBefore = BatchScheduler.usedMemory();
+		long charsBudget = BATCH_SCHEDULER.charsBudget();
+		int max = Math.min(BATCH_SCHEDULER.unitsLimit(MAX_AT_ONCE), length - index);
+		int count = 0;
+		long chars = 0;
+		while (count < max) {
+			long size = possibleMatches[index + count].getSourceSize();
+			if (count > 0 && chars + size > charsBudget) break;
+			chars += size;
+			count++;
+		}
+		locateMatches(javaProject, possibleMatches, index, count);
+		BATCH_SCHEDULER.batchDone(count, chars, usedBefore);
+		index += count;
 	}
 	this.patternLocator.clear();
 }
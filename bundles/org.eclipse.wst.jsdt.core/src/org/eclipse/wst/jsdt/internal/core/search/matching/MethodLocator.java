@@ -89,6 +89,9 @@ public void initializePolymorphicSearch(MatchLocator locator) {
 		System.out.println("Time to initialize polymorphic search: "+(System.currentTimeMillis()-start)); //$NON-NLS-1$
 	}
 }
+public void initializePolymorphicSearch(PatternLocator initialized) {
+	this.allSuperDeclaringTypeNames = ((MethodLocator) initialized).allSuperDeclaringTypeNames;
+}
 /*
  * Return whether a type name is in pattern all super declaring types names.
  */
@@ -118,6 +118,14 @@ public class MultiTypeDeclarationPattern extends TypeDeclarationPattern {
 		return foundMatch;
 	}
 
+	/**
+	 * @see org.eclipse.wst.jsdt.internal.core.search.matching.InternalSearchPattern#canQueryIndexesConcurrently()
+	 */
+	public boolean canQueryIndexesConcurrently() {
+		// queryIn(Index) sets the simple name and qualification of each type in turn
+		return false;
+	}
+
 	/**
 	 * <p>Iterates over all of the types names to match on for this pattern and then uses {@link TypeDeclarationPattern#queryIn(Index)}
 	 * to actually do the querying.</p>
@@ -62,6 +62,10 @@ public class OrPattern extends SearchPattern implements IIndexConstants {
 		}
 	}
 
+	public boolean canQueryIndexesConcurrently() {
+		return false; // no blank pattern to decode the entries of the sub-patterns
+	}
+
 	public SearchPattern getBlankPattern() {
 		return null;
 	}
@@ -200,6 +200,13 @@ protected TypeBinding getTypeNameBinding(int index) {
 public void initializePolymorphicSearch(MatchLocator locator) {
 	// default is to do nothing
 }
+/**
+ * Initializes the polymorphic search of this locator as the given locator of the same pattern
+ * was initialized, so that several match locators can search the same pattern concurrently.
+ */
+public void initializePolymorphicSearch(PatternLocator initialized) {
+	// default is to do nothing
+}
 /**
  * Check if the given ast node syntactically matches this pattern.
  * If it does, add it to the match set.
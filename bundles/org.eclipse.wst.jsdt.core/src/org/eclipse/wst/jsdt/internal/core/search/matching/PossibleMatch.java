@@ -20,6 +20,7 @@ import org.eclipse.wst.jsdt.internal.core.ClassFile;
 import org.eclipse.wst.jsdt.internal.core.CompilationUnit;
 import org.eclipse.wst.jsdt.internal.core.Openable;
 import org.eclipse.wst.jsdt.internal.core.PackageFragment;
+import org.eclipse.wst.jsdt.internal.core.util.BatchScheduler;
 import org.eclipse.wst.jsdt.internal.core.util.Util;
 
 public class PossibleMatch implements ICompilationUnit {
@@ -52,6 +53,15 @@ public void cleanUp() {
 	}
 	this.nodeSet = null;
 }
+/*
+ * Answers the size of the source of this possible match, or 0 if unknown.
+ */
+long getSourceSize() {
+	if (this.resource != null && this.resource.getType() == IResource.FILE)
+		return BatchScheduler.sourceSize(this.resource);
+	// library file outside of the workspace
+	return BatchScheduler.sourceSize(this.openable.getPath());
+}
 public boolean equals(Object obj) {
 	if (this.compoundName == null) return super.equals(obj);
 	if (!(obj instanceof PossibleMatch)) return false;
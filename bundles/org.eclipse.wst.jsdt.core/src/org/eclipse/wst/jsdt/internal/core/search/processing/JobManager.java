@@ -41,6 +41,70 @@ public abstract class JobManager implements Runnable {
 
 	private int awaitingClients = 0;
 
+	/* number of threads executing background jobs, jobs are processed one after the other by the processing thread if 1 or less */
+	public static int WORKER_THREADS = Integer.getInteger("org.eclipse.wst.jsdt.core.indexer.workerThreads", 1).intValue(); //$NON-NLS-1$
+
+	/* worker threads, only when WORKER_THREADS > 1 */
+	private Worker[] workers;
+	/* job executed by each worker and its key (see jobKey(IJob)), null when the worker is idle */
+	private IJob[] workerJobs;
+	private Object[] workerJobKeys;
+	private int runningJobsCount = 0;
+
+	/**
+	 * Executes the jobs handed over by the processing thread, see dispatch(IJob).
+	 */
+	class Worker extends Thread {
+		int slot;
+		/* the arrays of the job manager when the worker was started, which are nulled when it is shutdown */
+		IJob[] jobs;
+		Object[] jobKeys;
+
+		Worker(int slot) {
+			super(processName() + " " + slot); //$NON-NLS-1$
+			this.slot = slot;
+			this.jobs = JobManager.this.workerJobs;
+			this.jobKeys = JobManager.this.workerJobKeys;
+			setDaemon(true);
+			setPriority(Thread.NORM_PRIORITY-1);
+		}
+		public void run() {
+			while (true) {
+				IJob job;
+				synchronized (JobManager.this) {
+					while ((job = this.jobs[this.slot]) == null) {
+						if (JobManager.this.workerJobs != this.jobs) return; // workers were stopped
+						try {
+							JobManager.this.wait();
+						} catch (InterruptedException e) {
+							// ignore
+						}
+					}
+				}
+				long start = System.currentTimeMillis();
+				try {
+					job.execute(null);
+				} catch (Throwable e) {
+					if (e instanceof ThreadDeath)
+						throw (ThreadDeath) e;
+					// log exception and forget the job, its index will be rebuilt
+					// errors too, e.g. a StackOverflowError: the worker would die while its slot looks idle
+					Util.log(e, "Background Indexer Crash Recovery"); //$NON-NLS-1$
+					job.cancel();
+				} finally {
+					synchronized (JobManager.this) {
+						this.jobs[this.slot] = null;
+						this.jobKeys[this.slot] = null;
+						JobManager.this.runningJobsCount--;
+						JobManager.this.notifyAll(); // wake up the processing thread and the awaiting clients
+					}
+					if (VERBOSE)
+						Util.verbose("FINISHED background job - " + job + " (" + (System.currentTimeMillis() - start) + "ms, " + awaitingJobsCount() + " awaiting jobs) - " + getName()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				}
+			}
+		}
+	}
+
 	/**
 	 * Invoked exactly once, in background, before starting processing any job
 	 */
@@ -52,7 +116,7 @@ public abstract class JobManager implements Runnable {
 	 */
 	public synchronized int awaitingJobsCount() {
 		// pretend busy in case concurrent job attempts performing before activated
-		return this.activated ? this.jobEnd - this.jobStart + 1 : 1;
+		return this.activated ? this.jobEnd - this.jobStart + 1 + this.runningJobsCount : 1;
 	}
 	/**
 	 * Answers the first job in the queue, or null if there is no job available
@@ -88,13 +152,35 @@ public abstract class JobManager implements Runnable {
 				currentJob.cancel();
 
 				// wait until current active job has finished
-				while (this.processingThread != null && this.executing){
-					try {
-						if (VERBOSE)
-							Util.verbose("-> waiting end of current background job - " + currentJob); //$NON-NLS-1$
-						Thread.sleep(50);
-					} catch(InterruptedException e){
-						// ignore
+				synchronized (this) {
+					while (this.processingThread != null && this.executing){
+						try {
+							if (VERBOSE)
+								Util.verbose("-> waiting end of current background job - " + currentJob); //$NON-NLS-1$
+							wait();
+						} catch(InterruptedException e){
+							// ignore
+						}
+					}
+				}
+			}
+			// cancel the jobs of the given family executed by the workers, and wait until they have finished
+			synchronized (this) {
+				if (this.workerJobs != null) {
+					for (int i = 0, length = this.workerJobs.length; i < length; i++) {
+						IJob job = this.workerJobs[i];
+						if (job != null && (jobFamily == null || job.belongsTo(jobFamily))) {
+							if (VERBOSE)
+								Util.verbose("-> waiting end of background job - " + job); //$NON-NLS-1$
+							job.cancel();
+							while (this.workerJobs != null && this.workerJobs[i] == job) {
+								try {
+									wait();
+								} catch(InterruptedException e){
+									// ignore
+								}
+							}
+						}
 					}
 				}
 			}
@@ -135,6 +221,49 @@ public abstract class JobManager implements Runnable {
 			if (request.equals(this.awaitingJobs[i])) return true;
 		return false;
 	}
+	/**
+	 * Answers the key of the index, or of any other resource, updated by the given job.
+	 * When several worker threads are used, jobs with different keys are executed at the same time,
+	 * and jobs with the same key one after the other in the order they were requested.
+	 * Jobs without a key (the default) are executed by the processing thread once all the other jobs are finished.
+	 */
+	protected Object jobKey(IJob job) {
+		return null;
+	}
+	/**
+	 * Hands the given job, which is the current one, over to an idle worker as soon as no job with the
+	 * same key is running. Answers false if the job has no key and must be executed by the processing thread
+	 * now that no worker is running, or true once the job was handed over, discarded or the job manager was shutdown.
+	 */
+	private synchronized boolean dispatch(IJob job) throws InterruptedException {
+		Object key = jobKey(job);
+		while (this.processingThread != null && currentJob() == job) {
+			int idle = -1;
+			boolean conflict = false;
+			for (int i = 0, length = this.workerJobs.length; i < length; i++) {
+				if (this.workerJobs[i] == null) {
+					if (idle < 0) idle = i;
+				} else if (key == null || key.equals(this.workerJobKeys[i])) {
+					conflict = true;
+				}
+			}
+			if (!conflict) {
+				if (key == null) return false;
+				if (idle >= 0) {
+					if (VERBOSE)
+						Util.verbose("STARTING background job - " + job + " - " + this.workers[idle].getName()); //$NON-NLS-1$ //$NON-NLS-2$
+					this.workerJobs[idle] = job;
+					this.workerJobKeys[idle] = key;
+					this.runningJobsCount++;
+					moveToNextJob();
+					notifyAll(); // wake up the worker
+					return true;
+				}
+			}
+			wait(); // until a worker is done
+		}
+		return true;
+	}
 	/**
 	 * Advance to the next available job, once the current one has been completed.
 	 * Note: clients awaiting until the job count is zero are still waiting at this point.
@@ -149,6 +278,7 @@ public abstract class JobManager implements Runnable {
 				this.jobEnd = -1;
 			}
 		}
+		notifyAll(); // wake up the awaiting clients
 	}
 	/**
 	 * When idle, give chance to do something
@@ -259,7 +389,11 @@ public abstract class JobManager implements Runnable {
 									try {
 										if (VERBOSE)
 											Util.verbose("-> GOING TO SLEEP - " + searchJob);//$NON-NLS-1$
-										Thread.sleep(50);
+										synchronized (this) {
+											// woken up when a job is done, still wake up regularly to check for cancellation
+											if (awaitingJobsCount() > 0)
+												wait(50);
+										}
 									} catch (InterruptedException e) {
 										// ignore
 									}
@@ -331,6 +465,7 @@ public abstract class JobManager implements Runnable {
 
 		long idlingStart = -1;
 		activateProcessing();
+		startWorkers();
 		try {
 			class ProgressJob extends Job {
 				ProgressJob(String name) {
@@ -359,6 +494,10 @@ public abstract class JobManager implements Runnable {
 
 						// must check for new job inside this sync block to avoid timing hole
 						if ((job = currentJob()) == null) {
+							if (this.runningJobsCount > 0) {
+								this.wait(); // not idle until the workers are done
+								continue;
+							}
 							if (this.progressJob != null) {
 								this.progressJob.cancel();
 								this.progressJob = null;
@@ -378,24 +517,30 @@ public abstract class JobManager implements Runnable {
 						Thread.sleep(500);
 						continue;
 					}
+					if (this.progressJob == null) {
+						this.progressJob = new ProgressJob(Messages.manager_indexingInProgress);
+						this.progressJob.setPriority(Job.LONG);
+						this.progressJob.setSystem(true);
+						this.progressJob.schedule();
+					}
+					if (this.workers != null && dispatch(job))
+						continue; // handed over to a worker
 					if (VERBOSE) {
 						Util.verbose(awaitingJobsCount() + " awaiting jobs"); //$NON-NLS-1$
 						Util.verbose("STARTING background job - " + job); //$NON-NLS-1$
 					}
+					long start = System.currentTimeMillis();
 					try {
 						this.executing = true;
-						if (this.progressJob == null) {
-							this.progressJob = new ProgressJob(Messages.manager_indexingInProgress);
-							this.progressJob.setPriority(Job.LONG);
-							this.progressJob.setSystem(true);
-							this.progressJob.schedule();
-						}
 						/*boolean status = */job.execute(null);
 						//if (status == FAILED) request(job);
 					} finally {
-						this.executing = false;
+						synchronized (this) {
+							this.executing = false;
+							notifyAll(); // wake up the clients waiting in discardJobs(String)
+						}
 						if (VERBOSE)
-							Util.verbose("FINISHED background job - " + job); //$NON-NLS-1$
+							Util.verbose("FINISHED background job - " + job + " (" + (System.currentTimeMillis() - start) + "ms)"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 						moveToNextJob();
 						if (this.awaitingClients == 0)
 							Thread.sleep(50);
@@ -427,6 +572,22 @@ public abstract class JobManager implements Runnable {
 			throw e;
 		}
 	}
+	/**
+	 * Starts the worker threads if more than one are needed, and they are not running yet.
+	 */
+	private synchronized void startWorkers() {
+		if (WORKER_THREADS <= 1 || this.workers != null) return;
+
+		this.workerJobs = new IJob[WORKER_THREADS];
+		this.workerJobKeys = new Object[WORKER_THREADS];
+		this.workers = new Worker[WORKER_THREADS];
+		for (int i = 0; i < WORKER_THREADS; i++) {
+			this.workers[i] = new Worker(i);
+			this.workers[i].start();
+		}
+		if (VERBOSE)
+			Util.verbose("Started " + WORKER_THREADS + " worker threads"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
 	/**
 	 * Stop background processing, and wait until the current job is completed before returning
 	 */
@@ -447,6 +608,17 @@ public abstract class JobManager implements Runnable {
 				// in case processing thread is handling a job
 				thread.join();
 			}
+			Worker[] stoppedWorkers;
+			synchronized (this) {
+				stoppedWorkers = this.workers;
+				this.workers = null;
+				this.workerJobs = null;
+				this.workerJobKeys = null;
+				this.notifyAll(); // the idle workers will stop by themselves
+			}
+			if (stoppedWorkers != null)
+				for (int i = 0, length = stoppedWorkers.length; i < length; i++)
+					stoppedWorkers[i].join();
 			Job job = this.progressJob;
 			if (job != null) {
 				job.cancel();
@@ -464,6 +636,13 @@ public abstract class JobManager implements Runnable {
 		for (int i = 0; i < numJobs && i < 15; i++) {
 			buffer.append(i).append(" - job["+i+"]: ").append(this.awaitingJobs[this.jobStart+i]).append('\n'); //$NON-NLS-1$ //$NON-NLS-2$
 		}
+		if (this.workerJobs != null) {
+			buffer.append("Running jobs:").append(this.runningJobsCount).append('\n'); //$NON-NLS-1$
+			for (int i = 0, length = this.workerJobs.length; i < length; i++) {
+				if (this.workerJobs[i] != null)
+					buffer.append(this.workers[i].getName()).append(": ").append(this.workerJobs[i]).append('\n'); //$NON-NLS-1$
+			}
+		}
 		return buffer.toString();
 	}
 }
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.util;
+
+import java.io.File;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Sizes the batches of units processed at once by the builder or the search, from the size
+ * of their source and the free heap.
+ * <p>
+ * A batch holds at most the number of characters of source that the free heap is estimated to
+ * hold once parsed and resolved. The heap used per character of source is measured after each
+ * batch. The number of units of a batch is bounded by a maximum which is halved when a batch
+ * leaves little free heap, and which grows back to the given maximum afterwards.
+ * </p>
+ * Usage:
+ * <pre>
+ * long usedBefore = BatchScheduler.usedMemory();
+ * long budget = scheduler.charsBudget();
+ * int limit = scheduler.unitsLimit(MAX_AT_ONCE);
+ * // add units while fewer than limit and their source is within budget, the first unit is always added
+ * ...
+ * scheduler.batchDone(units, chars, usedBefore);
+ * </pre>
+ */
+public class BatchScheduler {
+	public static boolean VERBOSE = false;
+
+	/* part of the free heap a batch is expected to use: 1/HEADROOM_DIVISOR */
+	private static final int HEADROOM_DIVISOR = 2;
+	/* part of the heap which must stay free after a batch: 1/PRESSURE_DIVISOR */
+	private static final int PRESSURE_DIVISOR = 4;
+	/* initial and minimum estimates of the heap used per character of source */
+	private static final long INITIAL_BYTES_PER_CHAR = 100;
+	private static final long MIN_BYTES_PER_CHAR = 10;
+
+	private final String name;
+	private long bytesPerChar = INITIAL_BYTES_PER_CHAR;
+	/* current maximum number of units of a batch, -1 until known */
+	private int unitsLimit = -1;
+
+	public BatchScheduler(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Answers the heap currently used.
+	 */
+	public static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Answers the size of the source of the given file, or 0 if it is not a local file.
+	 */
+	public static long sourceSize(IResource resource) {
+		if (resource == null || resource.getType() != IResource.FILE) return 0;
+		return sourceSize(resource.getLocation());
+	}
+
+	/**
+	 * Answers the size of the file at the given location in the file system, or 0 if there is no such file.
+	 */
+	public static long sourceSize(IPath location) {
+		if (location == null) return 0;
+		return new File(location.toOSString()).length();
+	}
+
+	/**
+	 * Answers the number of characters of source the next batch may hold.
+	 */
+	public synchronized long charsBudget() {
+		long headroom = Runtime.getRuntime().maxMemory() - usedMemory();
+		return Math.max(0, headroom / HEADROOM_DIVISOR / this.bytesPerChar);
+	}
+
+	/**
+	 * Answers the number of units the next batch may hold, at most the given maximum.
+	 */
+	public synchronized int unitsLimit(int maxUnits) {
+		if (this.unitsLimit < 0 || this.unitsLimit > maxUnits)
+			this.unitsLimit = maxUnits;
+		return this.unitsLimit;
+	}
+
+	/**
+	 * Records that a batch of the given number of units and characters of source was processed,
+	 * the heap used before it being given.
+	 */
+	public synchronized void batchDone(int units, long chars, long usedBefore) {
+		long used = usedMemory();
+		long growth = used - usedBefore;
+		// a negative growth means that a garbage collection happened, nothing is learned
+		if (growth > 0 && chars > 0)
+			this.bytesPerChar = Math.max(MIN_BYTES_PER_CHAR, (this.bytesPerChar + growth / chars) / 2);
+		long maxMemory = Runtime.getRuntime().maxMemory();
+		int previousLimit = this.unitsLimit;
+		if (maxMemory - used < maxMemory / PRESSURE_DIVISOR) {
+			// little heap left: shrink the batches
+			this.unitsLimit = Math.max(1, Math.min(this.unitsLimit, units) / 2);
+		} else if (units >= this.unitsLimit) {
+			// grow back after shrinking, up to the maximum of unitsLimit(int)
+			this.unitsLimit += Math.max(1, this.unitsLimit / 4);
+		}
+		if (VERBOSE) {
+			Util.verbose("BatchScheduler " + this.name + " - batch of " + units + " units, " + chars + " chars, heap growth " + growth //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				+ " bytes, estimated " + this.bytesPerChar + " bytes/char, units limit " + previousLimit + " -> " + this.unitsLimit); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+}
@@ -128,6 +128,49 @@ public class CodeSnippetParsingUtil {
 		return compilationUnitDeclaration;
 	}
 
+	/**
+	 * Parses the given unit without the bodies of the functions which do not intersect the given region,
+	 * see {@link org.eclipse.wst.jsdt.internal.compiler.parser.Parser#getMethodBodies(CompilationUnitDeclaration, int, int)}.
+	 */
+	public CompilationUnitDeclaration parseCompilationUnit(char[] source, int regionOffset, int regionLength, Map settings, boolean recordParsingInformation) {
+		if (source == null) {
+			throw new IllegalArgumentException();
+		}
+		CompilerOptions compilerOptions = new CompilerOptions(settings);
+		CommentRecorderParser parser =
+			new CommentRecorderParser(
+				new ProblemReporter(
+					DefaultErrorHandlingPolicies.proceedWithAllProblems(),
+					compilerOptions,
+					new DefaultProblemFactory(Locale.getDefault())),
+			false);
+
+		ICompilationUnit sourceUnit =
+			new CompilationUnit(
+				source,
+				"", //$NON-NLS-1$
+				compilerOptions.defaultEncoding);
+		final CompilationResult compilationResult = new CompilationResult(sourceUnit, 0, 0, compilerOptions.maxProblemsPerUnit);
+		CompilationUnitDeclaration compilationUnitDeclaration = parser.lazyParse(sourceUnit, compilationResult);
+
+		if (recordParsingInformation) {
+			this.recordedParsingInformation = getRecordedParsingInformation(compilationResult, parser);
+		}
+
+		if (compilationUnitDeclaration.ignoreMethodBodies) {
+			compilationUnitDeclaration.ignoreFurtherInvestigation = true;
+			// if initial diet parse did not work, no need to dig into method bodies.
+			return compilationUnitDeclaration;
+		}
+
+		parser.getMethodBodies(compilationUnitDeclaration, regionOffset, regionOffset + regionLength - 1);
+
+		if (recordParsingInformation) {
+			this.recordedParsingInformation.updateRecordedParsingInformation(compilationResult);
+		}
+		return compilationUnitDeclaration;
+	}
+
 	public Expression parseExpression(char[] source, Map settings, boolean recordParsingInformation) {
 		return parseExpression(source, 0, source.length, settings, recordParsingInformation);
 	}
@@ -26,6 +26,8 @@ import java.util.Hashtable;
  *
  * <p>This implementation is NOT thread-safe.  Synchronization wrappers would
  * have to be added to ensure atomic insertions and deletions from the cache.
+ * Only <code>#getConcurrently(Object)</code> and <code>#peek(Object)</code> may be
+ * called while another thread changes the cache.
  *
  * @see org.eclipse.wst.jsdt.internal.core.util.ILRUCacheable
  */
@@ -61,6 +63,11 @@ public class LRUCache implements Cloneable {
 		 */
 		public int _fSpace;
 
+		/**
+		 * Whether the entry was used by <code>#getConcurrently(Object)</code> since it was queued
+		 */
+		public volatile boolean _fUsed;
+
 		/**
 		 * Previous entry in queue
 		 */
@@ -211,6 +218,29 @@ public class LRUCache implements Cloneable {
 		this.updateTimestamp (entry);
 		return entry._fValue;
 	}
+	/**
+	 * Answers the value in the cache at the given key.
+	 * If the value is not in the cache, returns null
+	 *
+	 * Unlike <code>#get(Object)</code>, this function does not change the queue, so
+	 * it may be called while another thread changes the cache. The entry is only
+	 * marked as used, and it is queued again instead of being removed the next time
+	 * the cache makes space.
+	 *
+	 * @param key Hash table key of object to retrieve
+	 * @return Retreived object, or null if object does not exist
+	 */
+	public Object getConcurrently(Object key) {
+		LRUCacheEntry entry = (LRUCacheEntry) fEntryTable.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (!entry._fUsed) {
+			// only written once, the entries most used are read by several threads
+			entry._fUsed = true;
+		}
+		return entry._fValue;
+	}
 	/**
 	 * Returns the amount of space that is current used in the cache.
 	 */
@@ -280,9 +310,16 @@ public class LRUCache implements Cloneable {
 			return false;
 		}
 
-		/* Free up space by removing oldest entries */
+		/* Free up space by removing oldest entries, unless used since they were queued */
+		int requeued = fEntryTable.size();
 		while (fCurrentSpace + space > limit && fEntryQueueTail != null) {
-			this.privateRemoveEntry (fEntryQueueTail, false);
+			LRUCacheEntry entry = fEntryQueueTail;
+			if (entry._fUsed && requeued-- > 0) {
+				this.privateRemoveEntry (entry, true);
+				this.privateAddEntry (entry, true);
+			} else {
+				this.privateRemoveEntry (entry, false);
+			}
 		}
 		return true;
 	}
@@ -329,6 +366,7 @@ public class LRUCache implements Cloneable {
 		}
 
 		entry._fTimestamp = fTimestampCounter++;
+		if (entry._fUsed) entry._fUsed = false;
 		entry._fNext = this.fEntryQueue;
 		entry._fPrevious = null;
 
@@ -167,6 +167,10 @@ public class CodeFormatterVisitor extends ASTVisitor {
 	private Scanner localScanner;
 	public DefaultCodeFormatterOptions preferences;
 	public Scribe scribe;
+	// the statements which do not touch the region to format are jumped over, see skipStatements(ProgramElement[], int)
+	private boolean formatRegionOnly;
+	private int regionStart;
+	private int regionEnd;
 
 	public CodeFormatterVisitor(DefaultCodeFormatterOptions preferences, Map settings, int offset, int length, CodeSnippetParsingUtil codeSnippetParsingUtil) {
 		long sourceLevel = settings == null
@@ -176,6 +180,8 @@ public class CodeFormatterVisitor extends ASTVisitor {
 
 		this.preferences = preferences;
 		this.scribe = new Scribe(this, sourceLevel, offset, length, codeSnippetParsingUtil);
+		this.regionStart = offset;
+		this.regionEnd = offset + length - 1;
 	}
 
 	/**
@@ -760,8 +766,19 @@ public class CodeFormatterVisitor extends ASTVisitor {
 	 * @see org.eclipse.wst.jsdt.core.formatter.CodeFormatter#format(int, String, int, int, int, String)
 	 */
 	public TextEdit format(String string, CompilationUnitDeclaration compilationUnitDeclaration) {
+		return format(string, compilationUnitDeclaration, false);
+	}
+
+	/**
+	 * Formats the given unit. If <code>formatRegionOnly</code> is set, the statements far from the region
+	 * to format are jumped over, and the bodies of the functions which do not intersect the region may be
+	 * left unparsed, see {@link CodeSnippetParsingUtil#parseCompilationUnit(char[], int, int, Map, boolean)}.
+	 * For a unit without syntax errors, the edits of the region are the same as when the whole unit is formatted.
+	 */
+	public TextEdit format(String string, CompilationUnitDeclaration compilationUnitDeclaration, boolean formatRegionOnly) {
 		// reset the scribe
 		this.scribe.reset();
+		this.formatRegionOnly = formatRegionOnly;
 
 		if (compilationUnitDeclaration == null || compilationUnitDeclaration.ignoreFurtherInvestigation) {
 			return failedToFormat();
@@ -1595,7 +1612,7 @@ public class CodeFormatterVisitor extends ASTVisitor {
 	}
 	private void formatStatements(BlockScope scope, final Statement[] statements, boolean insertNewLineAfterLastStatement) {
 		int statementsLength = statements.length;
-		for (int i = 0; i < statementsLength; i++) {
+		for (int i = skipStatements(statements, 0); i < statementsLength; i = skipStatements(statements, i + 1)) {
 			final Statement statement = statements[i];
 			if (i > 0 && (statements[i - 1] instanceof EmptyStatement) && !(statement instanceof EmptyStatement)) {
 				this.scribe.printNewLine();
@@ -1835,6 +1852,42 @@ public class CodeFormatterVisitor extends ASTVisitor {
 		return 0;
 	}
 
+	/*
+	 * Answers the position of the first token of the given statement. The declaration source start of a
+	 * function or a variable may be the one of a javadoc comment found before a previous statement, the
+	 * keyword is the last token before the name.
+	 */
+	private int getStatementStart(ProgramElement statement) {
+		int declarationSourceStart;
+		if (statement instanceof AbstractVariableDeclaration) {
+			declarationSourceStart = ((AbstractVariableDeclaration) statement).declarationSourceStart;
+		} else if (statement instanceof AbstractMethodDeclaration) {
+			declarationSourceStart = ((AbstractMethodDeclaration) statement).declarationSourceStart;
+		} else {
+			return statement.sourceStart;
+		}
+		int start = statement.sourceStart;
+		if (declarationSourceStart < start) {
+			this.localScanner.resetTo(declarationSourceStart, start - 1);
+			try {
+				int token;
+				while ((token = this.localScanner.getNextToken()) != TerminalTokens.TokenNameEOF) {
+					switch(token) {
+						case TerminalTokens.TokenNameCOMMENT_BLOCK :
+						case TerminalTokens.TokenNameCOMMENT_JAVADOC :
+						case TerminalTokens.TokenNameCOMMENT_LINE :
+							break;
+						default:
+							start = this.localScanner.startPosition;
+					}
+				}
+			} catch(InvalidInputException e) {
+				return declarationSourceStart;
+			}
+		}
+		return start;
+	}
+
 	private boolean hasComments() {
 
 		this.localScanner.resetTo(this.scribe.scanner.startPosition, this.scribe.scannerEndPosition - 1);
@@ -1951,6 +2004,88 @@ public class CodeFormatterVisitor extends ASTVisitor {
 		}
 	}
 
+	/*
+	 * Jumps over the statements from the given index which are far from the region to format, answers
+	 * the index of the next statement to format. A statement is formatted if the region intersects the
+	 * source from the start of the previous statement to the start of the next one: the edits of the
+	 * region then do not depend on the statements jumped over. Only the starts of the statements are
+	 * used, the ends of the statements closed by an automatic semicolon are not reliable.
+	 */
+	private int skipStatements(ProgramElement[] statements, int index) {
+		int statementsLength = statements.length;
+		if (!this.formatRegionOnly || index >= statementsLength) {
+			return index;
+		}
+		int start = index == 0 ? this.scribe.scanner.currentPosition : getStatementStart(statements[index - 1]);
+		int closingPosition = -1;
+		int i = index;
+		while (i < statementsLength) {
+			if (start > this.regionEnd) {
+				// the following statements are all after the region
+				closingPosition = getClosingPosition(statements[statementsLength - 1], Integer.MAX_VALUE);
+				if (closingPosition != -1) {
+					i = statementsLength;
+				}
+				break;
+			}
+			if (i < statementsLength - 1) {
+				if (getStatementStart(statements[i + 1]) >= this.regionStart) {
+					break;
+				}
+				start = getStatementStart(statements[i]);
+			} else {
+				// up to the closing brace or the end of the unit
+				closingPosition = getClosingPosition(statements[i], this.regionStart);
+				if (closingPosition == -1 || closingPosition >= this.regionStart) {
+					break;
+				}
+			}
+			i++;
+		}
+		if (i > index) {
+			this.scribe.skipTo(i < statementsLength ? getStatementStart(statements[i]) : closingPosition);
+		}
+		return i;
+	}
+
+	/*
+	 * Answers the position of the closing brace which follows the given last statement of a list, or the
+	 * end of the unit. The search stops with a position greater than the given limit once it is passed,
+	 * answers -1 if the source cannot be scanned.
+	 */
+	private int getClosingPosition(ProgramElement lastStatement, int limit) {
+		this.localScanner.resetTo(getStatementStart(lastStatement), this.scribe.scannerEndPosition - 1);
+		int balance = 0;
+		try {
+			int token;
+			while ((token = this.localScanner.getNextToken()) != TerminalTokens.TokenNameEOF) {
+				if (this.localScanner.startPosition > limit) {
+					return this.localScanner.startPosition;
+				}
+				switch(token) {
+					case TerminalTokens.TokenNameLBRACE :
+					case TerminalTokens.TokenNameLPAREN :
+					case TerminalTokens.TokenNameLBRACKET :
+						balance++;
+						break;
+					case TerminalTokens.TokenNameRBRACE :
+						if (balance == 0) {
+							return this.localScanner.startPosition;
+						}
+						balance--;
+						break;
+					case TerminalTokens.TokenNameRPAREN :
+					case TerminalTokens.TokenNameRBRACKET :
+						balance--;
+						break;
+				}
+			}
+		} catch(InvalidInputException e) {
+			return -1;
+		}
+		return this.scribe.scannerEndPosition;
+	}
+
 	/**
 	 * @see org.eclipse.wst.jsdt.internal.compiler.ASTVisitor#visit(org.eclipse.wst.jsdt.internal.compiler.ast.AllocationExpression, org.eclipse.wst.jsdt.internal.compiler.lookup.BlockScope)
 	 */
@@ -2767,8 +2902,11 @@ public class CodeFormatterVisitor extends ASTVisitor {
 		final ProgramElement[] statements = compilationUnitDeclaration.statements;
 		if (statements != null && statements.length>0) {
 			int statementsLength = statements.length;
-			for (int i = 0; i < statementsLength - 1; i++) {
+			for (int i = skipStatements(statements, 0); i < statementsLength; i = skipStatements(statements, i + 1)) {
 				statements[i].traverse(this, scope);
+				if (i == statementsLength - 1) {
+					break;
+				}
 				this.scribe.printOptionalNextToken(TerminalTokens.TokenNameSEMICOLON, this.preferences.insert_space_before_semicolon);
 				this.scribe.printTrailingComment();
 				if (blankLineBetweenTypeDeclarations != 0) {
@@ -2777,7 +2915,6 @@ public class CodeFormatterVisitor extends ASTVisitor {
 					this.scribe.printNewLine();
 				}
 			}
-			statements[statementsLength - 1].traverse(this, scope);
 		}
 
 
@@ -3885,6 +4022,20 @@ public class CodeFormatterVisitor extends ASTVisitor {
 				if (this.preferences.indent_statements_compare_to_body) {
 					this.scribe.unIndent();
 				}
+			} else if ((methodDeclaration.bits & ASTNode.HasLazyBody) != 0 && !isNextToken(TerminalTokens.TokenNameRBRACE)) {
+				/*
+				 * Body left unparsed as it does not intersect the region to format, its statements
+				 * are jumped over up to the closing brace
+				 */
+				this.scribe.printNewLine();
+				if (this.preferences.indent_statements_compare_to_body) {
+					this.scribe.indent();
+				}
+				this.scribe.skipTo(methodDeclaration.bodyEnd + 1);
+				this.scribe.printComment();
+				if (this.preferences.indent_statements_compare_to_body) {
+					this.scribe.unIndent();
+				}
 			} else if (this.preferences.insert_new_line_in_empty_method_body) {
 				this.scribe.printNewLine();
 				if (this.preferences.indent_statements_compare_to_body) {
@@ -13,9 +13,11 @@ package org.eclipse.wst.jsdt.internal.formatter;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.Position;
+import org.eclipse.text.edits.MalformedTreeException;
 import org.eclipse.text.edits.MultiTextEdit;
 import org.eclipse.text.edits.TextEdit;
 import org.eclipse.wst.jsdt.core.JavaScriptCore;
@@ -39,6 +41,8 @@ import org.eclipse.wst.jsdt.internal.formatter.comment.MultiCommentRegion;
 public class DefaultCodeFormatter extends CodeFormatter {
 
 	public static final boolean DEBUG = false;
+	/* whether a region of a unit is formatted without formatting the statements far from it, see CodeFormatterVisitor#format(String, CompilationUnitDeclaration, boolean) */
+	public static boolean FORMAT_REGION_ONLY = !"false".equals(System.getProperty("org.eclipse.wst.jsdt.core.formatter.formatRegionOnly")); //$NON-NLS-1$ //$NON-NLS-2$
 	private static Scanner ProbingScanner;
 
 	/**
@@ -223,7 +227,11 @@ public class DefaultCodeFormatter extends CodeFormatter {
 	}
 
 	private TextEdit formatCompilationUnit(String source, int indentationLevel, String lineSeparator, int offset, int length) {
-		CompilationUnitDeclaration compilationUnitDeclaration = this.codeSnippetParsingUtil.parseCompilationUnit(source.toCharArray(), getDefaultCompilerOptions(), true);
+		// only the bodies which intersect a region smaller than the unit are parsed
+		boolean formatRegionOnly = FORMAT_REGION_ONLY && (offset > 0 || length < source.length());
+		CompilationUnitDeclaration compilationUnitDeclaration = formatRegionOnly
+			? this.codeSnippetParsingUtil.parseCompilationUnit(source.toCharArray(), offset, length, getDefaultCompilerOptions(), true)
+			: this.codeSnippetParsingUtil.parseCompilationUnit(source.toCharArray(), getDefaultCompilerOptions(), true);
 
 		if (lineSeparator != null) {
 			this.preferences.line_separator = lineSeparator;
@@ -234,7 +242,43 @@ public class DefaultCodeFormatter extends CodeFormatter {
 
 		this.newCodeFormatter = new CodeFormatterVisitor(this.preferences, this.options, offset, length, this.codeSnippetParsingUtil);
 
-		return this.newCodeFormatter.format(source, compilationUnitDeclaration);
+		TextEdit edit = this.newCodeFormatter.format(source, compilationUnitDeclaration, formatRegionOnly);
+		if (DEBUG && formatRegionOnly && edit != null) {
+			checkRegionEdit(source, offset, length, edit);
+		}
+		return edit;
+	}
+
+	/*
+	 * Checks that the given edit of a region formatted without the statements far from it formats
+	 * the source as the edit of the region computed with the whole unit does.
+	 */
+	private void checkRegionEdit(String source, int offset, int length, TextEdit regionEdit) {
+		CodeSnippetParsingUtil parsingUtil = new CodeSnippetParsingUtil();
+		CompilationUnitDeclaration compilationUnitDeclaration = parsingUtil.parseCompilationUnit(source.toCharArray(), getDefaultCompilerOptions(), true);
+		TextEdit unitEdit = new CodeFormatterVisitor(this.preferences, this.options, offset, length, parsingUtil).format(source, compilationUnitDeclaration, false);
+		if (unitEdit == null) {
+			System.out.println("Region " + offset + '+' + length + " formatted, the unit cannot be formatted"); //$NON-NLS-1$ //$NON-NLS-2$
+			return;
+		}
+		Document regionDocument = new Document(source);
+		Document unitDocument = new Document(source);
+		try {
+			regionEdit.copy().apply(regionDocument, TextEdit.NONE);
+			unitEdit.apply(unitDocument, TextEdit.NONE);
+		} catch (MalformedTreeException e) {
+			e.printStackTrace();
+			return;
+		} catch (BadLocationException e) {
+			e.printStackTrace();
+			return;
+		}
+		if (!regionDocument.get().equals(unitDocument.get())) {
+			System.out.println("Region " + offset + '+' + length + " not formatted as in the unit:"); //$NON-NLS-1$ //$NON-NLS-2$
+			System.out.println(regionDocument.get());
+			System.out.println("instead of:"); //$NON-NLS-1$
+			System.out.println(unitDocument.get());
+		}
 	}
 
 	private TextEdit formatExpression(String source, int indentationLevel, String lineSeparator, int offset, int length) {
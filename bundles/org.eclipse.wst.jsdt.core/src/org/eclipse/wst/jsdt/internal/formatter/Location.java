@@ -34,7 +34,10 @@ public class Location {
 
 	// edits management
 	int editsIndex;
-	OptimizedReplaceEdit textEdit;
+	int editOffset;
+	int editLength;
+	int editReplacementStart;
+	int editReplacementLength;
 
 	public Location(Scribe scribe, int sourceRestart){
 		update(scribe, sourceRestart);
@@ -53,6 +56,6 @@ public class Location {
 		this.editsIndex = scribe.editsIndex;
 		this.nlsTagCounter = scribe.nlsTagCounter;
 		this.numberOfIndentations = scribe.numberOfIndentations;
-		textEdit = scribe.getLastEdit();
+		scribe.saveLastEdit(this);
 	}
 }
@@ -43,9 +43,15 @@ public class Scribe {
 	public Alignment currentAlignment;
 	public int currentToken;
 
-	// edits management
-	private OptimizedReplaceEdit[] edits;
+	// edits management, the replacements of the edits are slices of a single array
+	private int[] editOffsets;
+	private int[] editLengths;
+	private int[] editReplacementStarts;
+	private int[] editReplacementLengths;
 	public int editsIndex;
+	private char[] replacements;
+	private int replacementsEnd;
+	private final StringBuffer indentationBuffer = new StringBuffer();
 
 	public CodeFormatterVisitor formatter;
 	public int indentationLevel;
@@ -109,109 +115,188 @@ public class Scribe {
 	}
 
 	private final void addDeleteEdit(int start, int end) {
-		if (this.edits.length == this.editsIndex) {
+		if (this.editOffsets.length == this.editsIndex) {
 			// resize
 			resize();
 		}
-		addOptimizedReplaceEdit(start, end - start + 1, Util.EMPTY_STRING);
+		addOptimizedReplaceEdit(start, end - start + 1, this.replacementsEnd, 0);
 	}
 
 	public final void addInsertEdit(int insertPosition, String insertedString) {
-		if (this.edits.length == this.editsIndex) {
+		if (this.editOffsets.length == this.editsIndex) {
 			// resize
 			resize();
 		}
-		addOptimizedReplaceEdit(insertPosition, 0, insertedString);
+		final int replacementStart = this.replacementsEnd;
+		addOptimizedReplaceEdit(insertPosition, 0, replacementStart, appendReplacement(insertedString));
 	}
 
-	private final void addOptimizedReplaceEdit(int offset, int length, String replacement) {
+	private final void addInsertEdit(int insertPosition, StringBuffer insertedString) {
+		if (this.editOffsets.length == this.editsIndex) {
+			// resize
+			resize();
+		}
+		final int replacementStart = this.replacementsEnd;
+		addOptimizedReplaceEdit(insertPosition, 0, replacementStart, appendReplacement(insertedString));
+	}
+
+	/*
+	 * Records the given edit, whose replacement was just appended to the replacements, merging it with
+	 * the last edit if possible. The replacements are never overwritten, the replacement of a merged edit
+	 * is appended as well unless it directly follows the replacement of the last edit.
+	 */
+	private final void addOptimizedReplaceEdit(int offset, int length, int replacementStart, int replacementLength) {
 		if (this.editsIndex > 0) {
 			// try to merge last two edits
-			final OptimizedReplaceEdit previous = this.edits[this.editsIndex-1];
-			final int previousOffset = previous.offset;
-			final int previousLength = previous.length;
+			final int previousIndex = this.editsIndex - 1;
+			final int previousOffset = this.editOffsets[previousIndex];
+			final int previousLength = this.editLengths[previousIndex];
 			final int endOffsetOfPreviousEdit = previousOffset + previousLength;
-			final int replacementLength = replacement.length();
-			final String previousReplacement = previous.replacement;
-			final int previousReplacementLength = previousReplacement.length();
+			final int previousReplacementStart = this.editReplacementStarts[previousIndex];
+			final int previousReplacementLength = this.editReplacementLengths[previousIndex];
 			if (previousOffset == offset && previousLength == length && (replacementLength == 0 || previousReplacementLength == 0)) {
-				if (this.currentAlignment != null) {
-					final Location location = this.currentAlignment.location;
-					if (location.editsIndex == this.editsIndex) {
-						location.editsIndex--;
-						location.textEdit = previous;
-					}
-				}
-				this.editsIndex--;
+				removeLastEdit();
+				this.replacementsEnd = replacementStart;
 				return;
 			}
 			if (endOffsetOfPreviousEdit == offset) {
 				if (length != 0) {
 					if (replacementLength != 0) {
-						this.edits[this.editsIndex - 1] = new OptimizedReplaceEdit(previousOffset, previousLength + length, previousReplacement + replacement);
+						this.editLengths[previousIndex] = previousLength + length;
+						this.editReplacementStarts[previousIndex] = concatenateReplacements(previousReplacementStart, previousReplacementLength, replacementStart, replacementLength);
+						this.editReplacementLengths[previousIndex] = previousReplacementLength + replacementLength;
 					} else if (previousLength + length == previousReplacementLength) {
 						// check the characters. If they are identical, we can get rid of the previous edit
-						boolean canBeRemoved = true;
-						loop: for (int i = previousOffset; i < previousOffset + previousReplacementLength; i++) {
-							if (scanner.source[i] != previousReplacement.charAt(i - previousOffset)) {
-								this.edits[this.editsIndex - 1] = new OptimizedReplaceEdit(previousOffset, previousReplacementLength, previousReplacement);
-								canBeRemoved = false;
-								break loop;
-							}
-						}
-						if (canBeRemoved) {
-							if (this.currentAlignment != null) {
-								final Location location = this.currentAlignment.location;
-								if (location.editsIndex == this.editsIndex) {
-									location.editsIndex--;
-									location.textEdit = previous;
-								}
-							}
-							this.editsIndex--;
+						if (isSourceReplacement(previousOffset, previousReplacementStart, previousReplacementLength)) {
+							removeLastEdit();
+						} else {
+							this.editLengths[previousIndex] = previousReplacementLength;
 						}
 					} else {
-						this.edits[this.editsIndex - 1] = new OptimizedReplaceEdit(previousOffset, previousLength + length, previousReplacement);
+						this.editLengths[previousIndex] = previousLength + length;
 					}
 				} else {
 					if (replacementLength != 0) {
-						this.edits[this.editsIndex - 1] = new OptimizedReplaceEdit(previousOffset, previousLength, previousReplacement + replacement);
+						this.editReplacementStarts[previousIndex] = concatenateReplacements(previousReplacementStart, previousReplacementLength, replacementStart, replacementLength);
+						this.editReplacementLengths[previousIndex] = previousReplacementLength + replacementLength;
 					}
 				}
 			} else if ((offset + length == previousOffset) && (previousLength + length == replacementLength + previousReplacementLength)) {
 				// check if both edits corresponds to the orignal source code
-				boolean canBeRemoved = true;
-				String totalReplacement = replacement + previousReplacement;
-				loop: for (int i = 0; i < previousLength + length; i++) {
-					if (scanner.source[i + offset] != totalReplacement.charAt(i)) {
-						this.edits[this.editsIndex - 1] = new OptimizedReplaceEdit(offset, previousLength + length, totalReplacement);
-						canBeRemoved = false;
-						break loop;
-					}
-				}
-				if (canBeRemoved) {
-					if (this.currentAlignment != null) {
-						final Location location = this.currentAlignment.location;
-						if (location.editsIndex == this.editsIndex) {
-							location.editsIndex--;
-							location.textEdit = previous;
-						}
-					}
-					this.editsIndex--;
+				final int totalReplacementStart = concatenateReplacements(replacementStart, replacementLength, previousReplacementStart, previousReplacementLength);
+				if (isSourceReplacement(offset, totalReplacementStart, previousLength + length)) {
+					removeLastEdit();
+					this.replacementsEnd = replacementStart;
+				} else {
+					this.editOffsets[previousIndex] = offset;
+					this.editLengths[previousIndex] = previousLength + length;
+					this.editReplacementStarts[previousIndex] = totalReplacementStart;
+					this.editReplacementLengths[previousIndex] = previousLength + length;
 				}
 			} else {
-				this.edits[this.editsIndex++] = new OptimizedReplaceEdit(offset, length, replacement);
+				addEdit(offset, length, replacementStart, replacementLength);
 			}
 		} else {
-			this.edits[this.editsIndex++] = new OptimizedReplaceEdit(offset, length, replacement);
+			addEdit(offset, length, replacementStart, replacementLength);
 		}
 	}
 
 	public final void addReplaceEdit(int start, int end, String replacement) {
-		if (this.edits.length == this.editsIndex) {
+		if (this.editOffsets.length == this.editsIndex) {
 			// resize
 			resize();
 		}
-		addOptimizedReplaceEdit(start,  end - start + 1, replacement);
+		final int replacementStart = this.replacementsEnd;
+		addOptimizedReplaceEdit(start,  end - start + 1, replacementStart, appendReplacement(replacement));
+	}
+
+	private final void addReplaceEdit(int start, int end, StringBuffer replacement) {
+		if (this.editOffsets.length == this.editsIndex) {
+			// resize
+			resize();
+		}
+		final int replacementStart = this.replacementsEnd;
+		addOptimizedReplaceEdit(start,  end - start + 1, replacementStart, appendReplacement(replacement));
+	}
+
+	private void addEdit(int offset, int length, int replacementStart, int replacementLength) {
+		final int index = this.editsIndex++;
+		this.editOffsets[index] = offset;
+		this.editLengths[index] = length;
+		this.editReplacementStarts[index] = replacementStart;
+		this.editReplacementLengths[index] = replacementLength;
+	}
+
+	private void removeLastEdit() {
+		if (this.currentAlignment != null) {
+			final Location location = this.currentAlignment.location;
+			if (location.editsIndex == this.editsIndex) {
+				location.editsIndex--;
+				saveLastEdit(location);
+			}
+		}
+		this.editsIndex--;
+	}
+
+	/*
+	 * Appends the given replacement to the replacements, answers its length.
+	 */
+	private int appendReplacement(String replacement) {
+		final int length = replacement.length();
+		if (length != 0) {
+			ensureReplacementsCapacity(length);
+			replacement.getChars(0, length, this.replacements, this.replacementsEnd);
+			this.replacementsEnd += length;
+		}
+		return length;
+	}
+
+	private int appendReplacement(StringBuffer replacement) {
+		final int length = replacement.length();
+		if (length != 0) {
+			ensureReplacementsCapacity(length);
+			replacement.getChars(0, length, this.replacements, this.replacementsEnd);
+			this.replacementsEnd += length;
+		}
+		return length;
+	}
+
+	/*
+	 * Answers the start of a replacement made of the two given ones.
+	 */
+	private int concatenateReplacements(int start1, int length1, int start2, int length2) {
+		if (length2 == 0 || start1 + length1 == start2) {
+			return start1;
+		}
+		if (length1 == 0) {
+			return start2;
+		}
+		ensureReplacementsCapacity(length1 + length2);
+		final int start = this.replacementsEnd;
+		System.arraycopy(this.replacements, start1, this.replacements, start, length1);
+		System.arraycopy(this.replacements, start2, this.replacements, start + length1, length2);
+		this.replacementsEnd += length1 + length2;
+		return start;
+	}
+
+	private void ensureReplacementsCapacity(int length) {
+		final int capacity = this.replacements.length;
+		if (this.replacementsEnd + length > capacity) {
+			System.arraycopy(this.replacements, 0, (this.replacements = new char[Math.max(capacity * 2, this.replacementsEnd + length)]), 0, this.replacementsEnd);
+		}
+	}
+
+	/*
+	 * Answers whether the given replacement is the source it replaces.
+	 */
+	private boolean isSourceReplacement(int offset, int replacementStart, int length) {
+		final char[] source = this.scanner.source;
+		for (int i = 0; i < length; i++) {
+			if (source[offset + i] != this.replacements[replacementStart + i]) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	public void alignFragment(Alignment alignment, int fragmentIndex){
@@ -487,11 +572,17 @@ public class Scribe {
 		return String.valueOf(buffer);
 	}
 
-	public OptimizedReplaceEdit getLastEdit() {
+	/*
+	 * Remembers the last edit in the given location, see resetAt(Location).
+	 */
+	void saveLastEdit(Location location) {
 		if (this.editsIndex > 0) {
-			return this.edits[this.editsIndex - 1];
+			final int index = this.editsIndex - 1;
+			location.editOffset = this.editOffsets[index];
+			location.editLength = this.editLengths[index];
+			location.editReplacementStart = this.editReplacementStarts[index];
+			location.editReplacementLength = this.editReplacementLengths[index];
 		}
-		return null;
 	}
 
 	public final int getLineEnd(int lineNumber) {
@@ -569,12 +660,15 @@ public class Scribe {
 			edit = new MultiTextEdit(this.textRegionStart, this.textRegionEnd - this.textRegionStart + 1);
 		}
 		for (int i= 0, max = this.editsIndex; i < max; i++) {
-			OptimizedReplaceEdit currentEdit = edits[i];
-			if (isValidEdit(currentEdit)) {
-				edit.addChild(new ReplaceEdit(currentEdit.offset, currentEdit.length, currentEdit.replacement));
+			if (isValidEdit(i)) {
+				edit.addChild(new ReplaceEdit(this.editOffsets[i], this.editLengths[i], new String(this.replacements, this.editReplacementStarts[i], this.editReplacementLengths[i])));
 			}
 		}
-		this.edits = null;
+		this.editOffsets = null;
+		this.editLengths = null;
+		this.editReplacementStarts = null;
+		this.editReplacementLengths = null;
+		this.replacements = null;
 		return edit;
 	}
 
@@ -646,7 +740,12 @@ public class Scribe {
 		this.scanner.setSource(compilationUnitSource);
 		this.scannerEndPosition = compilationUnitSource.length;
 		this.scanner.resetTo(0, this.scannerEndPosition - 1);
-		this.edits = new OptimizedReplaceEdit[INITIAL_SIZE];
+		this.editOffsets = new int[INITIAL_SIZE];
+		this.editLengths = new int[INITIAL_SIZE];
+		this.editReplacementStarts = new int[INITIAL_SIZE];
+		this.editReplacementLengths = new int[INITIAL_SIZE];
+		this.replacements = new char[INITIAL_SIZE * 10];
+		this.replacementsEnd = 0;
 	}
 
 	private boolean isOnFirstColumn(int start) {
@@ -657,22 +756,18 @@ public class Scribe {
 		return previousLineEnd != -1 && previousLineEnd == start - 1;
 	}
 
-	private boolean isValidEdit(OptimizedReplaceEdit edit) {
-		final int editLength= edit.length;
-		final int editReplacementLength= edit.replacement.length();
-		final int editOffset= edit.offset;
+	private boolean isValidEdit(int index) {
+		final int editLength= this.editLengths[index];
+		final int editReplacementStart= this.editReplacementStarts[index];
+		final int editReplacementLength= this.editReplacementLengths[index];
+		final int editOffset= this.editOffsets[index];
 		if (editLength != 0) {
 			/* if edit is completely inside selected range
 			 * else if edit is spanning the beginning of the selected range
 			 */
 			if (this.textRegionStart <= editOffset && (editOffset + editLength - 1) <= this.textRegionEnd) {
 				if (editReplacementLength != 0 && editLength == editReplacementLength) {
-					for (int i = editOffset, max = editOffset + editLength; i < max; i++) {
-						if (scanner.source[i] != edit.replacement.charAt(i - editOffset)) {
-							return true;
-						}
-					}
-					return false;
+					return !isSourceReplacement(editOffset, editReplacementStart, editLength);
 				} else {
 					return true;
 				}
@@ -680,14 +775,15 @@ public class Scribe {
 				int i = editOffset;
 				for (int max = editOffset + editLength; i < max; i++) {
 					int replacementStringIndex = i - editOffset;
-					if (replacementStringIndex >= editReplacementLength || scanner.source[i] != edit.replacement.charAt(replacementStringIndex)) {
+					if (replacementStringIndex >= editReplacementLength || scanner.source[i] != this.replacements[editReplacementStart + replacementStringIndex]) {
 						break;
 					}
 				}
 				if (i - editOffset != editReplacementLength && i != editOffset + editLength - 1) {
-					edit.offset = textRegionStart;
-					edit.length = 0;
-					edit.replacement = edit.replacement.substring(i - editOffset);
+					this.editOffsets[index] = textRegionStart;
+					this.editLengths[index] = 0;
+					this.editReplacementStarts[index] = editReplacementStart + i - editOffset;
+					this.editReplacementLengths[index] = editReplacementLength - (i - editOffset);
 					return true;
 				}
 			}
@@ -852,7 +948,7 @@ public class Scribe {
 								this.scanner.currentPosition = nextCharacterStart;
 							}
 						}
-						addReplaceEdit(start, previousStart - 1, String.valueOf(buffer));
+						addReplaceEdit(start, previousStart - 1, buffer);
 					} else {
 						this.column += (nextCharacterStart - previousStart);
 					}
@@ -1171,10 +1267,11 @@ public class Scribe {
 	}
 
 	void printIndentationIfNecessary() {
-		StringBuffer buffer = new StringBuffer();
+		StringBuffer buffer = this.indentationBuffer;
+		buffer.setLength(0);
 		printIndentationIfNecessary(buffer);
 		if (buffer.length() > 0) {
-			addInsertEdit(this.scanner.getCurrentTokenStartPosition(), buffer.toString());
+			addInsertEdit(this.scanner.getCurrentTokenStartPosition(), buffer);
 			this.pendingSpace = false;
 		}
 	}
@@ -1348,6 +1445,27 @@ public class Scribe {
 		}
 	}
 
+	/**
+	 * Resumes the formatting at the given position, at the beginning of a new line. The source in
+	 * between is left as is. The indentation of the source jumped over is printed first: the whitespace
+	 * already scanned before it may be in the region to format, and is then indented as if this source
+	 * was formatted.
+	 */
+	public void skipTo(int position) {
+		StringBuffer buffer = this.indentationBuffer;
+		buffer.setLength(0);
+		printIndentationIfNecessary(buffer);
+		if (buffer.length() > 0) {
+			addInsertEdit(this.scanner.currentPosition, buffer);
+		}
+		this.scanner.resetTo(position, this.scannerEndPosition - 1, TerminalTokens.TokenNameSEMICOLON, TerminalTokens.TokenNameSEMICOLON);
+		this.line++;
+		this.lastNumberOfNewLines = 1;
+		this.column = 1;
+		this.needSpace = false;
+		this.pendingSpace = false;
+	}
+
 	public void printNewLine() {
 		if (this.nlsTagCounter > 0) {
 			return;
@@ -1749,13 +1867,21 @@ public class Scribe {
 		this.editsIndex = location.editsIndex;
 		this.nlsTagCounter = location.nlsTagCounter;
 		if (this.editsIndex > 0) {
-			this.edits[this.editsIndex - 1] = location.textEdit;
+			final int index = this.editsIndex - 1;
+			this.editOffsets[index] = location.editOffset;
+			this.editLengths[index] = location.editLength;
+			this.editReplacementStarts[index] = location.editReplacementStart;
+			this.editReplacementLengths[index] = location.editReplacementLength;
 		}
 		this.formatter.lastLocalDeclarationSourceStart = location.lastLocalDeclarationSourceStart;
 	}
 
 	private void resize() {
-		System.arraycopy(this.edits, 0, (this.edits = new OptimizedReplaceEdit[this.editsIndex * 2]), 0, this.editsIndex);
+		final int length = this.editsIndex;
+		System.arraycopy(this.editOffsets, 0, (this.editOffsets = new int[length * 2]), 0, length);
+		System.arraycopy(this.editLengths, 0, (this.editLengths = new int[length * 2]), 0, length);
+		System.arraycopy(this.editReplacementStarts, 0, (this.editReplacementStarts = new int[length * 2]), 0, length);
+		System.arraycopy(this.editReplacementLengths, 0, (this.editReplacementLengths = new int[length * 2]), 0, length);
 	}
 
 	public void space() {